@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.benchmark;
+
+import com.hazelcast.core.IMap;
+import com.hazelcast.jet.Jet;
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.Pipeline;
+import com.hazelcast.jet.Sinks;
+import com.hazelcast.jet.Sources;
+import com.hazelcast.jet.config.JetConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
+
+/**
+ * End-to-end throughput of a grouping pipeline on a cluster of members
+ * running in this JVM: it reads an {@code IMap}, counts the entries per
+ * key and writes the counts to another {@code IMap}. Includes the job
+ * submission and completion overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PipelineThroughputBenchmark {
+
+    private static final int ITEM_COUNT = 1_000_000;
+    private static final int KEY_COUNT = 1000;
+    private static final String SOURCE = "source";
+    private static final String SINK = "sink";
+
+    @Param({"2"})
+    public int memberCount;
+
+    private JetInstance jet;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        JetConfig config = new JetConfig();
+        for (int i = 0; i < memberCount; i++) {
+            jet = Jet.newJetInstance(config);
+        }
+        Map<Integer, Integer> items = new HashMap<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.put(i, i);
+        }
+        jet.getMap(SOURCE).putAll(items);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Jet.shutdownAll();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEM_COUNT)
+    public int groupAndCount() {
+        IMap<Integer, Long> sink = jet.getMap(SINK);
+        sink.clear();
+        Pipeline p = Pipeline.create();
+        p.drawFrom(Sources.<Integer, Integer>map(SOURCE))
+         .groupBy(e -> e.getKey() % KEY_COUNT, counting())
+         .drainTo(Sinks.map(SINK));
+        jet.newJob(p).join();
+        return sink.size();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.core.processor;
+
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.Watermark;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.jet.impl.util.ArrayDequeInbox;
+import com.hazelcast.jet.impl.util.ProgressTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
+import static com.hazelcast.jet.core.TimestampKind.EVENT;
+import static com.hazelcast.jet.core.WindowDefinition.slidingWindowDef;
+import static com.hazelcast.jet.core.processor.Processors.aggregateToSlidingWindowP;
+
+/**
+ * Measures the single-stage sliding window processor: each invocation
+ * processes a batch of events with increasing timestamps, followed by a
+ * watermark that closes all the windows the batch completed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlidingWindowPBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+    private static final int WINDOW_SIZE = 1000;
+    private static final int SLIDE_BY = 100;
+
+    @Param({"1", "1024"})
+    public int keyCount;
+
+    private Processor processor;
+    private TestOutbox outbox;
+    private ArrayDequeInbox inbox;
+    private long timestamp;
+
+    @Setup
+    public void setup() {
+        int keys = keyCount;
+        processor = aggregateToSlidingWindowP(
+                (Long t) -> t % keys, (Long t) -> t, EVENT, slidingWindowDef(WINDOW_SIZE, SLIDE_BY), counting()
+        ).get();
+        outbox = new TestOutbox(BATCH_SIZE);
+        inbox = new ArrayDequeInbox(new ProgressTracker());
+        processor.init(outbox, new TestProcessorContext());
+        timestamp = 0;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void processBatchAndWatermark() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            inbox.add(timestamp++);
+        }
+        processor.process(0, inbox);
+        Watermark wm = new Watermark(timestamp);
+        Queue<Object> output = outbox.queue(0);
+        while (!processor.tryProcessWatermark(wm)) {
+            output.clear();
+        }
+        output.clear();
+    }
+}
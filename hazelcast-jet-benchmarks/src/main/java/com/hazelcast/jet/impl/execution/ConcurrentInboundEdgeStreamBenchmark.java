@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.internal.util.concurrent.ConcurrentConveyor;
+import com.hazelcast.internal.util.concurrent.OneToOneConcurrentArrayQueue;
+import com.hazelcast.internal.util.concurrent.QueuedPipe;
+import com.hazelcast.jet.impl.util.ArrayDequeInbox;
+import com.hazelcast.jet.impl.util.ProgressTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.hazelcast.internal.util.concurrent.ConcurrentConveyor.concurrentConveyor;
+
+/**
+ * Measures {@link ConcurrentInboundEdgeStream#drainTo} over a conveyor
+ * with the given number of producer queues. The queues are refilled by
+ * the benchmark thread before each drain, so the numbers include the
+ * cost of {@code offer()} on the 1-to-1 queues, but no cross-core
+ * traffic.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentInboundEdgeStreamBenchmark {
+
+    private static final int ITEMS_PER_INVOCATION = 8192;
+
+    @Param({"1", "8"})
+    public int queueCount;
+
+    private final Object item = "item";
+    private final ArrayDequeInbox inbox = new ArrayDequeInbox(new ProgressTracker());
+    private final Consumer<Object> addToInbox = inbox::add;
+    private QueuedPipe<Object>[] queues;
+    private ConcurrentInboundEdgeStream stream;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        queues = new QueuedPipe[queueCount];
+        Arrays.setAll(queues, i -> new OneToOneConcurrentArrayQueue<>(ITEMS_PER_INVOCATION / queueCount));
+        ConcurrentConveyor<Object> conveyor = concurrentConveyor(null, queues);
+        stream = new ConcurrentInboundEdgeStream(conveyor, 0, 0, -1, false, -1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS_PER_INVOCATION)
+    public int fillAndDrain() {
+        for (QueuedPipe<Object> q : queues) {
+            for (int i = 0; i < ITEMS_PER_INVOCATION / queueCount; i++) {
+                q.offer(item);
+            }
+        }
+        int drained = 0;
+        while (drained < ITEMS_PER_INVOCATION) {
+            stream.drainTo(addToInbox);
+            drained += inbox.size();
+            inbox.clear();
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.impl.util.ProgressTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.jet.impl.util.ProgressState.DONE;
+
+/**
+ * Measures the cost of {@link OutboxImpl#offer(Object)} alone: the
+ * collectors accept every item without doing any work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutboxBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    @Param({"1", "4"})
+    public int edgeCount;
+
+    private final Object item = "item";
+    private OutboxImpl outbox;
+
+    @Setup
+    public void setup() {
+        OutboundCollector[] collectors = new OutboundCollector[edgeCount];
+        Arrays.setAll(collectors, i -> x -> DONE);
+        outbox = new OutboxImpl(collectors, false, new ProgressTracker(), null, BATCH_SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public boolean offer() {
+        outbox.reset();
+        boolean accepted = true;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            accepted &= outbox.offer(item);
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public boolean offerToOrdinal() {
+        outbox.reset();
+        boolean accepted = true;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            accepted &= outbox.offer(i % edgeCount, item);
+        }
+        return accepted;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.BufferObjectDataOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.jet.impl.util.ProgressState.DONE;
+
+/**
+ * Measures the serialization hot path of a distributed edge. {@link
+ * SenderTasklet} needs a live member connection, so {@link #encode()}
+ * writes the same packet body it writes: the item count followed by
+ * {@code (item, partitionId)} pairs. {@link #decode()} feeds such a packet
+ * to a {@link ReceiverTasklet} whose collector accepts every item.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReceiverTaskletBenchmark {
+
+    private static final int ITEMS_PER_PACKET = 1024;
+
+    private final InternalSerializationService serService = new DefaultSerializationServiceBuilder().build();
+    private final BufferObjectDataOutput out = serService.createObjectDataOutput();
+    private final Long[] items = new Long[ITEMS_PER_PACKET];
+
+    private byte[] packet;
+    private ReceiverTasklet receiver;
+    private long receivedCount;
+
+    @Setup
+    public void setup() throws IOException {
+        for (int i = 0; i < ITEMS_PER_PACKET; i++) {
+            items[i] = (long) i;
+        }
+        packet = encode();
+        receiver = new ReceiverTasklet(item -> {
+            receivedCount++;
+            return DONE;
+        }, 3, 100);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS_PER_PACKET)
+    public byte[] encode() throws IOException {
+        out.clear();
+        out.writeInt(ITEMS_PER_PACKET);
+        for (int i = 0; i < ITEMS_PER_PACKET; i++) {
+            out.writeObject(items[i]);
+            out.writeInt(i);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS_PER_PACKET)
+    public long decode() {
+        receiver.receiveStreamPacket(serService.createObjectDataInput(packet));
+        receiver.call();
+        return receivedCount;
+    }
+}
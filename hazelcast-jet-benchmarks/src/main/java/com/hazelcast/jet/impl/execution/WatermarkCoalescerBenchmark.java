@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link WatermarkCoalescer} as used by the processor tasklet: an
+ * event followed by a watermark on each input queue in turn, with and
+ * without the watermark history enabled by {@code maxWatermarkRetainMillis}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WatermarkCoalescerBenchmark {
+
+    private static final int ROUNDS_PER_INVOCATION = 256;
+
+    @Param({"2", "16"})
+    public int queueCount;
+
+    @Param({"-1", "100"})
+    public int maxWatermarkRetainMillis;
+
+    private WatermarkCoalescer coalescer;
+    private long wm;
+
+    @Setup
+    public void setup() {
+        coalescer = WatermarkCoalescer.create(maxWatermarkRetainMillis, queueCount);
+        wm = 0;
+    }
+
+    /**
+     * One operation is one round over all the queues.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS_PER_INVOCATION)
+    public long observeEventsAndWms() {
+        long result = 0;
+        for (int round = 0; round < ROUNDS_PER_INVOCATION; round++) {
+            long now = System.nanoTime();
+            wm++;
+            for (int i = 0; i < queueCount; i++) {
+                coalescer.observeEvent(i);
+                result += coalescer.observeWm(now, i, wm);
+            }
+            result += coalescer.checkWmHistory(now);
+        }
+        return result;
+    }
+}
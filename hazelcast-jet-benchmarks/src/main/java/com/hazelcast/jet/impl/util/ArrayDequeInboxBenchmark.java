@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures filling the {@link ArrayDequeInbox} and taking the items out
+ * the two ways processors do it: by polling and by draining.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrayDequeInboxBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private final Object item = "item";
+    private final ArrayDequeInbox inbox = new ArrayDequeInbox(new ProgressTracker());
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void addAndPoll(Blackhole bh) {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            inbox.add(item);
+        }
+        for (Object o; (o = inbox.poll()) != null; ) {
+            bh.consume(o);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void addAndDrain(Blackhole bh) {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            inbox.add(item);
+        }
+        inbox.drain(bh::consume);
+    }
+}
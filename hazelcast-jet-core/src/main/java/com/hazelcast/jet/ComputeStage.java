@@ -17,12 +17,17 @@
 package com.hazelcast.jet;
 
 import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.WatermarkGenerationParams;
+import com.hazelcast.jet.core.WindowDefinition;
 import com.hazelcast.jet.aggregate.AggregateOperation1;
 import com.hazelcast.jet.aggregate.AggregateOperation2;
 import com.hazelcast.jet.aggregate.AggregateOperation3;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.function.DistributedPredicate;
 import com.hazelcast.jet.function.DistributedSupplier;
+import com.hazelcast.jet.function.DistributedToLongFunction;
+import com.hazelcast.jet.datamodel.Session;
+import com.hazelcast.jet.datamodel.TimestampedEntry;
 import com.hazelcast.jet.datamodel.Tuple2;
 import com.hazelcast.jet.datamodel.Tuple3;
 
@@ -103,6 +108,83 @@ public interface ComputeStage<E> extends Stage {
             @Nonnull AggregateOperation1<? super E, A, R> aggrOp
     );
 
+    /**
+     * Attaches to this stage a stage that inserts {@link
+     * com.hazelcast.jet.core.Watermark watermarks} into the stream, as
+     * determined by the supplied watermark generation parameters. The
+     * watermarks drive the emission of results from the downstream {@link
+     * #window window} and {@link #sessionWindow sessionWindow} stages. The
+     * stage drops the items that are late with respect to an already emitted
+     * watermark.
+     *
+     * @param wmGenParams the parameters of watermark generation
+     */
+    @Nonnull
+    ComputeStage<E> insertWatermarks(@Nonnull WatermarkGenerationParams<E> wmGenParams);
+
+    /**
+     * Attaches to this stage a sliding window aggregation stage, one which
+     * groups the received items by the grouping key and by the window
+     * position determined from the item's timestamp. It applies the provided
+     * aggregate operation to the items in each group and emits one {@link
+     * TimestampedEntry} per key and window position, labeled with the
+     * timestamp of the window's end.
+     * <p>
+     * The stage emits the result of a window when a {@link
+     * #insertWatermarks watermark} passes its end, and all the pending
+     * windows when the input is exhausted. It is computed in two stages: the
+     * first one pre-aggregates the items into frames locally on each member
+     * and only the frames are sent over the network to the member that owns
+     * the grouping key. Therefore the aggregate operation must provide the
+     * {@link AggregateOperation1#combineFn() combine} primitive. If it also
+     * provides the {@link AggregateOperation1#deductFn() deduct} primitive,
+     * each window is computed from the previous one by adding the leading
+     * and deducting the trailing frame.
+     *
+     * @param wDef the definition of the window
+     * @param timestampFn the function that extracts the event timestamp from an item
+     * @param keyFn the function that extracts the grouping key from an item
+     * @param aggrOp the aggregate operation to perform
+     * @param <K> the type of key
+     * @param <A> the type of the accumulator
+     * @param <R> the type of the aggregation result
+     */
+    @Nonnull
+    <K, A, R> ComputeStage<TimestampedEntry<K, R>> window(
+            @Nonnull WindowDefinition wDef,
+            @Nonnull DistributedToLongFunction<? super E> timestampFn,
+            @Nonnull DistributedFunction<? super E, ? extends K> keyFn,
+            @Nonnull AggregateOperation1<? super E, A, R> aggrOp
+    );
+
+    /**
+     * Attaches to this stage a session window aggregation stage, one which
+     * groups the received items by the grouping key and into session windows.
+     * A session window under a given key contains items whose timestamps
+     * are less than {@code sessionTimeout} apart. The stage applies the
+     * provided aggregate operation to the items in each session and emits
+     * one {@link Session} per session window.
+     * <p>
+     * The stage emits a session when a {@link #insertWatermarks watermark}
+     * passes its end, and all the pending sessions when the input is
+     * exhausted.
+     *
+     * @param sessionTimeout the maximum gap between consecutive items in a session
+     * @param timestampFn the function that extracts the event timestamp from an item
+     * @param keyFn the function that extracts the grouping key from an item
+     * @param aggrOp the aggregate operation to perform
+     * @param <K> the type of key
+     * @param <A> the type of the accumulator
+     * @param <R> the type of the aggregation result
+     */
+    @Nonnull
+    <K, A, R> ComputeStage<Session<K, R>> sessionWindow(
+            long sessionTimeout,
+            @Nonnull DistributedToLongFunction<? super E> timestampFn,
+            @Nonnull DistributedFunction<? super E, ? extends K> keyFn,
+            @Nonnull AggregateOperation1<? super E, A, R> aggrOp
+    );
+
     /**
      * Attaches to both this and the supplied stage a hash-joining stage and
      * returns it. This stage plays the role of the <em>primary stage</em> in
@@ -23,6 +23,7 @@ import com.hazelcast.jet.impl.util.Util;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -66,6 +67,34 @@ public interface Job {
     @Nonnull
     JobStatus getStatus();
 
+    /**
+     * Returns a snapshot of the execution metrics of the job's current
+     * execution, collected from all cluster members. Returns an empty map if
+     * the job isn't running.
+     * <p>
+     * The keys have the form {@code <vertexName>#<processorIndex>.<metric>}
+     * for the processors, where the processor index is global, and {@code
+     * <vertexName>#receiver<ordinal>(<from>-><to>).<metric>} for the tasklets
+     * receiving a distributed edge from another member. The processors
+     * report these metrics:
+     * <ul><li>
+     *     {@code receivedCount}: number of items taken from the inbound edges
+     * </li><li>
+     *     {@code emittedCount}: number of items emitted to the outbound edges
+     * </li><li>
+     *     {@code queuedItemCount}: number of items waiting in the inbound
+     *     edge queues
+     * </li><li>
+     *     {@code callCount}, {@code callTimeNanos}: number of times the
+     *     processor was called by its execution thread and the total time
+     *     it took
+     * </li></ul>
+     * The receivers report {@code incomingPacketCount} and {@code
+     * receiveWindowCompressed}.
+     */
+    @Nonnull
+    Map<String, Long> getMetrics();
+
     /**
      * Gets the future associated with the job. The returned future is
      * not cancellable. To cancel the job, the {@link #cancel()} method
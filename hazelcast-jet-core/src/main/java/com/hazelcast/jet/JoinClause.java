@@ -21,6 +21,8 @@ import com.hazelcast.jet.function.DistributedFunction;
 import java.io.Serializable;
 import java.util.Map.Entry;
 
+import static com.hazelcast.util.Preconditions.checkPositive;
+
 /**
  * Specifies how to join an enriching stream to the primary stream in a
  * {@link ComputeStage#hashJoin(ComputeStage, JoinClause) hash-join}
@@ -51,15 +53,18 @@ public final class JoinClause<K, E0, E1, E1_OUT> implements Serializable {
     private final DistributedFunction<E0, K> leftKeyFn;
     private final DistributedFunction<E1, K> rightKeyFn;
     private final DistributedFunction<E1, E1_OUT> rightProjectFn;
+    private final long maxInMemoryEntries;
 
     private JoinClause(
             DistributedFunction<E0, K> leftKeyFn,
             DistributedFunction<E1, K> rightKeyFn,
-            DistributedFunction<E1, E1_OUT> rightProjectFn
+            DistributedFunction<E1, E1_OUT> rightProjectFn,
+            long maxInMemoryEntries
     ) {
         this.leftKeyFn = leftKeyFn;
         this.rightKeyFn = rightKeyFn;
         this.rightProjectFn = rightProjectFn;
+        this.maxInMemoryEntries = maxInMemoryEntries;
     }
 
     /**
@@ -71,7 +76,7 @@ public final class JoinClause<K, E0, E1, E1_OUT> implements Serializable {
             DistributedFunction<E0, K> leftKeyFn,
             DistributedFunction<E1, K> rightKeyFn
     ) {
-        return new JoinClause<>(leftKeyFn, rightKeyFn, DistributedFunction.identity());
+        return new JoinClause<>(leftKeyFn, rightKeyFn, DistributedFunction.identity(), Long.MAX_VALUE);
     }
 
     /**
@@ -88,7 +93,7 @@ public final class JoinClause<K, E0, E1, E1_OUT> implements Serializable {
     public static <K, E0, E1_IN extends Entry<K, E1>, E1> JoinClause<K, E0, E1_IN, E1> joinMapEntries(
             DistributedFunction<E0, K> leftKeyFn
     ) {
-        return new JoinClause<>(leftKeyFn, Entry::getKey, Entry::getValue);
+        return new JoinClause<>(leftKeyFn, Entry::getKey, Entry::getValue, Long.MAX_VALUE);
     }
 
     /**
@@ -98,7 +103,25 @@ public final class JoinClause<K, E0, E1, E1_OUT> implements Serializable {
     public <E1_NEW_OUT> JoinClause<K, E0, E1, E1_NEW_OUT> projecting(
             DistributedFunction<E1, E1_NEW_OUT> rightProjectFn
     ) {
-        return new JoinClause<>(this.leftKeyFn, this.rightKeyFn, rightProjectFn);
+        return new JoinClause<>(this.leftKeyFn, this.rightKeyFn, rightProjectFn, this.maxInMemoryEntries);
+    }
+
+    /**
+     * Returns a copy of this join clause, but with a limit on the number of
+     * enriching stream entries kept in memory on each member. When the
+     * enriching stream has more entries, they are spilled to disk under
+     * {@link com.hazelcast.jet.config.InstanceConfig#getTempDir()} and the
+     * join is performed as a grace hash join: the primary stream is
+     * partitioned to disk the same way and each partition pair is joined in
+     * memory once both streams are complete. Therefore the primary stream
+     * must be finite when the limit is exceeded and the joined items are
+     * emitted only after it is exhausted.
+     * <p>
+     * The default is no limit: the entire enriching stream is kept in memory.
+     */
+    public JoinClause<K, E0, E1, E1_OUT> spillingAbove(long maxInMemoryEntries) {
+        checkPositive(maxInMemoryEntries, "maxInMemoryEntries must be positive");
+        return new JoinClause<>(this.leftKeyFn, this.rightKeyFn, this.rightProjectFn, maxInMemoryEntries);
     }
 
     /**
@@ -121,4 +144,12 @@ public final class JoinClause<K, E0, E1, E1_OUT> implements Serializable {
     public DistributedFunction<E1, E1_OUT> rightProjectFn() {
         return rightProjectFn;
     }
+
+    /**
+     * Returns the maximum number of enriching stream entries kept in memory,
+     * see {@link #spillingAbove(long)}.
+     */
+    public long maxInMemoryEntries() {
+        return maxInMemoryEntries;
+    }
 }
@@ -266,4 +266,115 @@ class AccumulatorSerializerHooks {
             return true;
         }
     }
+
+    public static final class HyperLogLogAccHook implements SerializerHook<HyperLogLogAccumulator> {
+
+        @Override
+        public Class<HyperLogLogAccumulator> getSerializationType() {
+            return HyperLogLogAccumulator.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<HyperLogLogAccumulator>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.HYPER_LOG_LOG_ACC;
+                }
+
+                @Override
+                public void destroy() {
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, HyperLogLogAccumulator object) throws IOException {
+                    object.writeObject(out);
+                }
+
+                @Override
+                public HyperLogLogAccumulator read(ObjectDataInput in) throws IOException {
+                    return HyperLogLogAccumulator.readObject(in);
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
+
+    public static final class QuantileAccHook implements SerializerHook<QuantileAccumulator> {
+
+        @Override
+        public Class<QuantileAccumulator> getSerializationType() {
+            return QuantileAccumulator.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<QuantileAccumulator>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.QUANTILE_ACC;
+                }
+
+                @Override
+                public void destroy() {
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, QuantileAccumulator object) throws IOException {
+                    object.writeObject(out);
+                }
+
+                @Override
+                public QuantileAccumulator read(ObjectDataInput in) throws IOException {
+                    return QuantileAccumulator.readObject(in);
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
+
+    public static final class FrequentItemsAccHook implements SerializerHook<FrequentItemsAccumulator> {
+
+        @Override
+        public Class<FrequentItemsAccumulator> getSerializationType() {
+            return FrequentItemsAccumulator.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<FrequentItemsAccumulator>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.FREQUENT_ITEMS_ACC;
+                }
+
+                @Override
+                public void destroy() {
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, FrequentItemsAccumulator object) throws IOException {
+                    object.writeObject(out);
+                }
+
+                @Override
+                public FrequentItemsAccumulator read(ObjectDataInput in) throws IOException {
+                    return FrequentItemsAccumulator.readObject(in);
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
 }
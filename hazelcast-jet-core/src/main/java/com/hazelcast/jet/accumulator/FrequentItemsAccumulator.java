@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.accumulator;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.hazelcast.jet.Util.entry;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Sketch that finds the most frequent items added to it (the Misra-Gries
+ * algorithm). It counts at most {@code 2 * capacity} distinct items; when
+ * there are more, it subtracts the median count from all the counts and
+ * forgets the items whose count drops to zero. The total subtracted, the
+ * {@linkplain #maxError() maximum error}, is at most {@code n / capacity}
+ * for {@code n} added items. An item more frequent than that is certain to
+ * be counted, with a count lower than the real one by at most the maximum
+ * error.
+ * <p>
+ * Two sketches can be combined; the result has the same guarantees as if
+ * all the items were added to one of them.
+ *
+ * @param <T> the type of the items
+ */
+public final class FrequentItemsAccumulator<T> {
+
+    private final int capacity;
+    private final Map<T, long[]> counts = new HashMap<>();
+    private long maxError;
+
+    /**
+     * Constructs an empty sketch.
+     *
+     * @param capacity the number of items counted exactly, at least 1
+     */
+    public FrequentItemsAccumulator(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1, but is " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds an occurrence of the item.
+     */
+    public FrequentItemsAccumulator<T> add(T item) {
+        return add(item, 1);
+    }
+
+    /**
+     * Combines this sketch with the supplied one.
+     */
+    public FrequentItemsAccumulator<T> combine(FrequentItemsAccumulator<T> that) {
+        for (Entry<T, long[]> e : that.counts.entrySet()) {
+            add(e.getKey(), e.getValue()[0]);
+        }
+        maxError += that.maxError;
+        return this;
+    }
+
+    /**
+     * Returns the most frequent items with their counts, at most {@code k}
+     * of them, the most frequent first. Each count is lower than the real
+     * one by at most {@link #maxError()}.
+     */
+    public List<Entry<T, Long>> top(int k) {
+        return counts.entrySet().stream()
+                     .sorted(comparing((Entry<T, long[]> e) -> e.getValue()[0]).reversed())
+                     .limit(k)
+                     .map(e -> entry(e.getKey(), e.getValue()[0]))
+                     .collect(toList());
+    }
+
+    /**
+     * Returns the upper bound of the difference between the real count of
+     * an item and the count known to this sketch.
+     */
+    public long maxError() {
+        return maxError;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        FrequentItemsAccumulator that;
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof FrequentItemsAccumulator)
+                || capacity != (that = (FrequentItemsAccumulator) obj).capacity
+                || maxError != that.maxError
+                || counts.size() != that.counts.size()) {
+            return false;
+        }
+        for (Entry<T, long[]> e : counts.entrySet()) {
+            long[] thatCount = (long[]) that.counts.get(e.getKey());
+            if (thatCount == null || thatCount[0] != e.getValue()[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hc = 17;
+        hc = 73 * hc + capacity;
+        hc = 73 * hc + Long.hashCode(maxError);
+        for (Entry<T, long[]> e : counts.entrySet()) {
+            hc += e.getKey().hashCode() ^ Long.hashCode(e.getValue()[0]);
+        }
+        return hc;
+    }
+
+    @Override
+    public String toString() {
+        return "FrequentItemsAccumulator(capacity=" + capacity + ", top=" + top(capacity) + ')';
+    }
+
+    void writeObject(ObjectDataOutput out) throws IOException {
+        out.writeInt(capacity);
+        out.writeLong(maxError);
+        out.writeInt(counts.size());
+        for (Entry<T, long[]> e : counts.entrySet()) {
+            out.writeObject(e.getKey());
+            out.writeLong(e.getValue()[0]);
+        }
+    }
+
+    static <T> FrequentItemsAccumulator<T> readObject(ObjectDataInput in) throws IOException {
+        FrequentItemsAccumulator<T> acc = new FrequentItemsAccumulator<>(in.readInt());
+        acc.maxError = in.readLong();
+        for (int i = in.readInt(); i > 0; i--) {
+            acc.counts.put(in.readObject(), new long[] {in.readLong()});
+        }
+        return acc;
+    }
+
+    private FrequentItemsAccumulator<T> add(T item, long count) {
+        long[] c = counts.get(item);
+        if (c != null) {
+            c[0] += count;
+            return this;
+        }
+        counts.put(item, new long[] {count});
+        if (counts.size() > 2 * capacity) {
+            purge();
+        }
+        return this;
+    }
+
+    /**
+     * Subtracts the median count from all the counts and removes the items
+     * left without a positive count.
+     */
+    private void purge() {
+        long[] values = new long[counts.size()];
+        int i = 0;
+        for (long[] c : counts.values()) {
+            values[i++] = c[0];
+        }
+        Arrays.sort(values);
+        long median = values[values.length / 2];
+        for (Iterator<long[]> it = counts.values().iterator(); it.hasNext(); ) {
+            long[] c = it.next();
+            c[0] -= median;
+            if (c[0] <= 0) {
+                it.remove();
+            }
+        }
+        maxError += median;
+    }
+}
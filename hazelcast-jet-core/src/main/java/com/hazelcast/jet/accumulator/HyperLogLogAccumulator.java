@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.accumulator;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch that estimates the number of distinct items added to
+ * it. It holds {@code 2^precision} one-byte registers regardless of the
+ * number of items and estimates with the standard error of about {@code
+ * 1.04 / sqrt(2^precision)}. Sketches of the same precision can be combined
+ * and the result is the same as if all the items were added to one of them.
+ */
+public final class HyperLogLogAccumulator {
+
+    /** The smallest supported precision. */
+    public static final int MIN_PRECISION = 4;
+    /** The largest supported precision. */
+    public static final int MAX_PRECISION = 16;
+
+    private static final double ALPHA_16 = 0.673;
+    private static final double ALPHA_32 = 0.697;
+    private static final double ALPHA_64 = 0.709;
+    private static final double ALPHA_INF = 0.7213;
+    private static final double ALPHA_INF_CORRECTION = 1.079;
+    private static final double LINEAR_COUNTING_LIMIT = 2.5;
+    private static final int SPARSE_RATIO = 3;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * Constructs an empty sketch with {@code 2^precision} registers.
+     *
+     * @param precision a number from {@value #MIN_PRECISION} to {@value #MAX_PRECISION}
+     */
+    public HyperLogLogAccumulator(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be from " + MIN_PRECISION + " to " + MAX_PRECISION
+                    + ", but is " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Adds an item with the given hash. The hash should be uniformly
+     * distributed over all the 64 bits.
+     */
+    public HyperLogLogAccumulator add(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        // the sentinel bit limits the rank to the number of the remaining bits + 1
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+        return this;
+    }
+
+    /**
+     * Adds an item, using its {@code hashCode()}.
+     */
+    public HyperLogLogAccumulator addObject(Object item) {
+        return add(mix(item.hashCode()));
+    }
+
+    /**
+     * Combines this sketch with the supplied one.
+     */
+    public HyperLogLogAccumulator combine(HyperLogLogAccumulator that) {
+        if (precision != that.precision) {
+            throw new IllegalArgumentException("Can't combine sketches with precision " + precision
+                    + " and " + that.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (that.registers[i] > registers[i]) {
+                registers[i] = that.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns the estimated number of distinct items.
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= LINEAR_COUNTING_LIMIT * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj ||
+                obj instanceof HyperLogLogAccumulator
+                && Arrays.equals(registers, ((HyperLogLogAccumulator) obj).registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(registers);
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLogAccumulator(precision=" + precision + ", estimate=" + estimate() + ')';
+    }
+
+    /**
+     * Serializes this sketch. A sparse sketch is written as the list of its
+     * non-zero registers.
+     */
+    void writeObject(ObjectDataOutput out) throws IOException {
+        out.writeByte(precision);
+        int nonZero = 0;
+        for (byte r : registers) {
+            if (r != 0) {
+                nonZero++;
+            }
+        }
+        out.writeInt(nonZero);
+        if (nonZero * SPARSE_RATIO < registers.length) {
+            for (int i = 0; i < registers.length; i++) {
+                if (registers[i] != 0) {
+                    out.writeChar(i);
+                    out.writeByte(registers[i]);
+                }
+            }
+        } else {
+            out.write(registers);
+        }
+    }
+
+    static HyperLogLogAccumulator readObject(ObjectDataInput in) throws IOException {
+        HyperLogLogAccumulator acc = new HyperLogLogAccumulator(in.readByte());
+        int nonZero = in.readInt();
+        if (nonZero * SPARSE_RATIO < acc.registers.length) {
+            for (int i = 0; i < nonZero; i++) {
+                acc.registers[in.readChar()] = in.readByte();
+            }
+        } else {
+            in.readFully(acc.registers);
+        }
+        return acc;
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    private static double alpha(int m) {
+        switch (m) {
+            case 16: return ALPHA_16;
+            case 32: return ALPHA_32;
+            case 64: return ALPHA_64;
+            default: return ALPHA_INF / (1 + ALPHA_INF_CORRECTION / m);
+        }
+    }
+
+    /**
+     * Spreads the 32-bit hash code over 64 bits (the finalizer of
+     * MurmurHash3).
+     */
+    @SuppressWarnings("checkstyle:magicnumber")
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
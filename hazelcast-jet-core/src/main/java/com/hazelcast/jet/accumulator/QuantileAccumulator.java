@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.accumulator;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Sketch that estimates the quantiles of the {@code double} values added
+ * to it, with a bounded relative error. It counts the values in buckets of
+ * exponentially growing width (the DDSketch algorithm): the bucket of a
+ * value {@code v} covers the range {@code (gamma^(i-1), gamma^i]}, where
+ * {@code gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy)}. The estimate of a
+ * quantile is then within {@code relativeAccuracy} of a value of the
+ * correct rank. The number of buckets grows with the logarithm of the
+ * range of the values: for example, values from a microsecond to an hour
+ * with 1% accuracy fit into about 1100 buckets.
+ * <p>
+ * As the sketch only holds counts, two sketches of the same accuracy can
+ * be combined and one can be deducted from another exactly.
+ */
+public final class QuantileAccumulator {
+
+    private final double relativeAccuracy;
+    private final double logGamma;
+    private final Buckets positive;
+    private final Buckets negative;
+    private long zeroCount;
+
+    /**
+     * Constructs an empty sketch.
+     *
+     * @param relativeAccuracy the relative error of the estimated quantiles,
+     *                         a number between 0 and 1 (exclusive)
+     */
+    public QuantileAccumulator(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("relativeAccuracy must be between 0 and 1, but is "
+                    + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.logGamma = Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+        this.positive = new Buckets();
+        this.negative = new Buckets();
+    }
+
+    /**
+     * Adds a value.
+     */
+    public QuantileAccumulator add(double value) {
+        if (value > Double.MIN_NORMAL) {
+            positive.add(index(value), 1);
+        } else if (value < -Double.MIN_NORMAL) {
+            negative.add(index(-value), 1);
+        } else if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Can't add NaN");
+        } else {
+            zeroCount++;
+        }
+        return this;
+    }
+
+    /**
+     * Combines this sketch with the supplied one.
+     */
+    public QuantileAccumulator combine(QuantileAccumulator that) {
+        checkCompatible(that);
+        positive.add(that.positive, 1);
+        negative.add(that.negative, 1);
+        zeroCount += that.zeroCount;
+        return this;
+    }
+
+    /**
+     * Deducts the supplied sketch from this one.
+     */
+    public QuantileAccumulator deduct(QuantileAccumulator that) {
+        checkCompatible(that);
+        positive.add(that.positive, -1);
+        negative.add(that.negative, -1);
+        zeroCount -= that.zeroCount;
+        return this;
+    }
+
+    /**
+     * Returns the number of the values added.
+     */
+    public long count() {
+        return negative.total + zeroCount + positive.total;
+    }
+
+    /**
+     * Returns the estimated value of the given quantile, or {@code NaN} if
+     * the sketch is empty.
+     *
+     * @param quantile a number from 0 to 1
+     */
+    public double quantile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("quantile must be from 0 to 1, but is " + quantile);
+        }
+        long count = count();
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (quantile * (count - 1));
+        if (rank < negative.total) {
+            // the negative values are ordered from the largest index down
+            return -value(negative.indexOfRank(negative.total - 1 - rank));
+        }
+        rank -= negative.total;
+        if (rank < zeroCount) {
+            return 0;
+        }
+        return value(positive.indexOfRank(rank - zeroCount));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        QuantileAccumulator that;
+        return this == obj ||
+                obj instanceof QuantileAccumulator
+                && this.relativeAccuracy == (that = (QuantileAccumulator) obj).relativeAccuracy
+                && this.zeroCount == that.zeroCount
+                && this.positive.equals(that.positive)
+                && this.negative.equals(that.negative);
+    }
+
+    @Override
+    public int hashCode() {
+        int hc = 17;
+        hc = 73 * hc + Double.hashCode(relativeAccuracy);
+        hc = 73 * hc + Long.hashCode(zeroCount);
+        hc = 73 * hc + positive.hashCode();
+        hc = 73 * hc + negative.hashCode();
+        return hc;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileAccumulator(relativeAccuracy=" + relativeAccuracy + ", count=" + count() + ')';
+    }
+
+    void writeObject(ObjectDataOutput out) throws IOException {
+        out.writeDouble(relativeAccuracy);
+        out.writeLong(zeroCount);
+        positive.writeObject(out);
+        negative.writeObject(out);
+    }
+
+    static QuantileAccumulator readObject(ObjectDataInput in) throws IOException {
+        QuantileAccumulator acc = new QuantileAccumulator(in.readDouble());
+        acc.zeroCount = in.readLong();
+        acc.positive.readObject(in);
+        acc.negative.readObject(in);
+        return acc;
+    }
+
+    private void checkCompatible(QuantileAccumulator that) {
+        if (relativeAccuracy != that.relativeAccuracy) {
+            throw new IllegalArgumentException("Can't combine sketches with relative accuracy "
+                    + relativeAccuracy + " and " + that.relativeAccuracy);
+        }
+    }
+
+    private int index(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    /**
+     * Returns the value with the same relative distance from both bounds of
+     * the bucket.
+     */
+    private double value(int index) {
+        double gamma = Math.exp(logGamma);
+        return 2 * Math.exp(index * logGamma) / (gamma + 1);
+    }
+
+    /**
+     * Counts of consecutive buckets, held in an array that grows to cover
+     * the indices added.
+     */
+    private static final class Buckets {
+        private static final long[] EMPTY = {};
+
+        private long[] counts = EMPTY;
+        // the bucket index of counts[0]
+        private int offset;
+        private long total;
+
+        void add(int index, long count) {
+            ensureCapacity(index, index);
+            counts[index - offset] += count;
+            total += count;
+        }
+
+        void add(Buckets that, int sign) {
+            if (that.counts.length == 0) {
+                return;
+            }
+            ensureCapacity(that.offset, that.offset + that.counts.length - 1);
+            for (int i = 0; i < that.counts.length; i++) {
+                counts[that.offset - offset + i] += sign * that.counts[i];
+            }
+            total += sign * that.total;
+        }
+
+        /**
+         * Returns the index of the bucket holding the value of the given
+         * rank, counting from the lowest bucket.
+         */
+        int indexOfRank(long rank) {
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen > rank) {
+                    return offset + i;
+                }
+            }
+            throw new AssertionError("rank " + rank + " out of " + total);
+        }
+
+        private void ensureCapacity(int minIndex, int maxIndex) {
+            if (counts.length == 0) {
+                counts = new long[maxIndex - minIndex + 1];
+                offset = minIndex;
+                return;
+            }
+            int newMin = Math.min(minIndex, offset);
+            int newMax = Math.max(maxIndex, offset + counts.length - 1);
+            if (newMin == offset && newMax == offset + counts.length - 1) {
+                return;
+            }
+            // grow by at least a half to amortize the copying
+            int extra = Math.max(0, counts.length / 2 - (newMax - newMin + 1 - counts.length));
+            if (newMin < offset) {
+                newMin -= extra;
+            } else {
+                newMax += extra;
+            }
+            long[] newCounts = new long[newMax - newMin + 1];
+            System.arraycopy(counts, 0, newCounts, offset - newMin, counts.length);
+            counts = newCounts;
+            offset = newMin;
+        }
+
+        /**
+         * Returns the range of the non-zero counts as {@code {from, to}}
+         * positions in {@code counts}, {@code to} exclusive.
+         */
+        private int[] nonZeroRange() {
+            int from = 0;
+            int to = counts.length;
+            while (from < to && counts[from] == 0) {
+                from++;
+            }
+            while (to > from && counts[to - 1] == 0) {
+                to--;
+            }
+            return new int[] {from, to};
+        }
+
+        void writeObject(ObjectDataOutput out) throws IOException {
+            int[] range = nonZeroRange();
+            out.writeInt(offset + range[0]);
+            out.writeInt(range[1] - range[0]);
+            for (int i = range[0]; i < range[1]; i++) {
+                out.writeLong(counts[i]);
+            }
+        }
+
+        void readObject(ObjectDataInput in) throws IOException {
+            offset = in.readInt();
+            counts = new long[in.readInt()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = in.readLong();
+                total += counts[i];
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Buckets) || total != ((Buckets) obj).total) {
+                return false;
+            }
+            // the buckets are equal if their non-zero counts are, regardless
+            // of the array each of them grew to
+            Buckets that = (Buckets) obj;
+            int[] thisRange = nonZeroRange();
+            int[] thatRange = that.nonZeroRange();
+            if (thisRange[0] == thisRange[1] || thatRange[0] == thatRange[1]) {
+                return thisRange[0] == thisRange[1] && thatRange[0] == thatRange[1];
+            }
+            return offset + thisRange[0] == that.offset + thatRange[0]
+                    && Arrays.equals(Arrays.copyOfRange(counts, thisRange[0], thisRange[1]),
+                                     Arrays.copyOfRange(that.counts, thatRange[0], thatRange[1]));
+        }
+
+        @Override
+        public int hashCode() {
+            int[] range = nonZeroRange();
+            return range[0] == range[1]
+                    ? 0
+                    : 31 * (offset + range[0]) + Arrays.hashCode(Arrays.copyOfRange(counts, range[0], range[1]));
+        }
+    }
+}
@@ -17,11 +17,14 @@
 package com.hazelcast.jet.aggregate;
 
 import com.hazelcast.jet.accumulator.DoubleAccumulator;
+import com.hazelcast.jet.accumulator.FrequentItemsAccumulator;
+import com.hazelcast.jet.accumulator.HyperLogLogAccumulator;
 import com.hazelcast.jet.accumulator.LinTrendAccumulator;
 import com.hazelcast.jet.accumulator.LongAccumulator;
 import com.hazelcast.jet.accumulator.LongDoubleAccumulator;
 import com.hazelcast.jet.accumulator.LongLongAccumulator;
 import com.hazelcast.jet.accumulator.MutableReference;
+import com.hazelcast.jet.accumulator.QuantileAccumulator;
 import com.hazelcast.jet.datamodel.Tuple2;
 import com.hazelcast.jet.datamodel.Tuple3;
 import com.hazelcast.jet.function.DistributedBiConsumer;
@@ -42,6 +45,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import static com.hazelcast.jet.datamodel.Tuple2.tuple2;
@@ -238,6 +242,97 @@ public final class AggregateOperations {
                 .andFinish(LinTrendAccumulator::finish);
     }
 
+    /**
+     * Returns an aggregate operation that estimates the number of distinct
+     * items it observed using the HyperLogLog algorithm. Unlike {@link
+     * #toSet()} its state has a fixed size of {@code 2^precision} bytes
+     * regardless of the number of distinct items; the standard error of the
+     * estimate is about {@code 1.04 / sqrt(2^precision)}, for example 0.8%
+     * for precision 14. Items are told apart by their {@code hashCode()}.
+     * <p>
+     * The operation doesn't support the <em>deduct</em> primitive.
+     *
+     * @param precision the number of hash bits that select a register,
+     *                  between 4 and 16
+     */
+    @Nonnull
+    public static <T> AggregateOperation1<T, HyperLogLogAccumulator, Long> countingDistinctApprox(int precision) {
+        return AggregateOperation
+                .withCreate(() -> new HyperLogLogAccumulator(precision))
+                .<T>andAccumulate(HyperLogLogAccumulator::addObject)
+                .andCombine(HyperLogLogAccumulator::combine)
+                .andFinish(HyperLogLogAccumulator::estimate);
+    }
+
+    /**
+     * Returns an aggregate operation that estimates the given quantiles of
+     * the {@code double} values it obtains by applying {@code getValueFn}
+     * to each item. Each returned value is within the given relative error
+     * of the exact quantile (the DDSketch algorithm), and the state grows
+     * only with the logarithm of the range of observed values. The result
+     * list holds the estimates in the order of the requested quantiles; an
+     * estimate is {@code NaN} if no items were observed.
+     *
+     * @param getValueFn       function that extracts the value from an item
+     * @param relativeAccuracy the maximum relative error of each estimate,
+     *                         between 0 and 1 (exclusive)
+     * @param quantiles        the quantiles to estimate, each between 0 and 1
+     */
+    @Nonnull
+    public static <T> AggregateOperation1<T, QuantileAccumulator, List<Double>> quantilesApprox(
+            @Nonnull DistributedToDoubleFunction<? super T> getValueFn,
+            double relativeAccuracy,
+            @Nonnull double... quantiles
+    ) {
+        double[] qs = quantiles.clone();
+        for (double q : qs) {
+            if (!(q >= 0 && q <= 1)) {
+                throw new IllegalArgumentException("Quantile must be between 0 and 1, but is " + q);
+            }
+        }
+        return AggregateOperation
+                .withCreate(() -> new QuantileAccumulator(relativeAccuracy))
+                .andAccumulate((QuantileAccumulator a, T item) -> a.add(getValueFn.applyAsDouble(item)))
+                .andCombine(QuantileAccumulator::combine)
+                .andDeduct(QuantileAccumulator::deduct)
+                .andFinish(a -> {
+                    List<Double> result = new ArrayList<>(qs.length);
+                    for (double q : qs) {
+                        result.add(a.quantile(q));
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Returns an aggregate operation that finds the {@code k} most frequent
+     * items it observed, along with their estimated counts, in descending
+     * order of count. It uses the Misra-Gries algorithm with a capacity of
+     * {@code c = max(64, 4 * k)}: it tracks up to {@code 2 * c} candidates
+     * and, when there are more, subtracts the median count from all of them
+     * and drops those left without a positive count.
+     * Each reported count may be lower than the exact one by at most {@code
+     * n / (c + 1)}, where {@code n} is the number of observed items.
+     * <p>
+     * The operation doesn't support the <em>deduct</em> primitive.
+     *
+     * @param k the number of items to report
+     */
+    @Nonnull
+    public static <T> AggregateOperation1<T, FrequentItemsAccumulator<T>, List<Entry<T, Long>>> topFrequentApprox(
+            int k
+    ) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive, but is " + k);
+        }
+        int capacity = Math.max(64, 4 * k);
+        return AggregateOperation
+                .withCreate(() -> new FrequentItemsAccumulator<T>(capacity))
+                .<T>andAccumulate(FrequentItemsAccumulator::add)
+                .andCombine(FrequentItemsAccumulator::combine)
+                .andFinish(a -> a.top(k));
+    }
+
     /**
      * Convenience for {@link #allOf(AggregateOperation1, AggregateOperation1,
      * DistributedBiFunction)} with identity finish.
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.config;
+
+/**
+ * The codec that compresses the data a {@link EdgeConfig#setCompressionCodec
+ * distributed edge} sends over the network. Each network packet is
+ * compressed as a whole, so the ratio improves with the {@link
+ * EdgeConfig#setPacketSizeLimit(int) packet size}.
+ */
+public enum CompressionCodec {
+
+    /**
+     * The data is sent uncompressed. This is the best choice when the network
+     * isn't the bottleneck or when the items don't compress well.
+     */
+    NONE,
+
+    /**
+     * The data is compressed with the DEFLATE algorithm tuned for speed
+     * rather than ratio. It typically shrinks text-heavy items, such as JSON
+     * strings, to less than half at a moderate CPU cost on both the sending
+     * and the receiving member.
+     */
+    DEFLATE
+}
@@ -21,6 +21,7 @@ import com.hazelcast.config.MapConfig;
 import javax.annotation.Nonnull;
 
 import static com.hazelcast.spi.partition.IPartition.MAX_BACKUP_COUNT;
+import static com.hazelcast.util.Preconditions.checkNotNull;
 
 /**
  * General configuration options pertaining to a Jet instance.
@@ -37,11 +38,17 @@ public class InstanceConfig {
      */
     public static final int DEFAULT_BACKUP_COUNT = MapConfig.DEFAULT_BACKUP_COUNT;
 
+    /**
+     * The default value of the {@link #setSnapshotStorage(SnapshotStorage) snapshot storage}
+     */
+    public static final SnapshotStorage DEFAULT_SNAPSHOT_STORAGE = SnapshotStorage.IMAP;
+
 
     private int cooperativeThreadCount = Runtime.getRuntime().availableProcessors();
     private int flowControlPeriodMs = DEFAULT_FLOW_CONTROL_PERIOD_MS;
     private int backupCount = DEFAULT_BACKUP_COUNT;
     private String tempDir;
+    private SnapshotStorage snapshotStorage = DEFAULT_SNAPSHOT_STORAGE;
 
     /**
      * Sets the number of threads each cluster member will use to execute Jet
@@ -122,4 +129,22 @@ public class InstanceConfig {
     public int getBackupCount() {
         return backupCount;
     }
+
+    /**
+     * Sets where the snapshots of the jobs' state are stored, see {@link
+     * SnapshotStorage}. All the members of the cluster must use the same
+     * setting. The default is {@link SnapshotStorage#IMAP}.
+     */
+    public InstanceConfig setSnapshotStorage(@Nonnull SnapshotStorage snapshotStorage) {
+        this.snapshotStorage = checkNotNull(snapshotStorage, "snapshotStorage");
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setSnapshotStorage(SnapshotStorage) snapshot storage}.
+     */
+    @Nonnull
+    public SnapshotStorage getSnapshotStorage() {
+        return snapshotStorage;
+    }
 }
@@ -40,11 +40,14 @@ public class JobConfig implements Serializable {
     private String name;
     private ProcessingGuarantee processingGuarantee = ProcessingGuarantee.NONE;
     private long snapshotIntervalMillis = SNAPSHOT_INTERVAL_MILLIS_DEFAULT;
+    private int fullSnapshotInterval = 1;
+    private boolean unalignedSnapshotsEnabled;
 
     private boolean splitBrainProtectionEnabled;
     private final List<ResourceConfig> resourceConfigs = new ArrayList<>();
     private boolean autoRestartEnabled = true;
     private int maxWatermarkRetainMillis = -1;
+    private StateBackend stateBackend = StateBackend.ON_HEAP;
 
     /**
      * Returns the name of the job or {@code null} if no name was given.
@@ -184,6 +187,81 @@ public class JobConfig implements Serializable {
         return this;
     }
 
+    /**
+     * Returns the configured {@link #setFullSnapshotInterval(int) full
+     * snapshot interval}.
+     */
+    public int getFullSnapshotInterval() {
+        return fullSnapshotInterval;
+    }
+
+    /**
+     * Enables incremental snapshots by setting how often a full snapshot is
+     * taken. Every {@code n}-th snapshot of a job execution contains the
+     * complete state; the snapshots in between are <em>incremental</em>: they
+     * only store the state entries that changed since the previous snapshot
+     * and a tombstone for each removed entry. With large, slowly changing
+     * state this makes the snapshot cost proportional to the update rate
+     * instead of to the state size. When restoring from an incremental
+     * snapshot, Jet reads the chain of snapshots back to the last full one,
+     * so a higher value means fewer full snapshots, but more snapshot data
+     * to keep and read on restore.
+     * <p>
+     * Only the windowing processors track their changes and save incremental
+     * state. Other processors always save their complete state and are
+     * restored from the newest snapshot alone.
+     * <p>
+     * Default value is 1: every snapshot is a full snapshot.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setFullSnapshotInterval(int n) {
+        Preconditions.checkPositive(n, "fullSnapshotInterval must be positive");
+        this.fullSnapshotInterval = n;
+        return this;
+    }
+
+    /**
+     * Tells whether {@link #setUnalignedSnapshots(boolean) unaligned
+     * snapshots} are enabled.
+     */
+    public boolean isUnalignedSnapshotsEnabled() {
+        return unalignedSnapshotsEnabled;
+    }
+
+    /**
+     * Enables the unaligned mode of <i>exactly-once</i> snapshots. In the
+     * default, aligned mode, a processor stops receiving from an input queue
+     * once the snapshot barrier arrived on it, until the barrier arrives on
+     * all of its input queues. Under back pressure or skew, one slow upstream
+     * processor then stalls all the other inputs for the whole alignment.
+     * <p>
+     * In the unaligned mode the processor saves its state as soon as the
+     * barrier arrives on the first input queue and keeps processing all the
+     * inputs. The items it receives on the queues where the barrier hasn't
+     * arrived yet are saved to the snapshot as well and are processed again
+     * when the job is restored from it. This keeps the latency steady at the
+     * cost of larger snapshots.
+     * <p>
+     * The mode only applies to the vertices whose inbound edges all use the
+     * {@link com.hazelcast.jet.core.Edge.RoutingPolicy#UNICAST unicast} or
+     * {@link com.hazelcast.jet.core.Edge.RoutingPolicy#PARTITIONED
+     * partitioned} routing policy, other vertices use aligned snapshots. The
+     * items sent to another member are still aligned on the sending member.
+     * The setting has no effect with other processing guarantees than
+     * {@link ProcessingGuarantee#EXACTLY_ONCE exactly-once}.
+     * <p>
+     * Unaligned snapshots are disabled by default.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setUnalignedSnapshots(boolean isEnabled) {
+        this.unalignedSnapshotsEnabled = isEnabled;
+        return this;
+    }
+
     /**
      * Sets the maximum time to retain the watermarks while coalescing them.
      * A negative value disables the limit and Jet will retain the watermark
@@ -231,6 +309,35 @@ public class JobConfig implements Serializable {
         return maxWatermarkRetainMillis;
     }
 
+    /**
+     * Sets where the keyed aggregation processors keep their accumulators,
+     * see {@link StateBackend}. It applies to the processors of {@code
+     * aggregateByKeyP()}, {@code accumulateByKeyP()}, {@code
+     * coAggregateByKeyP()}, {@code coAccumulateByKeyP()} and {@code
+     * combineByKeyP()}, which are also used by the group-by and co-group
+     * stages of the pipeline API, and to the grouping collectors of the
+     * {@code DistributedStream} API.
+     * <p>
+     * Default value is {@link StateBackend#ON_HEAP}.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setStateBackend(@Nonnull StateBackend stateBackend) {
+        checkNotNull(stateBackend, "stateBackend");
+        this.stateBackend = stateBackend;
+        return this;
+    }
+
+    /**
+     * Returns where the keyed aggregation processors keep their accumulators,
+     * see {@link #setStateBackend(StateBackend)}.
+     */
+    @Nonnull
+    public StateBackend getStateBackend() {
+        return stateBackend;
+    }
+
     /**
      * Adds the supplied classes to the list of resources that will be
      * available on the job's classpath while it's executing in the Jet
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.config;
+
+/**
+ * Where the members store the {@link ProcessingGuarantee snapshots} of the
+ * state of the jobs. See {@link InstanceConfig#setSnapshotStorage}.
+ */
+public enum SnapshotStorage {
+
+    /**
+     * Snapshots are stored in IMaps, one per snapshot and vertex, with the
+     * {@link InstanceConfig#setBackupCount(int) configured number of
+     * backups}. The data is kept on the heap of the members.
+     */
+    IMAP,
+
+    /**
+     * Each member appends its part of a snapshot to files in the {@link
+     * InstanceConfig#setTempDir(String) temp directory} and ships a replica
+     * to one other member. Snapshots take next to no heap, which makes large
+     * state practical, but they survive the loss of only one member at a
+     * time. On restore the files are read sequentially.
+     * <p>
+     * The files are never synced to the disk: a snapshot is complete as soon
+     * as its data is in the OS page cache of the writing member and of the
+     * member holding the replica. A crash of the operating system can lose
+     * the files of that machine, only the replica on the other member
+     * protects against it.
+     */
+    LOCAL_DISK
+}
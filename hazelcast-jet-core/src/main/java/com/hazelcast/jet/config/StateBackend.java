@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.config;
+
+/**
+ * Where the keyed aggregation processors keep their accumulators. See
+ * {@link JobConfig#setStateBackend(StateBackend)}.
+ */
+public enum StateBackend {
+
+    /**
+     * The accumulators are kept as objects in a hash map on the Java heap.
+     * This is the fastest option as long as the state comfortably fits the
+     * heap.
+     */
+    ON_HEAP,
+
+    /**
+     * The keys and accumulators are kept serialized in native memory
+     * allocated outside the Java heap, only a compact index of primitive
+     * arrays stays on the heap. This keeps large state out of the garbage
+     * collector's way at the cost of serializing the keys and accumulators.
+     * The accumulators of the built-in {@code LongAccumulator}, {@code
+     * DoubleAccumulator} and {@code LongLongAccumulator} types are updated
+     * in place without serialization.
+     */
+    OFF_HEAP,
+
+    /**
+     * Like {@link #OFF_HEAP}, but the native memory is mapped to a file in
+     * the {@link InstanceConfig#setTempDir(String) temp directory}, so the
+     * operating system can page the state out to disk when it doesn't fit
+     * into the memory.
+     */
+    OFF_HEAP_MAPPED
+}
@@ -460,7 +460,9 @@ public class Edge implements IdentifiedDataSerializable {
     public enum RoutingPolicy implements Serializable {
         /**
          * For each item a single destination processor is chosen from the
-         * candidate set, with no restriction on the choice.
+         * candidate set, with no restriction on the choice. On a distributed
+         * edge the local processors are preferred: an item is sent to a
+         * remote member only when the local processors are backed up.
          */
         UNICAST,
         /**
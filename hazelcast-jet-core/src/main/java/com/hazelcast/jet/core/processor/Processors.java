@@ -28,6 +28,7 @@ import com.hazelcast.jet.core.ResettableSingletonTraverser;
 import com.hazelcast.jet.core.TimestampKind;
 import com.hazelcast.jet.core.WatermarkGenerationParams;
 import com.hazelcast.jet.core.WindowDefinition;
+import com.hazelcast.jet.datamodel.Session;
 import com.hazelcast.jet.datamodel.TimestampedEntry;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.function.DistributedPredicate;
@@ -184,8 +185,11 @@ import static com.hazelcast.jet.function.DistributedFunctions.noopConsumer;
  *     <td>{@link #aggregateToSessionWindowP(long, DistributedToLongFunction,
  *          DistributedFunction, AggregateOperation1)
  *          aggregateToSessionWindow()}</td>
- *     <td>N/A</td>
- *     <td>N/A</td>
+ *     <td>{@link #accumulateToSessionWindowP(long, DistributedToLongFunction,
+ *          DistributedFunction, AggregateOperation1)
+ *          accumulateToSessionWindow()}</td>
+ *     <td>{@link #combineToSessionWindowP(AggregateOperation1)
+ *          combineToSessionWindow()}</td>
  * </tr></table>
  * <p>
  * Tumbling window is a special case of sliding window with sliding step =
@@ -624,6 +628,78 @@ public final class Processors {
         return () -> new SessionWindowP<>(sessionTimeout, getTimestampFn, getKeyFn, aggrOp);
     }
 
+    /**
+     * Returns a supplier of processors for the first-stage vertex in a
+     * two-stage session window aggregation setup (see the {@link Processors
+     * class Javadoc} for an explanation of aggregation stages). The vertex
+     * builds session windows from the events it receives the same way as
+     * {@link #aggregateToSessionWindowP(long, DistributedToLongFunction,
+     * DistributedFunction, AggregateOperation1) aggregateToSessionWindow()},
+     * applying the {@link AggregateOperation1#accumulateFn() accumulate}
+     * aggregation primitive.
+     * <p>
+     * When the processor receives a watermark, it emits the current
+     * accumulated state of all its session windows and deletes them from its
+     * storage. The sessions it emits are partial: the same session may also
+     * be emitted by other instances and by this instance after a later
+     * watermark. The type of emitted items is {@link
+     * com.hazelcast.jet.datamodel.Session Session&lt;K, A>}.
+     * <p>
+     * When a state snapshot is requested, the state is flushed to second-stage
+     * processor and nothing is saved to snapshot.
+     *
+     * @param <T> input item type
+     * @param <K> type of key returned from {@code getKeyFn}
+     * @param <A> type of accumulator returned from {@code aggrOp.
+     *            createAccumulatorFn()}
+     */
+    @Nonnull
+    public static <T, K, A> DistributedSupplier<Processor> accumulateToSessionWindowP(
+            long sessionTimeout,
+            @Nonnull DistributedToLongFunction<? super T> getTimestampFn,
+            @Nonnull DistributedFunction<? super T, K> getKeyFn,
+            @Nonnull AggregateOperation1<? super T, A, ?> aggrOp
+    ) {
+        AggregateOperation1<? super T, A, A> accumulatingOp = aggrOp.withFinishFn(identity());
+        return () -> new SessionWindowP<T, K, A, A>(getKeyFn, getTimestampFn,
+                t -> getTimestampFn.applyAsLong(t) + sessionTimeout, accumulatingOp, false);
+    }
+
+    /**
+     * Returns a supplier of processors for the second-stage vertex in a
+     * two-stage session window aggregation setup (see the {@link Processors
+     * class Javadoc} for an explanation of aggregation stages). Each
+     * processor receives partial sessions from several upstream instances of
+     * {@link #accumulateToSessionWindowP(long, DistributedToLongFunction,
+     * DistributedFunction, AggregateOperation1) accumulateToSessionWindow()}
+     * and merges the overlapping ones under the same key, applying the {@link
+     * AggregateOperation1#combineFn() combine} aggregation primitive, which
+     * therefore must be present.
+     * <p>
+     * When the processor receives a watermark, it emits the sessions that
+     * ended before it, applying the {@code finish} aggregation primitive. The
+     * result is the same as that of a single-stage setup. The type of emitted
+     * items is {@link com.hazelcast.jet.datamodel.Session Session&lt;K, R>}.
+     * <p>
+     * <i>Behavior on job restart</i><br>
+     * This processor saves its state to snapshot, behaving the same as
+     * {@link #aggregateToSessionWindowP(long, DistributedToLongFunction,
+     * DistributedFunction, AggregateOperation1) aggregateToSessionWindow()}.
+     *
+     * @param <K> type of the grouping key
+     * @param <A> type of the accumulator
+     * @param <R> type of the finished result returned from {@code aggrOp.
+     *            finishAccumulationFn()}
+     */
+    @Nonnull
+    public static <K, A, R> DistributedSupplier<Processor> combineToSessionWindowP(
+            @Nonnull AggregateOperation1<?, A, R> aggrOp
+    ) {
+        AggregateOperation1<Session<K, A>, A, R> combiningOp = aggrOp.withCombiningAccumulateFn(Session::getResult);
+        return () -> new SessionWindowP<Session<K, A>, K, A, R>(
+                Session::getKey, Session::getStart, Session::getEnd, combiningOp, true);
+    }
+
     /**
      * Returns a supplier of processors for a vertex that inserts {@link
      * com.hazelcast.jet.core.Watermark watermark items} into the stream. The
@@ -25,6 +25,7 @@ import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.function.DistributedPredicate;
 import com.hazelcast.jet.impl.connector.ReadFilesP;
 import com.hazelcast.jet.impl.connector.ReadIListP;
+import com.hazelcast.jet.impl.connector.ReadMapOrCacheP;
 import com.hazelcast.jet.impl.connector.ReadWithPartitionIteratorP;
 import com.hazelcast.jet.impl.connector.StreamEventJournalP;
 import com.hazelcast.jet.impl.connector.StreamFilesP;
@@ -58,7 +59,7 @@ public final class SourceProcessors {
      */
     @Nonnull
     public static ProcessorMetaSupplier readMapP(@Nonnull String mapName) {
-        return ReadWithPartitionIteratorP.readMapP(mapName);
+        return ReadMapOrCacheP.readLocalMapP(mapName);
     }
 
     /**
@@ -71,7 +72,7 @@ public final class SourceProcessors {
             @Nonnull Predicate<K, V> predicate,
             @Nonnull Projection<Entry<K, V>, T> projectionFn
     ) {
-        return ReadWithPartitionIteratorP.readMapP(mapName, predicate, projectionFn);
+        return ReadMapOrCacheP.readLocalMapP(mapName, predicate, projectionFn);
     }
 
     /**
@@ -84,7 +85,7 @@ public final class SourceProcessors {
             @Nonnull Predicate<K, V> predicate,
             @Nonnull DistributedFunction<Entry<K, V>, T> projectionFn
     ) {
-        return ReadWithPartitionIteratorP.readMapP(mapName, predicate, toProjection(projectionFn));
+        return ReadMapOrCacheP.readLocalMapP(mapName, predicate, toProjection(projectionFn));
     }
 
 
@@ -200,7 +201,7 @@ public final class SourceProcessors {
      */
     @Nonnull
     public static ProcessorMetaSupplier readCacheP(@Nonnull String cacheName) {
-        return ReadWithPartitionIteratorP.readCacheP(cacheName);
+        return ReadMapOrCacheP.readLocalCacheP(cacheName);
     }
 
     /**
@@ -17,6 +17,8 @@
 package com.hazelcast.jet.impl;
 
 import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.WatermarkGenerationParams;
+import com.hazelcast.jet.core.WindowDefinition;
 import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.aggregate.AggregateOperation1;
 import com.hazelcast.jet.aggregate.AggregateOperation2;
@@ -24,6 +26,7 @@ import com.hazelcast.jet.aggregate.AggregateOperation3;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.function.DistributedPredicate;
 import com.hazelcast.jet.function.DistributedSupplier;
+import com.hazelcast.jet.function.DistributedToLongFunction;
 import com.hazelcast.jet.ComputeStage;
 import com.hazelcast.jet.JoinClause;
 import com.hazelcast.jet.Sink;
@@ -31,6 +34,8 @@ import com.hazelcast.jet.SinkStage;
 import com.hazelcast.jet.Source;
 import com.hazelcast.jet.Stage;
 import com.hazelcast.jet.Transform;
+import com.hazelcast.jet.datamodel.Session;
+import com.hazelcast.jet.datamodel.TimestampedEntry;
 import com.hazelcast.jet.datamodel.Tuple2;
 import com.hazelcast.jet.datamodel.Tuple3;
 import com.hazelcast.jet.impl.transform.CoGroupTransform;
@@ -38,11 +43,14 @@ import com.hazelcast.jet.impl.transform.FilterTransform;
 import com.hazelcast.jet.impl.transform.FlatMapTransform;
 import com.hazelcast.jet.impl.transform.GroupByTransform;
 import com.hazelcast.jet.impl.transform.HashJoinTransform;
+import com.hazelcast.jet.impl.transform.InsertWatermarksTransform;
 import com.hazelcast.jet.impl.transform.MapTransform;
 import com.hazelcast.jet.impl.transform.MultiTransform;
 import com.hazelcast.jet.impl.transform.PeekTransform;
 import com.hazelcast.jet.impl.transform.ProcessorTransform;
+import com.hazelcast.jet.impl.transform.SessionWindowTransform;
 import com.hazelcast.jet.impl.transform.UnaryTransform;
+import com.hazelcast.jet.impl.transform.WindowTransform;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
@@ -92,6 +100,27 @@ public class ComputeStageImpl<E> extends AbstractStage implements ComputeStage<E
         return attach(new GroupByTransform<>(keyFn, aggrOp));
     }
 
+    @Override
+    public ComputeStage<E> insertWatermarks(WatermarkGenerationParams<E> wmGenParams) {
+        return attach(new InsertWatermarksTransform<>(wmGenParams));
+    }
+
+    @Override
+    public <K, A, R> ComputeStage<TimestampedEntry<K, R>> window(
+            WindowDefinition wDef, DistributedToLongFunction<? super E> timestampFn,
+            DistributedFunction<? super E, ? extends K> keyFn, AggregateOperation1<? super E, A, R> aggrOp
+    ) {
+        return attach(new WindowTransform<>(wDef, timestampFn, keyFn, aggrOp));
+    }
+
+    @Override
+    public <K, A, R> ComputeStage<Session<K, R>> sessionWindow(
+            long sessionTimeout, DistributedToLongFunction<? super E> timestampFn,
+            DistributedFunction<? super E, ? extends K> keyFn, AggregateOperation1<? super E, A, R> aggrOp
+    ) {
+        return attach(new SessionWindowTransform<>(sessionTimeout, timestampFn, keyFn, aggrOp));
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <K, E1_IN, E1> ComputeStage<Tuple2<E, E1>> hashJoin(
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl;
+
+import com.hazelcast.jet.core.DefaultPartitionStrategy;
+import com.hazelcast.jet.core.Partitioner;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Partitioner for the local edge into the first stage of a two-stage
+ * aggregation. It routes each key with the given partitioner, except the
+ * hot keys: these are spread randomly over all partitions, so that a key
+ * dominating the stream doesn't keep one processor busy while the others
+ * idle. This is only correct when the downstream stage pre-aggregates and
+ * the next stage combines its partial results by key.
+ * <p>
+ * A key is hot if it's more than {@code 1 / 2^HOT_SHIFT} of the recent
+ * keys seen by the calling thread. Each thread tracks its keys in its own
+ * count-min sketch whose counts are halved periodically, so that the
+ * threads don't contend on the counters and the detection follows changes
+ * in the key distribution.
+ */
+final class HotKeyPartitioner implements Partitioner<Object> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Partitioner<Object> partitioner;
+    private transient ThreadLocal<KeySketch> sketches;
+
+    HotKeyPartitioner(@Nonnull Partitioner<Object> partitioner) {
+        this.partitioner = partitioner;
+    }
+
+    @Override
+    public void init(@Nonnull DefaultPartitionStrategy strat) {
+        partitioner.init(strat);
+        sketches = ThreadLocal.withInitial(KeySketch::new);
+    }
+
+    @Override
+    public int getPartition(@Nonnull Object key, int partitionCount) {
+        return sketches.get().addAndCheckHot(key.hashCode())
+                ? ThreadLocalRandom.current().nextInt(partitionCount)
+                : partitioner.getPartition(key, partitionCount);
+    }
+
+    /**
+     * Count-min sketch of the key hashes.
+     */
+    static final class KeySketch {
+        private static final int DEPTH = 4;
+        private static final int LOG_WIDTH = 10;
+        private static final int WIDTH = 1 << LOG_WIDTH;
+        private static final int DECAY_PERIOD = 1 << 16;
+        private static final int MIN_TOTAL = 1 << 10;
+        private static final int HOT_SHIFT = 6;
+        private static final int[] SEEDS = {0x9e3779b9, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f};
+
+        private final int[] counts = new int[DEPTH * WIDTH];
+        private int total;
+
+        /**
+         * Counts an occurrence of the key with the given hash and returns
+         * whether the key is hot.
+         */
+        boolean addAndCheckHot(int hash) {
+            if (++total == DECAY_PERIOD) {
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] >>= 1;
+                }
+                total >>= 1;
+            }
+            int min = Integer.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                int idx = row * WIDTH + ((hash * SEEDS[row]) >>> (Integer.SIZE - LOG_WIDTH));
+                min = Math.min(min, ++counts[idx]);
+            }
+            return total >= MIN_TOTAL && min > total >> HOT_SHIFT;
+        }
+    }
+}
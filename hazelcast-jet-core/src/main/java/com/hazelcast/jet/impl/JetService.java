@@ -23,8 +23,13 @@ import com.hazelcast.instance.HazelcastInstanceImpl;
 import com.hazelcast.instance.JetBuildInfo;
 import com.hazelcast.jet.JetInstance;
 import com.hazelcast.jet.config.JetConfig;
+import com.hazelcast.jet.config.SnapshotStorage;
 import com.hazelcast.jet.core.TopologyChangedException;
+import com.hazelcast.jet.impl.deployment.ResourceCache;
 import com.hazelcast.jet.impl.execution.TaskletExecutionService;
+import com.hazelcast.jet.impl.snapshot.DiskSnapshotStore;
+import com.hazelcast.jet.impl.snapshot.IMapSnapshotStore;
+import com.hazelcast.jet.impl.snapshot.SnapshotStore;
 import com.hazelcast.jet.impl.util.ExceptionUtil;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Address;
@@ -39,8 +44,10 @@ import com.hazelcast.spi.MembershipServiceEvent;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.PacketHandler;
+import com.hazelcast.spi.properties.GroupProperty;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.Properties;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -59,9 +66,12 @@ public class JetService
     private Networking networking;
     private TaskletExecutionService taskletExecutionService;
     private JobRepository jobRepository;
+    private SnapshotStore snapshotStore;
     private SnapshotRepository snapshotRepository;
+    private ResourceCache resourceCache;
     private JobCoordinationService jobCoordinationService;
     private JobExecutionService jobExecutionService;
+    private JetMetricsMBean metricsMBean;
 
     private final AtomicInteger numConcurrentPutAllOps = new AtomicInteger();
 
@@ -88,13 +98,19 @@ public class JetService
         jetInstance = new JetInstanceImpl((HazelcastInstanceImpl) engine.getHazelcastInstance(), config);
         taskletExecutionService = new TaskletExecutionService(nodeEngine.getHazelcastInstance(),
                 config.getInstanceConfig().getCooperativeThreadCount());
+        taskletExecutionService.registerMetrics(nodeEngine.getMetricsRegistry());
+        registerMetricsMBean();
 
-        snapshotRepository = new SnapshotRepository(jetInstance);
+        snapshotStore = config.getInstanceConfig().getSnapshotStorage() == SnapshotStorage.LOCAL_DISK
+                ? new DiskSnapshotStore(nodeEngine, config.getInstanceConfig().getTempDir())
+                : new IMapSnapshotStore(nodeEngine, jetInstance);
+        snapshotRepository = new SnapshotRepository(jetInstance, snapshotStore);
         jobRepository = new JobRepository(jetInstance, snapshotRepository);
+        resourceCache = new ResourceCache(nodeEngine, config.getInstanceConfig().getTempDir());
 
         jobExecutionService = new JobExecutionService(nodeEngine, taskletExecutionService);
         jobCoordinationService = new JobCoordinationService(nodeEngine, config, jobRepository,
-                jobExecutionService, snapshotRepository);
+                jobExecutionService, snapshotRepository, resourceCache);
         networking = new Networking(engine, jobExecutionService, config.getInstanceConfig().getFlowControlPeriodMs());
 
         ClientEngineImpl clientEngine = engine.getService(ClientEngineImpl.SERVICE_NAME);
@@ -122,6 +138,11 @@ public class JetService
         jobExecutionService.reset("shutdown", HazelcastInstanceNotActiveException::new);
         networking.shutdown();
         taskletExecutionService.shutdown();
+        if (snapshotStore instanceof DiskSnapshotStore) {
+            ((DiskSnapshotStore) snapshotStore).shutdown();
+        }
+        resourceCache.shutdown();
+        unregisterMetricsMBean();
     }
 
     @Override
@@ -142,6 +163,10 @@ public class JetService
         return jobRepository;
     }
 
+    public SnapshotStore getSnapshotStore() {
+        return snapshotStore;
+    }
+
     public JobCoordinationService getJobCoordinationService() {
         return jobCoordinationService;
     }
@@ -182,4 +207,30 @@ public class JetService
     public void populate(LiveOperations liveOperations) {
         liveOperationRegistry.populate(liveOperations);
     }
+
+    private void registerMetricsMBean() {
+        if (!nodeEngine.getProperties().getBoolean(GroupProperty.ENABLE_JMX)) {
+            return;
+        }
+        try {
+            JetMetricsMBean mBean = new JetMetricsMBean(nodeEngine.getMetricsRegistry(),
+                    nodeEngine.getHazelcastInstance().getName());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mBean, mBean.objectName());
+            metricsMBean = mBean;
+        } catch (Exception e) {
+            logger.warning("Failed to register the Jet metrics MBean", e);
+        }
+    }
+
+    private void unregisterMetricsMBean() {
+        if (metricsMBean == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsMBean.objectName());
+        } catch (Exception e) {
+            logger.warning("Failed to unregister the Jet metrics MBean", e);
+        }
+        metricsMBean = null;
+    }
 }
@@ -27,6 +27,7 @@ import com.hazelcast.jet.core.JobNotFoundException;
 import com.hazelcast.jet.core.JobStatus;
 import com.hazelcast.jet.core.TopologyChangedException;
 import com.hazelcast.jet.impl.deployment.JetClassLoader;
+import com.hazelcast.jet.impl.deployment.ResourceCache;
 import com.hazelcast.jet.impl.execution.SnapshotRecord.SnapshotStatus;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.serialization.Data;
@@ -58,6 +59,7 @@ import static com.hazelcast.jet.impl.util.JetGroupProperty.JOB_SCAN_PERIOD;
 import static com.hazelcast.jet.impl.util.Util.idToString;
 import static com.hazelcast.jet.impl.util.Util.jobAndExecutionId;
 import static com.hazelcast.util.executor.ExecutorType.CACHED;
+import static java.util.Collections.emptyList;
 import static java.util.Comparator.comparing;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -74,17 +76,19 @@ public class JobCoordinationService {
     private final JobRepository jobRepository;
     private final JobExecutionService jobExecutionService;
     private final SnapshotRepository snapshotRepository;
+    private final ResourceCache resourceCache;
     private final ConcurrentMap<Long, MasterContext> masterContexts = new ConcurrentHashMap<>();
 
     public JobCoordinationService(NodeEngineImpl nodeEngine, JetConfig config,
                                   JobRepository jobRepository, JobExecutionService jobExecutionService,
-                                  SnapshotRepository snapshotRepository) {
+                                  SnapshotRepository snapshotRepository, ResourceCache resourceCache) {
         this.nodeEngine = nodeEngine;
         this.config = config;
         this.logger = nodeEngine.getLogger(getClass());
         this.jobRepository = jobRepository;
         this.jobExecutionService = jobExecutionService;
         this.snapshotRepository = snapshotRepository;
+        this.resourceCache = resourceCache;
     }
 
     public void init() {
@@ -101,7 +105,13 @@ public class JobCoordinationService {
     }
 
     public ClassLoader getClassLoader(long jobId) {
-        PrivilegedAction<JetClassLoader> action = () -> new JetClassLoader(jobRepository.getJobResources(jobId));
+        PrivilegedAction<JetClassLoader> action = () -> {
+            List<String> manifest = jobRepository.getResourceManifest(jobId);
+            return new JetClassLoader(manifest == null
+                    ? emptyList()
+                    : resourceCache.blobDirs(manifest, jobRepository::getResourceBlobEntryNames,
+                            jobRepository::getResourceBlobEntry));
+        };
         return jobExecutionService.getClassLoader(jobId, action);
     }
 
@@ -399,6 +409,27 @@ public class JobCoordinationService {
         throw new JobNotFoundException(jobId);
     }
 
+    /**
+     * Returns a future which will be completed with the metrics of the
+     * current execution of the job, collected from all members. Fails with
+     * {@link JobNotFoundException} if the requested job is not found.
+     */
+    public CompletableFuture<Map<String, Long>> getJobMetrics(long jobId) {
+        if (!isMaster()) {
+            throw new JetException("Cannot query metrics of Job " + idToString(jobId) + ". Master address: "
+                    + nodeEngine.getClusterService().getMasterAddress());
+        }
+
+        MasterContext masterContext = masterContexts.get(jobId);
+        if (masterContext != null) {
+            return masterContext.collectMetrics();
+        }
+        if (jobRepository.getJobRecord(jobId) == null && jobRepository.getJobResult(jobId) == null) {
+            throw new JobNotFoundException(jobId);
+        }
+        return CompletableFuture.completedFuture(new HashMap<>());
+    }
+
     /**
      * Restarts execution of the given job.
      *
@@ -512,12 +543,13 @@ public class JobCoordinationService {
         }
     }
 
-    void completeSnapshot(long jobId, long executionId, long snapshotId, boolean isSuccess) {
+    void completeSnapshot(long jobId, long executionId, long snapshotId, boolean isSuccess,
+                          Collection<String> nonIncrementalVertices) {
         MasterContext masterContext = masterContexts.get(jobId);
         if (masterContext != null) {
             try {
                 SnapshotStatus status = isSuccess ? SUCCESSFUL : FAILED;
-                long elapsed = snapshotRepository.setSnapshotStatus(jobId, snapshotId, status);
+                long elapsed = snapshotRepository.setSnapshotStatus(jobId, snapshotId, status, nonIncrementalVertices);
                 logger.info(String.format("Snapshot %s for job %s completed with status %s in %dms", snapshotId,
                         idToString(jobId), status, elapsed));
             } catch (Exception e) {
@@ -527,7 +559,14 @@ public class JobCoordinationService {
             }
             try {
                 if (isSuccess) {
-                    snapshotRepository.deleteAllSnapshotsExceptOne(jobId, snapshotId);
+                    if (snapshotRepository.snapshotChain(jobId, snapshotId) != null) {
+                        snapshotRepository.deleteAllSnapshotsExcept(jobId, snapshotId);
+                    } else {
+                        // an incremental snapshot is based on a failed one, keep the
+                        // older snapshots until the next full snapshot completes
+                        logger.warning("Snapshot " + snapshotId + " for " + jobAndExecutionId(jobId, executionId)
+                                + " is not restorable, because a snapshot it is based on has failed");
+                    }
                 } else {
                     snapshotRepository.deleteSingleSnapshot(jobId, snapshotId);
                 }
@@ -597,6 +636,7 @@ public class JobCoordinationService {
 
     // runs periodically to restart jobs on coordinator failure and perform gc
     private void scanJobs() {
+        evictDeletedResourceBlobs();
         if (!shouldStartJobs()) {
             return;
         }
@@ -615,6 +655,21 @@ public class JobCoordinationService {
         }
     }
 
+    /**
+     * Evicts the resource blobs which the master deleted from the cluster
+     * from the cache of this member.
+     */
+    private void evictDeletedResourceBlobs() {
+        if (!nodeEngine.isRunning()) {
+            return;
+        }
+        try {
+            resourceCache.evictDeleted(jobRepository::resourceBlobExists);
+        } catch (Exception e) {
+            logger.fine("Evicting deleted job resources failed", e);
+        }
+    }
+
     private void performCleanup() {
         Set<Long> runningJobIds = masterContexts.keySet();
         jobRepository.cleanup(runningJobIds);
@@ -87,7 +87,7 @@ public class JobExecutionService {
                          .collect(toMap(entryKey(), entryValue()));
     }
 
-    Map<Integer, Map<Integer, Map<Address, SenderTasklet>>> getSenderMap(long executionId) {
+    Map<Integer, Map<Integer, Map<Address, SenderTasklet[]>>> getSenderMap(long executionId) {
         ExecutionContext ctx = executionContexts.get(executionId);
         return ctx != null ? ctx.senderMap() : null;
     }
@@ -40,11 +40,15 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -58,6 +62,7 @@ import static java.util.Collections.newSetFromMap;
 import static java.util.Comparator.comparing;
 import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 public class JobRepository {
 
@@ -66,6 +71,20 @@ public class JobRepository {
      */
     public static final String RESOURCES_MAP_NAME_PREFIX = INTERNAL_JET_OBJECTS_PREFIX + "resources.";
 
+    /**
+     * Name of internal IMap which stores job resource blobs, shared by all the
+     * jobs using the same resources. Each resource of a blob is stored under
+     * {@code <hash>/<resourceName>} and the list of its resource names under
+     * the hash of the blob content.
+     */
+    public static final String RESOURCE_BLOBS_MAP_NAME = INTERNAL_JET_OBJECTS_PREFIX + "resourceBlobs";
+
+    /**
+     * Name of internal IMap which stores the time each resource blob was last
+     * uploaded or reused by a job submission
+     */
+    public static final String RESOURCE_BLOB_TIMES_MAP_NAME = INTERNAL_JET_OBJECTS_PREFIX + "resourceBlobTimes";
+
     /**
      * Name of internal IMap which is used for unique id generation
      */
@@ -82,6 +101,8 @@ public class JobRepository {
     public static final String JOB_RESULTS_MAP_NAME = INTERNAL_JET_OBJECTS_PREFIX + "results";
 
     private static final String RESOURCE_MARKER = "__jet.resourceMarker";
+    private static final String RESOURCE_MANIFEST = "__jet.resourceManifest";
+    private static final int HASH_BUFFER_SIZE = 1 << 16;
     private static final long DEFAULT_RESOURCES_EXPIRATION_MILLIS = HOURS.toMillis(2);
 
     private final HazelcastInstance instance;
@@ -90,6 +111,8 @@ public class JobRepository {
     private final IMap<Long, Long> randomIds;
     private final IMap<Long, JobRecord> jobRecords;
     private final IMap<Long, JobResult> jobResults;
+    private final IMap<String, Object> resourceBlobs;
+    private final IMap<String, Long> resourceBlobTimes;
     private long resourcesExpirationMillis = DEFAULT_RESOURCES_EXPIRATION_MILLIS;
 
     /**
@@ -115,6 +138,8 @@ public class JobRepository {
         this.randomIds = instance.getMap(RANDOM_IDS_MAP_NAME);
         this.jobRecords = instance.getMap(JOB_RECORDS_MAP_NAME);
         this.jobResults = instance.getMap(JOB_RESULTS_MAP_NAME);
+        this.resourceBlobs = instance.getMap(RESOURCE_BLOBS_MAP_NAME);
+        this.resourceBlobTimes = instance.getMap(RESOURCE_BLOB_TIMES_MAP_NAME);
     }
 
     // for tests
@@ -124,6 +149,9 @@ public class JobRepository {
 
     /**
      * Uploads job resources and returns a unique job id generated for the job.
+     * Each resource is stored as a blob under the hash of its content and is
+     * only uploaded if no other job uploaded it before. The job's own resource
+     * map only lists the hashes of its blobs.
      * If the upload process fails for any reason, such as being unable to access a resource,
      * uploaded resources are cleaned up.
      */
@@ -131,30 +159,17 @@ public class JobRepository {
         long jobId = newJobId();
 
         IMap<String, Object> jobResourcesMap = getJobResources(jobId);
+        ArrayList<String> manifest = new ArrayList<>();
         for (ResourceConfig rc : jobConfig.getResourceConfigs()) {
-            Map<String, byte[]> tmpMap = new HashMap<>();
-            if (rc.isArchive()) {
-                try {
-                    loadJar(tmpMap, rc.getUrl());
-                } catch (IOException e) {
-                    cleanupJobResourcesAndSnapshots(jobId, jobResourcesMap);
-                    randomIds.remove(jobId);
-                    throw new JetException("Job resource upload failed", e);
-                }
-            } else {
-                try {
-                    InputStream in = rc.getUrl().openStream();
-                    readStreamAndPutCompressedToMap(rc.getId(), tmpMap, in);
-                } catch (IOException e) {
-                    cleanupJobResourcesAndSnapshots(jobId, jobResourcesMap);
-                    randomIds.remove(jobId);
-                    throw new JetException("Job resource upload failed", e);
-                }
+            try {
+                manifest.add(uploadResourceBlob(rc));
+            } catch (IOException e) {
+                cleanupJobResourcesAndSnapshots(jobId, jobResourcesMap);
+                randomIds.remove(jobId);
+                throw new JetException("Job resource upload failed", e);
             }
-
-            // now upload it all
-            jobResourcesMap.putAll(tmpMap);
         }
+        jobResourcesMap.put(RESOURCE_MANIFEST, manifest);
 
         // the marker object will be used to decide when to clean up job resources
         jobResourcesMap.put(RESOURCE_MARKER, System.currentTimeMillis());
@@ -171,26 +186,92 @@ public class JobRepository {
     }
 
     /**
-     * Unzips the Jar archive and processes individual entries using
-     * {@link #readStreamAndPutCompressedToMap(String, Map, InputStream)}.
+     * Uploads the resource as a blob, unless a blob with the same content hash
+     * is already present, and returns the hash.
+     */
+    private String uploadResourceBlob(ResourceConfig rc) throws IOException {
+        String hash = contentHash(rc);
+        // The lock on the hash keeps the cleanup from deleting the blob
+        // between our check and our touch, see cleanupResourceBlobs().
+        resourceBlobTimes.lock(hash);
+        try {
+            resourceBlobTimes.set(hash, System.currentTimeMillis());
+            if (resourceBlobs.containsKey(hash)) {
+                return hash;
+            }
+            Set<String> entryNames = new LinkedHashSet<>();
+            try {
+                if (rc.isArchive()) {
+                    uploadJar(hash, entryNames, rc.getUrl());
+                } else {
+                    try (InputStream in = rc.getUrl().openStream()) {
+                        uploadBlobEntry(hash, rc.getId(), entryNames, in);
+                    }
+                }
+            } catch (IOException e) {
+                entryNames.forEach(name -> resourceBlobs.delete(blobEntryKey(hash, name)));
+                throw e;
+            }
+            // the entry names are put last, the blob exists only when complete
+            resourceBlobs.set(hash, new ArrayList<>(entryNames));
+            return hash;
+        } finally {
+            resourceBlobTimes.unlock(hash);
+        }
+    }
+
+    /**
+     * Returns the SHA-256 hash of the resource content. The hash of a single
+     * resource also covers its id, because the id is the name it's loaded by.
      */
-    private void loadJar(Map<String, byte[]> map, URL url) throws IOException {
+    private static String contentHash(ResourceConfig rc) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new JetException("SHA-256 not supported", e);
+        }
+        if (!rc.isArchive()) {
+            digest.update(rc.getId().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        try (InputStream in = new DigestInputStream(rc.getUrl().openStream(), digest)) {
+            byte[] buffer = new byte[HASH_BUFFER_SIZE];
+            while (in.read(buffer) != -1) {
+                // just feed the digest
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Unzips the Jar archive and uploads individual entries using
+     * {@link #uploadBlobEntry(String, String, Set, InputStream)}.
+     */
+    private void uploadJar(String hash, Set<String> entryNames, URL url) throws IOException {
         try (JarInputStream jis = new JarInputStream(new BufferedInputStream(url.openStream()))) {
             JarEntry jarEntry;
             while ((jarEntry = jis.getNextJarEntry()) != null) {
                 if (jarEntry.isDirectory()) {
                     continue;
                 }
-                readStreamAndPutCompressedToMap(jarEntry.getName(), map, jis);
+                uploadBlobEntry(hash, jarEntry.getName(), entryNames, jis);
             }
         }
     }
 
-    private void readStreamAndPutCompressedToMap(String resourceName,
-                                                 Map<String, byte[]> map, InputStream in)
+    /**
+     * Compresses the resource and stores it as a separate entry of the blob,
+     * so that only one resource at a time is held in memory.
+     */
+    private void uploadBlobEntry(String hash, String resourceName, Set<String> entryNames, InputStream in)
             throws IOException {
         // ignore duplicates: the first resource in first jar takes precedence
-        if (map.containsKey(resourceName)) {
+        if (entryNames.contains(resourceName)) {
             return;
         }
 
@@ -199,7 +280,12 @@ public class JobRepository {
             IOUtil.drainTo(in, compressor);
         }
 
-        map.put(resourceName, baos.toByteArray());
+        entryNames.add(resourceName);
+        resourceBlobs.set(blobEntryKey(hash, resourceName), baos.toByteArray());
+    }
+
+    private static String blobEntryKey(String hash, String resourceName) {
+        return hash + '/' + resourceName;
     }
 
     private void cleanupJobResourcesAndSnapshots(long jobId, IMap<String, Object> jobResourcesMap) {
@@ -326,6 +412,60 @@ public class JobRepository {
                          cleanupJobResourcesAndSnapshots(jobId, resources);
                      }
                  });
+
+        Set<Long> liveJobIds = new HashSet<>(runningJobIds);
+        liveJobIds.addAll(jobRecords.keySet());
+        cleanupResourceBlobs(liveJobIds);
+    }
+
+    /**
+     * Deletes the resource blobs not touched for the expiration time and not
+     * used by any of the given jobs. A job still uploading its resources has
+     * touched its blobs recently, so it needn't be in the given set.
+     */
+    private void cleanupResourceBlobs(Set<Long> liveJobIds) {
+        long now = System.currentTimeMillis();
+        Set<String> expiredHashes = resourceBlobTimes.entrySet().stream()
+                                                     .filter(e -> now - e.getValue() >= resourcesExpirationMillis)
+                                                     .map(Entry::getKey)
+                                                     .collect(toSet());
+        if (expiredHashes.isEmpty()) {
+            return;
+        }
+        for (long jobId : liveJobIds) {
+            List<String> manifest = getResourceManifest(jobId);
+            if (manifest != null) {
+                expiredHashes.removeAll(manifest);
+            }
+        }
+        for (String hash : expiredHashes) {
+            // An upload holds the lock while it checks for the blob and
+            // touches it. If it's locked, the blob is being reused.
+            if (!resourceBlobTimes.tryLock(hash)) {
+                continue;
+            }
+            try {
+                Long time = resourceBlobTimes.get(hash);
+                if (time != null && now - time >= resourcesExpirationMillis) {
+                    deleteResourceBlob(hash);
+                    resourceBlobTimes.delete(hash);
+                }
+            } finally {
+                resourceBlobTimes.unlock(hash);
+            }
+        }
+    }
+
+    /**
+     * Deletes the list of the blob's entry names first, so that the blob
+     * stops existing before its entries are gone.
+     */
+    @SuppressWarnings("unchecked")
+    private void deleteResourceBlob(String hash) {
+        List<String> entryNames = (List<String>) resourceBlobs.remove(hash);
+        if (entryNames != null) {
+            entryNames.forEach(name -> resourceBlobs.delete(blobEntryKey(hash, name)));
+        }
     }
 
     private boolean isMarkerExpired(EntryView<String, Object> record) {
@@ -356,6 +496,37 @@ public class JobRepository {
         return instance.getMap(RESOURCES_MAP_NAME_PREFIX + idToString(jobId));
     }
 
+    /**
+     * Returns the hashes of the job's resource blobs in the order the
+     * resources were added to the job config, or {@code null} if the job's
+     * resources are not uploaded.
+     */
+    @SuppressWarnings("unchecked")
+    List<String> getResourceManifest(long jobId) {
+        return (List<String>) getJobResources(jobId).get(RESOURCE_MANIFEST);
+    }
+
+    /**
+     * Returns the names of the resources in the blob with the given content
+     * hash, or {@code null} if there's no such blob.
+     */
+    @SuppressWarnings("unchecked")
+    List<String> getResourceBlobEntryNames(String hash) {
+        return (List<String>) resourceBlobs.get(hash);
+    }
+
+    /**
+     * Returns the deflated content of the given resource of the blob with the
+     * given content hash, or {@code null} if there's no such resource.
+     */
+    byte[] getResourceBlobEntry(String hash, String resourceName) {
+        return (byte[]) resourceBlobs.get(blobEntryKey(hash, resourceName));
+    }
+
+    boolean resourceBlobExists(String hash) {
+        return resourceBlobs.containsKey(hash);
+    }
+
     public JobResult getJobResult(long jobId) {
         return jobResults.get(jobId);
     }
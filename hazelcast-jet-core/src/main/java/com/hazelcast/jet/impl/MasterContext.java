@@ -24,16 +24,21 @@ import com.hazelcast.jet.config.JobConfig;
 import com.hazelcast.jet.config.ProcessingGuarantee;
 import com.hazelcast.jet.core.BroadcastKey;
 import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.DefaultPartitionStrategy;
 import com.hazelcast.jet.core.Edge;
 import com.hazelcast.jet.core.JobStatus;
+import com.hazelcast.jet.core.Partitioner;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
 import com.hazelcast.jet.core.TopologyChangedException;
 import com.hazelcast.jet.core.Vertex;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.impl.exception.JobRestartRequestedException;
 import com.hazelcast.jet.impl.execution.BroadcastEntry;
+import com.hazelcast.jet.impl.execution.InFlightItemKey;
 import com.hazelcast.jet.impl.execution.init.ExecutionPlan;
 import com.hazelcast.jet.impl.operation.CancelExecutionOperation;
 import com.hazelcast.jet.impl.operation.CompleteExecutionOperation;
+import com.hazelcast.jet.impl.operation.GetLocalJobMetricsOperation;
 import com.hazelcast.jet.impl.operation.InitExecutionOperation;
 import com.hazelcast.jet.impl.operation.SnapshotOperation;
 import com.hazelcast.jet.impl.operation.StartExecutionOperation;
@@ -47,6 +52,7 @@ import com.hazelcast.spi.InternalCompletableFuture;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.HashMap;
@@ -71,9 +77,7 @@ import static com.hazelcast.jet.core.JobStatus.NOT_STARTED;
 import static com.hazelcast.jet.core.JobStatus.RESTARTING;
 import static com.hazelcast.jet.core.JobStatus.RUNNING;
 import static com.hazelcast.jet.core.JobStatus.STARTING;
-import static com.hazelcast.jet.core.processor.SourceProcessors.readMapP;
 import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
-import static com.hazelcast.jet.impl.SnapshotRepository.snapshotDataMapName;
 import static com.hazelcast.jet.impl.execution.SnapshotContext.NO_SNAPSHOT;
 import static com.hazelcast.jet.impl.execution.init.CustomClassLoadedObject.deserializeWithCustomClassLoader;
 import static com.hazelcast.jet.impl.execution.init.ExecutionPlanBuilder.createExecutionPlans;
@@ -82,7 +86,6 @@ import static com.hazelcast.jet.impl.util.ExceptionUtil.peel;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.withTryCatch;
 import static com.hazelcast.jet.impl.util.Util.idToString;
 import static com.hazelcast.jet.impl.util.Util.jobAndExecutionId;
-import static com.hazelcast.query.TruePredicate.truePredicate;
 import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.partitioningBy;
 import static java.util.stream.Collectors.toList;
@@ -107,6 +110,7 @@ public class MasterContext {
     private volatile Set<Vertex> vertices;
 
     private volatile long executionId;
+    private volatile long firstSnapshotId;
     private volatile long jobStartTime;
     private volatile Map<MemberInfo, ExecutionPlan> executionPlanMap;
     private volatile CompletionToken executionRestartToken;
@@ -179,7 +183,7 @@ public class MasterContext {
         long lastSnapshotId = NO_SNAPSHOT;
         if (isSnapshottingEnabled()) {
             Long snapshotIdToRestore = snapshotRepository.latestCompleteSnapshot(jobId);
-            snapshotRepository.deleteAllSnapshotsExceptOne(jobId, snapshotIdToRestore);
+            snapshotRepository.deleteAllSnapshotsExcept(jobId, snapshotIdToRestore);
             Long lastStartedSnapshot = snapshotRepository.latestStartedSnapshot(jobId);
             if (snapshotIdToRestore != null) {
                 logger.info("State of " + jobIdString() + " will be restored from snapshot "
@@ -192,6 +196,7 @@ public class MasterContext {
                 lastSnapshotId = lastStartedSnapshot;
             }
         }
+        firstSnapshotId = lastSnapshotId + 1;
 
         MembersView membersView = getMembersView();
         ClassLoader previousCL = swapContextClassLoader(coordinationService.getClassLoader(jobId));
@@ -218,15 +223,18 @@ public class MasterContext {
     private void rewriteDagWithSnapshotRestore(DAG dag, long snapshotId) {
         logger.info(jobIdString() + ": restoring state from snapshotId=" + snapshotId);
         for (Vertex vertex : dag) {
+            // newest first, the last one is a full snapshot of the vertex
+            List<Long> snapshotChain = snapshotRepository.snapshotChain(jobId, snapshotId, vertex.getName());
+            assert snapshotChain != null : "snapshot " + snapshotId + " is not restorable";
             // items with keys of type BroadcastKey need to be broadcast to all processors
             DistributedFunction<Entry<Object, Object>, ?> projection = (Entry<Object, Object> e) ->
                     (e.getKey() instanceof BroadcastKey) ? new BroadcastEntry<>(e) : e;
             // We add the vertex even in case when the map is empty: this ensures, that
             // Processor.finishSnapshotRestore() method is always called on all vertices in
             // a job which is restored from a snapshot.
-            String mapName = snapshotDataMapName(jobId, snapshotId, vertex.getName());
-            Vertex readSnapshotVertex = dag.newVertex("__read_snapshot." + vertex.getName(),
-                    readMapP(mapName, truePredicate(), projection));
+            ProcessorMetaSupplier readSnapshotP = snapshotRepository.snapshotStore().readSnapshotP(
+                    jobId, snapshotChain, vertex.getName(), projection);
+            Vertex readSnapshotVertex = dag.newVertex("__read_snapshot." + vertex.getName(), readSnapshotP);
 
             readSnapshotVertex.localParallelism(vertex.getLocalParallelism());
 
@@ -434,7 +442,8 @@ public class MasterContext {
         }
 
         List<String> vertexNames = vertices.stream().map(Vertex::getName).collect(Collectors.toList());
-        long newSnapshotId = snapshotRepository.registerSnapshot(jobId, vertexNames);
+        long newSnapshotId = snapshotRepository.registerSnapshot(jobId, vertexNames, firstSnapshotId,
+                getJobConfig().getFullSnapshotInterval());
 
         logger.info(String.format("Starting snapshot %s for %s", newSnapshotId, jobAndExecutionId(jobId, executionId)));
         Function<ExecutionPlan, Operation> factory =
@@ -443,6 +452,7 @@ public class MasterContext {
         invoke(factory, responses -> onSnapshotCompleted(responses, executionId, newSnapshotId), null);
     }
 
+    @SuppressWarnings("unchecked")
     private void onSnapshotCompleted(Map<MemberInfo, Object> responses, long executionId, long snapshotId) {
         Map<Address, Throwable> errors = responses.entrySet().stream()
             .filter(e -> e.getValue() instanceof Throwable)
@@ -454,7 +464,41 @@ public class MasterContext {
             logger.warning(jobAndExecutionId(jobId, executionId) + " snapshot " + snapshotId + " has failures: "
                     + errors);
         }
-        coordinationService.completeSnapshot(jobId, executionId, snapshotId, isSuccess);
+        // the vertices which saved their complete state, even if the snapshot is incremental
+        Set<String> nonIncrementalVertices = responses.values().stream()
+                .filter(r -> r instanceof Collection)
+                .flatMap(r -> ((Collection<String>) r).stream())
+                .collect(Collectors.toSet());
+        coordinationService.completeSnapshot(jobId, executionId, snapshotId, isSuccess, nonIncrementalVertices);
+    }
+
+    /**
+     * Collects the metrics of the current execution from all participants.
+     * The returned future is completed with an empty map if the job isn't
+     * running. Failures of individual members are logged and their metrics
+     * left out.
+     */
+    @SuppressWarnings("unchecked")
+    CompletableFuture<Map<String, Long>> collectMetrics() {
+        CompletableFuture<Map<String, Long>> future = new CompletableFuture<>();
+        if (jobStatus() != RUNNING) {
+            future.complete(new HashMap<>());
+            return future;
+        }
+        long executionId = this.executionId;
+        invoke(plan -> new GetLocalJobMetricsOperation(jobId, executionId), responses -> {
+            Map<String, Long> merged = new HashMap<>();
+            for (Entry<MemberInfo, Object> e : responses.entrySet()) {
+                if (e.getValue() instanceof Map) {
+                    merged.putAll((Map<String, Long>) e.getValue());
+                } else {
+                    logger.fine("Failed to collect metrics of " + jobAndExecutionId(jobId, executionId)
+                            + " from " + e.getKey().getAddress() + ": " + e.getValue());
+                }
+            }
+            future.complete(merged);
+        }, null);
+        return future;
     }
 
     // Called as callback when all ExecuteOperation invocations are done
@@ -675,7 +719,7 @@ public class MasterContext {
         SnapshotRestoreEdge(Vertex source, Vertex destination, int destOrdinal) {
             super(source, 0, destination, destOrdinal);
             distributed();
-            partitioned(entryKey());
+            partitioned(entryKey(), new SnapshotRestorePartitioner());
         }
 
         @Override
@@ -684,6 +728,30 @@ public class MasterContext {
         }
     }
 
+    /**
+     * Routes the in-flight items saved by unaligned snapshots to the partition
+     * they were received for, other keys use the default partitioning.
+     */
+    private static class SnapshotRestorePartitioner implements Partitioner<Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Partitioner<Object> defaultPartitioner = Partitioner.defaultPartitioner();
+
+        @Override
+        public void init(@Nonnull DefaultPartitionStrategy strat) {
+            defaultPartitioner.init(strat);
+        }
+
+        @Override
+        public int getPartition(@Nonnull Object key, int partitionCount) {
+            if (key instanceof InFlightItemKey && ((InFlightItemKey) key).partitionId() >= 0) {
+                return ((InFlightItemKey) key).partitionId();
+            }
+            return defaultPartitioner.getPartition(key, partitionCount);
+        }
+    }
+
     /**
      * Registered to {@link StartExecutionOperation} invocations to cancel invocations in case of a failure or restart
      */
@@ -17,6 +17,7 @@
 package com.hazelcast.jet.impl;
 
 import com.hazelcast.jet.impl.execution.ExecutionContext;
+import com.hazelcast.jet.impl.execution.ReceiverTasklet;
 import com.hazelcast.jet.impl.execution.SenderTasklet;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Address;
@@ -76,16 +77,18 @@ public class Networking {
         long executionId = in.readLong();
         int vertexId = in.readInt();
         int ordinal = in.readInt();
+        int lane = in.readInt();
         ExecutionContext executionContext = jobExecutionService.getExecutionContext(executionId);
-        executionContext.handlePacket(vertexId, ordinal, packet.getConn().getEndPoint(), in);
+        executionContext.handlePacket(vertexId, ordinal, lane, packet.getConn().getEndPoint(), in);
     }
 
     public static byte[] createStreamPacketHeader(NodeEngine nodeEngine, long executionId,
-                                                  int destinationVertexId, int ordinal) {
+                                                  int destinationVertexId, int ordinal, int lane) {
         try (BufferObjectDataOutput out = createObjectDataOutput(nodeEngine)) {
             out.writeLong(executionId);
             out.writeInt(destinationVertexId);
             out.writeInt(ordinal);
+            out.writeInt(lane);
             return out.toByteArray();
         } catch (IOException e) {
             throw sneakyThrow(e);
@@ -118,13 +121,20 @@ public class Networking {
             out.writeInt(executionContexts.size());
             executionContexts.forEach((execId, exeCtx) -> uncheckRun(() -> {
                 out.writeLong(execId);
-                out.writeInt(exeCtx.receiverMap().values().stream().mapToInt(Map::size).sum());
-                exeCtx.receiverMap().forEach((vertexId, ordinalToSenderToTasklet) ->
-                        ordinalToSenderToTasklet.forEach((ordinal, senderToTasklet) -> uncheckRun(() -> {
-                            out.writeInt(vertexId);
-                            out.writeInt(ordinal);
-                            out.writeInt(senderToTasklet.get(member).updateAndGetSendSeqLimitCompressed());
-                            hasData[0] = true;
+                out.writeInt(exeCtx.receiverMap().values().stream()
+                                   .flatMap(ordinalMap -> ordinalMap.values().stream())
+                                   .mapToInt(senderToTasklets -> senderToTasklets.get(member).length)
+                                   .sum());
+                exeCtx.receiverMap().forEach((vertexId, ordinalToSenderToTasklets) ->
+                        ordinalToSenderToTasklets.forEach((ordinal, senderToTasklets) -> uncheckRun(() -> {
+                            ReceiverTasklet[] laneTasklets = senderToTasklets.get(member);
+                            for (int lane = 0; lane < laneTasklets.length; lane++) {
+                                out.writeInt(vertexId);
+                                out.writeInt(ordinal);
+                                out.writeInt(lane);
+                                out.writeInt(laneTasklets[lane].updateAndGetSendSeqLimitCompressed());
+                                hasData[0] = true;
+                            }
                         })));
             }));
             return hasData[0] ? out.toByteArray() : EMPTY_BYTES;
@@ -136,7 +146,7 @@ public class Networking {
             final int executionCtxCount = in.readInt();
             for (int j = 0; j < executionCtxCount; j++) {
                 final long executionId = in.readLong();
-                final Map<Integer, Map<Integer, Map<Address, SenderTasklet>>> senderMap
+                final Map<Integer, Map<Integer, Map<Address, SenderTasklet[]>>> senderMap
                         = jobExecutionService.getSenderMap(executionId);
 
                 if (senderMap == null) {
@@ -147,10 +157,13 @@ public class Networking {
                 for (int k = 0; k < flowCtlMsgCount; k++) {
                     int destVertexId = in.readInt();
                     int destOrdinal = in.readInt();
+                    int destLane = in.readInt();
                     int sendSeqLimitCompressed = in.readInt();
                     final SenderTasklet t = Optional.ofNullable(senderMap.get(destVertexId))
                                                     .map(ordinalMap -> ordinalMap.get(destOrdinal))
                                                     .map(addrMap -> addrMap.get(fromAddr))
+                                                    .filter(lanes -> destLane < lanes.length)
+                                                    .map(lanes -> lanes[destLane])
                                                     .orElse(null);
                     if (t == null) {
                         logMissingSenderTasklet(destVertexId, destOrdinal);
@@ -24,11 +24,18 @@ import com.hazelcast.jet.core.DAG;
 import com.hazelcast.jet.core.Edge;
 import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.TimestampKind;
 import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.jet.core.WindowDefinition;
+import com.hazelcast.jet.datamodel.Session;
+import com.hazelcast.jet.datamodel.TimestampedEntry;
 import com.hazelcast.jet.core.processor.DiagnosticProcessors;
 import com.hazelcast.jet.core.processor.Processors;
 import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.function.DistributedPredicate;
 import com.hazelcast.jet.function.DistributedSupplier;
+import com.hazelcast.jet.impl.processor.FusedTransformP;
+import com.hazelcast.jet.impl.processor.FusedTransformP.Step;
 import com.hazelcast.jet.impl.processor.HashJoinCollectP;
 import com.hazelcast.jet.impl.processor.HashJoinP;
 import com.hazelcast.jet.impl.transform.CoGroupTransform;
@@ -36,11 +43,15 @@ import com.hazelcast.jet.impl.transform.FilterTransform;
 import com.hazelcast.jet.impl.transform.FlatMapTransform;
 import com.hazelcast.jet.impl.transform.GroupByTransform;
 import com.hazelcast.jet.impl.transform.HashJoinTransform;
+import com.hazelcast.jet.impl.transform.InsertWatermarksTransform;
 import com.hazelcast.jet.impl.transform.MapTransform;
 import com.hazelcast.jet.impl.transform.PeekTransform;
 import com.hazelcast.jet.impl.transform.ProcessorTransform;
+import com.hazelcast.jet.impl.transform.SessionWindowTransform;
+import com.hazelcast.jet.impl.transform.WindowTransform;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -56,6 +67,7 @@ import static com.hazelcast.jet.core.Edge.from;
 import static com.hazelcast.jet.core.Partitioner.HASH_CODE;
 import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
 import static com.hazelcast.jet.impl.TopologicalSorter.topologicalSort;
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 
 @SuppressWarnings("unchecked")
@@ -67,12 +79,14 @@ class Planner {
 
     private final Set<String> vertexNames = new HashSet<>();
 
+    private Map<Stage, List<Stage>> adjacencyMap;
+
     Planner(PipelineImpl pipeline) {
         this.pipeline = pipeline;
     }
 
     DAG createDag() {
-        Map<Stage, List<Stage>> adjacencyMap = pipeline.adjacencyMap();
+        adjacencyMap = pipeline.adjacencyMap();
         validateNoLeakage(adjacencyMap);
         Iterable<AbstractStage> sorted = (Iterable<AbstractStage>) (Iterable<? extends Stage>)
                 topologicalSort(adjacencyMap, Object::toString);
@@ -90,6 +104,12 @@ class Planner {
                 handleFlatMap(stage, (FlatMapTransform) transform);
             } else if (transform instanceof GroupByTransform) {
                 handleGroupBy(stage, (GroupByTransform) transform);
+            } else if (transform instanceof InsertWatermarksTransform) {
+                handleInsertWatermarks(stage, (InsertWatermarksTransform) transform);
+            } else if (transform instanceof WindowTransform) {
+                handleWindow(stage, (WindowTransform) transform);
+            } else if (transform instanceof SessionWindowTransform) {
+                handleSessionWindow(stage, (SessionWindowTransform) transform);
             } else if (transform instanceof CoGroupTransform) {
                 handleCoGroup(stage, (CoGroupTransform) transform);
             } else if (transform instanceof HashJoinTransform) {
@@ -128,19 +148,36 @@ class Planner {
     }
 
     private void handleMap(AbstractStage stage, MapTransform map) {
-        PlannerVertex pv = addVertex(stage, vertexName(map.name(), ""), Processors.mapP(map.mapFn));
-        addEdges(stage, pv.v);
+        DistributedFunction<Object, Object> mapFn = map.mapFn;
+        addFusableStage(stage, map.name(), Step.map(mapFn));
     }
 
     private void handleFilter(AbstractStage stage, FilterTransform filter) {
-        PlannerVertex pv = addVertex(stage, vertexName(filter.name(), ""),
-                Processors.filterP(filter.filterFn));
-        addEdges(stage, pv.v);
+        DistributedPredicate<Object> filterFn = filter.filterFn;
+        addFusableStage(stage, filter.name(), Step.map(item -> filterFn.test(item) ? item : null));
     }
 
     private void handleFlatMap(AbstractStage stage, FlatMapTransform flatMap) {
-        PlannerVertex pv = addVertex(stage, vertexName(flatMap.name(), ""),
-                Processors.flatMapP(flatMap.flatMapFn()));
+        addFusableStage(stage, flatMap.name(), Step.flatMap(flatMap.flatMapFn()));
+    }
+
+    // Stateless stages are fused into the upstream vertex when it is also a
+    // chain of stateless stages and this stage is its only consumer. Such
+    // a chain becomes a single FusedTransformP vertex instead of a vertex
+    // and a local edge per stage.
+    private void addFusableStage(AbstractStage stage, String name, Step step) {
+        PlannerVertex upstreamPv = stage.upstream.size() == 1 ? stage2vertex.get(stage.upstream.get(0)) : null;
+        if (upstreamPv != null && upstreamPv.fusedSteps != null
+                && adjacencyMap.get(stage.upstream.get(0)).size() == 1) {
+            upstreamPv.fusedSteps.add(step);
+            List<Step> steps = new ArrayList<>(upstreamPv.fusedSteps);
+            upstreamPv.v.updateMetaSupplier(sup -> ProcessorMetaSupplier.of(() -> new FusedTransformP<>(steps)));
+            stage2vertex.put(stage, upstreamPv);
+            return;
+        }
+        List<Step> steps = singletonList(step);
+        PlannerVertex pv = addVertex(stage, vertexName(name, ""), () -> new FusedTransformP<>(steps));
+        pv.fusedSteps = new ArrayList<>(steps);
         addEdges(stage, pv.v);
     }
 
@@ -148,7 +185,7 @@ class Planner {
     //                      | source |
     //                       --------
     //                           |
-    //                      partitioned
+    //                      partitioned*
     //                           v
     //                       ---------
     //                      | stage1  |
@@ -160,21 +197,92 @@ class Planner {
     //                       ---------
     //                      | stage2  |
     //                       ---------
+    // * hot keys are spread over all stage1 processors, see HotKeyPartitioner
     private void handleGroupBy(AbstractStage stage, GroupByTransform<Object, Object, Object, Object> groupBy) {
         String namePrefix = vertexName(groupBy.name(), "-stage");
         Vertex v1 = dag.newVertex(namePrefix + '1',
                 Processors.accumulateByKeyP(groupBy.keyFn(), groupBy.aggregateOperation()));
         PlannerVertex pv2 = addVertex(stage, namePrefix + '2',
                 Processors.combineByKeyP(groupBy.aggregateOperation()));
-        addEdges(stage, v1, e -> e.partitioned(groupBy.keyFn(), HASH_CODE));
+        addEdges(stage, v1, e -> e.partitioned(groupBy.keyFn(), new HotKeyPartitioner(HASH_CODE)));
         dag.edge(between(v1, pv2.v).distributed().partitioned(entryKey()));
     }
 
+    private void handleInsertWatermarks(AbstractStage stage, InsertWatermarksTransform<Object> insertWms) {
+        PlannerVertex pv = addVertex(stage, vertexName(insertWms.name(), ""),
+                Processors.insertWatermarksP(insertWms.wmGenParams()));
+        addEdges(stage, pv.v);
+    }
+
+    //                       --------
+    //                      | source |
+    //                       --------
+    //                           |
+    //                      partitioned
+    //                           v
+    //                       ---------
+    //                      | stage1  |  accumulate by frame
+    //                       ---------
+    //                           |
+    //                      distributed
+    //                      partitioned
+    //                           v
+    //                       ---------
+    //                      | stage2  |  combine to sliding window
+    //                       ---------
+    private void handleWindow(AbstractStage stage, WindowTransform<Object, Object, Object, Object> window) {
+        String namePrefix = vertexName(window.name(), "-stage");
+        WindowDefinition wDef = window.windowDefinition();
+        Vertex v1 = dag.newVertex(namePrefix + '1', Processors.accumulateByFrameP(
+                window.keyFn(), window.timestampFn(), TimestampKind.EVENT, wDef, window.aggregateOperation()));
+        PlannerVertex pv2 = addVertex(stage, namePrefix + '2',
+                Processors.combineToSlidingWindowP(wDef, window.aggregateOperation()));
+        addEdges(stage, v1, e -> e.partitioned(window.keyFn(), HASH_CODE));
+        dag.edge(between(v1, pv2.v).distributed().partitioned(TimestampedEntry::getKey));
+    }
+
+    //                       --------
+    //                      | source |
+    //                       --------
+    //                           |
+    //                      partitioned
+    //                           v
+    //                       ---------
+    //                      | stage1  |  accumulate to session window
+    //                       ---------
+    //                           |
+    //                      distributed
+    //                      partitioned
+    //                           v
+    //                       ---------
+    //                      | stage2  |  combine to session window
+    //                       ---------
+    private void handleSessionWindow(
+            AbstractStage stage, SessionWindowTransform<Object, Object, Object, Object> sessionWindow
+    ) {
+        if (sessionWindow.aggregateOperation().combineFn() == null) {
+            // without the combine primitive partial sessions can't be merged, use a single stage
+            PlannerVertex pv = addVertex(stage, vertexName(sessionWindow.name(), ""),
+                    Processors.aggregateToSessionWindowP(sessionWindow.sessionTimeout(),
+                            sessionWindow.timestampFn(), sessionWindow.keyFn(), sessionWindow.aggregateOperation()));
+            addEdges(stage, pv.v, e -> e.distributed().partitioned(sessionWindow.keyFn()));
+            return;
+        }
+        String namePrefix = vertexName(sessionWindow.name(), "-stage");
+        Vertex v1 = dag.newVertex(namePrefix + '1', Processors.accumulateToSessionWindowP(
+                sessionWindow.sessionTimeout(), sessionWindow.timestampFn(), sessionWindow.keyFn(),
+                sessionWindow.aggregateOperation()));
+        PlannerVertex pv2 = addVertex(stage, namePrefix + '2',
+                Processors.combineToSessionWindowP(sessionWindow.aggregateOperation()));
+        addEdges(stage, v1, e -> e.partitioned(sessionWindow.keyFn(), HASH_CODE));
+        dag.edge(between(v1, pv2.v).distributed().partitioned(Session::getKey));
+    }
+
     //            ----------             ----------
     //           | source-1 |           | source-2 |
     //            ----------             ----------
     //                |                       |
-    //           partitioned             partitioned
+    //           partitioned*            partitioned*
     //                \--------v     v-------/
     //                        ---------
     //                       |    v1   |
@@ -186,6 +294,7 @@ class Planner {
     //                        ---------
     //                       |    v2   |
     //                        ---------
+    // * hot keys are spread over all v1 processors, see HotKeyPartitioner
     private void handleCoGroup(AbstractStage stage, CoGroupTransform<Object, Object, Object> coGroup) {
         List<DistributedFunction<?, ?>> groupKeyFs = coGroup.groupKeyFs();
         String namePrefix = vertexName(coGroup.name(), "-stage");
@@ -193,7 +302,7 @@ class Planner {
                 Processors.coAccumulateByKeyP(groupKeyFs, coGroup.aggregateOperation()));
         PlannerVertex pv2 = addVertex(stage, namePrefix + '2',
                 Processors.combineByKeyP(coGroup.aggregateOperation()));
-        addEdges(stage, v1, (e, ord) -> e.partitioned(groupKeyFs.get(ord), HASH_CODE));
+        addEdges(stage, v1, (e, ord) -> e.partitioned(groupKeyFs.get(ord), new HotKeyPartitioner(HASH_CODE)));
         dag.edge(between(v1, pv2.v).distributed().partitioned(entryKey()));
     }
 
@@ -225,8 +334,11 @@ class Planner {
                 hashJoin.clauses().stream()
                         .map(JoinClause::leftKeyFn)
                         .collect(toList());
+        // the joiner blocks on disk I/O if any of the lookup tables may be spilled
+        boolean isCooperative = hashJoin.clauses().stream()
+                                        .allMatch(clause -> clause.maxInMemoryEntries() == Long.MAX_VALUE);
         Vertex joiner = addVertex(stage, namePrefix + "joiner",
-                () -> new HashJoinP<>(keyFns, hashJoin.tags())).v;
+                () -> new HashJoinP<>(keyFns, hashJoin.tags(), isCooperative)).v;
         dag.edge(from(primary.v, primary.availableOrdinal++).to(joiner, 0));
 
         String collectorName = namePrefix + "collector-";
@@ -238,8 +350,10 @@ class Planner {
                     (DistributedFunction<Object, Object>) clause.rightKeyFn();
             DistributedFunction<Object, Object> projectFn =
                     (DistributedFunction<Object, Object>) clause.rightProjectFn();
-            Vertex collector = dag.newVertex(collectorName + collectorOrdinal,
-                    () -> new HashJoinCollectP(getKeyFn, projectFn));
+            Vertex collector = clause.maxInMemoryEntries() == Long.MAX_VALUE
+                    ? dag.newVertex(collectorName + collectorOrdinal, () -> new HashJoinCollectP(getKeyFn, projectFn))
+                    : dag.newVertex(collectorName + collectorOrdinal,
+                            new HashJoinCollectP.Supplier(getKeyFn, projectFn, clause.maxInMemoryEntries()));
             collector.localParallelism(1);
             dag.edge(from(fromPv.v, fromPv.availableOrdinal++)
                     .to(collector, 0)
@@ -256,6 +370,9 @@ class Planner {
         // Peeking transform doesn't add a vertex, so point to the upstream stage's
         // vertex:
         stage2vertex.put(stage, peekedPv);
+        // The peeking wrapper logs the vertex's output, so no further stages
+        // may be fused into it
+        peekedPv.fusedSteps = null;
         peekedPv.v.updateMetaSupplier(sup ->
                 DiagnosticProcessors.peekOutputP(peekTransform.toStringFn(), peekTransform.shouldLogFn(), sup));
     }
@@ -314,6 +431,10 @@ class Planner {
 
         int availableOrdinal;
 
+        // non-null if the vertex is a chain of stateless stages that can
+        // be extended by fusing more stages into it
+        List<Step> fusedSteps;
+
         PlannerVertex(Vertex v) {
             this.v = v;
         }
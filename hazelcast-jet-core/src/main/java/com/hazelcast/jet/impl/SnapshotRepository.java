@@ -16,23 +16,31 @@
 
 package com.hazelcast.jet.impl;
 
-import com.hazelcast.aggregation.impl.MaxByAggregator;
 import com.hazelcast.core.IMap;
 import com.hazelcast.jet.JetInstance;
 import com.hazelcast.jet.impl.execution.SnapshotRecord;
 import com.hazelcast.jet.impl.execution.SnapshotRecord.SnapshotStatus;
+import com.hazelcast.jet.impl.snapshot.SnapshotStore;
 import com.hazelcast.jet.stream.IStreamMap;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.query.Predicate;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
+import static com.hazelcast.jet.impl.execution.SnapshotContext.NO_SNAPSHOT;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFinest;
 import static com.hazelcast.jet.impl.util.Util.compute;
 import static com.hazelcast.jet.impl.util.Util.idToString;
+import static java.util.Collections.emptyList;
 
 public class SnapshotRepository {
 
@@ -52,23 +60,34 @@ public class SnapshotRepository {
     private static final long LATEST_STARTED_SNAPSHOT_ID_KEY = -1;
 
     private final JetInstance instance;
+    private final SnapshotStore snapshotStore;
     private final ILogger logger;
 
-    public SnapshotRepository(JetInstance jetInstance) {
+    public SnapshotRepository(JetInstance jetInstance, SnapshotStore snapshotStore) {
         this.instance = jetInstance;
+        this.snapshotStore = snapshotStore;
         this.logger = jetInstance.getHazelcastInstance().getLoggingService().getLogger(getClass());
     }
 
+    SnapshotStore snapshotStore() {
+        return snapshotStore;
+    }
+
     /**
      * Registers a new snapshot. Returns the ID for the registered snapshot
+     *
+     * @param firstSnapshotId ID of the first snapshot of the current execution
+     * @param fullSnapshotInterval see {@link
+     *      com.hazelcast.jet.config.JobConfig#setFullSnapshotInterval(int)}
      */
-    long registerSnapshot(long jobId, Collection<String> vertexNames) {
+    long registerSnapshot(long jobId, Collection<String> vertexNames, long firstSnapshotId, int fullSnapshotInterval) {
         IStreamMap<Long, Object> snapshots = getSnapshotMap(jobId);
 
         SnapshotRecord record;
         do {
             long nextSnapshotId = generateNextSnapshotId(snapshots);
-            record = new SnapshotRecord(jobId, nextSnapshotId, vertexNames);
+            record = new SnapshotRecord(jobId, nextSnapshotId,
+                    baseSnapshotId(nextSnapshotId, firstSnapshotId, fullSnapshotInterval), vertexNames);
         } while (snapshots.putIfAbsent(record.snapshotId(), record) != null);
         return record.snapshotId();
     }
@@ -99,27 +118,96 @@ public class SnapshotRepository {
      * Updates status of the given snapshot. Returns the elapsed time for the snapshot.
      */
     long setSnapshotStatus(long jobId, long snapshotId, SnapshotStatus status) {
+        return setSnapshotStatus(jobId, snapshotId, status, emptyList());
+    }
+
+    /**
+     * Updates status of the given snapshot and records the vertices that
+     * saved their complete state to it. Returns the elapsed time for the
+     * snapshot.
+     */
+    long setSnapshotStatus(long jobId, long snapshotId, SnapshotStatus status,
+                           Collection<String> nonIncrementalVertices) {
         IStreamMap<Long, SnapshotRecord> snapshots = getSnapshotMap(jobId);
         SnapshotRecord record = compute(snapshots, snapshotId, (k, r) -> {
             r.setStatus(status);
+            if (!nonIncrementalVertices.isEmpty()) {
+                r.setNonIncrementalVertices(nonIncrementalVertices);
+            }
             return r;
         });
         return System.currentTimeMillis() - record.startTime();
     }
 
     /**
-     * Return the newest complete snapshot ID for the specified job or null if no such snapshot is found.
+     * Return the newest complete snapshot ID for the specified job or null if
+     * no such snapshot is found. An incremental snapshot is only complete if
+     * all the snapshots it is based on are complete.
      */
     @Nullable
     Long latestCompleteSnapshot(long jobId) {
         IStreamMap<Long, Object> snapshotMap = getSnapshotMap(jobId);
-        MaxByAggregator<Entry<Long, Object>> entryMaxByAggregator = maxByAggregator();
         Predicate<Long, Object> completedSnapshots = (Predicate<Long, Object>) e -> {
             Object value = e.getValue();
             return value instanceof SnapshotRecord && ((SnapshotRecord) value).isSuccessful();
         };
-        Entry<Long, Object> entry = snapshotMap.aggregate(entryMaxByAggregator, completedSnapshots);
-        return entry != null ? entry.getKey() : null;
+        Map<Long, SnapshotRecord> completed = new HashMap<>();
+        for (Entry<Long, Object> entry : snapshotMap.entrySet(completedSnapshots)) {
+            completed.put(entry.getKey(), (SnapshotRecord) entry.getValue());
+        }
+        return completed.keySet().stream()
+                        .filter(id -> snapshotChain(completed, id, null) != null)
+                        .max(Long::compare)
+                        .orElse(null);
+    }
+
+    /**
+     * Returns the IDs of the snapshots needed to restore the given snapshot,
+     * starting with the given snapshot and ending with the full snapshot the
+     * chain is based on. Returns {@code null}, if any of them is not
+     * successfully completed.
+     */
+    @Nullable
+    List<Long> snapshotChain(long jobId, long snapshotId) {
+        return snapshotChain(getSnapshotMap(jobId), snapshotId, null);
+    }
+
+    /**
+     * Returns the IDs of the snapshots needed to restore the state of the
+     * given vertex. Like {@link #snapshotChain(long, long)}, but ends with
+     * the newest snapshot to which the vertex saved its complete state.
+     */
+    @Nullable
+    List<Long> snapshotChain(long jobId, long snapshotId, String vertexName) {
+        return snapshotChain(getSnapshotMap(jobId), snapshotId, vertexName);
+    }
+
+    @Nullable
+    private static List<Long> snapshotChain(Map<Long, ?> snapshotMap, long snapshotId, @Nullable String vertexName) {
+        List<Long> chain = new ArrayList<>();
+        for (long id = snapshotId; id != NO_SNAPSHOT; ) {
+            Object value = snapshotMap.get(id);
+            if (!(value instanceof SnapshotRecord) || !((SnapshotRecord) value).isSuccessful()) {
+                return null;
+            }
+            SnapshotRecord record = (SnapshotRecord) value;
+            chain.add(id);
+            id = vertexName != null && record.nonIncrementalVertices().contains(vertexName)
+                    ? NO_SNAPSHOT : record.baseSnapshotId();
+        }
+        return chain;
+    }
+
+    /**
+     * Returns the ID of the snapshot the given snapshot is a delta to, or
+     * {@link com.hazelcast.jet.impl.execution.SnapshotContext#NO_SNAPSHOT}
+     * if it's a full snapshot. The first snapshot of a job execution and
+     * every {@code fullSnapshotInterval}-th after it are full. Both the
+     * coordinator and the members use this method so that they agree on the
+     * kind of each snapshot.
+     */
+    public static long baseSnapshotId(long snapshotId, long firstSnapshotId, int fullSnapshotInterval) {
+        return (snapshotId - firstSnapshotId) % fullSnapshotInterval == 0 ? NO_SNAPSHOT : snapshotId - 1;
     }
 
     /**
@@ -135,10 +223,6 @@ public class SnapshotRepository {
         return instance.getMap(snapshotsMapName(jobId));
     }
 
-    private MaxByAggregator<Entry<Long, Object>> maxByAggregator() {
-        return new MaxByAggregator<>("snapshotId");
-    }
-
     public static String snapshotsMapName(long jobId) {
         return SNAPSHOT_NAME_PREFIX + idToString(jobId);
     }
@@ -148,7 +232,8 @@ public class SnapshotRepository {
     }
 
     /**
-     * Deletes snapshot data and records from snapshotsMap except one.
+     * Deletes snapshot data and records from snapshotsMap except for one
+     * snapshot and the snapshots it is based on, if it is incremental.
      * <p>
      * Method must be run when there's no ongoing snapshot, because it also
      * deletes the ongoing snapshots. If we omitted them, then interrupted
@@ -156,10 +241,15 @@ public class SnapshotRepository {
      *
      * @param snapshotToKeep the current snapshot to keep
      */
-    void deleteAllSnapshotsExceptOne(long jobId, Long snapshotToKeep) {
+    void deleteAllSnapshotsExcept(long jobId, @Nullable Long snapshotToKeep) {
         final IStreamMap<Long, SnapshotRecord> snapshotMap = getSnapshotMap(jobId);
+        List<Long> chain = snapshotToKeep != null ? snapshotChain(jobId, snapshotToKeep) : null;
+        Set<Long> toKeep = chain != null ? new HashSet<>(chain) : new HashSet<>();
+        if (snapshotToKeep != null) {
+            toKeep.add(snapshotToKeep);
+        }
         Predicate<Long, SnapshotRecord> predicate =
-                e -> !e.getKey().equals(LATEST_STARTED_SNAPSHOT_ID_KEY) && !e.getKey().equals(snapshotToKeep);
+                e -> !e.getKey().equals(LATEST_STARTED_SNAPSHOT_ID_KEY) && !toKeep.contains(e.getKey());
 
         for (Entry<Long, SnapshotRecord> entry : snapshotMap.entrySet(predicate)) {
             deleteSnapshot(snapshotMap, entry.getValue());
@@ -199,11 +289,6 @@ public class SnapshotRepository {
     }
 
     private void deleteSnapshotData(SnapshotRecord record) {
-        for (String vertexName : record.vertices()) {
-            String mapName = snapshotDataMapName(record.jobId(), record.snapshotId(), vertexName);
-            instance.getMap(mapName).destroy();
-            logFine(logger, "Deleted snapshot data for snapshot %d for job %s and vertex '%s'",
-                    record.snapshotId(), idToString(record.jobId()), vertexName);
-        }
+        snapshotStore.deleteSnapshotData(record.jobId(), record.snapshotId(), record.vertices());
     }
 }
@@ -25,9 +25,11 @@ import com.hazelcast.config.XmlConfigBuilder;
 import com.hazelcast.instance.BuildInfo;
 import com.hazelcast.instance.BuildInfoProvider;
 import com.hazelcast.instance.JetBuildInfo;
+import com.hazelcast.jet.config.CompressionCodec;
 import com.hazelcast.jet.config.EdgeConfig;
 import com.hazelcast.jet.config.InstanceConfig;
 import com.hazelcast.jet.config.JetConfig;
+import com.hazelcast.jet.config.SnapshotStorage;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.Logger;
 import com.hazelcast.nio.IOUtil;
@@ -45,6 +47,7 @@ import static com.hazelcast.jet.impl.config.XmlJetConfigLocator.getJetConfigStre
 import static com.hazelcast.jet.impl.config.XmlJetConfigLocator.getMemberConfigStream;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
 import static com.hazelcast.util.StringUtil.LINE_SEPARATOR;
+import static com.hazelcast.util.StringUtil.upperCaseInternal;
 
 /**
  * Loads the {@link JetConfig} using XML.
@@ -191,6 +194,9 @@ public final class XmlJetConfigBuilder extends AbstractConfigBuilder {
                 case "backup-count":
                     instanceConfig.setBackupCount(intValue(node));
                     break;
+                case "snapshot-storage":
+                    instanceConfig.setSnapshotStorage(SnapshotStorage.valueOf(upperCaseInternal(stringValue(node))));
+                    break;
                 default:
                     throw new AssertionError("Unrecognized XML element: " + name);
             }
@@ -211,6 +217,12 @@ public final class XmlJetConfigBuilder extends AbstractConfigBuilder {
                 case "receive-window-multiplier":
                     config.setReceiveWindowMultiplier(intValue(child));
                     break;
+                case "lane-count":
+                    config.setLaneCount(intValue(child));
+                    break;
+                case "compression-codec":
+                    config.setCompressionCodec(CompressionCodec.valueOf(upperCaseInternal(stringValue(child))));
+                    break;
                 default:
                     throw new AssertionError("Unrecognized XML element: " + name);
             }
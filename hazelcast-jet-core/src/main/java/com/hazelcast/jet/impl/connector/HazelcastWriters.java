@@ -21,9 +21,13 @@ import com.hazelcast.client.config.ClientConfig;
 import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.HazelcastInstanceNotActiveException;
+import com.hazelcast.core.ICompletableFuture;
 import com.hazelcast.core.IList;
 import com.hazelcast.core.IMap;
+import com.hazelcast.instance.HazelcastInstanceImpl;
 import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.Inbox;
+import com.hazelcast.jet.core.Outbox;
 import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.core.ProcessorMetaSupplier;
 import com.hazelcast.jet.core.ProcessorSupplier;
@@ -35,6 +39,7 @@ import com.hazelcast.jet.function.DistributedConsumer;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.function.DistributedIntFunction;
 import com.hazelcast.jet.impl.SerializationConstants;
+import com.hazelcast.jet.impl.util.AsyncMapWriter;
 import com.hazelcast.map.EntryBackupProcessor;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.nio.ObjectDataInput;
@@ -50,8 +55,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -144,22 +151,22 @@ public final class HazelcastWriters {
             @Nonnull DistributedFunction<T, K> toKeyFn,
             @Nonnull DistributedFunction<T, EntryProcessor<K, V>> toEntryProcessorFn
     ) {
-        boolean isLocal = clientConfig == null;
-        return dontParallelize(new EntryProcessorWriterSupplier<>(
-                        name,
-                        serializableConfig(clientConfig),
-                        toKeyFn,
-                        toEntryProcessorFn,
-                        isLocal
-                )
-        );
+        return dontParallelize(new AsyncHazelcastWriterSupplier<T>(
+                serializableConfig(clientConfig),
+                instance -> {
+                    IMap<K, V> map = instance.getMap(name);
+                    return item -> map.submitToKey(toKeyFn.apply(item), toEntryProcessorFn.apply(item));
+                }
+        ));
     }
 
-
     @Nonnull
     @SuppressWarnings("unchecked")
     public static ProcessorMetaSupplier writeMapP(@Nonnull String name, @Nullable ClientConfig clientConfig) {
-        boolean isLocal = clientConfig == null;
+        if (clientConfig == null) {
+            // the local cluster's map is written to cooperatively, in batches per partition
+            return dontParallelize(() -> new WriteLocalMapP(name));
+        }
         return dontParallelize(new HazelcastWriterSupplier<>(
                 serializableConfig(clientConfig),
                 index -> new ArrayMap(),
@@ -167,11 +174,7 @@ public final class HazelcastWriters {
                 instance -> {
                     IMap map = instance.getMap(name);
                     return buffer -> {
-                        try {
-                            map.putAll(buffer);
-                        } catch (HazelcastInstanceNotActiveException e) {
-                            handleInstanceNotActive(instance, e, isLocal);
-                        }
+                        map.putAll(buffer);
                         buffer.clear();
                     };
                 },
@@ -290,16 +293,19 @@ public final class HazelcastWriters {
         }
     }
 
-    private static final class EntryProcessorWriter<T, K, V> extends AbstractProcessor {
+    /**
+     * Issues an asynchronous operation for each item, limiting the number of
+     * operations in flight.
+     */
+    static final class AsyncHazelcastWriterP<T> extends AbstractProcessor {
 
-        private static final int MAX_PARALLEL_ASYNC_OPS = 1000;
+        static final int MAX_PARALLEL_ASYNC_OPS = 1000;
         private final AtomicInteger numConcurrentOps = new AtomicInteger();
 
-        private final IMap<K, V> map;
-        private final DistributedFunction<T, K> toKeyFn;
-        private final DistributedFunction<T, EntryProcessor<K, V>> toEntryProcessorFn;
-        private final AtomicReference<Throwable> lastError = new AtomicReference<>();
         private final HazelcastInstance instance;
+        private final Function<T, ICompletableFuture<?>> writeFn;
+        private final boolean isLocal;
+        private final AtomicReference<Throwable> lastError = new AtomicReference<>();
         private final ExecutionCallback callback = callbackOf(
                 response -> numConcurrentOps.decrementAndGet(),
                 exception -> {
@@ -308,25 +314,14 @@ public final class HazelcastWriters {
                         lastError.compareAndSet(null, exception);
                     }
                 });
-        private final boolean isLocal;
-
 
-        private EntryProcessorWriter(HazelcastInstance instance, String name,
-                                     DistributedFunction toKeyFn,
-                                     DistributedFunction<T, EntryProcessor<K, V>> toEntryProcessorFn,
-                                     boolean isLocal) {
+        AsyncHazelcastWriterP(HazelcastInstance instance, Function<T, ICompletableFuture<?>> writeFn,
+                              boolean isLocal) {
             this.instance = instance;
-            this.map = instance.getMap(name);
-            this.toKeyFn = toKeyFn;
-            this.toEntryProcessorFn = toEntryProcessorFn;
+            this.writeFn = writeFn;
             this.isLocal = isLocal;
         }
 
-        @Override
-        public boolean isCooperative() {
-            return false;
-        }
-
         @Override
         public boolean tryProcess() {
             checkError();
@@ -340,12 +335,10 @@ public final class HazelcastWriters {
                 return false;
             }
             try {
-                T item = (T) object;
-                EntryProcessor<K, V> entryProcessor = toEntryProcessorFn.apply(item);
-                K key = toKeyFn.apply(item);
-                map.submitToKey(key, entryProcessor, callback);
+                writeFn.apply((T) object).andThen(callback);
                 return true;
             } catch (HazelcastInstanceNotActiveException e) {
+                numConcurrentOps.decrementAndGet();
                 handleInstanceNotActive(instance, e, isLocal);
                 return false;
             }
@@ -375,30 +368,24 @@ public final class HazelcastWriters {
         }
     }
 
-    private static final class EntryProcessorWriterSupplier<T, K, V> implements ProcessorSupplier {
+    private static final class AsyncHazelcastWriterSupplier<T> implements ProcessorSupplier {
 
         static final long serialVersionUID = 1L;
 
-        private final String name;
         private final SerializableClientConfig clientConfig;
-        private final DistributedFunction<T, K> toKeyFn;
-        private final DistributedFunction<T, EntryProcessor<K, V>> toEntryProcessorFn;
-        private final boolean isLocal;
+        private final DistributedFunction<HazelcastInstance, Function<T, ICompletableFuture<?>>> instanceToWriteFn;
         private transient HazelcastInstance client;
         private transient HazelcastInstance instance;
+        private transient Function<T, ICompletableFuture<?>> writeFn;
 
-        private EntryProcessorWriterSupplier(String name, SerializableClientConfig clientConfig,
-                                             DistributedFunction<T, K> toKeyFn,
-                                             DistributedFunction<T, EntryProcessor<K, V>> toEntryProcessorFn,
-                                             boolean isLocal) {
-            this.name = name;
+        private AsyncHazelcastWriterSupplier(
+                SerializableClientConfig clientConfig,
+                DistributedFunction<HazelcastInstance, Function<T, ICompletableFuture<?>>> instanceToWriteFn
+        ) {
             this.clientConfig = clientConfig;
-            this.toKeyFn = toKeyFn;
-            this.toEntryProcessorFn = toEntryProcessorFn;
-            this.isLocal = isLocal;
+            this.instanceToWriteFn = instanceToWriteFn;
         }
 
-
         @Override
         public void init(@Nonnull Context context) {
             if (isRemote()) {
@@ -406,6 +393,7 @@ public final class HazelcastWriters {
             } else {
                 instance = context.jetInstance().getHazelcastInstance();
             }
+            writeFn = instanceToWriteFn.apply(instance);
         }
 
         @Override
@@ -421,13 +409,99 @@ public final class HazelcastWriters {
 
         @Override @Nonnull
         public List<Processor> get(int count) {
-            return Stream.generate(() ->
-                    new EntryProcessorWriter<>(instance, name, toKeyFn, toEntryProcessorFn, isLocal))
+            return Stream.generate(() -> new AsyncHazelcastWriterP<>(instance, writeFn, !isRemote()))
                          .limit(count)
                          .collect(toList());
         }
     }
 
+    /**
+     * Writes to a map in the local cluster using the {@link AsyncMapWriter}:
+     * each inbox batch is grouped by partition and sent as one asynchronous
+     * {@code putAll} operation per member.
+     */
+    static final class WriteLocalMapP implements Processor {
+
+        private final String mapName;
+        private final AtomicInteger numActiveFlushes = new AtomicInteger();
+        private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+        private HazelcastInstance instance;
+        private AsyncMapWriter mapWriter;
+        private boolean hasPendingFlush;
+
+        WriteLocalMapP(String mapName) {
+            this.mapName = mapName;
+        }
+
+        @Override
+        public void init(@Nonnull Outbox outbox, @Nonnull Context context) {
+            instance = context.jetInstance().getHazelcastInstance();
+            mapWriter = new AsyncMapWriter(((HazelcastInstanceImpl) instance).node.getNodeEngine());
+            mapWriter.setMapName(mapName);
+        }
+
+        @Override
+        public void process(int ordinal, @Nonnull Inbox inbox) {
+            checkError();
+            // don't buffer more items until the previous batch is flushed
+            if (!hasPendingFlush) {
+                inbox.drain(item -> {
+                    Entry entry = (Entry) item;
+                    mapWriter.put(entry.getKey(), entry.getValue());
+                });
+                hasPendingFlush = true;
+            }
+            tryFlush();
+        }
+
+        @Override
+        public boolean complete() {
+            return ensureAllWritten();
+        }
+
+        @Override
+        public boolean saveToSnapshot() {
+            return ensureAllWritten();
+        }
+
+        private boolean ensureAllWritten() {
+            boolean allWritten = tryFlush() && numActiveFlushes.get() == 0;
+            checkError();
+            return allWritten;
+        }
+
+        private boolean tryFlush() {
+            if (!hasPendingFlush) {
+                return true;
+            }
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.whenComplete((r, t) -> {
+                // this callback may be called from a non-tasklet thread
+                if (t != null) {
+                    firstError.compareAndSet(null, t);
+                }
+                // numActiveFlushes must be decremented last otherwise we may miss the error
+                numActiveFlushes.decrementAndGet();
+            });
+            if (!mapWriter.tryFlushAsync(future)) {
+                return false;
+            }
+            numActiveFlushes.incrementAndGet();
+            hasPendingFlush = false;
+            return true;
+        }
+
+        private void checkError() {
+            Throwable t = firstError.get();
+            if (t instanceof HazelcastInstanceNotActiveException) {
+                handleInstanceNotActive(instance, (HazelcastInstanceNotActiveException) t, true);
+            } else if (t != null) {
+                throw sneakyThrow(t);
+            }
+        }
+    }
+
     private static class HazelcastWriterSupplier<B, T> implements ProcessorSupplier {
 
         static final long serialVersionUID = 1L;
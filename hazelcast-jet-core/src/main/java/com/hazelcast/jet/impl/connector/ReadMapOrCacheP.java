@@ -0,0 +1,418 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.cache.impl.CacheEntryIterationResult;
+import com.hazelcast.cache.impl.CacheProxy;
+import com.hazelcast.cache.impl.CacheService;
+import com.hazelcast.cache.impl.operation.CacheEntryIteratorOperation;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.Partition;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.ProcessorSupplier;
+import com.hazelcast.jet.core.processor.Processors;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.operation.MapOperationProvider;
+import com.hazelcast.map.impl.proxy.MapProxyImpl;
+import com.hazelcast.map.impl.query.Query;
+import com.hazelcast.map.impl.query.QueryResult;
+import com.hazelcast.map.impl.query.QueryResultRow;
+import com.hazelcast.map.impl.query.ResultSegment;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationService;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.hazelcast.util.IterationType;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
+import static com.hazelcast.jet.impl.util.Util.processorToPartitions;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Private API, see methods in {@link com.hazelcast.jet.core.processor.SourceProcessors}.
+ * <p>
+ * Cooperatively reads the partitions of an {@code IMap} or {@code ICache}
+ * in the local cluster. Instead of using the partition iterators, which
+ * block on every batch, it invokes the fetch operations asynchronously and
+ * emits the batches in the order they arrive. It keeps at most {@value
+ * #MAX_READS_IN_FLIGHT} reads in flight, each for a different partition,
+ * and issues a new read only when it takes a batch, so that it holds a
+ * bounded number of batches however many partitions it reads.
+ * <p>
+ * The number of Hazelcast partitions should be configured to at least
+ * {@code localParallelism * clusterSize}, otherwise some processors will
+ * have no partitions assigned to them.
+ *
+ * @param <B> type of the batch returned by the fetch operation
+ * @param <R> type of the record in the batch
+ */
+public final class ReadMapOrCacheP<B, R> extends AbstractProcessor {
+
+    static final int MAX_READS_IN_FLIGHT = 4;
+
+    private static final int MAX_FETCH_SIZE = 16384;
+
+    private final Reader<B, R> reader;
+    private final int[] partitionIds;
+    // the pending read for each partition, null when the partition is not
+    // being read yet or is exhausted
+    private final Future<B>[] readFutures;
+    private final Traverser<Object> outputTraverser;
+
+    private int nextPartitionIndex;
+    private int numCompletedPartitions;
+    private int currentPartitionIndex = -1;
+    private List<R> currentBatch = emptyList();
+    private int currentBatchPosition;
+
+    @SuppressWarnings("unchecked")
+    ReadMapOrCacheP(@Nonnull Reader<B, R> reader, @Nonnull List<Integer> partitions) {
+        this.reader = reader;
+        this.partitionIds = partitions.stream().mapToInt(Integer::intValue).toArray();
+        this.readFutures = new Future[partitionIds.length];
+        this.outputTraverser = () -> {
+            while (currentBatchPosition < currentBatch.size()) {
+                Object item = reader.toObject(currentBatch.get(currentBatchPosition++));
+                if (item != null) {
+                    return item;
+                }
+            }
+            return null;
+        };
+    }
+
+    public static ProcessorMetaSupplier readLocalMapP(@Nonnull String mapName) {
+        return new LocalClusterMetaSupplier<>(instance -> new LocalMapReader(instance, mapName));
+    }
+
+    public static <K, V, T> ProcessorMetaSupplier readLocalMapP(
+            @Nonnull String mapName,
+            @Nonnull Predicate<K, V> predicate,
+            @Nonnull Projection<Entry<K, V>, T> projection
+    ) {
+        return new LocalClusterMetaSupplier<>(
+                instance -> new LocalMapQueryReader(instance, mapName, predicate, projection));
+    }
+
+    public static ProcessorMetaSupplier readLocalCacheP(@Nonnull String cacheName) {
+        return new LocalClusterMetaSupplier<>(instance -> new LocalCacheReader(instance, cacheName));
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) {
+        for (int i = 0; i < MAX_READS_IN_FLIGHT; i++) {
+            startNextPartition();
+        }
+    }
+
+    @Override
+    public boolean complete() {
+        while (emitFromTraverser(outputTraverser)) {
+            if (numCompletedPartitions == partitionIds.length) {
+                return true;
+            }
+            if (!tryTakeNextBatch()) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes the result of the first completed read, starting with the
+     * partition after the one we took a batch from last time, and right away
+     * issues the next read for that partition, or starts reading the next
+     * partition if that one is exhausted.
+     *
+     * @return whether a read was completed
+     */
+    private boolean tryTakeNextBatch() {
+        for (int i = 0; i < partitionIds.length; i++) {
+            currentPartitionIndex = (currentPartitionIndex + 1) % partitionIds.length;
+            Future<B> future = readFutures[currentPartitionIndex];
+            if (future == null || !future.isDone()) {
+                continue;
+            }
+            B batch = toBatch(future);
+            int nextIndex = reader.toNextIndex(batch);
+            currentBatch = reader.toRecords(batch);
+            currentBatchPosition = 0;
+            if (currentBatch.isEmpty() || nextIndex < 0) {
+                readFutures[currentPartitionIndex] = null;
+                numCompletedPartitions++;
+                startNextPartition();
+            } else {
+                readFutures[currentPartitionIndex] = reader.readBatch(partitionIds[currentPartitionIndex], nextIndex);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void startNextPartition() {
+        if (nextPartitionIndex < partitionIds.length) {
+            readFutures[nextPartitionIndex] = reader.readBatch(partitionIds[nextPartitionIndex], Integer.MAX_VALUE);
+            nextPartitionIndex++;
+        }
+    }
+
+    private static <B> B toBatch(Future<B> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Issues the asynchronous fetch operations and interprets their results.
+     * Hazelcast iterates the records of a partition from the end of its
+     * internal table, the first read starts at {@code Integer.MAX_VALUE}.
+     */
+    abstract static class Reader<B, R> {
+
+        /**
+         * Starts the read of the batch of records at the given table index.
+         */
+        @Nonnull
+        abstract Future<B> readBatch(int partitionId, int tableIndex);
+
+        /**
+         * Returns the table index the next read should start at, a negative
+         * value if there's nothing more to read.
+         */
+        abstract int toNextIndex(@Nonnull B batch);
+
+        @Nonnull
+        abstract List<R> toRecords(@Nonnull B batch);
+
+        /**
+         * Converts the record to the item to emit, returns {@code null} if the
+         * record should be skipped.
+         */
+        abstract Object toObject(@Nonnull R record);
+    }
+
+    private static final class LocalMapReader extends Reader<MapEntriesWithCursor, Entry<Data, Data>> {
+
+        private final String mapName;
+        private final MapOperationProvider opProvider;
+        private final OperationService operationService;
+        private final SerializationService serializationService;
+
+        LocalMapReader(HazelcastInstance instance, String mapName) {
+            NodeEngine nodeEngine = ((MapProxyImpl) instance.getMap(mapName)).getNodeEngine();
+            MapService mapService = nodeEngine.getService(MapService.SERVICE_NAME);
+            this.mapName = mapName;
+            this.opProvider = mapService.getMapServiceContext().getMapOperationProvider(mapName);
+            this.operationService = nodeEngine.getOperationService();
+            this.serializationService = nodeEngine.getSerializationService();
+        }
+
+        @Nonnull @Override
+        Future<MapEntriesWithCursor> readBatch(int partitionId, int tableIndex) {
+            Operation op = opProvider.createFetchEntriesOperation(mapName, tableIndex, MAX_FETCH_SIZE);
+            return operationService.invokeOnPartition(MapService.SERVICE_NAME, op, partitionId);
+        }
+
+        @Override
+        int toNextIndex(@Nonnull MapEntriesWithCursor batch) {
+            return batch.getNextTableIndexToReadFrom();
+        }
+
+        @Nonnull @Override
+        List<Entry<Data, Data>> toRecords(@Nonnull MapEntriesWithCursor batch) {
+            return batch.getBatch();
+        }
+
+        @Override
+        Object toObject(@Nonnull Entry<Data, Data> record) {
+            return entry(serializationService.toObject(record.getKey()),
+                    serializationService.toObject(record.getValue()));
+        }
+    }
+
+    private static final class LocalMapQueryReader extends Reader<ResultSegment, QueryResultRow> {
+
+        private final String mapName;
+        private final Query query;
+        private final MapOperationProvider opProvider;
+        private final OperationService operationService;
+        private final SerializationService serializationService;
+
+        LocalMapQueryReader(HazelcastInstance instance, String mapName,
+                            Predicate predicate, Projection projection) {
+            NodeEngine nodeEngine = ((MapProxyImpl) instance.getMap(mapName)).getNodeEngine();
+            MapService mapService = nodeEngine.getService(MapService.SERVICE_NAME);
+            this.mapName = mapName;
+            this.query = Query.of()
+                              .mapName(mapName)
+                              .iterationType(IterationType.VALUE)
+                              .predicate(predicate)
+                              .projection(projection)
+                              .build();
+            this.opProvider = mapService.getMapServiceContext().getMapOperationProvider(mapName);
+            this.operationService = nodeEngine.getOperationService();
+            this.serializationService = nodeEngine.getSerializationService();
+        }
+
+        @Nonnull @Override
+        Future<ResultSegment> readBatch(int partitionId, int tableIndex) {
+            Operation op = opProvider.createFetchWithQueryOperation(mapName, tableIndex, MAX_FETCH_SIZE, query);
+            return operationService.invokeOnPartition(MapService.SERVICE_NAME, op, partitionId);
+        }
+
+        @Override
+        int toNextIndex(@Nonnull ResultSegment batch) {
+            return batch.getNextTableIndexToReadFrom();
+        }
+
+        @Nonnull @Override
+        List<QueryResultRow> toRecords(@Nonnull ResultSegment batch) {
+            return ((QueryResult) batch.getResult()).getRows();
+        }
+
+        @Override
+        Object toObject(@Nonnull QueryResultRow record) {
+            return serializationService.toObject(record.getValue());
+        }
+    }
+
+    private static final class LocalCacheReader extends Reader<CacheEntryIterationResult, Entry<Data, Data>> {
+
+        private final String prefixedCacheName;
+        private final OperationService operationService;
+        private final SerializationService serializationService;
+
+        LocalCacheReader(HazelcastInstance instance, String cacheName) {
+            CacheProxy cacheProxy = (CacheProxy) instance.getCacheManager().getCache(cacheName);
+            NodeEngine nodeEngine = cacheProxy.getNodeEngine();
+            this.prefixedCacheName = cacheProxy.getPrefixedName();
+            this.operationService = nodeEngine.getOperationService();
+            this.serializationService = nodeEngine.getSerializationService();
+        }
+
+        @Nonnull @Override
+        Future<CacheEntryIterationResult> readBatch(int partitionId, int tableIndex) {
+            Operation op = new CacheEntryIteratorOperation(prefixedCacheName, tableIndex, MAX_FETCH_SIZE);
+            return operationService.invokeOnPartition(CacheService.SERVICE_NAME, op, partitionId);
+        }
+
+        @Override
+        int toNextIndex(@Nonnull CacheEntryIterationResult batch) {
+            return batch.getTableIndex();
+        }
+
+        @Nonnull @Override
+        List<Entry<Data, Data>> toRecords(@Nonnull CacheEntryIterationResult batch) {
+            return batch.getEntries();
+        }
+
+        @Override
+        Object toObject(@Nonnull Entry<Data, Data> record) {
+            return entry(serializationService.toObject(record.getKey()),
+                    serializationService.toObject(record.getValue()));
+        }
+    }
+
+    private static class LocalClusterMetaSupplier<B, R> implements ProcessorMetaSupplier {
+
+        static final long serialVersionUID = 1L;
+
+        private final DistributedFunction<HazelcastInstance, Reader<B, R>> readerSupplier;
+
+        private transient Map<Address, List<Integer>> addrToPartitions;
+
+        LocalClusterMetaSupplier(DistributedFunction<HazelcastInstance, Reader<B, R>> readerSupplier) {
+            this.readerSupplier = readerSupplier;
+        }
+
+        @Override
+        public int preferredLocalParallelism() {
+            return 2;
+        }
+
+        @Override
+        public void init(@Nonnull Context context) {
+            addrToPartitions = context.jetInstance().getHazelcastInstance().getPartitionService().getPartitions()
+                                      .stream()
+                                      .collect(groupingBy(p -> p.getOwner().getAddress(),
+                                              mapping(Partition::getPartitionId, toList())));
+        }
+
+        @Override @Nonnull
+        public Function<Address, ProcessorSupplier> get(@Nonnull List<Address> addresses) {
+            return address -> new LocalClusterProcessorSupplier<>(addrToPartitions.get(address), readerSupplier);
+        }
+    }
+
+    private static class LocalClusterProcessorSupplier<B, R> implements ProcessorSupplier {
+
+        static final long serialVersionUID = 1L;
+
+        private final List<Integer> ownedPartitions;
+        private final DistributedFunction<HazelcastInstance, Reader<B, R>> readerSupplier;
+
+        private transient Reader<B, R> reader;
+
+        LocalClusterProcessorSupplier(
+                List<Integer> ownedPartitions,
+                DistributedFunction<HazelcastInstance, Reader<B, R>> readerSupplier
+        ) {
+            this.ownedPartitions = ownedPartitions != null ? ownedPartitions : Collections.emptyList();
+            this.readerSupplier = readerSupplier;
+        }
+
+        @Override
+        public void init(@Nonnull Context context) {
+            reader = readerSupplier.apply(context.jetInstance().getHazelcastInstance());
+        }
+
+        @Override @Nonnull
+        public List<Processor> get(int count) {
+            return processorToPartitions(count, ownedPartitions)
+                    .values().stream()
+                    .map(partitions -> !partitions.isEmpty()
+                            ? new ReadMapOrCacheP<>(reader, partitions)
+                            : Processors.noopP().get()
+                    )
+                    .collect(toList());
+        }
+    }
+}
@@ -16,7 +16,6 @@
 
 package com.hazelcast.jet.impl.connector;
 
-import com.hazelcast.cache.impl.CacheProxy;
 import com.hazelcast.client.cache.impl.ClientCacheProxy;
 import com.hazelcast.client.config.ClientConfig;
 import com.hazelcast.client.impl.HazelcastClientProxy;
@@ -30,6 +29,7 @@ import com.hazelcast.jet.core.ProcessorMetaSupplier;
 import com.hazelcast.jet.core.ProcessorSupplier;
 import com.hazelcast.jet.core.processor.Processors;
 import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.impl.snapshot.SnapshotChainIterator;
 import com.hazelcast.jet.impl.util.CircularListCursor;
 import com.hazelcast.map.impl.proxy.MapProxyImpl;
 import com.hazelcast.nio.Address;
@@ -54,6 +54,10 @@ import static java.util.stream.Collectors.toList;
 /**
  * Private API, see methods in {@link com.hazelcast.jet.core.processor.SourceProcessors}.
  * <p>
+ * Reads using the blocking partition iterators. It's used for remote
+ * clusters and for snapshot chains, see {@link ReadMapOrCacheP} for the
+ * cooperative reader of the local cluster's maps and caches.
+ * <p>
  * The number of Hazelcast partitions should be configured to at least
  * {@code localParallelism * clusterSize}, otherwise some processors will
  * have no partitions assigned to them.
@@ -88,12 +92,6 @@ public final class ReadWithPartitionIteratorP<T> extends AbstractProcessor {
         };
     }
 
-    public static <T> ProcessorMetaSupplier readMapP(@Nonnull String mapName) {
-        return new LocalClusterMetaSupplier<T>(
-                instance -> partition -> ((MapProxyImpl) instance.getMap(mapName))
-                        .iterator(FETCH_SIZE, partition, PREFETCH_VALUES));
-    }
-
     public static <T> ProcessorMetaSupplier readRemoteMapP(
             @Nonnull String mapName, @Nonnull ClientConfig clientConfig
     ) {
@@ -102,18 +100,6 @@ public final class ReadWithPartitionIteratorP<T> extends AbstractProcessor {
                         .iterator(FETCH_SIZE, partition, PREFETCH_VALUES));
     }
 
-    public static <K, V, T> ProcessorMetaSupplier readMapP(
-            @Nonnull String mapName,
-            @Nonnull Predicate<K, V> predicate,
-            @Nonnull Projection<Map.Entry<K, V>, T> projection
-    ) {
-        return new LocalClusterMetaSupplier<T>(
-                instance -> partition -> {
-                    MapProxyImpl map = (MapProxyImpl) instance.<K, V>getMap(mapName);
-                    return map.<T>iterator(FETCH_SIZE, partition, projection, predicate);
-                });
-    }
-
     public static <K, V, T> ProcessorMetaSupplier readRemoteMapP(
             @Nonnull String mapName,
             @Nonnull ClientConfig clientConfig,
@@ -125,10 +111,22 @@ public final class ReadWithPartitionIteratorP<T> extends AbstractProcessor {
                         .iterator(FETCH_SIZE, partition, projection, predicate));
     }
 
-    public static ProcessorMetaSupplier readCacheP(@Nonnull String cacheName) {
-        return new LocalClusterMetaSupplier<>(
-                instance -> partition -> ((CacheProxy) instance.getCacheManager().getCache(cacheName))
-                        .iterator(FETCH_SIZE, partition, PREFETCH_VALUES));
+    /**
+     * Reads a chain of incremental snapshot maps, given newest first. For
+     * each key only the entry from the newest map containing it is emitted
+     * and keys whose newest entry is a {@link
+     * com.hazelcast.jet.impl.execution.SnapshotTombstone} are skipped.
+     * Keys are compared using their {@code equals()} method.
+     */
+    public static <T> ProcessorMetaSupplier readSnapshotChainP(
+            @Nonnull List<String> mapNames,
+            @Nonnull DistributedFunction<Entry<Object, Object>, T> projection
+    ) {
+        return new LocalClusterMetaSupplier<T>(
+                instance -> partition -> new SnapshotChainIterator<>(mapNames.stream()
+                        .map(name -> (Iterator<Entry<Object, Object>>) ((MapProxyImpl) instance.getMap(name))
+                                .iterator(FETCH_SIZE, partition, PREFETCH_VALUES))
+                        .iterator(), projection));
     }
 
     public static ProcessorMetaSupplier readRemoteCacheP(@Nonnull String cacheName, @Nonnull ClientConfig clientConfig) {
@@ -48,6 +48,7 @@ import com.hazelcast.util.function.Predicate;
 
 import javax.annotation.Nonnull;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -78,7 +79,13 @@ import static java.util.stream.IntStream.range;
  */
 public final class StreamEventJournalP<E, T> extends AbstractProcessor {
 
-    private static final int MAX_FETCH_SIZE = 128;
+    // the fetch size of each partition adapts between these bounds to the
+    // backlog; the upper one is the ringbuffer's limit on a single read
+    private static final int MIN_FETCH_SIZE = 128;
+    private static final int MAX_FETCH_SIZE = 1000;
+    // the limit of reads in flight for a partition that has a backlog
+    private static final int MAX_PIPELINED_READS = 4;
+    private static final long NO_OFFSET = -1;
 
     private final EventJournalReader<E> eventJournalReader;
     private final Predicate<E> predicate;
@@ -93,8 +100,16 @@ public final class StreamEventJournalP<E, T> extends AbstractProcessor {
     // outbox is full we can still poll for new items.
     private final long[] emitOffsets;
     private final long[] readOffsets;
+    private final int[] fetchSizes;
+    // whether the last read of the partition returned a full batch
+    private final boolean[] hasBacklog;
+    // whether the last read of the partition scanned events the predicate
+    // rejected: it then ended past its maxSize and reads can't be pipelined
+    private final boolean[] isFiltering;
 
-    private ICompletableFuture<ReadResultSet<T>>[] readFutures;
+    private ICompletableFuture<EventJournalInitialSubscriberState>[] subscribeFutures;
+    // reads in flight for each partition, in the order of their offsets
+    private ArrayDeque<PendingRead<T>>[] pendingReads;
 
     // currently processed resultSet, it's partitionId and iterating position
     private ReadResultSet<T> resultSet;
@@ -120,23 +135,30 @@ public final class StreamEventJournalP<E, T> extends AbstractProcessor {
         partitionIds = assignedPartitions.stream().mapToInt(Integer::intValue).toArray();
         emitOffsets = new long[partitionIds.length];
         readOffsets = new long[partitionIds.length];
+        Arrays.fill(emitOffsets, NO_OFFSET);
+        Arrays.fill(readOffsets, NO_OFFSET);
+        fetchSizes = new int[partitionIds.length];
+        Arrays.fill(fetchSizes, MIN_FETCH_SIZE);
+        hasBacklog = new boolean[partitionIds.length];
+        isFiltering = new boolean[partitionIds.length];
 
         watermarkSourceUtil = new WatermarkSourceUtil<>(wmGenParams);
         watermarkSourceUtil.increasePartitionCount(assignedPartitions.size());
     }
 
     @Override
-    protected void init(@Nonnull Context context) throws Exception {
-        ICompletableFuture<EventJournalInitialSubscriberState>[] futures = new ICompletableFuture[partitionIds.length];
-        Arrays.setAll(futures, i -> eventJournalReader.subscribeToEventJournal(partitionIds[i]));
-        for (int i = 0; i < futures.length; i++) {
-            emitOffsets[i] = readOffsets[i] = getSequence(futures[i].get());
-        }
+    protected void init(@Nonnull Context context) {
+        // the subscriptions complete asynchronously, we wait for them in complete()
+        subscribeFutures = new ICompletableFuture[partitionIds.length];
+        Arrays.setAll(subscribeFutures, i -> eventJournalReader.subscribeToEventJournal(partitionIds[i]));
     }
 
     @Override
     public boolean complete() {
-        if (readFutures == null) {
+        if (pendingReads == null) {
+            if (!subscriptionsDone()) {
+                return false;
+            }
             initialRead();
         }
         if (pendingWatermark != null) {
@@ -172,7 +194,7 @@ public final class StreamEventJournalP<E, T> extends AbstractProcessor {
                 }
             }
             emitOffsets[currentPartitionIndex] = resultSet.getSequence(resultSetPosition) + 1;
-                resultSetPosition++;
+            resultSetPosition++;
         }
         // we're done with current resultSet
         resultSetPosition = 0;
@@ -214,15 +236,32 @@ public final class StreamEventJournalP<E, T> extends AbstractProcessor {
         return true;
     }
 
-    @Override
-    public boolean isCooperative() {
-        return false;
+    private boolean subscriptionsDone() {
+        for (ICompletableFuture<EventJournalInitialSubscriberState> future : subscribeFutures) {
+            if (!future.isDone()) {
+                return false;
+            }
+        }
+        try {
+            for (int i = 0; i < subscribeFutures.length; i++) {
+                EventJournalInitialSubscriberState state = subscribeFutures[i].get();
+                // offsets restored from a snapshot take precedence over the initial position
+                if (readOffsets[i] == NO_OFFSET) {
+                    emitOffsets[i] = readOffsets[i] = getSequence(state);
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw rethrow(e);
+        }
+        subscribeFutures = null;
+        return true;
     }
 
     private void initialRead() {
-        readFutures = new ICompletableFuture[partitionIds.length];
-        for (int i = 0; i < readFutures.length; i++) {
-            readFutures[i] = readFromJournal(partitionIds[i], readOffsets[i]);
+        pendingReads = new ArrayDeque[partitionIds.length];
+        for (int i = 0; i < pendingReads.length; i++) {
+            pendingReads[i] = new ArrayDeque<>(MAX_PIPELINED_READS);
+            issueReads(i);
         }
     }
 
@@ -232,18 +271,30 @@ public final class StreamEventJournalP<E, T> extends AbstractProcessor {
 
     private void tryGetNextResultSet() {
         while (resultSet == null && ++currentPartitionIndex < partitionIds.length) {
-            ICompletableFuture<ReadResultSet<T>> future = readFutures[currentPartitionIndex];
-            if (!future.isDone()) {
+            ArrayDeque<PendingRead<T>> reads = pendingReads[currentPartitionIndex];
+            PendingRead<T> read = reads.peek();
+            if (!read.future.isDone()) {
                 continue;
             }
-            resultSet = toResultSet(currentPartitionIndex, future);
+            reads.remove();
+            resultSet = toResultSet(currentPartitionIndex, read.future);
             if (resultSet != null) {
                 assert resultSet.size() > 0 : "empty resultSet";
-                readOffsets[currentPartitionIndex] += resultSet.readCount();
+                skipAlreadyRead(read.offset);
+                readOffsets[currentPartitionIndex] = read.offset + resultSet.readCount();
+                isFiltering[currentPartitionIndex] = resultSet.readCount() > resultSet.size();
+                adaptFetchSize(currentPartitionIndex, resultSet.readCount(), read.maxSize);
+            } else {
+                // the offsets were moved or the read failed, start over
+                reads.clear();
+            }
+            // The reads in flight started where we expected the previous one to
+            // end. If it ended earlier, they would skip events: discard them.
+            PendingRead<T> next = reads.peek();
+            if (next != null && next.offset > readOffsets[currentPartitionIndex]) {
+                reads.clear();
             }
-            // make another read on the same partition
-            readFutures[currentPartitionIndex] = readFromJournal(partitionIds[currentPartitionIndex],
-                    readOffsets[currentPartitionIndex]);
+            issueReads(currentPartitionIndex);
         }
 
         if (currentPartitionIndex == partitionIds.length) {
@@ -252,6 +303,55 @@ public final class StreamEventJournalP<E, T> extends AbstractProcessor {
         }
     }
 
+    /**
+     * With a predicate, a read can scan more events than it returns, so a
+     * read issued behind it in the pipeline may overlap it. Skip the events
+     * we have already seen.
+     */
+    private void skipAlreadyRead(long readStartOffset) {
+        long expectedOffset = readOffsets[currentPartitionIndex];
+        if (readStartOffset < expectedOffset) {
+            while (resultSetPosition < resultSet.size()
+                    && resultSet.getSequence(resultSetPosition) < expectedOffset) {
+                resultSetPosition++;
+            }
+        }
+    }
+
+    /**
+     * Doubles the fetch size after a full read and halves it after a read
+     * that filled less than a quarter of it.
+     */
+    private void adaptFetchSize(int partitionIndex, int readCount, int maxSize) {
+        hasBacklog[partitionIndex] = readCount >= maxSize;
+        if (hasBacklog[partitionIndex]) {
+            fetchSizes[partitionIndex] = Math.min(MAX_FETCH_SIZE, 2 * fetchSizes[partitionIndex]);
+        } else if (readCount < maxSize / 4) {
+            fetchSizes[partitionIndex] = Math.max(MIN_FETCH_SIZE, fetchSizes[partitionIndex] / 2);
+        }
+    }
+
+    /**
+     * Keeps one read in flight for the partition or, if it has a backlog, up
+     * to {@value #MAX_PIPELINED_READS}. A pipelined read speculatively starts
+     * where the previous one will end if it returns a full batch. This only
+     * holds if the predicate doesn't reject events: a filtering read scans
+     * until it finds {@code maxSize} matching events, so we can't tell where
+     * it will end. While the partition's events are being filtered, we keep
+     * a single read in flight and start each one where the last one ended.
+     */
+    private void issueReads(int partitionIndex) {
+        ArrayDeque<PendingRead<T>> reads = pendingReads[partitionIndex];
+        int limit = hasBacklog[partitionIndex] && !isFiltering[partitionIndex] ? MAX_PIPELINED_READS : 1;
+        PendingRead<T> last = reads.peekLast();
+        long offset = last == null ? readOffsets[partitionIndex] : last.offset + last.maxSize;
+        while (reads.size() < limit) {
+            int maxSize = fetchSizes[partitionIndex];
+            reads.add(new PendingRead<>(offset, maxSize, readFromJournal(partitionIds[partitionIndex], offset, maxSize)));
+            offset += maxSize;
+        }
+    }
+
     private ReadResultSet<T> toResultSet(int partitionIdx, ICompletableFuture<ReadResultSet<T>> future) {
         try {
             return future.get();
@@ -278,10 +378,22 @@ public final class StreamEventJournalP<E, T> extends AbstractProcessor {
         }
     }
 
-    private ICompletableFuture<ReadResultSet<T>> readFromJournal(int partition, long offset) {
+    private ICompletableFuture<ReadResultSet<T>> readFromJournal(int partition, long offset, int maxSize) {
         logFine(getLogger(), "Reading from partition %s and offset %s", partition, offset);
         return eventJournalReader.readFromEventJournal(offset,
-                1, MAX_FETCH_SIZE, partition, predicate, projection);
+                1, maxSize, partition, predicate, projection);
+    }
+
+    private static final class PendingRead<T> {
+        final long offset;
+        final int maxSize;
+        final ICompletableFuture<ReadResultSet<T>> future;
+
+        PendingRead(long offset, int maxSize, ICompletableFuture<ReadResultSet<T>> future) {
+            this.offset = offset;
+            this.maxSize = maxSize;
+            this.future = future;
+        }
     }
 
     private static <E, T> Projection<E, T> toProjection(Function<E, T> projectionFn) {
@@ -17,31 +17,34 @@
 package com.hazelcast.jet.impl.deployment;
 
 import com.hazelcast.jet.config.JobConfig;
-import com.hazelcast.nio.IOUtil;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLConnection;
-import java.net.URLStreamHandler;
+import java.nio.file.Files;
+import java.util.Collections;
 import java.util.Enumeration;
-import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.zip.InflaterInputStream;
+import java.util.List;
 
 import static com.hazelcast.jet.impl.util.Util.uncheckCall;
+import static java.util.stream.Collectors.toList;
 
+/**
+ * Loads the classes and resources of a job from the directories its
+ * resource blobs are cached in by {@link ResourceCache}. A name present
+ * in several blobs resolves to the one added to the {@code JobConfig}
+ * first.
+ */
 public class JetClassLoader extends ClassLoader {
 
-    private static final String JOB_URL_PROTOCOL = "jet-job-resource";
-
-    private final Map<String, byte[]> resources;
+    private final List<File> resourceDirs;
 
-    public JetClassLoader(Map<String, byte[]> resources) {
+    public JetClassLoader(List<File> resourceDirs) {
         super(JetClassLoader.class.getClassLoader());
-        this.resources = resources;
+        this.resourceDirs = resourceDirs;
     }
 
     @Override
@@ -49,27 +52,34 @@ public class JetClassLoader extends ClassLoader {
         if (isEmpty(name)) {
             return null;
         }
-        InputStream classBytesStream = resourceStream(name.replace('.', '/') + ".class");
-        if (classBytesStream == null) {
+        File classFile = findFile(name.replace('.', '/') + ".class");
+        if (classFile == null) {
             throw new ClassNotFoundException(name + ". Add it using " + JobConfig.class.getSimpleName()
                     + " or start all members with it on classpath");
         }
-        byte[] classBytes = uncheckCall(() -> IOUtil.toByteArray(classBytesStream));
+        byte[] classBytes = uncheckCall(() -> Files.readAllBytes(classFile.toPath()));
         return defineClass(name, classBytes, 0, classBytes.length);
     }
 
     @Override
     protected URL findResource(String name) {
-        if (isEmpty(name) || !resources.containsKey(name)) {
+        if (isEmpty(name)) {
             return null;
         }
-
-        return uncheckCall(() -> createResourceURL(name));
+        File file = findFile(name);
+        return file == null ? null : toURL(file);
     }
 
     @Override
-    protected Enumeration<URL> findResources(String name) throws IOException {
-        return new SingleURLEnumeration(findResource(name));
+    protected Enumeration<URL> findResources(String name) {
+        if (isEmpty(name)) {
+            return Collections.emptyEnumeration();
+        }
+        return Collections.enumeration(resourceDirs.stream()
+                                                   .map(dir -> new File(dir, name))
+                                                   .filter(File::isFile)
+                                                   .map(JetClassLoader::toURL)
+                                                   .collect(toList()));
     }
 
     @Override
@@ -77,74 +87,34 @@ public class JetClassLoader extends ClassLoader {
         if (isEmpty(name)) {
             return null;
         }
-        return resourceStream(name);
-    }
-
-    @SuppressWarnings("unchecked")
-    private InputStream resourceStream(String name) {
-        byte[] classData = resources.get(name);
-        if (classData == null) {
+        File file = findFile(name);
+        if (file == null) {
             return null;
         }
-        return new InflaterInputStream(new ByteArrayInputStream(classData));
-    }
-
-    private URL createResourceURL(String name) throws MalformedURLException {
-        return new URL(JOB_URL_PROTOCOL, null, -1, name, new JobResourceURLStreamHandler());
-    }
-
-    private static boolean isEmpty(String className) {
-        return className == null || className.isEmpty();
-    }
-
-    private final class JobResourceURLStreamHandler extends URLStreamHandler {
-
-        @Override
-        protected URLConnection openConnection(URL url) throws IOException {
-            return new JobResourceURLConnection(url);
+        try {
+            return new FileInputStream(file);
+        } catch (FileNotFoundException e) {
+            return null;
         }
     }
 
-    private final class JobResourceURLConnection extends URLConnection {
-
-        private JobResourceURLConnection(URL url) {
-            super(url);
-        }
-
-        @Override
-        public void connect() throws IOException {
-        }
-
-        @Override
-        public InputStream getInputStream() throws IOException {
-            return resourceStream(url.getFile());
-        }
+    private File findFile(String name) {
+        return resourceDirs.stream()
+                           .map(dir -> new File(dir, name))
+                           .filter(File::isFile)
+                           .findFirst()
+                           .orElse(null);
     }
 
-    private static final class SingleURLEnumeration implements Enumeration<URL> {
-
-        private URL url;
-
-        private SingleURLEnumeration(URL url) {
-            this.url = url;
-        }
-
-        @Override
-        public boolean hasMoreElements() {
-            return url != null;
-        }
-
-        @Override
-        public URL nextElement() {
-            if (url == null) {
-                throw new NoSuchElementException();
-            }
-            try {
-                return url;
-            } finally {
-                url = null;
-            }
+    private static URL toURL(File file) {
+        try {
+            return file.toURI().toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e);
         }
     }
 
+    private static boolean isEmpty(String className) {
+        return className == null || className.isEmpty();
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.deployment;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.spi.NodeEngine;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.zip.InflaterInputStream;
+
+import static com.hazelcast.jet.impl.util.Util.idToString;
+import static com.hazelcast.jet.impl.util.Util.secureRandomNextLong;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Member-local cache of job resource blobs. A blob is a set of resources
+ * stored in the cluster under the hash of its content; the cache inflates
+ * it once into its own directory, {@code
+ * <tempDir>/jet-resources/<memberUuid>/<hash>/}, and all the jobs using
+ * the blob load their classes and resources from there.
+ */
+public class ResourceCache {
+
+    private final ILogger logger;
+    private final File baseDir;
+    private final ConcurrentHashMap<String, File> blobDirs = new ConcurrentHashMap<>();
+
+    public ResourceCache(NodeEngine nodeEngine, String tempDir) {
+        this.logger = nodeEngine.getLogger(getClass());
+        this.baseDir = new File(new File(tempDir, "jet-resources"), nodeEngine.getLocalMember().getUuid());
+    }
+
+    /**
+     * Returns the directories of the given blobs, in the same order,
+     * fetching and inflating the blobs not cached yet. The resources of a
+     * blob are fetched and inflated one at a time.
+     *
+     * @param fetchNamesFn returns the names of the resources in the blob with
+     *                     the given hash, or {@code null} if it's missing
+     * @param fetchResourceFn returns the deflated content of the resource with
+     *                        the given name in the blob with the given hash
+     */
+    public List<File> blobDirs(
+            List<String> hashes,
+            Function<String, List<String>> fetchNamesFn,
+            BiFunction<String, String, byte[]> fetchResourceFn
+    ) {
+        return hashes.stream()
+                     .map(hash -> blobDirs.computeIfAbsent(hash, h -> inflateBlob(h, fetchNamesFn, fetchResourceFn)))
+                     .collect(toList());
+    }
+
+    /**
+     * Evicts the cached blobs deleted from the cluster and deletes their
+     * directories. A blob is deleted only when no job uses it. If it's
+     * uploaded again, it's cached again when a job needs it.
+     *
+     * @param blobExistsFn tells whether the blob with the given hash is
+     *                     still stored in the cluster
+     */
+    public void evictDeleted(Predicate<String> blobExistsFn) {
+        for (String hash : blobDirs.keySet()) {
+            // checked under the lock of the entry, so that a concurrent
+            // blobDirs() call for a re-uploaded blob can't get the evicted dir
+            blobDirs.computeIfPresent(hash, (h, dir) -> {
+                if (blobExistsFn.test(h)) {
+                    return dir;
+                }
+                IOUtil.delete(dir);
+                logger.fine("Evicted deleted job resource blob " + h);
+                return null;
+            });
+        }
+    }
+
+    public void shutdown() {
+        IOUtil.delete(baseDir);
+    }
+
+    private File inflateBlob(
+            String hash,
+            Function<String, List<String>> fetchNamesFn,
+            BiFunction<String, String, byte[]> fetchResourceFn
+    ) {
+        List<String> names = fetchNamesFn.apply(hash);
+        if (names == null) {
+            throw new JetException("Job resource blob " + hash + " not found");
+        }
+        File dir = new File(baseDir, hash);
+        // inflate into a temporary directory and move it into place when
+        // complete, so that no job ever sees a partially written blob
+        File tmpDir = new File(baseDir, hash + ".tmp-" + idToString(secureRandomNextLong()));
+        try {
+            Path tmpPath = tmpDir.toPath();
+            for (String name : names) {
+                Path file = tmpPath.resolve(name).normalize();
+                if (!file.startsWith(tmpPath) || file.equals(tmpPath)) {
+                    logger.warning("Ignoring job resource outside of its directory: " + name);
+                    continue;
+                }
+                byte[] content = fetchResourceFn.apply(hash, name);
+                if (content == null) {
+                    // the blob was deleted while we were fetching it
+                    IOUtil.delete(tmpDir);
+                    throw new JetException("Job resource " + name + " of blob " + hash + " not found");
+                }
+                Files.createDirectories(file.getParent());
+                try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(content))) {
+                    Files.copy(in, file);
+                }
+            }
+            Files.createDirectories(tmpPath);
+            Files.move(tmpPath, dir.toPath(), ATOMIC_MOVE);
+        } catch (IOException e) {
+            IOUtil.delete(tmpDir);
+            throw new JetException("Failed to cache job resource blob " + hash + " in " + dir, e);
+        }
+        return dir;
+    }
+}
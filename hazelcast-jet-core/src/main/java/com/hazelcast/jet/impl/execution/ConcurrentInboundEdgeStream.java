@@ -20,17 +20,25 @@ import com.hazelcast.internal.util.concurrent.ConcurrentConveyor;
 import com.hazelcast.internal.util.concurrent.Pipe;
 import com.hazelcast.internal.util.concurrent.QueuedPipe;
 import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.core.Partitioner;
 import com.hazelcast.jet.core.Watermark;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.jet.impl.util.ProgressTracker;
 import com.hazelcast.util.function.Predicate;
 
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
 import java.util.BitSet;
+import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.function.Consumer;
 
+import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
+import static com.hazelcast.jet.impl.execution.SnapshotContext.NO_SNAPSHOT;
 import static com.hazelcast.jet.impl.execution.WatermarkCoalescer.NO_NEW_WM;
 import static com.hazelcast.jet.impl.util.ProgressState.MADE_PROGRESS;
+import static com.hazelcast.jet.impl.util.Util.secureRandomNextLong;
 
 /**
  * {@link InboundEdgeStream} implemented in terms of a {@link ConcurrentConveyor}.
@@ -42,6 +50,9 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
     private final int ordinal;
     private final int priority;
     private final boolean waitForSnapshot;
+    private final boolean unalignedSnapshots;
+    private final Partitioner partitioner;
+    private final int partitionCount;
     private final ConcurrentConveyor<Object> conveyor;
     private final ProgressTracker tracker = new ProgressTracker();
     private final ItemDetector itemDetector = new ItemDetector();
@@ -51,6 +62,14 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
     private long pendingSnapshotId; // next snapshot barrier to emit
     private long numActiveQueues; // number of active queues remaining
 
+    // fields used only in the unaligned snapshot mode
+    private final long streamId = secureRandomNextLong();
+    private final Queue<Object> inFlightItems = new ArrayDeque<>();
+    private final Queue<Object> replayedItems = new ArrayDeque<>();
+    private long inFlightSeq;
+    private long recordingSnapshotId = NO_SNAPSHOT;
+    private boolean barrierForwarded;
+
     /**
      * @param waitForSnapshot If true, queues won't be drained until the same
      *                        barrier is received from all of them. This will enforce exactly-once
@@ -58,10 +77,32 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
      */
     public ConcurrentInboundEdgeStream(ConcurrentConveyor<Object> conveyor, int ordinal, int priority,
                                        long lastSnapshotId, boolean waitForSnapshot, int maxWatermarkRetainMillis) {
+        this(conveyor, ordinal, priority, lastSnapshotId, waitForSnapshot, maxWatermarkRetainMillis, false, null, 0);
+    }
+
+    /**
+     * @param unalignedSnapshots If true (together with {@code waitForSnapshot}),
+     *                           queues aren't blocked after they delivered the
+     *                           barrier. The barrier is forwarded as soon as it
+     *                           arrives on the first queue and the items from the
+     *                           other queues are recorded, see {@link
+     *                           #startInFlightRecording(long)}
+     * @param partitioner the partitioner of the edge used to compute the
+     *                    partition of the recorded items, {@code null} if
+     *                    the edge isn't partitioned
+     * @param partitionCount the total partition count
+     */
+    public ConcurrentInboundEdgeStream(ConcurrentConveyor<Object> conveyor, int ordinal, int priority,
+                                       long lastSnapshotId, boolean waitForSnapshot, int maxWatermarkRetainMillis,
+                                       boolean unalignedSnapshots, @Nullable Partitioner partitioner,
+                                       int partitionCount) {
         this.conveyor = conveyor;
         this.ordinal = ordinal;
         this.priority = priority;
         this.waitForSnapshot = waitForSnapshot;
+        this.unalignedSnapshots = waitForSnapshot && unalignedSnapshots;
+        this.partitioner = partitioner;
+        this.partitionCount = partitionCount;
 
         watermarkCoalescer = WatermarkCoalescer.create(maxWatermarkRetainMillis, conveyor.queueCount());
 
@@ -88,6 +129,12 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
     // package-visible for testing
     ProgressState drainTo(long now, Consumer<Object> dest) {
         tracker.reset();
+        if (!replayedItems.isEmpty()) {
+            for (Object item; (item = replayedItems.poll()) != null; ) {
+                dest.accept(item);
+            }
+            return MADE_PROGRESS;
+        }
         for (int queueIndex = 0; queueIndex < conveyor.queueCount(); queueIndex++) {
             final QueuedPipe<Object> q = conveyor.queue(queueIndex);
             if (q == null) {
@@ -95,17 +142,22 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
             }
 
             // skip queues where a snapshot barrier has already been received
-            if (waitForSnapshot && receivedBarriers.get(queueIndex)) {
+            if (waitForSnapshot && !unalignedSnapshots && receivedBarriers.get(queueIndex)) {
                 continue;
             }
 
-            ProgressState result = drainQueue(q, dest);
+            // record the items from queues where the barrier of the recorded snapshot hasn't arrived yet
+            boolean recordInFlight = recordingSnapshotId == pendingSnapshotId && !receivedBarriers.get(queueIndex);
+            ProgressState result = drainQueue(q, dest, recordInFlight);
             tracker.mergeWith(result);
 
             if (itemDetector.item == DONE_ITEM) {
                 conveyor.removeQueue(queueIndex);
                 receivedBarriers.clear(queueIndex);
                 numActiveQueues--;
+                if (unalignedSnapshots) {
+                    maybeCompleteUnalignedBarrier();
+                }
                 if (maybeEmitWm(watermarkCoalescer.queueDone(queueIndex), dest)) {
                     return MADE_PROGRESS;
                 }
@@ -116,6 +168,18 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
                 }
             } else if (itemDetector.item instanceof SnapshotBarrier) {
                 observeBarrier(queueIndex, ((SnapshotBarrier) itemDetector.item).snapshotId());
+                if (unalignedSnapshots) {
+                    // forward the barrier as soon as it's received from the first queue
+                    boolean forward = !barrierForwarded;
+                    if (forward) {
+                        dest.accept(new SnapshotBarrier(pendingSnapshotId));
+                        barrierForwarded = true;
+                    }
+                    maybeCompleteUnalignedBarrier();
+                    if (forward) {
+                        return MADE_PROGRESS;
+                    }
+                }
             } else if (result.isMadeProgress()) {
                 watermarkCoalescer.observeEvent(queueIndex);
             }
@@ -124,7 +188,7 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
                 return tracker.toProgressState();
             }
 
-            if (itemDetector.item != null) {
+            if (itemDetector.item != null && !unalignedSnapshots) {
                 // if we have received the current snapshot from all active queues, forward it
                 if (receivedBarriers.cardinality() == numActiveQueues) {
                     dest.accept(new SnapshotBarrier(pendingSnapshotId));
@@ -154,22 +218,75 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
         return false;
     }
 
+    /**
+     * Used in the unaligned mode: if the barrier of the current snapshot was
+     * received from all active queues, moves to the next snapshot.
+     */
+    private void maybeCompleteUnalignedBarrier() {
+        if (!receivedBarriers.isEmpty() && receivedBarriers.cardinality() == numActiveQueues) {
+            pendingSnapshotId++;
+            receivedBarriers.clear();
+            barrierForwarded = false;
+        }
+    }
+
     @Override
     public boolean isDone() {
-        return numActiveQueues == 0;
+        return numActiveQueues == 0 && replayedItems.isEmpty();
+    }
+
+    @Override
+    public void startInFlightRecording(long snapshotId) {
+        assert unalignedSnapshots || numActiveQueues == 0 : "Unaligned snapshots are not enabled";
+        recordingSnapshotId = snapshotId;
+    }
+
+    @Override
+    public boolean isInFlightRecordingDone() {
+        return recordingSnapshotId < pendingSnapshotId || numActiveQueues == 0;
+    }
+
+    @Override
+    public Entry<InFlightItemKey, Object> pollInFlightItem() {
+        Object item = inFlightItems.poll();
+        if (item == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        int partitionId = partitioner != null ? partitioner.getPartition(item, partitionCount) : -1;
+        return entry(new InFlightItemKey(streamId, inFlightSeq++, ordinal, partitionId), item);
+    }
+
+    @Override
+    public void replayInFlightItem(Object item) {
+        replayedItems.add(item);
+    }
+
+    @Override
+    public int queuedItemCount() {
+        int count = replayedItems.size();
+        for (int queueIndex = 0; queueIndex < conveyor.queueCount(); queueIndex++) {
+            final QueuedPipe<Object> q = conveyor.queue(queueIndex);
+            if (q != null) {
+                count += q.size();
+            }
+        }
+        return count;
     }
 
     /**
      * Drains the supplied queue into a {@code dest} collection, up to the next
      * {@link Watermark} or {@link SnapshotBarrier}. Also updates the {@code tracker} with new status.
+     * If {@code recordInFlight} is true, the drained items are also recorded as in-flight items.
      *
      */
-    private ProgressState drainQueue(Pipe<Object> queue, Consumer<Object> dest) {
-        itemDetector.reset(dest);
+    private ProgressState drainQueue(Pipe<Object> queue, Consumer<Object> dest, boolean recordInFlight) {
+        itemDetector.reset(dest, recordInFlight ? inFlightItems : null);
 
         int drainedCount = queue.drain(itemDetector);
 
         itemDetector.dest = null;
+        itemDetector.inFlightSink = null;
         return ProgressState.valueOf(drainedCount > 0, itemDetector.item == DONE_ITEM);
     }
 
@@ -185,13 +302,16 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
      * Drains a concurrent conveyor's queue while watching for {@link Watermark}s
      * and {@link SnapshotBarrier}s.
      * When encountering either of them it prevents draining more items.
+     * If {@code inFlightSink} is set, the regular items are also added to it.
      */
     private static final class ItemDetector implements Predicate<Object> {
         Consumer<Object> dest;
+        Queue<Object> inFlightSink;
         BroadcastItem item;
 
-        void reset(Consumer<Object> newDest) {
+        void reset(Consumer<Object> newDest, Queue<Object> newInFlightSink) {
             dest = newDest;
+            inFlightSink = newInFlightSink;
             item = null;
         }
 
@@ -203,6 +323,9 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
                 return false;
             }
             dest.accept(o);
+            if (inFlightSink != null) {
+                inFlightSink.add(o);
+            }
             return true;
         }
     }
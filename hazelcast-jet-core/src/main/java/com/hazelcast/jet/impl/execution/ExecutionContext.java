@@ -20,6 +20,7 @@ import com.hazelcast.internal.metrics.MetricsRegistry;
 import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.core.ProcessorSupplier;
 import com.hazelcast.jet.impl.JetService;
+import com.hazelcast.jet.impl.execution.init.Contexts.ProcCtx;
 import com.hazelcast.jet.impl.execution.init.ExecutionPlan;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Address;
@@ -35,7 +36,9 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
+import static com.hazelcast.jet.impl.util.Util.idToString;
 import static com.hazelcast.jet.impl.util.Util.jobAndExecutionId;
+import static com.hazelcast.jet.impl.util.Util.probeValues;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.unmodifiableList;
@@ -55,16 +58,18 @@ public class ExecutionContext {
     private final Object executionLock = new Object();
     private final ILogger logger;
 
-    // dest vertex id --> dest ordinal --> sender addr --> receiver tasklet
-    private Map<Integer, Map<Integer, Map<Address, ReceiverTasklet>>> receiverMap = emptyMap();
+    // dest vertex id --> dest ordinal --> sender addr --> receiver tasklet per lane
+    private Map<Integer, Map<Integer, Map<Address, ReceiverTasklet[]>>> receiverMap = emptyMap();
 
-    // dest vertex id --> dest ordinal --> dest addr --> sender tasklet
-    private Map<Integer, Map<Integer, Map<Address, SenderTasklet>>> senderMap = emptyMap();
+    // dest vertex id --> dest ordinal --> dest addr --> sender tasklet per lane
+    private Map<Integer, Map<Integer, Map<Address, SenderTasklet[]>>> senderMap = emptyMap();
 
     private List<ProcessorSupplier> procSuppliers = emptyList();
     private List<Processor> processors = emptyList();
+    private List<ProcCtx> processorContexts = emptyList();
 
-    private List<Tasklet> tasklets;
+    private List<Tasklet> tasklets = emptyList();
+    private List<PacketCompressor> packetCompressors = emptyList();
 
     // future which is completed only after all tasklets are completed and contains execution result
     private volatile CompletableFuture<Void> executionFuture;
@@ -93,13 +98,16 @@ public class ExecutionContext {
         // available to be completed in the case of init failure
         procSuppliers = unmodifiableList(plan.getProcessorSuppliers());
         processors = plan.getProcessors();
+        processorContexts = plan.getProcessorContexts();
         snapshotContext = new SnapshotContext(nodeEngine.getLogger(SnapshotContext.class), jobId, executionId,
-                plan.lastSnapshotId(), plan.getJobConfig().getProcessingGuarantee());
+                plan.lastSnapshotId(), plan.getJobConfig().getProcessingGuarantee(),
+                plan.getJobConfig().getFullSnapshotInterval());
         plan.initialize(nodeEngine, jobId, executionId, snapshotContext);
         snapshotContext.initTaskletCount(plan.getStoreSnapshotTaskletCount(), plan.getHigherPriorityVertexCount());
         receiverMap = unmodifiableMap(plan.getReceiverMap());
         senderMap = unmodifiableMap(plan.getSenderMap());
         tasklets = plan.getTasklets();
+        packetCompressors = plan.getPacketCompressors();
         return this;
     }
 
@@ -145,6 +153,30 @@ public class ExecutionContext {
         });
         MetricsRegistry metricsRegistry = ((NodeEngineImpl) nodeEngine).getMetricsRegistry();
         processors.forEach(metricsRegistry::deregister);
+        tasklets.forEach(metricsRegistry::deregister);
+        packetCompressors.forEach(metricsRegistry::deregister);
+        // the tasklets release their compressors when done, but not when
+        // the execution was cancelled or failed
+        packetCompressors.forEach(PacketCompressor::release);
+        // the same for the off-heap state and spill files of the processors
+        processorContexts.forEach(ProcCtx::runDisposeActions);
+    }
+
+    /**
+     * Returns the current values of the probes registered by this execution
+     * on the local member, keyed by probe name without the {@link
+     * #metricsPrefix(long) execution prefix}.
+     */
+    public Map<String, Long> metrics() {
+        return probeValues(((NodeEngineImpl) nodeEngine).getMetricsRegistry(), metricsPrefix(executionId));
+    }
+
+    /**
+     * Returns the prefix of the names of all probes registered for the given
+     * execution.
+     */
+    public static String metricsPrefix(long executionId) {
+        return "jet.job." + idToString(executionId) + '.';
     }
 
     /**
@@ -174,10 +206,10 @@ public class ExecutionContext {
         }
     }
 
-    public void handlePacket(int vertexId, int ordinal, Address sender, BufferObjectDataInput in) {
+    public void handlePacket(int vertexId, int ordinal, int lane, Address sender, BufferObjectDataInput in) {
         receiverMap.get(vertexId)
                    .get(ordinal)
-                   .get(sender)
+                   .get(sender)[lane]
                    .receiveStreamPacket(in);
     }
 
@@ -197,11 +229,11 @@ public class ExecutionContext {
         return coordinator;
     }
 
-    public Map<Integer, Map<Integer, Map<Address, SenderTasklet>>> senderMap() {
+    public Map<Integer, Map<Integer, Map<Address, SenderTasklet[]>>> senderMap() {
         return senderMap;
     }
 
-    public Map<Integer, Map<Integer, Map<Address, ReceiverTasklet>>> receiverMap() {
+    public Map<Integer, Map<Integer, Map<Address, ReceiverTasklet[]>>> receiverMap() {
         return receiverMap;
     }
 
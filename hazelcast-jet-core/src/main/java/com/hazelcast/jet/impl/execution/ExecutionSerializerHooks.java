@@ -145,4 +145,44 @@ class ExecutionSerializerHooks {
             return true;
         }
     }
+
+    public static final class InFlightItemKeyHook implements SerializerHook<InFlightItemKey> {
+
+        @Override
+        public Class<InFlightItemKey> getSerializationType() {
+            return InFlightItemKey.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<InFlightItemKey>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.IN_FLIGHT_ITEM_KEY;
+                }
+
+                @Override
+                public void destroy() {
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, InFlightItemKey object) throws IOException {
+                    out.writeLong(object.streamId());
+                    out.writeLong(object.sequence());
+                    out.writeInt(object.ordinal());
+                    out.writeInt(object.partitionId());
+                }
+
+                @Override
+                public InFlightItemKey read(ObjectDataInput in) throws IOException {
+                    return new InFlightItemKey(in.readLong(), in.readLong(), in.readInt(), in.readInt());
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.execution;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The snapshot key of an item that was in flight on an input edge when
+ * the processor saved its state in the unaligned snapshot mode. On
+ * restore, the item is processed again after the processor's state is
+ * restored, see {@link com.hazelcast.jet.config.JobConfig#setUnalignedSnapshots(boolean)}.
+ */
+public final class InFlightItemKey implements Comparable<InFlightItemKey> {
+
+    private final long streamId;
+    private final long sequence;
+    private final int ordinal;
+    private final int partitionId;
+
+    /**
+     * @param streamId    random ID of the inbound stream that recorded the item
+     * @param sequence    sequence of the item in the stream
+     * @param ordinal     ordinal of the edge the item was received on
+     * @param partitionId partition of the item if it was received on a
+     *                    partitioned edge, -1 otherwise
+     */
+    public InFlightItemKey(long streamId, long sequence, int ordinal, int partitionId) {
+        this.streamId = streamId;
+        this.sequence = sequence;
+        this.ordinal = ordinal;
+        this.partitionId = partitionId;
+    }
+
+    public long streamId() {
+        return streamId;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    public int ordinal() {
+        return ordinal;
+    }
+
+    public int partitionId() {
+        return partitionId;
+    }
+
+    /**
+     * Orders the keys of each stream by their sequence, so that the items
+     * can be replayed in the order they were received.
+     */
+    @Override
+    public int compareTo(@Nonnull InFlightItemKey that) {
+        int res = Long.compare(streamId, that.streamId);
+        return res != 0 ? res : Long.compare(sequence, that.sequence);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        InFlightItemKey that = (InFlightItemKey) o;
+        return streamId == that.streamId && sequence == that.sequence;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(streamId) + Long.hashCode(sequence);
+    }
+
+    @Override
+    public String toString() {
+        return "InFlightItemKey{" +
+                "streamId=" + streamId +
+                ", sequence=" + sequence +
+                ", ordinal=" + ordinal +
+                ", partitionId=" + partitionId +
+                '}';
+    }
+}
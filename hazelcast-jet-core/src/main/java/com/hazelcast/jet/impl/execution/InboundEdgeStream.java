@@ -18,6 +18,7 @@ package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.jet.impl.util.ProgressState;
 
+import java.util.Map.Entry;
 import java.util.function.Consumer;
 
 /**
@@ -34,4 +35,42 @@ public interface InboundEdgeStream {
     ProgressState drainTo(Consumer<Object> dest);
 
     boolean isDone();
+
+    /**
+     * Returns the number of items currently waiting in the stream. Can be
+     * called from any thread, the result is only an estimate.
+     */
+    int queuedItemCount();
+
+    /**
+     * Used in the unaligned snapshot mode. Starts recording the items received
+     * on the queues where the barrier of the given snapshot hasn't arrived
+     * yet. The tasklet saves them to the snapshot using {@link
+     * #pollInFlightItem()}.
+     */
+    default void startInFlightRecording(long snapshotId) {
+    }
+
+    /**
+     * Returns {@code true} if the barrier of the snapshot passed to {@link
+     * #startInFlightRecording} arrived on all queues, so no more items will be
+     * recorded for it.
+     */
+    default boolean isInFlightRecordingDone() {
+        return true;
+    }
+
+    /**
+     * Removes and returns the next recorded in-flight item with its snapshot
+     * key, or {@code null} if there's none.
+     */
+    default Entry<InFlightItemKey, Object> pollInFlightItem() {
+        return null;
+    }
+
+    /**
+     * Adds an in-flight item restored from a snapshot. The stream emits the
+     * replayed items before the items from its queues.
+     */
+    void replayInFlightItem(Object item);
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+/**
+ * Implemented by processors that track which of their snapshot entries
+ * changed since the previous snapshot. When the job takes {@linkplain
+ * com.hazelcast.jet.config.JobConfig#setFullSnapshotInterval(int)
+ * incremental snapshots}, {@link ProcessorTasklet} calls {@link
+ * #saveChangesToSnapshot()} instead of {@link
+ * com.hazelcast.jet.core.Processor#saveToSnapshot()} for the incremental
+ * ones, so that the unchanged state is neither serialized nor written.
+ * <p>
+ * The vertices with a processor that doesn't implement this interface save
+ * their complete state to every snapshot and are restored from the newest
+ * one only.
+ */
+public interface IncrementalSnapshotSupport {
+
+    /**
+     * Called once after {@link com.hazelcast.jet.core.Processor#init} if the
+     * job takes incremental snapshots. Until it's called, the processor
+     * doesn't need to track any changes.
+     */
+    void enableChangeTracking();
+
+    /**
+     * Like {@link com.hazelcast.jet.core.Processor#saveToSnapshot()}, but
+     * only saves the entries that were added or changed since the previous
+     * snapshot. For each entry saved to a previous snapshot and removed since
+     * then, it saves the key with a {@link SnapshotTombstone#TOMBSTONE}
+     * value. Both this method and {@code saveToSnapshot()} start a new
+     * tracking period once they return {@code true}.
+     */
+    boolean saveChangesToSnapshot();
+}
@@ -16,6 +16,7 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.jet.core.Edge.RoutingPolicy;
 import com.hazelcast.jet.core.Partitioner;
 import com.hazelcast.jet.impl.execution.init.EdgeDef;
 import com.hazelcast.jet.impl.util.CircularListCursor;
@@ -25,6 +26,7 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.function.IntSupplier;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -77,6 +79,25 @@ public interface OutboundCollector {
         }
     }
 
+    /**
+     * Returns a collector that spreads the items sent to a remote member among
+     * the collectors of the lanes to it. On a partitioned edge each partition
+     * is bound to a single lane to preserve the order of its items, otherwise
+     * the lanes take turns. Unlike {@link #compositeCollector}, a broadcast
+     * edge also sends each item through a single lane because the receiving
+     * member does the broadcasting.
+     */
+    static OutboundCollector laneCollector(
+            OutboundCollector[] laneCollectors, EdgeDef outboundEdge, int partitionCount
+    ) {
+        if (laneCollectors.length == 1) {
+            return laneCollectors[0];
+        }
+        return outboundEdge.routingPolicy() == RoutingPolicy.PARTITIONED
+                ? new Partitioned(laneCollectors, outboundEdge.partitioner(), partitionCount)
+                : new RoundRobin(laneCollectors);
+    }
+
     abstract class Composite implements OutboundCollector {
 
         protected final OutboundCollector[] collectors;
@@ -145,6 +166,60 @@ public interface OutboundCollector {
         }
     }
 
+    /**
+     * Routes items of a distributed unicast edge. {@code collectors[0]} is the
+     * collector of the local processors and {@code collectors[n]} for {@code n
+     * > 0} are the collectors of remote members. Items go to the local
+     * processors as long as they accept them and spill to a remote member only
+     * when all local queues are full. The remote member whose sender has the
+     * most room left in its flow-control window is chosen.
+     */
+    class LocalityPreferring extends Composite {
+
+        private final IntSupplier[] remoteWindowFns;
+        private int remoteCursor;
+
+        /**
+         * @param remoteWindowFns for {@code collectors[n + 1]}, {@code
+         *        remoteWindowFns[n]} returns the remaining flow-control window
+         *        of the sender to that member
+         */
+        public LocalityPreferring(OutboundCollector[] collectors, IntSupplier[] remoteWindowFns) {
+            super(collectors);
+            assert remoteWindowFns.length == collectors.length - 1 : "remoteWindowFns.length mismatch";
+            this.remoteWindowFns = remoteWindowFns;
+        }
+
+        @Override
+        public ProgressState offer(Object item) {
+            ProgressState result = collectors[0].offer(item);
+            if (result.isDone() || result.isMadeProgress()) {
+                return result;
+            }
+            // Local queues are full, spill to a remote member. The search starts
+            // at a rotating position so that ties are broken round-robin.
+            int remoteCount = remoteWindowFns.length;
+            int best = -1;
+            int bestWindow = 0;
+            for (int i = 0; i < remoteCount; i++) {
+                int remote = (remoteCursor + i) % remoteCount;
+                int window = remoteWindowFns[remote].getAsInt();
+                if (window > bestWindow) {
+                    best = remote;
+                    bestWindow = window;
+                }
+            }
+            if (best < 0) {
+                return result;
+            }
+            result = collectors[best + 1].offer(item);
+            if (result.isDone()) {
+                remoteCursor = (best + 1) % remoteCount;
+            }
+            return result;
+        }
+    }
+
     class Broadcast extends Composite {
 
         Broadcast(OutboundCollector[] collectors) {
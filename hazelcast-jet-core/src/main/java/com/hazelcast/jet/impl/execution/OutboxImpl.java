@@ -21,6 +21,7 @@ import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.jet.impl.util.ProgressTracker;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.serialization.SerializationService;
+import com.hazelcast.util.counters.SwCounter;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import javax.annotation.Nonnull;
@@ -29,6 +30,7 @@ import java.util.Map.Entry;
 import java.util.stream.IntStream;
 
 import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.util.counters.SwCounter.newSwCounter;
 import static com.hazelcast.util.Preconditions.checkPositive;
 
 public class OutboxImpl implements Outbox {
@@ -43,6 +45,7 @@ public class OutboxImpl implements Outbox {
     private final int[] allEdgesAndSnapshot;
     private final int[] snapshotEdge;
     private final BitSet broadcastTracker;
+    private final SwCounter emittedCount = newSwCounter();
     private Entry<Data, Data> pendingSnapshotEntry;
     private int numRemainingInBatch;
 
@@ -90,6 +93,14 @@ public class OutboxImpl implements Outbox {
 
     @Override
     public final boolean offer(int[] ordinals, @Nonnull Object item) {
+        if (offerInternal(ordinals, item)) {
+            emittedCount.inc();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean offerInternal(int[] ordinals, @Nonnull Object item) {
         assert numRemainingInBatch != -1 : "Outbox.offer() called again after it returned false, without a " +
                 "call to reset(). You probably didn't return from Processor method after Outbox.offer() " +
                 "or AbstractProcessor.tryEmit() returned false";
@@ -140,7 +151,7 @@ public class OutboxImpl implements Outbox {
             pendingSnapshotEntry = entry(sKey, sValue);
         }
 
-        boolean success = offer(snapshotEdge, pendingSnapshotEntry);
+        boolean success = offerInternal(snapshotEdge, pendingSnapshotEntry);
         if (success) {
             pendingSnapshotEntry = null;
         }
@@ -164,6 +175,30 @@ public class OutboxImpl implements Outbox {
     }
 
     final boolean offerToEdgesAndSnapshot(Object item) {
-        return offer(allEdgesAndSnapshot, item);
+        return offerInternal(allEdgesAndSnapshot, item);
+    }
+
+    /**
+     * Offers the item to the edges, but not to the snapshot. Unlike {@link
+     * #offer(Object)}, it doesn't count the item as emitted.
+     */
+    final boolean offerToEdges(Object item) {
+        return offerInternal(allEdges, item);
+    }
+
+    /**
+     * Offers the item to the snapshot only.
+     */
+    final boolean offerToSnapshotOnly(Object item) {
+        return offerInternal(snapshotEdge, item);
+    }
+
+    /**
+     * Returns the number of items accepted by the {@code offer()} methods
+     * since the outbox was created. Items offered to the snapshot are not
+     * counted. Safe to call from any thread.
+     */
+    final long emittedCount() {
+        return emittedCount.get();
     }
 }
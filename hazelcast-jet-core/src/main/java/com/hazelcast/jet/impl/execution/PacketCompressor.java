@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.SwCounter;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.nio.BufferObjectDataInput;
+import com.hazelcast.nio.BufferObjectDataOutput;
+import com.hazelcast.spi.NodeEngine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static com.hazelcast.jet.impl.util.Util.createObjectDataInput;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+
+/**
+ * Compresses the body of stream packets on a distributed edge with the
+ * {@link com.hazelcast.jet.config.CompressionCodec#DEFLATE DEFLATE} codec.
+ * A compressed body consists of the uncompressed length, the compressed
+ * length and the compressed bytes. The packet header stays uncompressed.
+ * <p>
+ * An instance is owned by a single sender or receiver tasklet and is not
+ * thread-safe.
+ */
+public class PacketCompressor {
+
+    private static final int INITIAL_BUFFER_SIZE = 1 << 14;
+    // the uncompressed and the compressed length
+    private static final int COMPRESSED_HEADER_SIZE = 2 * INT_SIZE_IN_BYTES;
+
+    private final NodeEngine nodeEngine;
+    private Deflater deflater;
+    private Inflater inflater;
+    // holds the compressed bytes
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    // holds the decompressed body, allocated on the first use
+    private byte[] body = new byte[0];
+
+    @Probe(name = "uncompressedBytes", level = MANDATORY)
+    private final SwCounter uncompressedBytes = newSwCounter();
+    @Probe(name = "compressedBytes", level = MANDATORY)
+    private final SwCounter compressedBytes = newSwCounter();
+    @Probe(name = "compressionNanos", level = MANDATORY)
+    private final SwCounter compressionNanos = newSwCounter();
+
+    public PacketCompressor(NodeEngine nodeEngine) {
+        this.nodeEngine = nodeEngine;
+    }
+
+    /**
+     * Returns the bytes of the packet in {@code out} with its body, which
+     * starts at {@code bodyOffset} and ends at the current position of
+     * {@code out}, replaced by the compressed form.
+     * <p>
+     * {@code BufferObjectDataOutput} doesn't expose its array, so the packet
+     * is copied out of it once, like for an uncompressed packet. The body is
+     * deflated into a reused buffer and the result is written straight into
+     * the returned array.
+     */
+    byte[] compress(BufferObjectDataOutput out, int bodyOffset) {
+        long start = System.nanoTime();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.BEST_SPEED);
+        }
+        byte[] packet = out.toByteArray();
+        int bodyLength = packet.length - bodyOffset;
+        deflater.reset();
+        deflater.setInput(packet, bodyOffset, bodyLength);
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == buffer.length) {
+                buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            }
+            compressedLength += deflater.deflate(buffer, compressedLength, buffer.length - compressedLength);
+        }
+        byte[] result = new byte[bodyOffset + COMPRESSED_HEADER_SIZE + compressedLength];
+        System.arraycopy(packet, 0, result, 0, bodyOffset);
+        ByteBuffer.wrap(result).order(out.getByteOrder())
+                  .putInt(bodyOffset, bodyLength)
+                  .putInt(bodyOffset + INT_SIZE_IN_BYTES, compressedLength);
+        System.arraycopy(buffer, 0, result, bodyOffset + COMPRESSED_HEADER_SIZE, compressedLength);
+        record(start, bodyLength, compressedLength);
+        return result;
+    }
+
+    /**
+     * Reads a compressed body from the given packet, which is positioned past
+     * the header, and returns the input over the decompressed body. The body
+     * is inflated into a buffer that the next call reuses, so the returned
+     * input must not be used after the next call.
+     */
+    BufferObjectDataInput decompress(BufferObjectDataInput packet) throws IOException {
+        long start = System.nanoTime();
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+        int bodyLength = packet.readInt();
+        int compressedLength = packet.readInt();
+        if (bodyLength < 0 || compressedLength < 0) {
+            throw new JetException("Corrupt compressed packet, body length: " + bodyLength
+                    + ", compressed length: " + compressedLength);
+        }
+        buffer = ensureCapacity(buffer, compressedLength);
+        packet.readFully(buffer, 0, compressedLength);
+        packet.close();
+        body = ensureCapacity(body, bodyLength);
+        inflater.reset();
+        inflater.setInput(buffer, 0, compressedLength);
+        try {
+            int length = 0;
+            while (length < bodyLength) {
+                int count = inflater.inflate(body, length, bodyLength - length);
+                if (count == 0 && (inflater.needsInput() || inflater.finished())) {
+                    throw new JetException("Compressed packet is truncated, expected " + bodyLength
+                            + " bytes, got " + length);
+                }
+                length += count;
+            }
+        } catch (DataFormatException e) {
+            throw new JetException("Corrupt compressed packet: " + e, e);
+        }
+        record(start, bodyLength, compressedLength);
+        // the items are read by count, so the bytes past bodyLength are never read
+        return createObjectDataInput(nodeEngine, body);
+    }
+
+    /**
+     * Releases the native resources of the codec. The compressor can still be
+     * used afterwards, it will allocate them again. Called when the tasklet
+     * is done and, to cover cancellation and failure, when the execution
+     * completes.
+     */
+    void release() {
+        if (deflater != null) {
+            deflater.end();
+            deflater = null;
+        }
+        if (inflater != null) {
+            inflater.end();
+            inflater = null;
+        }
+    }
+
+    /**
+     * Returns the size of the compressed data as a percentage of the
+     * uncompressed size.
+     */
+    @Probe(name = "compressionRatioPercent", level = MANDATORY)
+    long compressionRatioPercent() {
+        long uncompressed = uncompressedBytes.get();
+        return uncompressed == 0 ? 100 : 100 * compressedBytes.get() / uncompressed;
+    }
+
+    private static byte[] ensureCapacity(byte[] array, int length) {
+        return length <= array.length ? array : new byte[Math.max(length, 2 * array.length)];
+    }
+
+    private void record(long start, int bodyLength, int compressedLength) {
+        uncompressedBytes.inc(bodyLength);
+        compressedBytes.inc(compressedLength);
+        compressionNanos.inc(System.nanoTime() - start);
+    }
+}
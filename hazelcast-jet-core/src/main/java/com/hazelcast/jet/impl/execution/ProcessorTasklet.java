@@ -16,6 +16,7 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.jet.JetException;
 import com.hazelcast.jet.config.ProcessingGuarantee;
 import com.hazelcast.jet.core.Processor;
@@ -26,11 +27,13 @@ import com.hazelcast.jet.impl.util.CircularListCursor;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.jet.impl.util.ProgressTracker;
 import com.hazelcast.util.Preconditions;
+import com.hazelcast.util.counters.SwCounter;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Optional;
@@ -47,9 +50,13 @@ import static com.hazelcast.jet.impl.execution.ProcessorState.END;
 import static com.hazelcast.jet.impl.execution.ProcessorState.PROCESS_INBOX;
 import static com.hazelcast.jet.impl.execution.ProcessorState.PROCESS_WATERMARK;
 import static com.hazelcast.jet.impl.execution.ProcessorState.SAVE_SNAPSHOT;
+import static com.hazelcast.jet.impl.execution.SnapshotContext.NO_SNAPSHOT;
+import static com.hazelcast.jet.impl.execution.SnapshotTombstone.TOMBSTONE;
 import static com.hazelcast.jet.impl.execution.WatermarkCoalescer.IDLE_MESSAGE;
 import static com.hazelcast.jet.impl.execution.WatermarkCoalescer.NO_NEW_WM;
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
 import static com.hazelcast.jet.impl.util.ProgressState.NO_PROGRESS;
+import static com.hazelcast.util.counters.SwCounter.newSwCounter;
 import static java.util.Comparator.comparing;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toCollection;
@@ -69,6 +76,18 @@ public class ProcessorTasklet implements Tasklet {
     private final ArrayDequeInbox inbox = new ArrayDequeInbox(progTracker);
     private final Queue<ArrayList<InboundEdgeStream>> instreamGroupQueue;
     private final WatermarkCoalescer watermarkCoalescer;
+    private final InboundEdgeStream[] allInstreams;
+    private final boolean unalignedSnapshots;
+    // the processor, if it saves only its changes to incremental snapshots, null otherwise
+    private final IncrementalSnapshotSupport incrementalProcessor;
+
+    // metrics, written only by the thread running the tasklet
+    @Probe(name = "receivedCount", level = MANDATORY)
+    private final SwCounter receivedCount = newSwCounter();
+    @Probe(name = "callCount", level = MANDATORY)
+    private final SwCounter callCount = newSwCounter();
+    @Probe(name = "callTimeNanos", level = MANDATORY)
+    private final SwCounter callTimeNanos = newSwCounter();
 
     private int numActiveOrdinals; // counter for remaining active ordinals
     private CircularListCursor<InboundEdgeStream> instreamCursor;
@@ -77,6 +96,15 @@ public class ProcessorTasklet implements Tasklet {
     private long pendingSnapshotId;
     private Watermark pendingWatermark;
 
+    // fields used only in the unaligned snapshot mode
+    private long recordingSnapshotId = NO_SNAPSHOT; // the snapshot for which in-flight items are being saved
+    private Entry<InFlightItemKey, Object> pendingInFlightEntry;
+    private final List<Entry<InFlightItemKey, Object>> restoredInFlightItems = new ArrayList<>();
+    // with incrementalProcessor: the in-flight items saved to the previous snapshot,
+    // the next incremental snapshot saves a tombstone for each of them
+    private final List<InFlightItemKey> savedInFlightKeys = new ArrayList<>();
+    private int inFlightTombstoneIdx;
+
     public ProcessorTasklet(@Nonnull ProcCtx context,
                             @Nonnull Processor processor,
                             @Nonnull List<? extends InboundEdgeStream> instreams,
@@ -84,10 +112,30 @@ public class ProcessorTasklet implements Tasklet {
                             @Nonnull SnapshotContext ssContext,
                             @Nonnull OutboundCollector ssCollector,
                             int maxWatermarkRetainMillis) {
+        this(context, processor, instreams, outstreams, ssContext, ssCollector, maxWatermarkRetainMillis, false);
+    }
+
+    /**
+     * @param unalignedSnapshots if true, the snapshot is saved as soon as the
+     *                           barrier arrives on any ordinal, the items still
+     *                           received on the other ordinals before their
+     *                           barrier are saved to the snapshot, see {@link
+     *                           com.hazelcast.jet.config.JobConfig#setUnalignedSnapshots(boolean)}
+     */
+    public ProcessorTasklet(@Nonnull ProcCtx context,
+                            @Nonnull Processor processor,
+                            @Nonnull List<? extends InboundEdgeStream> instreams,
+                            @Nonnull List<? extends OutboundEdgeStream> outstreams,
+                            @Nonnull SnapshotContext ssContext,
+                            @Nonnull OutboundCollector ssCollector,
+                            int maxWatermarkRetainMillis,
+                            boolean unalignedSnapshots) {
         Preconditions.checkNotNull(processor, "processor");
+        this.unalignedSnapshots = unalignedSnapshots;
         this.context = context;
         this.processor = processor;
         this.numActiveOrdinals = instreams.size();
+        this.allInstreams = instreams.toArray(new InboundEdgeStream[0]);
         this.instreamGroupQueue = instreams
                 .stream()
                 .collect(groupingBy(InboundEdgeStream::priority, TreeMap::new,
@@ -99,6 +147,8 @@ public class ProcessorTasklet implements Tasklet {
                                     .sorted(comparing(OutboundEdgeStream::ordinal))
                                     .toArray(OutboundEdgeStream[]::new);
         this.ssContext = ssContext;
+        this.incrementalProcessor = ssContext.isIncrementalEnabled() && processor instanceof IncrementalSnapshotSupport
+                ? (IncrementalSnapshotSupport) processor : null;
 
         instreamCursor = popInstreamGroup();
         currInstream = instreamCursor != null ? instreamCursor.value() : null;
@@ -127,6 +177,9 @@ public class ProcessorTasklet implements Tasklet {
         Object processor2 = context.getSerializationService().getManagedContext().initialize(processor);
         assert processor2 == processor : "different object returned";
         processor.init(outbox, context);
+        if (incrementalProcessor != null) {
+            incrementalProcessor.enableChangeTracking();
+        }
     }
 
     @Override @Nonnull
@@ -173,12 +226,21 @@ public class ProcessorTasklet implements Tasklet {
 
             case PROCESS_INBOX:
                 progTracker.notDone();
+                if (!saveInFlightItems()) {
+                    return;
+                }
                 if (inbox.isEmpty() && (isSnapshotInbox() || processor.tryProcess())) {
                     fillInbox(now);
+                    if (!isSnapshotInbox()) {
+                        receivedCount.inc(inbox.size());
+                    }
                 }
                 if (!inbox.isEmpty()) {
                     if (isSnapshotInbox()) {
-                        processor.restoreFromSnapshot(inbox);
+                        extractInFlightItems();
+                        if (!inbox.isEmpty()) {
+                            processor.restoreFromSnapshot(inbox);
+                        }
                     } else {
                         processor.process(currInstream.ordinal(), inbox);
                     }
@@ -192,8 +254,11 @@ public class ProcessorTasklet implements Tasklet {
                         return;
                     } else if (context.snapshottingEnabled()
                             && numActiveOrdinals > 0
-                            && receivedBarriers.cardinality() == numActiveOrdinals) {
+                            && (unalignedSnapshots
+                                    ? !receivedBarriers.isEmpty()
+                                    : receivedBarriers.cardinality() == numActiveOrdinals)) {
                         // we have an empty inbox and received the current snapshot barrier from all active ordinals
+                        // (or from any ordinal in the unaligned mode)
                         state = SAVE_SNAPSHOT;
                         return;
                     } else if (numActiveOrdinals == 0) {
@@ -209,6 +274,9 @@ public class ProcessorTasklet implements Tasklet {
                 progTracker.notDone();
                 if (isSnapshotInbox()
                         ? processor.finishSnapshotRestore() : processor.completeEdge(currInstream.ordinal())) {
+                    if (isSnapshotInbox()) {
+                        replayInFlightItems();
+                    }
                     progTracker.madeProgress();
                     state = initialProcessingState();
                 }
@@ -218,7 +286,11 @@ public class ProcessorTasklet implements Tasklet {
                 assert context.snapshottingEnabled() : "Snapshotting is not enabled";
 
                 progTracker.notDone();
-                if (processor.saveToSnapshot()) {
+                if (incrementalProcessor != null && ssContext.isIncremental(pendingSnapshotId)
+                        ? saveInFlightTombstones() && incrementalProcessor.saveChangesToSnapshot()
+                        : processor.saveToSnapshot()) {
+                    savedInFlightKeys.clear();
+                    inFlightTombstoneIdx = 0;
                     progTracker.madeProgress();
                     state = EMIT_BARRIER;
                 }
@@ -228,7 +300,19 @@ public class ProcessorTasklet implements Tasklet {
                 assert context.snapshottingEnabled() : "Snapshotting is not enabled";
 
                 progTracker.notDone();
-                if (outbox.offerToEdgesAndSnapshot(new SnapshotBarrier(pendingSnapshotId))) {
+                if (unalignedSnapshots) {
+                    assert recordingSnapshotId == NO_SNAPSHOT : "Still saving in-flight items of " + recordingSnapshotId;
+                    // The barrier is sent to the snapshot only after the in-flight items, see saveInFlightItems()
+                    if (outbox.offerToEdges(new SnapshotBarrier(pendingSnapshotId))) {
+                        recordingSnapshotId = pendingSnapshotId;
+                        for (InboundEdgeStream instream : allInstreams) {
+                            instream.startInFlightRecording(recordingSnapshotId);
+                        }
+                        receivedBarriers.clear();
+                        pendingSnapshotId++;
+                        state = initialProcessingState();
+                    }
+                } else if (outbox.offerToEdgesAndSnapshot(new SnapshotBarrier(pendingSnapshotId))) {
                     receivedBarriers.clear();
                     pendingSnapshotId++;
                     state = initialProcessingState();
@@ -237,6 +321,9 @@ public class ProcessorTasklet implements Tasklet {
 
             case COMPLETE:
                 progTracker.notDone();
+                if (!saveInFlightItems()) {
+                    return;
+                }
                 // check ssContext to see if a barrier should be emitted
                 if (context.snapshottingEnabled()) {
                     long currSnapshotId = ssContext.lastSnapshotId();
@@ -280,7 +367,7 @@ public class ProcessorTasklet implements Tasklet {
 
             // skip ordinals where a snapshot barrier has already been received
             if (ssContext != null && ssContext.processingGuarantee() == ProcessingGuarantee.EXACTLY_ONCE
-                    && receivedBarriers.get(currInstream.ordinal())) {
+                    && !unalignedSnapshots && receivedBarriers.get(currInstream.ordinal())) {
                 instreamCursor.advance();
                 continue;
             }
@@ -334,6 +421,10 @@ public class ProcessorTasklet implements Tasklet {
     }
 
     private void observeSnapshot(int ordinal, long snapshotId) {
+        if (unalignedSnapshots && snapshotId < pendingSnapshotId) {
+            // the snapshot was already saved when the barrier arrived on another ordinal
+            return;
+        }
         if (snapshotId != pendingSnapshotId) {
             throw new JetException("Unexpected snapshot barrier " + snapshotId + " from ordinal " + ordinal +
                     " expected " + pendingSnapshotId);
@@ -341,6 +432,95 @@ public class ProcessorTasklet implements Tasklet {
         receivedBarriers.set(ordinal);
     }
 
+    /**
+     * Used in the unaligned mode. Saves the in-flight items recorded by the
+     * inbound streams to the snapshot. When all the streams received the
+     * barrier on all their queues, sends the barrier to the snapshot.
+     *
+     * @return false, if the outbox is full
+     */
+    private boolean saveInFlightItems() {
+        if (recordingSnapshotId == NO_SNAPSHOT) {
+            return true;
+        }
+        boolean recordingDone = true;
+        for (InboundEdgeStream instream : allInstreams) {
+            if (pendingInFlightEntry == null) {
+                pendingInFlightEntry = instream.pollInFlightItem();
+            }
+            for (; pendingInFlightEntry != null; pendingInFlightEntry = instream.pollInFlightItem()) {
+                if (!outbox.offerToSnapshot(pendingInFlightEntry.getKey(), pendingInFlightEntry.getValue())) {
+                    return false;
+                }
+                if (incrementalProcessor != null) {
+                    savedInFlightKeys.add(pendingInFlightEntry.getKey());
+                }
+            }
+            recordingDone &= instream.isInFlightRecordingDone();
+        }
+        if (recordingDone) {
+            if (!outbox.offerToSnapshotOnly(new SnapshotBarrier(recordingSnapshotId))) {
+                return false;
+            }
+            recordingSnapshotId = NO_SNAPSHOT;
+        }
+        return true;
+    }
+
+    /**
+     * Used in the unaligned mode with incremental snapshots. The in-flight
+     * items saved to the previous snapshot were replayed since then, saves a
+     * tombstone for each of them so that they aren't restored from it.
+     *
+     * @return false, if the outbox is full
+     */
+    private boolean saveInFlightTombstones() {
+        for (; inFlightTombstoneIdx < savedInFlightKeys.size(); inFlightTombstoneIdx++) {
+            if (!outbox.offerToSnapshot(savedInFlightKeys.get(inFlightTombstoneIdx), TOMBSTONE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves the in-flight items saved in the unaligned mode from the snapshot
+     * inbox aside, they are replayed after the restore is finished.
+     */
+    @SuppressWarnings("unchecked")
+    private void extractInFlightItems() {
+        for (Iterator<Object> it = inbox.iterator(); it.hasNext(); ) {
+            Object item = it.next();
+            if (item instanceof Entry && ((Entry<?, ?>) item).getKey() instanceof InFlightItemKey) {
+                restoredInFlightItems.add((Entry<InFlightItemKey, Object>) item);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Hands the restored in-flight items to their inbound streams, in the
+     * order they were received.
+     */
+    private void replayInFlightItems() {
+        restoredInFlightItems.sort(Entry.comparingByKey());
+        for (Entry<InFlightItemKey, Object> e : restoredInFlightItems) {
+            InboundEdgeStream instream = null;
+            for (InboundEdgeStream s : allInstreams) {
+                if (s.ordinal() == e.getKey().ordinal()) {
+                    instream = s;
+                    break;
+                }
+            }
+            if (instream == null) {
+                throw new JetException("In-flight item restored for unknown ordinal " + e.getKey().ordinal()
+                        + " in " + this);
+            }
+            instream.replayInFlightItem(e.getValue());
+        }
+        restoredInFlightItems.clear();
+    }
+
     /**
      * Initial state of the processor. If there are no inbound ordinals left, we will go to COMPLETE state
      * otherwise to PROCESS_INBOX.
@@ -360,4 +540,24 @@ public class ProcessorTasklet implements Tasklet {
     public boolean isCooperative() {
         return processor.isCooperative();
     }
+
+    @Override
+    public void recordCallTime(long nanos) {
+        callCount.inc();
+        callTimeNanos.inc(nanos);
+    }
+
+    @Probe(name = "emittedCount", level = MANDATORY)
+    private long emittedCount() {
+        return outbox.emittedCount();
+    }
+
+    @Probe(name = "queuedItemCount", level = MANDATORY)
+    private long queuedItemCount() {
+        long count = 0;
+        for (InboundEdgeStream instream : allInstreams) {
+            count += instream.queuedItemCount();
+        }
+        return count;
+    }
 }
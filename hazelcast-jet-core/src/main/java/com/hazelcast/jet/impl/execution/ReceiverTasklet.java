@@ -16,20 +16,22 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.util.concurrent.MPSCQueue;
-import com.hazelcast.jet.impl.util.ObjectWithPartitionId;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.jet.impl.util.ProgressTracker;
 import com.hazelcast.nio.BufferObjectDataInput;
 import com.hazelcast.util.concurrent.IdleStrategy;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.Queue;
 
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
 import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
+import static com.hazelcast.jet.impl.util.Util.uncheckRun;
 import static java.lang.Math.ceil;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
@@ -70,13 +72,22 @@ public class ReceiverTasklet implements Tasklet {
     private final int rwinMultiplier;
     private final double flowControlPeriodNs;
 
+    @Probe(name = "incomingPacketCount", level = MANDATORY)
     private final Queue<BufferObjectDataInput> incoming = new MPSCQueue<>((IdleStrategy) null);
     private final ProgressTracker tracker = new ProgressTracker();
-    private final ArrayDeque<ObjWithPtionIdAndSize> inbox = new ArrayDeque<>();
     private final OutboundCollector collector;
+    private final PacketCompressor compressor;
 
     private boolean receptionDone;
 
+    // The packet currently being decoded. Items are decoded one at a time,
+    // directly into the "pending" fields, so no per-item wrapper is needed.
+    private BufferObjectDataInput currentPacket;
+    private int remainingInPacket;
+    private Object pendingItem;
+    private int pendingPartitionId;
+    private long pendingItemFootprint;
+
     //                    FLOW-CONTROL STATE
     //            All arrays are indexed by sender ID.
 
@@ -84,6 +95,7 @@ public class ReceiverTasklet implements Tasklet {
     private volatile long ackedSeq;
 
     // read and written by updateAndGetSendSeqLimitCompressed(), which is invoked sequentially by a task scheduler
+    @Probe(name = "receiveWindowCompressed", level = MANDATORY)
     private int receiveWindowCompressed;
     private int prevAckedSeqCompressed;
     private long prevTimestamp;
@@ -91,7 +103,17 @@ public class ReceiverTasklet implements Tasklet {
     //                 END FLOW-CONTROL STATE
 
     public ReceiverTasklet(OutboundCollector collector, int rwinMultiplier, int flowControlPeriodMs) {
+        this(collector, rwinMultiplier, flowControlPeriodMs, null);
+    }
+
+    /**
+     * @param compressor decompresses the received packets, {@code null} if they
+     *                   are uncompressed
+     */
+    public ReceiverTasklet(OutboundCollector collector, int rwinMultiplier, int flowControlPeriodMs,
+                           @Nullable PacketCompressor compressor) {
         this.collector = collector;
+        this.compressor = compressor;
         this.rwinMultiplier = rwinMultiplier;
         this.flowControlPeriodNs = (double) MILLISECONDS.toNanos(flowControlPeriodMs);
         this.receiveWindowCompressed = INITIAL_RECEIVE_WINDOW_COMPRESSED;
@@ -104,25 +126,28 @@ public class ReceiverTasklet implements Tasklet {
         }
         tracker.reset();
         tracker.notDone();
-        tryFillInbox();
-        for (ObjWithPtionIdAndSize o; (o = inbox.peek()) != null; ) {
-            final Object item = o.getItem();
-            if (item == DONE_ITEM) {
+        while (pendingItem != null || tryDecodeNextItem()) {
+            if (pendingItem == DONE_ITEM) {
                 receptionDone = true;
-                inbox.remove();
-                assert inbox.peek() == null : "Found something in the queue beyond the DONE_ITEM: " + inbox.remove();
+                pendingItem = null;
+                if (compressor != null) {
+                    compressor.release();
+                }
+                assert remainingInPacket == 0 : "Found something in the packet beyond the DONE_ITEM";
+                uncheckRun(currentPacket::close);
+                currentPacket = null;
                 break;
             }
-            ProgressState outcome = item instanceof BroadcastItem
-                    ? collector.offerBroadcast((BroadcastItem) item)
-                    : collector.offer(item, o.getPartitionId());
+            ProgressState outcome = pendingItem instanceof BroadcastItem
+                    ? collector.offerBroadcast((BroadcastItem) pendingItem)
+                    : collector.offer(pendingItem, pendingPartitionId);
             if (!outcome.isDone()) {
                 tracker.madeProgress(outcome.isMadeProgress());
                 break;
             }
             tracker.madeProgress();
-            inbox.remove();
-            ackItem(o.estimatedMemoryFootprint);
+            pendingItem = null;
+            ackItem(pendingItemFootprint);
         }
         return tracker.toProgressState();
     }
@@ -218,30 +243,33 @@ public class ReceiverTasklet implements Tasklet {
         return overhead + itemBlobSize;
     }
 
-    private void tryFillInbox() {
+    /**
+     * Decodes the next item from the received packets into the pending
+     * fields. Returns {@code false} if there are no more items to decode.
+     */
+    private boolean tryDecodeNextItem() {
         try {
-            for (BufferObjectDataInput received; (received = incoming.poll()) != null; ) {
-                final int itemCount = received.readInt();
-                for (int i = 0; i < itemCount; i++) {
-                    final int mark = received.position();
-                    final Object item = received.readObject();
-                    final int itemSize = received.position() - mark;
-                    inbox.add(new ObjWithPtionIdAndSize(item, received.readInt(), itemSize));
+            while (remainingInPacket == 0) {
+                if (currentPacket != null) {
+                    currentPacket.close();
+                }
+                if ((currentPacket = incoming.poll()) == null) {
+                    return false;
                 }
-                received.close();
+                if (compressor != null) {
+                    currentPacket = compressor.decompress(currentPacket);
+                }
+                remainingInPacket = currentPacket.readInt();
                 tracker.madeProgress();
             }
+            final int mark = currentPacket.position();
+            pendingItem = currentPacket.readObject();
+            pendingItemFootprint = estimatedMemoryFootprint(currentPacket.position() - mark);
+            pendingPartitionId = currentPacket.readInt();
+            remainingInPacket--;
+            return true;
         } catch (IOException e) {
             throw rethrow(e);
         }
     }
-
-    private static class ObjWithPtionIdAndSize extends ObjectWithPartitionId {
-        final long estimatedMemoryFootprint;
-
-        ObjWithPtionIdAndSize(Object item, int partitionId, int itemBlobSize) {
-            super(item, partitionId);
-            this.estimatedMemoryFootprint = estimatedMemoryFootprint(itemBlobSize);
-        }
-    }
 }
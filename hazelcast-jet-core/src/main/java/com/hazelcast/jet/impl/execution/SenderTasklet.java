@@ -27,9 +27,11 @@ import com.hazelcast.nio.Packet;
 import com.hazelcast.spi.NodeEngine;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Queue;
+import java.util.function.Consumer;
 
 import static com.hazelcast.jet.impl.Networking.createStreamPacketHeader;
 import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
@@ -44,11 +46,13 @@ public class SenderTasklet implements Tasklet {
 
     private final Connection connection;
     private final Queue<Object> inbox = new ArrayDeque<>();
+    private final Consumer<Object> addToInboxFn = inbox::add;
     private final ProgressTracker progTracker = new ProgressTracker();
     private final InboundEdgeStream inboundEdgeStream;
     private final BufferObjectDataOutput outputBuffer;
     private final int bufPosPastHeader;
     private final int packetSizeLimit;
+    private final PacketCompressor compressor;
 
     private boolean instreamExhausted;
     // read and written by Jet thread
@@ -57,14 +61,19 @@ public class SenderTasklet implements Tasklet {
     // Written by HZ networking thread, read by Jet thread
     private volatile int sendSeqLimitCompressed;
 
+    // Written by Jet thread, read by the Jet threads of upstream processors
+    private volatile int sentSeqCompressed;
+
     public SenderTasklet(InboundEdgeStream inboundEdgeStream, NodeEngine nodeEngine, Address destinationAddress,
-                         long executionId, int destinationVertexId, int packetSizeLimit) {
+                         long executionId, int destinationVertexId, int destinationLane, int packetSizeLimit,
+                         @Nullable PacketCompressor compressor) {
         this.inboundEdgeStream = inboundEdgeStream;
         this.packetSizeLimit = packetSizeLimit;
+        this.compressor = compressor;
         this.connection = getMemberConnection(nodeEngine, destinationAddress);
         this.outputBuffer = createObjectDataOutput(nodeEngine);
         uncheckRun(() -> outputBuffer.write(createStreamPacketHeader(
-                nodeEngine, executionId, destinationVertexId, inboundEdgeStream.ordinal())));
+                nodeEngine, executionId, destinationVertexId, inboundEdgeStream.ordinal(), destinationLane)));
         bufPosPastHeader = outputBuffer.position();
     }
 
@@ -74,11 +83,17 @@ public class SenderTasklet implements Tasklet {
         progTracker.reset();
         tryFillInbox();
         if (progTracker.isDone()) {
+            if (compressor != null) {
+                compressor.release();
+            }
             return progTracker.toProgressState();
         }
         if (tryFillOutputBuffer()) {
             progTracker.madeProgress();
-            connection.write(new Packet(outputBuffer.toByteArray()).setPacketType(Packet.Type.JET));
+            byte[] packetBytes = compressor != null
+                    ? compressor.compress(outputBuffer, bufPosPastHeader)
+                    : outputBuffer.toByteArray();
+            connection.write(new Packet(packetBytes).setPacketType(Packet.Type.JET));
         }
         return progTracker.toProgressState();
     }
@@ -92,11 +107,11 @@ public class SenderTasklet implements Tasklet {
             return;
         }
         progTracker.notDone();
-        final ProgressState result = inboundEdgeStream.drainTo(inbox::add);
+        final ProgressState result = inboundEdgeStream.drainTo(addToInboxFn);
         progTracker.madeProgress(result.isMadeProgress());
         instreamExhausted = result.isDone();
         if (instreamExhausted) {
-            inbox.add(new ObjectWithPartitionId(DONE_ITEM, -1));
+            inbox.add(DONE_ITEM);
         }
     }
 
@@ -111,14 +126,24 @@ public class SenderTasklet implements Tasklet {
                          && (item = inbox.poll()) != null;
                  writtenCount++
                     ) {
-                ObjectWithPartitionId itemWithpId = item instanceof ObjectWithPartitionId ?
-                        (ObjectWithPartitionId) item : new ObjectWithPartitionId(item, - 1);
+                // unwrap partitioned items in place instead of wrapping
+                // the rest, to avoid an allocation per item
+                final Object payload;
+                final int partitionId;
+                if (item instanceof ObjectWithPartitionId) {
+                    payload = ((ObjectWithPartitionId) item).getItem();
+                    partitionId = ((ObjectWithPartitionId) item).getPartitionId();
+                } else {
+                    payload = item;
+                    partitionId = -1;
+                }
                 final int mark = outputBuffer.position();
-                outputBuffer.writeObject(itemWithpId.getItem());
+                outputBuffer.writeObject(payload);
                 sentSeq += estimatedMemoryFootprint(outputBuffer.position() - mark);
-                outputBuffer.writeInt(itemWithpId.getPartitionId());
+                outputBuffer.writeInt(partitionId);
             }
             outputBuffer.writeInt(bufPosPastHeader, writtenCount);
+            sentSeqCompressed = compressSeq(sentSeq);
             return writtenCount > 0;
         } catch (IOException e) {
             throw rethrow(e);
@@ -137,6 +162,16 @@ public class SenderTasklet implements Tasklet {
         this.sendSeqLimitCompressed = sendSeqLimitCompressed;
     }
 
+    /**
+     * Returns how much of the flow-control window granted by the receiver is
+     * still unused, in compressed seq units. Zero or less means that the
+     * tasklet can't send more until it receives the next flow-control message.
+     */
+    // Called from the Jet threads of upstream processors
+    public int remainingWindowCompressed() {
+        return sendSeqLimitCompressed - sentSeqCompressed;
+    }
+
     @Override
     public String toString() {
         return "SenderTasklet " + connection.getEndPoint();
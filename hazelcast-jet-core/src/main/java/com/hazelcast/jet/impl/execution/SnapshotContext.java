@@ -17,8 +17,12 @@
 package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.jet.config.ProcessingGuarantee;
+import com.hazelcast.jet.impl.SnapshotRepository;
 import com.hazelcast.logging.ILogger;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -36,6 +40,15 @@ public class SnapshotContext {
     private final long jobId;
     private final long executionId;
     private final ProcessingGuarantee guarantee;
+    private final long firstSnapshotId;
+    private final int fullSnapshotInterval;
+
+    /**
+     * Vertices whose processors don't track the changes of their state and
+     * save all of it to every snapshot, see {@link #addNonIncrementalVertex}.
+     * Populated before the execution starts.
+     */
+    private final List<String> nonIncrementalVertices = new ArrayList<>();
 
     /**
      * SnapshotId of last snapshot created. Source processors read
@@ -84,11 +97,23 @@ public class SnapshotContext {
 
     SnapshotContext(ILogger logger, long jobId, long executionId, long lastSnapshotId,
                     ProcessingGuarantee guarantee
+    ) {
+        this(logger, jobId, executionId, lastSnapshotId, guarantee, 1);
+    }
+
+    /**
+     * @param fullSnapshotInterval see {@link
+     *      com.hazelcast.jet.config.JobConfig#setFullSnapshotInterval(int)}
+     */
+    SnapshotContext(ILogger logger, long jobId, long executionId, long lastSnapshotId,
+                    ProcessingGuarantee guarantee, int fullSnapshotInterval
     ) {
         this.jobId = jobId;
         this.executionId = executionId;
         this.lastSnapshotId = new AtomicLong(lastSnapshotId);
+        this.firstSnapshotId = lastSnapshotId + 1;
         this.guarantee = guarantee;
+        this.fullSnapshotInterval = fullSnapshotInterval;
         this.logger = logger;
     }
 
@@ -103,6 +128,39 @@ public class SnapshotContext {
         return guarantee;
     }
 
+    /**
+     * Returns true, if some snapshots of this execution are incremental.
+     */
+    boolean isIncrementalEnabled() {
+        return fullSnapshotInterval > 1;
+    }
+
+    /**
+     * Returns true, if the given snapshot only stores the changes since the
+     * previous snapshot.
+     */
+    boolean isIncremental(long snapshotId) {
+        return SnapshotRepository.baseSnapshotId(snapshotId, firstSnapshotId, fullSnapshotInterval) != NO_SNAPSHOT;
+    }
+
+    /**
+     * Registers a vertex whose processors save their complete state even to
+     * the incremental snapshots. The coordinator then restores it from the
+     * newest snapshot only, see {@link #nonIncrementalVertices()}.
+     */
+    public void addNonIncrementalVertex(String vertexName) {
+        nonIncrementalVertices.add(vertexName);
+    }
+
+    /**
+     * Returns the vertices registered with {@link #addNonIncrementalVertex}.
+     * Sent to the coordinator in the response to the {@link
+     * com.hazelcast.jet.impl.operation.SnapshotOperation}.
+     */
+    public Collection<String> nonIncrementalVertices() {
+        return nonIncrementalVertices;
+    }
+
     synchronized void initTaskletCount(int taskletCount, int highPriorityTaskletCount) {
         assert this.numTasklets == Integer.MIN_VALUE : "Tasklet count already set once.";
         assert taskletCount >= highPriorityTaskletCount :
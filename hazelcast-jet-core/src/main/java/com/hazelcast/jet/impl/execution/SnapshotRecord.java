@@ -22,8 +22,10 @@ import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 
+import static com.hazelcast.jet.impl.execution.SnapshotContext.NO_SNAPSHOT;
 import static com.hazelcast.jet.impl.execution.SnapshotRecord.SnapshotStatus.FAILED;
 import static com.hazelcast.jet.impl.execution.SnapshotRecord.SnapshotStatus.ONGOING;
 import static com.hazelcast.jet.impl.execution.SnapshotRecord.SnapshotStatus.SUCCESSFUL;
@@ -31,6 +33,7 @@ import static com.hazelcast.jet.impl.util.Util.idToString;
 import static com.hazelcast.jet.impl.util.Util.toLocalDateTime;
 import static com.hazelcast.util.Preconditions.checkFalse;
 import static com.hazelcast.util.Preconditions.checkTrue;
+import static java.util.Collections.emptyList;
 
 /**
  * A record stored in the {@link
@@ -45,16 +48,23 @@ public class SnapshotRecord implements IdentifiedDataSerializable {
 
     private long jobId;
     private long snapshotId;
+    private long baseSnapshotId = NO_SNAPSHOT;
     private long startTime = System.currentTimeMillis();
     private SnapshotStatus status = ONGOING;
     private Collection<String> vertices;
+    private Collection<String> nonIncrementalVertices = emptyList();
 
     public SnapshotRecord() {
     }
 
     public SnapshotRecord(long jobId, long snapshotId, Collection<String> vertices) {
+        this(jobId, snapshotId, NO_SNAPSHOT, vertices);
+    }
+
+    public SnapshotRecord(long jobId, long snapshotId, long baseSnapshotId, Collection<String> vertices) {
         this.jobId = jobId;
         this.snapshotId = snapshotId;
+        this.baseSnapshotId = baseSnapshotId;
         this.vertices = vertices;
     }
 
@@ -88,6 +98,31 @@ public class SnapshotRecord implements IdentifiedDataSerializable {
         return snapshotId;
     }
 
+    /**
+     * Returns the ID of the snapshot this snapshot is a delta to or {@link
+     * SnapshotContext#NO_SNAPSHOT} if this is a full snapshot.
+     */
+    public long baseSnapshotId() {
+        return baseSnapshotId;
+    }
+
+    public boolean isIncremental() {
+        return baseSnapshotId != NO_SNAPSHOT;
+    }
+
+    /**
+     * Returns the vertices that saved their complete state to this snapshot,
+     * even though it's incremental. They are restored from this snapshot
+     * only, not from the ones it is based on.
+     */
+    public Collection<String> nonIncrementalVertices() {
+        return nonIncrementalVertices;
+    }
+
+    public void setNonIncrementalVertices(Collection<String> nonIncrementalVertices) {
+        this.nonIncrementalVertices = new ArrayList<>(nonIncrementalVertices);
+    }
+
     public long startTime() {
         return startTime;
     }
@@ -110,18 +145,22 @@ public class SnapshotRecord implements IdentifiedDataSerializable {
     public void writeData(ObjectDataOutput out) throws IOException {
         out.writeLong(jobId);
         out.writeLong(snapshotId);
+        out.writeLong(baseSnapshotId);
         out.writeLong(startTime);
         out.writeUTF(status.toString());
         out.writeObject(vertices);
+        out.writeObject(nonIncrementalVertices);
     }
 
     @Override
     public void readData(ObjectDataInput in) throws IOException {
         jobId = in.readLong();
         snapshotId = in.readLong();
+        baseSnapshotId = in.readLong();
         startTime = in.readLong();
         status = SnapshotStatus.valueOf(in.readUTF());
         vertices = in.readObject();
+        nonIncrementalVertices = in.readObject();
     }
 
     @Override
@@ -129,9 +168,11 @@ public class SnapshotRecord implements IdentifiedDataSerializable {
         return "SnapshotRecord{" +
                 "jobId=" + idToString(jobId) +
                 ", snapshotId=" + snapshotId +
+                ", baseSnapshotId=" + baseSnapshotId +
                 ", startTime=" + toLocalDateTime(startTime) +
                 ", status=" + status +
                 ", vertices=" + vertices +
+                ", nonIncrementalVertices=" + nonIncrementalVertices +
                 '}';
     }
 }
@@ -17,8 +17,9 @@
 package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.impl.JetService;
 import com.hazelcast.jet.impl.SnapshotRepository;
-import com.hazelcast.jet.impl.util.AsyncMapWriter;
+import com.hazelcast.jet.impl.snapshot.SnapshotWriter;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.jet.impl.util.ProgressTracker;
 import com.hazelcast.logging.ILogger;
@@ -43,7 +44,7 @@ public class StoreSnapshotTasklet implements Tasklet {
     private final long jobId;
     private final InboundEdgeStream inboundEdgeStream;
     private final SnapshotContext snapshotContext;
-    private final AsyncMapWriter mapWriter;
+    private final SnapshotWriter snapshotWriter;
     private final boolean isHigherPrioritySource;
     private final String vertexName;
     private final ILogger logger;
@@ -61,9 +62,10 @@ public class StoreSnapshotTasklet implements Tasklet {
         this.vertexName = vertexName;
         this.isHigherPrioritySource = isHigherPrioritySource;
 
-        this.mapWriter = new AsyncMapWriter(nodeEngine);
+        JetService service = nodeEngine.getService(JetService.SERVICE_NAME);
+        this.snapshotWriter = service.getSnapshotStore().newWriter(jobId, vertexName);
         this.pendingSnapshotId = snapshotContext.lastSnapshotId() + 1;
-        this.mapWriter.setMapName(currMapName());
+        this.snapshotWriter.startSnapshot(pendingSnapshotId);
         this.logger = nodeEngine.getLogger(StoreSnapshotTasklet.class + "." + vertexName + "#snapshot");
     }
 
@@ -86,7 +88,7 @@ public class StoreSnapshotTasklet implements Tasklet {
                                 pendingSnapshotId + ", but barrier was " + barrier.snapshotId() + ", this=" + this;
                         hasReachedBarrier = true;
                     } else {
-                        mapWriter.put((Entry<Data, Data>) o);
+                        snapshotWriter.put((Entry<Data, Data>) o);
                     }
                 });
                 if (result.isDone()) {
@@ -105,13 +107,13 @@ public class StoreSnapshotTasklet implements Tasklet {
                 future.whenComplete(withTryCatch(logger, (r, t) -> {
                     // this callback may be called from a non-tasklet thread
                     if (t != null) {
-                        logger.severe("Error writing to snapshot map '" + currMapName() + "'", t);
+                        logger.severe("Error writing snapshot data for vertex '" + vertexName + "'", t);
                         snapshotContext.reportError(t);
                     }
                     // numActiveFlushes must be decremented last otherwise we may miss the error
                     numActiveFlushes.decrementAndGet();
                 }));
-                if (mapWriter.tryFlushAsync(future)) {
+                if (snapshotWriter.tryFlushAsync(future)) {
                     progTracker.madeProgress();
                     numActiveFlushes.incrementAndGet();
                     state = inputIsDone ? DONE : hasReachedBarrier ? REACHED_BARRIER : DRAIN;
@@ -123,7 +125,7 @@ public class StoreSnapshotTasklet implements Tasklet {
                 if (numActiveFlushes.get() == 0) {
                     snapshotContext.snapshotDoneForTasklet();
                     pendingSnapshotId++;
-                    mapWriter.setMapName(currMapName());
+                    snapshotWriter.startSnapshot(pendingSnapshotId);
                     state = inputIsDone ? DONE : DRAIN;
                     hasReachedBarrier = false;
                 }
@@ -32,4 +32,11 @@ public interface Tasklet extends Callable<ProgressState> {
     default boolean isCooperative() {
         return true;
     }
+
+    /**
+     * Called by the execution service after each {@link #call()} with the
+     * time the call took. Only called from the thread that runs the tasklet.
+     */
+    default void recordCallTime(long nanos) {
+    }
 }
@@ -17,12 +17,15 @@
 package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.jet.JetException;
 import com.hazelcast.jet.impl.util.NonCompletableFuture;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.util.concurrent.BackoffIdleStrategy;
 import com.hazelcast.util.concurrent.IdleStrategy;
+import com.hazelcast.util.counters.SwCounter;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
@@ -40,8 +43,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
 
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.withTryCatch;
 import static com.hazelcast.jet.impl.util.Util.uncheckRun;
+import static com.hazelcast.util.counters.SwCounter.newSwCounter;
 import static java.lang.Thread.currentThread;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
@@ -55,6 +60,18 @@ public class TaskletExecutionService {
     private static final IdleStrategy IDLER =
             new BackoffIdleStrategy(0, 0, MICROSECONDS.toNanos(1), MILLISECONDS.toNanos(1));
 
+    /**
+     * How often each cooperative worker updates the load of its tasklets and
+     * tries to steal work from a more loaded worker.
+     */
+    private static final long REBALANCE_PERIOD_NANOS = MILLISECONDS.toNanos(100);
+
+    /**
+     * The smallest difference in load between two workers that is worth
+     * moving a tasklet for: 10% of a core.
+     */
+    private static final long MIN_IMBALANCE_NANOS = REBALANCE_PERIOD_NANOS / 10;
+
     private final ExecutorService blockingTaskletExecutor = newCachedThreadPool(new BlockingTaskThreadFactory());
     private final CooperativeWorker[] cooperativeWorkers;
     private final Thread[] cooperativeThreadPool;
@@ -69,6 +86,17 @@ public class TaskletExecutionService {
         this.cooperativeWorkers = new CooperativeWorker[threadCount];
         this.cooperativeThreadPool = new Thread[threadCount];
         this.logger = hz.getLoggingService().getLogger(TaskletExecutionService.class);
+        Arrays.setAll(cooperativeWorkers, i -> new CooperativeWorker(cooperativeWorkers));
+    }
+
+    /**
+     * Registers the probes of the cooperative worker threads with the given
+     * registry.
+     */
+    public void registerMetrics(MetricsRegistry registry) {
+        for (int i = 0; i < cooperativeWorkers.length; i++) {
+            registry.scanAndRegister(cooperativeWorkers[i], "jet.cooperativeWorker#" + i);
+        }
     }
 
     /**
@@ -132,10 +160,17 @@ public class TaskletExecutionService {
         ensureThreadsStarted();
         final List<TaskletTracker>[] trackersByThread = new List[cooperativeWorkers.length];
         Arrays.setAll(trackersByThread, i -> new ArrayList());
+        final long[] projectedLoad = new long[cooperativeWorkers.length];
+        Arrays.setAll(projectedLoad, i -> cooperativeWorkers[i].load());
+        // we know nothing about the new tasklets yet, so we expect each of them
+        // to be as busy as an average tasklet that is already running
+        final long newTaskletLoad = Math.max(1, averageTaskletLoad());
         for (Tasklet t : tasklets) {
             t.init();
-            trackersByThread[cooperativeThreadIndex.getAndUpdate(i -> (i + 1) % trackersByThread.length)]
-                    .add(new TaskletTracker(t, executionTracker, jobClassLoader));
+            int workerIndex = leastLoadedWorker(projectedLoad,
+                    cooperativeThreadIndex.getAndUpdate(i -> (i + 1) % trackersByThread.length));
+            projectedLoad[workerIndex] += newTaskletLoad;
+            trackersByThread[workerIndex].add(new TaskletTracker(t, executionTracker, jobClassLoader));
         }
         for (int i = 0; i < trackersByThread.length; i++) {
             cooperativeWorkers[i].trackers.addAll(trackersByThread[i]);
@@ -143,11 +178,38 @@ public class TaskletExecutionService {
         Arrays.stream(cooperativeThreadPool).forEach(LockSupport::unpark);
     }
 
+    /**
+     * Returns the index of the worker with the lowest load. Ties are resolved
+     * in favor of the first one at or after {@code startIndex}, so that
+     * tasklets are dealt round-robin among equally loaded workers.
+     */
+    private static int leastLoadedWorker(long[] loads, int startIndex) {
+        int result = startIndex;
+        for (int i = 1; i < loads.length; i++) {
+            int candidate = (startIndex + i) % loads.length;
+            if (loads[candidate] < loads[result]) {
+                result = candidate;
+            }
+        }
+        return result;
+    }
+
+    private long averageTaskletLoad() {
+        long totalLoad = 0;
+        int taskletCount = 0;
+        for (CooperativeWorker w : cooperativeWorkers) {
+            for (TaskletTracker t : w.trackers) {
+                totalLoad += t.loadNanos;
+                taskletCount++;
+            }
+        }
+        return taskletCount == 0 ? 0 : totalLoad / taskletCount;
+    }
+
     private synchronized void ensureThreadsStarted() {
-        if (cooperativeWorkers[0] != null) {
+        if (cooperativeThreadPool[0] != null) {
             return;
         }
-        Arrays.setAll(cooperativeWorkers, i -> new CooperativeWorker(cooperativeWorkers));
         Arrays.setAll(cooperativeThreadPool, i -> new Thread(cooperativeWorkers[i],
                 String.format("hz.%s.jet.cooperative.thread-%d", hzInstanceName, i)));
         Arrays.stream(cooperativeThreadPool).forEach(Thread::start);
@@ -182,7 +244,9 @@ public class TaskletExecutionService {
                 long idleCount = 0;
                 ProgressState result;
                 do {
+                    long start = System.nanoTime();
                     result = t.call();
+                    t.recordCallTime(System.nanoTime() - start);
                     if (result.isMadeProgress()) {
                         idleCount = 0;
                     } else {
@@ -205,6 +269,18 @@ public class TaskletExecutionService {
         private final List<TaskletTracker> trackers;
         private final CooperativeWorker[] colleagues;
 
+        // metrics, written only by the worker thread
+        @Probe(name = "iterationCount", level = MANDATORY)
+        private final SwCounter iterationCount = newSwCounter();
+        @Probe(name = "idleCount", level = MANDATORY)
+        private final SwCounter idleIterationCount = newSwCounter();
+        @Probe(name = "busyTimeNanos", level = MANDATORY)
+        private final SwCounter busyTimeNanos = newSwCounter();
+        @Probe(name = "taskletStealCount", level = MANDATORY)
+        private final SwCounter taskletStealCount = newSwCounter();
+
+        private long rebalancePeriodStart = System.nanoTime();
+
         CooperativeWorker(CooperativeWorker[] colleagues) {
             this.colleagues = colleagues;
             this.trackers = new CopyOnWriteArrayList<>();
@@ -217,6 +293,10 @@ public class TaskletExecutionService {
             long idleCount = 0;
             while (!isShutdown) {
                 boolean madeProgress = false;
+                // the end of one call is the start of the next, so that we
+                // read the clock only once per call
+                final long iterationStart = System.nanoTime();
+                long callStart = iterationStart;
                 for (TaskletTracker t : trackers) {
                     final CooperativeWorker stealingWorker = t.stealingWorker.get();
                     if (stealingWorker != null) {
@@ -228,6 +308,10 @@ public class TaskletExecutionService {
                     try {
                         thread.setContextClassLoader(t.jobClassLoader);
                         final ProgressState result = t.tasklet.call();
+                        final long callEnd = System.nanoTime();
+                        t.tasklet.recordCallTime(callEnd - callStart);
+                        t.periodNanos += callEnd - callStart;
+                        callStart = callEnd;
                         if (result.isDone()) {
                             dismissTasklet(t);
                         } else {
@@ -241,9 +325,16 @@ public class TaskletExecutionService {
                         dismissTasklet(t);
                     }
                 }
+                iterationCount.inc();
+                busyTimeNanos.inc(callStart - iterationStart);
+                if (callStart - rebalancePeriodStart >= REBALANCE_PERIOD_NANOS) {
+                    updateTaskletLoads(callStart);
+                    stealWork();
+                }
                 if (madeProgress) {
                     idleCount = 0;
                 } else {
+                    idleIterationCount.inc();
                     thread.setContextClassLoader(clBackup);
                     IDLER.idle(++idleCount);
                 }
@@ -257,29 +348,76 @@ public class TaskletExecutionService {
         private void dismissTasklet(TaskletTracker t) {
             t.executionTracker.taskletDone();
             trackers.remove(t);
-            stealWork();
         }
 
-        private void stealWork() {
-            while (true) {
-                // start with own tasklet list, try to find a longer one
-                List<TaskletTracker> toStealFrom = trackers;
-                for (CooperativeWorker w : colleagues) {
-                    if (w.trackers.size() > toStealFrom.size()) {
-                        toStealFrom = w.trackers;
-                    }
+        /**
+         * Returns the sum of the recent loads of the tasklets this worker runs,
+         * excluding those already scheduled to move to another worker.
+         */
+        @Probe(name = "loadNanos", level = MANDATORY)
+        long load() {
+            long load = 0;
+            for (TaskletTracker t : trackers) {
+                if (t.stealingWorker.get() == null) {
+                    load += t.loadNanos;
                 }
-                // if we couldn't find a list longer by at least two, there's nothing to steal
-                if (toStealFrom.size() < trackers.size() + 2) {
-                    return;
+            }
+            return load;
+        }
+
+        /**
+         * Folds the time each tasklet spent in {@code call()} during the
+         * ending period into its load, a moving average of its busy time per
+         * {@code REBALANCE_PERIOD_NANOS}.
+         */
+        private void updateTaskletLoads(long now) {
+            // scale to the nominal period length, the check may come late after a long call
+            final double scale = (double) REBALANCE_PERIOD_NANOS / (now - rebalancePeriodStart);
+            for (TaskletTracker t : trackers) {
+                t.loadNanos = (t.loadNanos + (long) (t.periodNanos * scale)) / 2;
+                t.periodNanos = 0;
+            }
+            rebalancePeriodStart = now;
+        }
+
+        /**
+         * Finds the most loaded worker and, if it is sufficiently busier than
+         * this one, schedules one of its tasklets to move here. The chosen
+         * tasklet is the one that minimizes the higher of the two loads after
+         * the move; a tasklet that would make this worker at least as loaded as
+         * the other one is never chosen so that a hot tasklet doesn't bounce
+         * between workers.
+         */
+        private void stealWork() {
+            final long ownLoad = load();
+            CooperativeWorker victim = null;
+            long victimLoad = ownLoad + MIN_IMBALANCE_NANOS;
+            for (CooperativeWorker w : colleagues) {
+                long load = w.load();
+                if (load > victimLoad) {
+                    victim = w;
+                    victimLoad = load;
                 }
-                // now we must find a task on this list which isn't already scheduled for moving
-                for (TaskletTracker t : toStealFrom) {
-                    if (t.stealingWorker.compareAndSet(null, this)) {
-                        return;
-                    }
+            }
+            if (victim == null) {
+                return;
+            }
+            final long idealLoadToMove = (victimLoad - ownLoad) / 2;
+            final long maxLoadToMove = victimLoad - ownLoad - MIN_IMBALANCE_NANOS / 2;
+            TaskletTracker toSteal = null;
+            long bestDistance = Long.MAX_VALUE;
+            for (TaskletTracker t : victim.trackers) {
+                long load = t.loadNanos;
+                long distance = Math.abs(load - idealLoadToMove);
+                if (load > 0 && load < maxLoadToMove && distance < bestDistance
+                        && t.stealingWorker.get() == null) {
+                    toSteal = t;
+                    bestDistance = distance;
                 }
             }
+            if (toSteal != null && toSteal.stealingWorker.compareAndSet(null, this)) {
+                taskletStealCount.inc();
+            }
         }
     }
 
@@ -289,6 +427,11 @@ public class TaskletExecutionService {
         final ClassLoader jobClassLoader;
         final AtomicReference<CooperativeWorker> stealingWorker = new AtomicReference<>();
 
+        // time spent in call() during the current rebalance period, written only by the owning worker
+        long periodNanos;
+        // moving average of the busy time per rebalance period, written only by the owning worker
+        volatile long loadNanos;
+
         TaskletTracker(Tasklet tasklet, ExecutionTracker executionTracker, ClassLoader jobClassLoader) {
             this.tasklet = tasklet;
             this.executionTracker = executionTracker;
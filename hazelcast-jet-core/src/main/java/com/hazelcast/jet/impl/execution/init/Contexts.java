@@ -18,6 +18,7 @@ package com.hazelcast.jet.impl.execution.init;
 
 import com.hazelcast.jet.JetInstance;
 import com.hazelcast.jet.config.ProcessingGuarantee;
+import com.hazelcast.jet.config.StateBackend;
 import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.core.ProcessorMetaSupplier.Context;
 import com.hazelcast.jet.core.ProcessorSupplier;
@@ -25,6 +26,8 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.serialization.SerializationService;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
 
 public final class Contexts {
 
@@ -39,15 +42,41 @@ public final class Contexts {
         private final int index;
         private final SerializationService serService;
         private final ProcessingGuarantee processingGuarantee;
+        private final StateBackend stateBackend;
+        // actions releasing the resources of the processor, run when the execution completes
+        private final List<Runnable> disposeActions;
 
         public ProcCtx(JetInstance instance, SerializationService serService, ILogger logger, String vertexName,
                        int index, ProcessingGuarantee processingGuarantee) {
+            this(instance, serService, logger, vertexName, index, processingGuarantee, StateBackend.ON_HEAP);
+        }
+
+        public ProcCtx(JetInstance instance, SerializationService serService, ILogger logger, String vertexName,
+                       int index, ProcessingGuarantee processingGuarantee, StateBackend stateBackend) {
+            this(instance, serService, logger, vertexName, index, processingGuarantee, stateBackend,
+                    new ArrayList<>());
+        }
+
+        private ProcCtx(JetInstance instance, SerializationService serService, ILogger logger, String vertexName,
+                        int index, ProcessingGuarantee processingGuarantee, StateBackend stateBackend,
+                        List<Runnable> disposeActions) {
             this.instance = instance;
             this.serService = serService;
             this.logger = logger;
             this.vertexName = vertexName;
             this.index = index;
             this.processingGuarantee = processingGuarantee;
+            this.stateBackend = stateBackend;
+            this.disposeActions = disposeActions;
+        }
+
+        /**
+         * Returns a copy of this context with the given logger. The copy
+         * shares the dispose actions with this context.
+         */
+        public ProcCtx withLogger(ILogger logger) {
+            return new ProcCtx(instance, serService, logger, vertexName, index, processingGuarantee, stateBackend,
+                    disposeActions);
         }
 
         @Nonnull @Override
@@ -78,6 +107,28 @@ public final class Contexts {
         public SerializationService getSerializationService() {
             return serService;
         }
+
+        public StateBackend stateBackend() {
+            return stateBackend;
+        }
+
+        /**
+         * Registers an action releasing a resource of the processor, such as
+         * its off-heap state or a spill file. The action must have no effect
+         * if the processor already released the resource.
+         */
+        public void addDisposeAction(Runnable action) {
+            disposeActions.add(action);
+        }
+
+        /**
+         * Runs the dispose actions of the processor. Called when the
+         * execution completes, also if it failed or was cancelled.
+         */
+        public void runDisposeActions() {
+            disposeActions.forEach(Runnable::run);
+            disposeActions.clear();
+        }
     }
 
     static class ProcSupplierCtx implements ProcessorSupplier.Context {
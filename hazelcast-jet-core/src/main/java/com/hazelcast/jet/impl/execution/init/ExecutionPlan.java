@@ -16,11 +16,13 @@
 
 package com.hazelcast.jet.impl.execution.init;
 
+import com.hazelcast.internal.metrics.MetricsRegistry;
 import com.hazelcast.internal.util.concurrent.ConcurrentConveyor;
 import com.hazelcast.internal.util.concurrent.OneToOneConcurrentArrayQueue;
 import com.hazelcast.internal.util.concurrent.QueuedPipe;
 import com.hazelcast.jet.JetException;
 import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.config.CompressionCodec;
 import com.hazelcast.jet.config.JetConfig;
 import com.hazelcast.jet.config.JobConfig;
 import com.hazelcast.jet.config.ProcessingGuarantee;
@@ -32,8 +34,11 @@ import com.hazelcast.jet.impl.execution.ConcurrentInboundEdgeStream;
 import com.hazelcast.jet.impl.execution.ConveyorCollector;
 import com.hazelcast.jet.impl.execution.ConveyorCollectorWithPartition;
 import com.hazelcast.jet.impl.execution.InboundEdgeStream;
+import com.hazelcast.jet.impl.execution.IncrementalSnapshotSupport;
 import com.hazelcast.jet.impl.execution.OutboundCollector;
+import com.hazelcast.jet.impl.execution.OutboundCollector.LocalityPreferring;
 import com.hazelcast.jet.impl.execution.OutboundEdgeStream;
+import com.hazelcast.jet.impl.execution.PacketCompressor;
 import com.hazelcast.jet.impl.execution.ProcessorTasklet;
 import com.hazelcast.jet.impl.execution.ReceiverTasklet;
 import com.hazelcast.jet.impl.execution.SenderTasklet;
@@ -60,15 +65,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.hazelcast.internal.util.concurrent.ConcurrentConveyor.concurrentConveyor;
 import static com.hazelcast.jet.config.EdgeConfig.DEFAULT_QUEUE_SIZE;
+import static com.hazelcast.jet.impl.execution.ExecutionContext.metricsPrefix;
 import static com.hazelcast.jet.impl.execution.OutboundCollector.compositeCollector;
+import static com.hazelcast.jet.impl.execution.OutboundCollector.laneCollector;
 import static com.hazelcast.jet.impl.util.Util.getJetInstance;
-import static com.hazelcast.jet.impl.util.Util.idToString;
 import static com.hazelcast.jet.impl.util.Util.memoize;
 import static com.hazelcast.jet.impl.util.Util.readList;
 import static com.hazelcast.jet.impl.util.Util.writeList;
@@ -82,10 +90,12 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
     private static final int SNAPSHOT_QUEUE_SIZE = DEFAULT_QUEUE_SIZE;
 
     private final List<Tasklet> tasklets = new ArrayList<>();
-    /** dest vertex id --> dest ordinal --> sender addr -> receiver tasklet */
-    private final Map<Integer, Map<Integer, Map<Address, ReceiverTasklet>>> receiverMap = new HashMap<>();
-    /** dest vertex id --> dest ordinal --> dest addr --> sender tasklet */
-    private final Map<Integer, Map<Integer, Map<Address, SenderTasklet>>> senderMap = new HashMap<>();
+    /** dest vertex id --> dest ordinal --> sender addr -> receiver tasklet per lane */
+    private final Map<Integer, Map<Integer, Map<Address, ReceiverTasklet[]>>> receiverMap = new HashMap<>();
+    /** dest vertex id --> dest ordinal --> dest addr --> sender tasklet per lane */
+    private final Map<Integer, Map<Integer, Map<Address, SenderTasklet[]>>> senderMap = new HashMap<>();
+    /** compressors of the sender and receiver tasklets on compressed edges */
+    private final List<PacketCompressor> packetCompressors = new ArrayList<>();
 
     /** Snapshot of partition table used to route items on partitioned edges */
     private Address[] partitionOwners;
@@ -94,8 +104,9 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
     private List<VertexDef> vertices = new ArrayList<>();
 
     private final Map<String, ConcurrentConveyor<Object>[]> localConveyorMap = new HashMap<>();
-    private final Map<String, Map<Address, ConcurrentConveyor<Object>>> edgeSenderConveyorMap = new HashMap<>();
+    private final Map<String, Map<Address, ConcurrentConveyor<Object>[]>> edgeSenderConveyorMap = new HashMap<>();
     private final List<Processor> processors = new ArrayList<>();
+    private final List<ProcCtx> processorContexts = new ArrayList<>();
 
     private PartitionArrangement ptionArrgmt;
 
@@ -127,6 +138,7 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
 
         this.ptionArrgmt = new PartitionArrangement(partitionOwners, nodeEngine.getThisAddress());
         JetInstance instance = getJetInstance(nodeEngine);
+        MetricsRegistry metricsRegistry = ((NodeEngineImpl) nodeEngine).getMetricsRegistry();
         for (VertexDef srcVertex : vertices) {
             Collection<? extends Processor> processors = createProcessors(srcVertex, srcVertex.parallelism());
 
@@ -138,7 +150,12 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
                     new ConcurrentInboundEdgeStream(ssConveyor, 0, 0, lastSnapshotId, true, -1),
                     nodeEngine, srcVertex.name(), srcVertex.isHigherPriorityUpstream());
             tasklets.add(ssTasklet);
+            if (jobConfig.getFullSnapshotInterval() > 1
+                    && !processors.stream().allMatch(p -> p instanceof IncrementalSnapshotSupport)) {
+                snapshotContext.addNonIncrementalVertex(srcVertex.name());
+            }
 
+            boolean unalignedSnapshots = isUnalignedSnapshots(srcVertex);
             int localProcessorIdx = 0;
             for (Processor p : processors) {
                 int globalProcessorIndex = srcVertex.getProcIdxOffset() + localProcessorIdx;
@@ -149,29 +166,34 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
                         nodeEngine.getLogger(loggerName),
                         srcVertex.name(),
                         globalProcessorIndex,
-                        jobConfig.getProcessingGuarantee());
+                        jobConfig.getProcessingGuarantee(),
+                        jobConfig.getStateBackend());
 
-                 String probePrefix = String.format("jet.job.%s.%s#%d", idToString(executionId), srcVertex.name(),
-                         localProcessorIdx);
-                 ((NodeEngineImpl) nodeEngine).getMetricsRegistry().scanAndRegister(p, probePrefix);
+                String probePrefix = metricsPrefix(executionId) + srcVertex.name() + '#' + globalProcessorIndex;
+                metricsRegistry.scanAndRegister(p, probePrefix);
 
                 // createOutboundEdgeStreams() populates localConveyorMap and edgeSenderConveyorMap.
                 // Also populates instance fields: senderMap, receiverMap, tasklets.
                 List<OutboundEdgeStream> outboundStreams = createOutboundEdgeStreams(srcVertex, localProcessorIdx);
-                List<InboundEdgeStream> inboundStreams = createInboundEdgeStreams(srcVertex, localProcessorIdx);
+                List<InboundEdgeStream> inboundStreams =
+                        createInboundEdgeStreams(srcVertex, localProcessorIdx, unalignedSnapshots);
 
                 OutboundCollector snapshotCollector = new ConveyorCollector(ssConveyor, localProcessorIdx, null);
 
                 ProcessorTasklet processorTasklet = new ProcessorTasklet(context, p, inboundStreams, outboundStreams,
-                        snapshotContext, snapshotCollector, jobConfig.getMaxWatermarkRetainMillis());
+                        snapshotContext, snapshotCollector, jobConfig.getMaxWatermarkRetainMillis(),
+                        unalignedSnapshots);
+                metricsRegistry.scanAndRegister(processorTasklet, probePrefix);
                 tasklets.add(processorTasklet);
                 this.processors.add(p);
+                processorContexts.add(context);
                 localProcessorIdx++;
             }
         }
         List<ReceiverTasklet> allReceivers = receiverMap.values().stream()
                                                         .flatMap(o -> o.values().stream())
                                                         .flatMap(a -> a.values().stream())
+                                                        .flatMap(Arrays::stream)
                                                         .collect(toList());
 
         tasklets.addAll(allReceivers);
@@ -185,11 +207,11 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
         return vertices.stream().map(VertexDef::processorSupplier).collect(toList());
     }
 
-    public Map<Integer, Map<Integer, Map<Address, ReceiverTasklet>>> getReceiverMap() {
+    public Map<Integer, Map<Integer, Map<Address, ReceiverTasklet[]>>> getReceiverMap() {
         return receiverMap;
     }
 
-    public Map<Integer, Map<Integer, Map<Address, SenderTasklet>>> getSenderMap() {
+    public Map<Integer, Map<Integer, Map<Address, SenderTasklet[]>>> getSenderMap() {
         return senderMap;
     }
 
@@ -197,6 +219,10 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
         return tasklets;
     }
 
+    public List<PacketCompressor> getPacketCompressors() {
+        return packetCompressors;
+    }
+
     public JobConfig getJobConfig() {
         return jobConfig;
     }
@@ -259,10 +285,11 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
             v.inboundEdges().forEach(e -> e.initTransientFields(vMap, v, false));
             v.outboundEdges().forEach(e -> e.initTransientFields(vMap, v, true));
         });
+        // The inbound and outbound EdgeDefs of an edge are deserialized as separate instances,
+        // the inbound ones need an initialized partitioner too to restore in-flight items
         final IPartitionService partitionService = nodeEngine.getPartitionService();
         vertices.stream()
-                .map(VertexDef::outboundEdges)
-                .flatMap(List::stream)
+                .flatMap(v -> Stream.concat(v.inboundEdges().stream(), v.outboundEdges().stream()))
                 .map(EdgeDef::partitioner)
                 .filter(Objects::nonNull)
                 .forEach(p -> p.init(partitionService::getPartitionId));
@@ -284,7 +311,7 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
     private List<OutboundEdgeStream> createOutboundEdgeStreams(VertexDef srcVertex, int processorIdx) {
         final List<OutboundEdgeStream> outboundStreams = new ArrayList<>();
         for (EdgeDef edge : srcVertex.outboundEdges()) {
-            final Map<Address, ConcurrentConveyor<Object>> memberToSenderConveyorMap =
+            final Map<Address, ConcurrentConveyor<Object>[]> memberToSenderConveyorMap =
                     edge.isDistributed() ? memberToSenderConveyorMap(edgeSenderConveyorMap, edge) : null;
             outboundStreams.add(createOutboundEdgeStream(edge, processorIdx, memberToSenderConveyorMap));
         }
@@ -292,30 +319,38 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
     }
 
     /**
-     * Creates (if absent) for the given edge one sender tasklet per remote member,
-     * each with a single conveyor with a number of producer queues feeding it.
+     * Creates (if absent) for the given edge one sender tasklet per lane to each remote
+     * member, each with a single conveyor with a number of producer queues feeding it.
      * Populates the {@link #senderMap} and {@link #tasklets} fields.
      */
-    private Map<Address, ConcurrentConveyor<Object>> memberToSenderConveyorMap(
-            Map<String, Map<Address, ConcurrentConveyor<Object>>> edgeSenderConveyorMap, EdgeDef edge
+    private Map<Address, ConcurrentConveyor<Object>[]> memberToSenderConveyorMap(
+            Map<String, Map<Address, ConcurrentConveyor<Object>[]>> edgeSenderConveyorMap, EdgeDef edge
     ) {
         assert edge.isDistributed() : "Edge is not distributed";
         return edgeSenderConveyorMap.computeIfAbsent(edge.edgeId(), x -> {
-            final Map<Address, ConcurrentConveyor<Object>> addrToConveyor = new HashMap<>();
+            final Map<Address, ConcurrentConveyor<Object>[]> addrToConveyors = new HashMap<>();
+            final int laneCount = edge.getConfig().getLaneCount();
+            final int destVertexId = edge.destVertex().vertexId();
             for (Address destAddr : remoteMembers.get()) {
-                final ConcurrentConveyor<Object> conveyor = createConveyorArray(
-                        1, edge.sourceVertex().parallelism(), edge.getConfig().getQueueSize())[0];
-                final ConcurrentInboundEdgeStream inboundEdgeStream = newEdgeStream(edge, conveyor);
-                final int destVertexId = edge.destVertex().vertexId();
-                final SenderTasklet t = new SenderTasklet(inboundEdgeStream, nodeEngine,
-                        destAddr, executionId, destVertexId, edge.getConfig().getPacketSizeLimit());
+                final ConcurrentConveyor<Object>[] conveyors = createConveyorArray(
+                        laneCount, edge.sourceVertex().parallelism(), edge.getConfig().getQueueSize());
+                final SenderTasklet[] laneTasklets = new SenderTasklet[laneCount];
+                for (int lane = 0; lane < laneCount; lane++) {
+                    final ConcurrentInboundEdgeStream inboundEdgeStream = newEdgeStream(edge, conveyors[lane], false);
+                    final PacketCompressor compressor = createPacketCompressor(edge, metricsPrefix(executionId)
+                            + edge.destVertex().name() + "#sender" + edge.destOrdinal()
+                            + (laneCount > 1 ? "-lane" + lane : "")
+                            + '(' + nodeEngine.getThisAddress() + "->" + destAddr + ')');
+                    laneTasklets[lane] = new SenderTasklet(inboundEdgeStream, nodeEngine, destAddr, executionId,
+                            destVertexId, lane, edge.getConfig().getPacketSizeLimit(), compressor);
+                    tasklets.add(laneTasklets[lane]);
+                }
                 senderMap.computeIfAbsent(destVertexId, xx -> new HashMap<>())
                          .computeIfAbsent(edge.destOrdinal(), xx -> new HashMap<>())
-                         .put(destAddr, t);
-                tasklets.add(t);
-                addrToConveyor.put(destAddr, conveyor);
+                         .put(destAddr, laneTasklets);
+                addrToConveyors.put(destAddr, conveyors);
             }
-            return addrToConveyor;
+            return addrToConveyors;
         });
     }
 
@@ -331,7 +366,7 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
     }
 
     private OutboundEdgeStream createOutboundEdgeStream(
-            EdgeDef edge, int processorIndex, Map<Address, ConcurrentConveyor<Object>> senderConveyorMap
+            EdgeDef edge, int processorIndex, Map<Address, ConcurrentConveyor<Object>[]> senderConveyorMap
     ) {
         final int totalPtionCount = nodeEngine.getPartitionService().getPartitionCount();
         OutboundCollector[] outboundCollectors = createOutboundCollectors(edge, processorIndex, senderConveyorMap);
@@ -340,11 +375,12 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
     }
 
     private OutboundCollector[] createOutboundCollectors(
-            EdgeDef edge, int processorIndex, Map<Address, ConcurrentConveyor<Object>> senderConveyorMap
+            EdgeDef edge, int processorIndex, Map<Address, ConcurrentConveyor<Object>[]> senderConveyorMap
     ) {
         final int upstreamParallelism = edge.sourceVertex().parallelism();
         final int downstreamParallelism = edge.destVertex().parallelism();
         final int numRemoteMembers = ptionArrgmt.remotePartitionAssignment.get().size();
+        final int laneCount = edge.getConfig().getLaneCount();
         final int queueSize = edge.getConfig().getQueueSize();
 
         final int[][] ptionsPerProcessor =
@@ -375,12 +411,12 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
          * There are as many conveyors as there are consumers.
          * Each conveyor has one queue per producer.
          *
-         * For a distributed edge, there is one additional producer per member represented
-         * by the ReceiverTasklet.
+         * For a distributed edge, there is one additional producer per lane to each member,
+         * represented by the ReceiverTasklet.
          */
         final ConcurrentConveyor<Object>[] localConveyors = localConveyorMap.computeIfAbsent(edge.edgeId(),
                 e -> {
-                    int queueCount = upstreamParallelism + (edge.isDistributed() ? numRemoteMembers : 0);
+                    int queueCount = upstreamParallelism + (edge.isDistributed() ? numRemoteMembers * laneCount : 0);
                     return createConveyorArray(downstreamParallelism, queueCount, queueSize);
                 });
         final OutboundCollector[] localCollectors = new OutboundCollector[downstreamParallelism];
@@ -400,38 +436,97 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
 
         // assign remote partitions to outbound data collectors
         final Map<Address, int[]> memberToPartitions = ptionArrgmt.remotePartitionAssignment.get();
+        final Map<Address, SenderTasklet[]> addrToSenders =
+                senderMap.get(edge.destVertex().vertexId()).get(edge.destOrdinal());
         allCollectors = new OutboundCollector[memberToPartitions.size() + 1];
+        final IntSupplier[] remoteWindowFns = new IntSupplier[memberToPartitions.size()];
         allCollectors[0] = compositeCollector(localCollectors, edge, totalPtionCount);
         int index = 1;
         for (Map.Entry<Address, int[]> entry : memberToPartitions.entrySet()) {
-            allCollectors[index++] = new ConveyorCollectorWithPartition(senderConveyorMap.get(entry.getKey()),
-                    processorIndex, entry.getValue());
+            final SenderTasklet[] senders = addrToSenders.get(entry.getKey());
+            remoteWindowFns[index - 1] = () -> totalRemainingWindow(senders);
+            final ConcurrentConveyor<Object>[] laneConveyors = senderConveyorMap.get(entry.getKey());
+            final int[][] ptionsPerLane = assignPartitionsToLanes(entry.getValue(), laneCount);
+            final OutboundCollector[] laneCollectors = new OutboundCollector[laneCount];
+            Arrays.setAll(laneCollectors, lane ->
+                    new ConveyorCollectorWithPartition(laneConveyors[lane], processorIndex, ptionsPerLane[lane]));
+            allCollectors[index++] = laneCollector(laneCollectors, edge, totalPtionCount);
+        }
+        // a unicast edge prefers the local processors and only spills to remote members
+        if (edge.routingPolicy() == RoutingPolicy.UNICAST && remoteWindowFns.length > 0) {
+            return new OutboundCollector[] {new LocalityPreferring(allCollectors, remoteWindowFns)};
         }
         return allCollectors;
     }
 
+    /**
+     * Spreads the partitions owned by a remote member evenly among the lanes
+     * to it. All items of a partition travel through the same lane.
+     */
+    private static int[][] assignPartitionsToLanes(int[] partitions, int laneCount) {
+        final int[][] ptionsPerLane = new int[laneCount][];
+        Arrays.setAll(ptionsPerLane, lane -> IntStream.range(0, partitions.length)
+                                                      .filter(i -> i % laneCount == lane)
+                                                      .map(i -> partitions[i])
+                                                      .toArray());
+        return ptionsPerLane;
+    }
+
+    /**
+     * Returns the compressor for a sender or receiver tasklet of the given
+     * edge, or {@code null} if the edge isn't compressed.
+     */
+    private PacketCompressor createPacketCompressor(EdgeDef edge, String probePrefix) {
+        if (edge.getConfig().getCompressionCodec() == CompressionCodec.NONE) {
+            return null;
+        }
+        PacketCompressor compressor = new PacketCompressor(nodeEngine);
+        ((NodeEngineImpl) nodeEngine).getMetricsRegistry().scanAndRegister(compressor, probePrefix);
+        packetCompressors.add(compressor);
+        return compressor;
+    }
+
+    private static int totalRemainingWindow(SenderTasklet[] senders) {
+        int total = 0;
+        for (SenderTasklet sender : senders) {
+            total += Math.max(0, sender.remainingWindowCompressed());
+        }
+        return total;
+    }
+
     private void createIfAbsentReceiverTasklet(EdgeDef edge, int[][] ptionsPerProcessor, int totalPtionCount) {
         final ConcurrentConveyor<Object>[] localConveyors = localConveyorMap.get(edge.edgeId());
 
         receiverMap.computeIfAbsent(edge.destVertex().vertexId(), x -> new HashMap<>())
                    .computeIfAbsent(edge.destOrdinal(), x -> {
-                       Map<Address, ReceiverTasklet> addrToTasklet = new HashMap<>();
-                       //create a receiver per address
+                       Map<Address, ReceiverTasklet[]> addrToTasklets = new HashMap<>();
+                       final int laneCount = edge.getConfig().getLaneCount();
+                       //create a receiver per lane to each address
                        int offset = 0;
                        for (Address addr : ptionArrgmt.remotePartitionAssignment.get().keySet()) {
-                           final OutboundCollector[] collectors = new OutboundCollector[ptionsPerProcessor.length];
-                           // assign the queues starting from end
-                           final int queueOffset = --offset;
-                           Arrays.setAll(collectors, n -> new ConveyorCollector(
-                                   localConveyors[n], localConveyors[n].queueCount() + queueOffset,
-                                   ptionsPerProcessor[n]));
-                           final OutboundCollector collector = compositeCollector(collectors, edge, totalPtionCount);
-                           ReceiverTasklet receiverTasklet = new ReceiverTasklet(
-                                   collector, edge.getConfig().getReceiveWindowMultiplier(),
-                                   getConfig().getInstanceConfig().getFlowControlPeriodMs());
-                           addrToTasklet.put(addr, receiverTasklet);
+                           final ReceiverTasklet[] laneTasklets = new ReceiverTasklet[laneCount];
+                           for (int lane = 0; lane < laneCount; lane++) {
+                               final OutboundCollector[] collectors = new OutboundCollector[ptionsPerProcessor.length];
+                               // assign the queues starting from end
+                               final int queueOffset = --offset;
+                               Arrays.setAll(collectors, n -> new ConveyorCollector(
+                                       localConveyors[n], localConveyors[n].queueCount() + queueOffset,
+                                       ptionsPerProcessor[n]));
+                               final OutboundCollector collector =
+                                       compositeCollector(collectors, edge, totalPtionCount);
+                               final String probePrefix = metricsPrefix(executionId) + edge.destVertex().name()
+                                       + "#receiver" + edge.destOrdinal() + (laneCount > 1 ? "-lane" + lane : "")
+                                       + '(' + addr + "->" + nodeEngine.getThisAddress() + ')';
+                               laneTasklets[lane] = new ReceiverTasklet(
+                                       collector, edge.getConfig().getReceiveWindowMultiplier(),
+                                       getConfig().getInstanceConfig().getFlowControlPeriodMs(),
+                                       createPacketCompressor(edge, probePrefix));
+                               ((NodeEngineImpl) nodeEngine).getMetricsRegistry().scanAndRegister(laneTasklets[lane],
+                                       probePrefix);
+                           }
+                           addrToTasklets.put(addr, laneTasklets);
                        }
-                       return addrToTasklet;
+                       return addrToTasklets;
                    });
     }
 
@@ -440,26 +535,48 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
         return service.getJetInstance().getConfig();
     }
 
-    private List<InboundEdgeStream> createInboundEdgeStreams(VertexDef srcVertex, int processorIdx) {
+    /**
+     * Unaligned snapshots are used for a vertex if enabled in the job config
+     * and all its inbound edges are unicast or partitioned: the in-flight
+     * items of such edges can be restored to any processor or to the processor
+     * owning their partition, respectively.
+     */
+    private boolean isUnalignedSnapshots(VertexDef vertex) {
+        return jobConfig.getProcessingGuarantee() == ProcessingGuarantee.EXACTLY_ONCE
+                && jobConfig.isUnalignedSnapshotsEnabled()
+                && !vertex.inboundEdges().isEmpty()
+                && vertex.inboundEdges().stream().allMatch(e -> e.routingPolicy() == RoutingPolicy.UNICAST
+                        || e.routingPolicy() == RoutingPolicy.PARTITIONED);
+    }
+
+    private List<InboundEdgeStream> createInboundEdgeStreams(VertexDef srcVertex, int processorIdx,
+                                                             boolean unalignedSnapshots) {
         final List<InboundEdgeStream> inboundStreams = new ArrayList<>();
         for (EdgeDef inEdge : srcVertex.inboundEdges()) {
             // each tasklet has one input conveyor per edge
             final ConcurrentConveyor<Object> conveyor = localConveyorMap.get(inEdge.edgeId())[processorIdx];
-            inboundStreams.add(newEdgeStream(inEdge, conveyor));
+            inboundStreams.add(newEdgeStream(inEdge, conveyor, unalignedSnapshots));
         }
         return inboundStreams;
     }
 
-    private ConcurrentInboundEdgeStream newEdgeStream(EdgeDef inEdge, ConcurrentConveyor<Object> conveyor) {
+    private ConcurrentInboundEdgeStream newEdgeStream(EdgeDef inEdge, ConcurrentConveyor<Object> conveyor,
+                                                      boolean unalignedSnapshots) {
         return new ConcurrentInboundEdgeStream(conveyor, inEdge.destOrdinal(), inEdge.priority(),
                 lastSnapshotId, jobConfig.getProcessingGuarantee() == ProcessingGuarantee.EXACTLY_ONCE,
-                jobConfig.getMaxWatermarkRetainMillis());
+                jobConfig.getMaxWatermarkRetainMillis(), unalignedSnapshots,
+                inEdge.routingPolicy() == RoutingPolicy.PARTITIONED ? inEdge.partitioner() : null,
+                nodeEngine.getPartitionService().getPartitionCount());
     }
 
     public List<Processor> getProcessors() {
         return processors;
     }
 
+    public List<ProcCtx> getProcessorContexts() {
+        return processorContexts;
+    }
+
     public long lastSnapshotId() {
         return lastSnapshotId;
     }
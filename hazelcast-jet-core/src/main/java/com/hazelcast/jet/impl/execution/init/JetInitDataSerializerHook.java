@@ -30,17 +30,21 @@ import com.hazelcast.jet.impl.execution.SnapshotRecord;
 import com.hazelcast.jet.impl.operation.CancelExecutionOperation;
 import com.hazelcast.jet.impl.operation.CancelJobOperation;
 import com.hazelcast.jet.impl.operation.CompleteExecutionOperation;
+import com.hazelcast.jet.impl.operation.DeleteSnapshotFilesOperation;
 import com.hazelcast.jet.impl.operation.GetJobConfigOperation;
 import com.hazelcast.jet.impl.operation.GetJobIdsByNameOperation;
 import com.hazelcast.jet.impl.operation.GetJobSubmissionTimeOperation;
+import com.hazelcast.jet.impl.operation.GetLocalJobMetricsOperation;
 import com.hazelcast.jet.impl.operation.RestartJobOperation;
 import com.hazelcast.jet.impl.operation.StartExecutionOperation;
 import com.hazelcast.jet.impl.operation.GetJobIdsOperation;
+import com.hazelcast.jet.impl.operation.GetJobMetricsOperation;
 import com.hazelcast.jet.impl.operation.GetJobStatusOperation;
 import com.hazelcast.jet.impl.operation.InitExecutionOperation;
 import com.hazelcast.jet.impl.operation.JoinSubmittedJobOperation;
 import com.hazelcast.jet.impl.operation.SnapshotOperation;
 import com.hazelcast.jet.impl.operation.SubmitJobOperation;
+import com.hazelcast.jet.impl.operation.WriteSnapshotReplicaOperation;
 import com.hazelcast.jet.impl.processor.SessionWindowP;
 import com.hazelcast.jet.impl.processor.SnapshotKey;
 import com.hazelcast.nio.serialization.DataSerializableFactory;
@@ -79,6 +83,10 @@ public final class JetInitDataSerializerHook implements DataSerializerHook {
     public static final int GET_JOB_SUBMISSION_TIME_OP = 25;
     public static final int GET_JOB_CONFIG_OP = 26;
     public static final int RESTART_JOB_OP = 27;
+    public static final int GET_JOB_METRICS_OP = 28;
+    public static final int GET_LOCAL_JOB_METRICS_OP = 29;
+    public static final int WRITE_SNAPSHOT_REPLICA_OP = 30;
+    public static final int DELETE_SNAPSHOT_FILES_OP = 31;
 
     public static final int FACTORY_ID = FactoryIdHelper.getFactoryId(JET_IMPL_DS_FACTORY, JET_IMPL_DS_FACTORY_ID);
 
@@ -154,6 +162,14 @@ public final class JetInitDataSerializerHook implements DataSerializerHook {
                     return new GetJobConfigOperation();
                 case RESTART_JOB_OP:
                     return new RestartJobOperation();
+                case GET_JOB_METRICS_OP:
+                    return new GetJobMetricsOperation();
+                case GET_LOCAL_JOB_METRICS_OP:
+                    return new GetLocalJobMetricsOperation();
+                case WRITE_SNAPSHOT_REPLICA_OP:
+                    return new WriteSnapshotReplicaOperation();
+                case DELETE_SNAPSHOT_FILES_OP:
+                    return new DeleteSnapshotFilesOperation();
                 default:
                     throw new IllegalArgumentException("Unknown type id " + typeId);
             }
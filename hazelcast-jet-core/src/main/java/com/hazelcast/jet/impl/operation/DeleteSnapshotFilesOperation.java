@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.operation;
+
+import com.hazelcast.jet.impl.JetService;
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.jet.impl.snapshot.DiskSnapshotStore;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+
+import static com.hazelcast.jet.impl.util.ExceptionUtil.peel;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.withTryCatch;
+
+/**
+ * Sent by the coordinator to all members to delete their files of a
+ * snapshot stored on local disk. See {@link DiskSnapshotStore}.
+ */
+public class DeleteSnapshotFilesOperation extends AsyncOperation {
+
+    private long snapshotId;
+
+    public DeleteSnapshotFilesOperation() {
+    }
+
+    public DeleteSnapshotFilesOperation(long jobId, long snapshotId) {
+        super(jobId);
+        this.snapshotId = snapshotId;
+    }
+
+    @Override
+    protected void doRun() throws Exception {
+        JetService service = getService();
+        DiskSnapshotStore store = (DiskSnapshotStore) service.getSnapshotStore();
+        store.deleteLocalAsync(jobId(), snapshotId)
+             .whenComplete(withTryCatch(getLogger(), (r, t) -> doSendResponse(peel(t))));
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.DELETE_SNAPSHOT_FILES_OP;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeLong(snapshotId);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        snapshotId = in.readLong();
+    }
+}
@@ -24,10 +24,16 @@ import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 
 import java.io.IOException;
+import java.util.ArrayList;
 
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
 import static com.hazelcast.jet.impl.util.Util.idToString;
 
+/**
+ * Starts a snapshot on a member. The response is the list of the vertices
+ * that saved their complete state even if the snapshot is incremental, see
+ * {@link com.hazelcast.jet.impl.execution.SnapshotContext#nonIncrementalVertices()}.
+ */
 public class SnapshotOperation extends AsyncOperation {
 
     private long executionId;
@@ -53,7 +59,7 @@ public class SnapshotOperation extends AsyncOperation {
             logFine(getLogger(),
                     "Snapshot %s for job %s finished successfully on member",
                     snapshotId, idToString(jobId()));
-            doSendResponse(null);
+            doSendResponse(new ArrayList<>(ctx.snapshotContext().nonIncrementalVertices()));
         }).exceptionally(e -> {
             getLogger().warning(String.format("Snapshot %d for job %s finished with error on member",
                     snapshotId, idToString(jobId())), e);
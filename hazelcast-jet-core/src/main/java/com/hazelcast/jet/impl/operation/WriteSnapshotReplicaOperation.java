@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.operation;
+
+import com.hazelcast.jet.impl.JetService;
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.jet.impl.snapshot.DiskSnapshotStore;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+
+import static com.hazelcast.jet.impl.util.ExceptionUtil.peel;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.withTryCatch;
+
+/**
+ * Sent by a member writing snapshot data to local disk to its buddy member,
+ * which stores a copy of the data. See {@link DiskSnapshotStore}.
+ */
+public class WriteSnapshotReplicaOperation extends AsyncOperation {
+
+    private long snapshotId;
+    private String vertexName;
+    private String writerUuid;
+    private long offset;
+    private byte[] bytes;
+
+    public WriteSnapshotReplicaOperation() {
+    }
+
+    public WriteSnapshotReplicaOperation(long jobId, long snapshotId, String vertexName, String writerUuid,
+                                         long offset, byte[] bytes) {
+        super(jobId);
+        this.snapshotId = snapshotId;
+        this.vertexName = vertexName;
+        this.writerUuid = writerUuid;
+        this.offset = offset;
+        this.bytes = bytes;
+    }
+
+    @Override
+    protected void doRun() throws Exception {
+        JetService service = getService();
+        DiskSnapshotStore store = (DiskSnapshotStore) service.getSnapshotStore();
+        store.writeLocalAsync(jobId(), snapshotId, vertexName, writerUuid, offset, bytes)
+             .whenComplete(withTryCatch(getLogger(), (r, t) -> doSendResponse(peel(t))));
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.WRITE_SNAPSHOT_REPLICA_OP;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeLong(snapshotId);
+        out.writeUTF(vertexName);
+        out.writeUTF(writerUuid);
+        out.writeLong(offset);
+        out.writeByteArray(bytes);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        snapshotId = in.readLong();
+        vertexName = in.readUTF();
+        writerUuid = in.readUTF();
+        offset = in.readLong();
+        bytes = in.readByteArray();
+    }
+}
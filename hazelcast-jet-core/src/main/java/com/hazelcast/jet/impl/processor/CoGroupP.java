@@ -21,14 +21,13 @@ import com.hazelcast.jet.aggregate.AggregateOperation;
 import com.hazelcast.jet.aggregate.AggregateOperation1;
 import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.impl.state.KeyedState;
 
 import javax.annotation.Nonnull;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
-import static com.hazelcast.jet.Traversers.traverseStream;
 import static com.hazelcast.jet.Util.entry;
 import static java.util.Collections.singletonList;
 
@@ -37,13 +36,16 @@ import static java.util.Collections.singletonList;
  * aggregate operation on each group. The items may originate from one or
  * more inbound edges. The supplied aggregate operation must have as many
  * accumulation functions as there are inbound edges.
+ * <p>
+ * The accumulators are kept according to the job's {@link
+ * com.hazelcast.jet.config.JobConfig#setStateBackend state backend}.
  */
 public class CoGroupP<K, A, R> extends AbstractProcessor {
     private final List<DistributedFunction<?, ? extends K>> groupKeyFs;
     private final AggregateOperation<A, R> aggrOp;
 
-    private final Map<K, A> keyToAcc = new HashMap<>();
-    private final Traverser<Map.Entry<K, R>> resultTraverser;
+    private KeyedState<K, A> keyToAcc;
+    private Traverser<Map.Entry<K, R>> resultTraverser;
 
     public CoGroupP(
             @Nonnull List<DistributedFunction<?, ? extends K>> groupKeyFs,
@@ -51,9 +53,6 @@ public class CoGroupP<K, A, R> extends AbstractProcessor {
     ) {
         this.groupKeyFs = groupKeyFs;
         this.aggrOp = aggrOp;
-        this.resultTraverser = traverseStream(keyToAcc
-                .entrySet().stream()
-                .map(e -> entry(e.getKey(), this.aggrOp.finishFn().apply(e.getValue()))));
     }
 
     public <T> CoGroupP(
@@ -63,18 +62,27 @@ public class CoGroupP<K, A, R> extends AbstractProcessor {
         this(singletonList(groupKeyFn), aggrOp);
     }
 
+    @Override
+    protected void init(@Nonnull Context context) {
+        keyToAcc = KeyedState.create(context, aggrOp.createFn());
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     protected boolean tryProcess(int ordinal, @Nonnull Object item) {
         Function<Object, ? extends K> keyFn = (Function<Object, ? extends K>) groupKeyFs.get(ordinal);
         K key = keyFn.apply(item);
-        A acc = keyToAcc.computeIfAbsent(key, k -> aggrOp.createFn().get());
-        aggrOp.accumulateFn(ordinal).accept(acc, item);
+        keyToAcc.accumulate(key, item, aggrOp.accumulateFn(ordinal));
         return true;
     }
 
     @Override
     public boolean complete() {
+        if (resultTraverser == null) {
+            resultTraverser = keyToAcc.traverser()
+                    .map(e -> entry(e.getKey(), aggrOp.finishFn().apply(e.getValue())))
+                    .onFirstNull(keyToAcc::dispose);
+        }
         return emitFromTraverser(resultTraverser);
     }
 }
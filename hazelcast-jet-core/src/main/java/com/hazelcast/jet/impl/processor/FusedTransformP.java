@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.ResettableSingletonTraverser;
+import com.hazelcast.jet.function.DistributedFunction;
+
+import javax.annotation.Nonnull;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Processor which applies a chain of stateless map, filter and flat-map
+ * steps to each received item. It is equivalent to a sequence of {@link
+ * TransformP} vertices connected with local edges, but the items pass
+ * from one step to the next without going through an outbox and a queue.
+ * <p>
+ * Map and filter steps don't allocate any per-item objects.
+ *
+ * @param <T> received item type
+ * @param <R> emitted item type
+ */
+public class FusedTransformP<T, R> extends AbstractProcessor {
+
+    private final Step[] steps;
+    private final ResettableSingletonTraverser<Object> singletonTraverser = new ResettableSingletonTraverser<>();
+    private final FlatMapper<T, R> flatMapper;
+
+    /**
+     * Constructs a processor that applies the given steps, in the given
+     * order, to each item.
+     */
+    public FusedTransformP(@Nonnull List<Step> steps) {
+        this.steps = steps.toArray(new Step[0]);
+        this.flatMapper = flatMapper(item -> (Traverser<R>) applyFrom(0, item));
+    }
+
+    @Override
+    protected boolean tryProcess(int ordinal, @Nonnull Object item) throws Exception {
+        return flatMapper.tryProcess((T) item);
+    }
+
+    private Traverser<Object> applyFrom(int stepIndex, Object item) {
+        Object current = item;
+        for (int i = stepIndex; i < steps.length && current != null; i++) {
+            Step step = steps[i];
+            if (step.flatMapFn != null) {
+                Traverser<Object> traverser = (Traverser<Object>) step.flatMapFn.apply(current);
+                int nextStepIndex = i + 1;
+                return nextStepIndex == steps.length
+                        ? traverser
+                        : traverser.flatMap(t -> applyFrom(nextStepIndex, t));
+            }
+            current = step.mapFn.apply(current);
+        }
+        singletonTraverser.accept(current);
+        return singletonTraverser;
+    }
+
+    /**
+     * A single step of the fused chain. A map step returning {@code null}
+     * drops the item, which is also how filter steps are expressed.
+     */
+    public static final class Step implements Serializable {
+        private final DistributedFunction<Object, Object> mapFn;
+        private final DistributedFunction<Object, ? extends Traverser<?>> flatMapFn;
+
+        private Step(DistributedFunction<Object, Object> mapFn,
+                     DistributedFunction<Object, ? extends Traverser<?>> flatMapFn) {
+            this.mapFn = mapFn;
+            this.flatMapFn = flatMapFn;
+        }
+
+        /**
+         * Returns a step that maps each item using the given function. If
+         * the function returns {@code null}, the item is dropped.
+         */
+        @Nonnull
+        public static Step map(@Nonnull DistributedFunction<Object, Object> mapFn) {
+            return new Step(mapFn, null);
+        }
+
+        /**
+         * Returns a step that emits all the items from the traverser returned
+         * by the given function.
+         */
+        @Nonnull
+        public static Step flatMap(@Nonnull DistributedFunction<Object, ? extends Traverser<?>> flatMapFn) {
+            return new Step(null, flatMapFn);
+        }
+    }
+}
@@ -16,26 +16,75 @@
 
 package com.hazelcast.jet.impl.processor;
 
+import com.hazelcast.instance.HazelcastInstanceImpl;
+import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.ProcessorSupplier;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.impl.util.FlatHashTable;
+import com.hazelcast.jet.impl.util.PartitionedSpillFiles;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.spi.NodeEngine;
 
 import javax.annotation.Nonnull;
-import java.util.HashMap;
-import java.util.Map;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.Collection;
 import java.util.function.Function;
 
+import static com.hazelcast.jet.impl.util.PartitionedSpillFiles.partitionOf;
+import static com.hazelcast.jet.impl.util.Util.idToString;
+import static com.hazelcast.jet.impl.util.Util.secureRandomNextLong;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+
 /**
  * Implements the "collector" stage in a hash join transformation. This
- * stage collects the entire joined stream into a hashmap and then
- * broadcasts it to all local second-stage processors.
+ * stage collects the entire joined stream into a {@link FlatHashTable}
+ * and then broadcasts it to all local second-stage processors. Since
+ * there's one collector per member and the broadcast edge is local, all
+ * the processors on a member share the same read-only table instance.
+ * <p>
+ * If the number of entries exceeds {@code maxInMemoryEntries}, the
+ * collector moves the entries to {@link PartitionedSpillFiles} and
+ * broadcasts those instead of the table.
  */
 public class HashJoinCollectP<K, E, V> extends AbstractProcessor {
-    private final Map<K, V> map = new HashMap<>();
+
+    /**
+     * The number of partitions of a spilled build side. The second-stage
+     * processor loads one partition at a time, so each of them should fit in
+     * memory if the stream has less than {@code SPILL_PARTITION_COUNT *
+     * maxInMemoryEntries} entries.
+     */
+    static final int SPILL_PARTITION_COUNT = 64;
+
+    private FlatHashTable<K, V> table = new FlatHashTable<>();
     @Nonnull private final Function<E, K> keyFn;
     @Nonnull private final Function<E, V> projectFn;
+    private final long maxInMemoryEntries;
+    @Nullable private final File spillDir;
+    @Nullable private final NodeEngine nodeEngine;
+    private PartitionedSpillFiles spillFiles;
 
     public HashJoinCollectP(@Nonnull Function<E, K> keyFn, @Nonnull Function<E, V> projectFn) {
+        this(keyFn, projectFn, Long.MAX_VALUE, null, null);
+    }
+
+    HashJoinCollectP(@Nonnull Function<E, K> keyFn, @Nonnull Function<E, V> projectFn,
+                     long maxInMemoryEntries, @Nullable File spillDir, @Nullable NodeEngine nodeEngine) {
         this.keyFn = keyFn;
         this.projectFn = projectFn;
+        this.maxInMemoryEntries = maxInMemoryEntries;
+        this.spillDir = spillDir;
+        this.nodeEngine = nodeEngine;
+    }
+
+    @Override
+    public boolean isCooperative() {
+        // spilling blocks on disk I/O
+        return spillDir == null;
     }
 
     @Override
@@ -44,15 +93,102 @@ public class HashJoinCollectP<K, E, V> extends AbstractProcessor {
         E e = (E) item;
         K key = keyFn.apply(e);
         V value = projectFn.apply(e);
-        V previous = map.put(key, value);
-        if (previous != null) {
-            throw new IllegalStateException("Duplicate values for key " + key + ": " + previous + " and " + value);
+        if (spillFiles != null) {
+            // duplicate keys are detected when the partition is loaded
+            spillFiles.write(partitionOf(key, SPILL_PARTITION_COUNT), key, value);
+            return true;
+        }
+        putUnique(table, key, value);
+        if (table.size() > maxInMemoryEntries) {
+            spillToDisk();
         }
         return true;
     }
 
     @Override
     public boolean complete() {
-        return tryEmit(map);
+        if (spillFiles == null) {
+            return tryEmit(table);
+        }
+        spillFiles.finishWriting();
+        return tryEmit(spillFiles);
+    }
+
+    /**
+     * Loads one partition of a spilled build side into memory.
+     */
+    static FlatHashTable<Object, Object> loadPartition(PartitionedSpillFiles spillFiles, int partition) {
+        FlatHashTable<Object, Object> table = new FlatHashTable<>();
+        Traverser<Object[]> records = spillFiles.read(partition);
+        for (Object[] record; (record = records.next()) != null; ) {
+            putUnique(table, record[0], record[1]);
+        }
+        return table;
+    }
+
+    private static <K, V> void putUnique(FlatHashTable<K, V> table, K key, V value) {
+        V previous = table.put(key, value);
+        if (previous != null) {
+            throw new IllegalStateException("Duplicate values for key " + key + ": " + previous + " and " + value);
+        }
+    }
+
+    private void spillToDisk() {
+        if (spillDir == null) {
+            return;
+        }
+        getLogger().info("Hash join build side exceeded " + maxInMemoryEntries
+                + " entries, spilling it to " + spillDir);
+        spillFiles = new PartitionedSpillFiles(spillDir, "build", SPILL_PARTITION_COUNT, 2, nodeEngine);
+        table.forEach((key, value) -> spillFiles.write(partitionOf(key, SPILL_PARTITION_COUNT), key, value));
+        table = null;
+    }
+
+    /**
+     * Supplies collectors with a limit on in-memory entries. Each member
+     * spills to its own directory under {@link
+     * com.hazelcast.jet.config.InstanceConfig#getTempDir()}, which is
+     * deleted when the job completes.
+     */
+    public static class Supplier implements ProcessorSupplier {
+
+        static final long serialVersionUID = 1L;
+
+        private final DistributedFunction<?, ?> keyFn;
+        private final DistributedFunction<?, ?> projectFn;
+        private final long maxInMemoryEntries;
+
+        private transient File spillDir;
+        private transient NodeEngine nodeEngine;
+
+        public Supplier(@Nonnull DistributedFunction<?, ?> keyFn, @Nonnull DistributedFunction<?, ?> projectFn,
+                        long maxInMemoryEntries) {
+            this.keyFn = keyFn;
+            this.projectFn = projectFn;
+            this.maxInMemoryEntries = maxInMemoryEntries;
+        }
+
+        @Override
+        public void init(@Nonnull Context context) {
+            String tempDir = context.jetInstance().getConfig().getInstanceConfig().getTempDir();
+            spillDir = new File(tempDir, "jet-hash-join-" + idToString(secureRandomNextLong()));
+            nodeEngine = ((HazelcastInstanceImpl) context.jetInstance().getHazelcastInstance()).node.nodeEngine;
+        }
+
+        @Nonnull @Override
+        @SuppressWarnings("unchecked")
+        public Collection<? extends Processor> get(int count) {
+            return range(0, count)
+                    .mapToObj(i -> new HashJoinCollectP<>((Function<Object, Object>) keyFn,
+                            (Function<Object, Object>) projectFn, maxInMemoryEntries, spillDir, nodeEngine))
+                    .collect(toList());
+        }
+
+        @Override
+        public void complete(Throwable error) {
+            if (spillDir != null) {
+                IOUtil.delete(spillDir);
+            }
+        }
     }
 }
@@ -16,22 +16,28 @@
 
 package com.hazelcast.jet.impl.processor;
 
+import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.core.AbstractProcessor;
 import com.hazelcast.jet.datamodel.ItemsByTag;
 import com.hazelcast.jet.datamodel.Tag;
+import com.hazelcast.jet.impl.util.FlatHashTable;
+import com.hazelcast.jet.impl.util.PartitionedSpillFiles;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Function;
 
+import static com.hazelcast.jet.Traversers.traverseStream;
 import static com.hazelcast.jet.datamodel.Tuple2.tuple2;
 import static com.hazelcast.jet.datamodel.Tuple3.tuple3;
+import static com.hazelcast.jet.impl.processor.HashJoinCollectP.loadPartition;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
 
 /**
  * Implements the {@link com.hazelcast.jet.impl.transform.HashJoinTransform
@@ -40,13 +46,21 @@ import static java.util.Collections.singletonList;
 public class HashJoinP<E0> extends AbstractProcessor {
 
     private final List<Function<E0, Object>> keyFs;
-    private final List<Map<Object, Object>> lookupTables;
+    private final List<Object> lookupTables;
     private final List<Tag> tags;
+    private final boolean isCooperative;
+    private int globalProcessorIndex;
     private boolean ordinal0consumed;
 
+    // used only when some lookup tables were spilled to disk
+    private List<Integer> spilledOrdinals;
+    private PartitionedSpillFiles probeSpill;
+    private Traverser<Object> spilledJoinTraverser;
+
     /**
      * Constructs a HashJoin processor. On all edges except 0 it will receive
-     * a single item &mdash; the lookup table for that edge (a {@code Map}) and
+     * a single item &mdash; the lookup table for that edge (a {@link
+     * FlatHashTable} shared by all the processors on the member) and
      * then it will process edge 0 by joining to each item the data from lookup
      * tables. It will extract a separate key for each of the lookup tables
      * using the functions supplied in the {@code keyFs} argument. Element 0 in
@@ -58,23 +72,52 @@ public class HashJoinP<E0> extends AbstractProcessor {
      * corresponding to the two supported special cases in
      * {@link com.hazelcast.jet.ComputeStage}.
      * <p>
+     * A lookup table can also be a {@link PartitionedSpillFiles}, if the
+     * collector spilled it to disk. In that case the processor performs a
+     * grace hash join: it spills edge 0 to disk, partitioned by the key of
+     * the first spilled table and when edge 0 is complete, it joins the
+     * matching partitions one at a time. If more tables were spilled, each
+     * further table takes another pass over the spilled items.
+     * <p>
      * Note that internally the processor stores the lists with a {@code null}
      * element prepended to remove the mismatch between list index and ordinal.
      */
     public HashJoinP(
             @Nonnull List<Function<E0, Object>> keyFs,
             @Nonnull List<Tag> tags
+    ) {
+        this(keyFs, tags, true);
+    }
+
+    /**
+     * @param isCooperative {@code false}, if any of the lookup tables may be
+     *                      spilled to disk
+     */
+    public HashJoinP(
+            @Nonnull List<Function<E0, Object>> keyFs,
+            @Nonnull List<Tag> tags,
+            boolean isCooperative
     ) {
         this.keyFs = prependNull(keyFs);
         this.lookupTables = prependNull(Collections.nCopies(keyFs.size(), null));
         this.tags = tags.isEmpty() ? emptyList() : prependNull(tags);
+        this.isCooperative = isCooperative;
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) {
+        globalProcessorIndex = context.globalProcessorIndex();
+    }
+
+    @Override
+    public boolean isCooperative() {
+        return isCooperative;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     protected boolean tryProcess(int ordinal, @Nonnull Object item) {
         assert !ordinal0consumed : "Edge 0 must have a lower priority than all other edges";
-        lookupTables.set(ordinal, (Map) item);
+        lookupTables.set(ordinal, item);
         return true;
     }
 
@@ -82,7 +125,17 @@ public class HashJoinP<E0> extends AbstractProcessor {
     @SuppressWarnings("unchecked")
     protected boolean tryProcess0(@Nonnull Object item) {
         E0 e0 = (E0) item;
-        ordinal0consumed = true;
+        if (!ordinal0consumed) {
+            ordinal0consumed = true;
+            spilledOrdinals = range(1, lookupTables.size())
+                    .filter(i -> lookupTables.get(i) instanceof PartitionedSpillFiles)
+                    .boxed()
+                    .collect(toList());
+        }
+        if (!spilledOrdinals.isEmpty()) {
+            spillProbeItem(e0);
+            return true;
+        }
         if (tags.isEmpty()) {
             return tryEmit(keyFs.size() == 2
                     ? tuple2(e0, lookupJoined(1, e0))
@@ -95,9 +148,102 @@ public class HashJoinP<E0> extends AbstractProcessor {
         return tryEmit(tuple2(e0, map));
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean complete() {
+        if (probeSpill == null) {
+            return true;
+        }
+        if (spilledJoinTraverser == null) {
+            // all passes except the last one only move the items to the next spill
+            for (int pass = 0; pass < spilledOrdinals.size() - 1; pass++) {
+                joinSpilledPass(spilledOrdinals.get(pass), spilledOrdinals.get(pass + 1));
+            }
+            int lastOrdinal = spilledOrdinals.get(spilledOrdinals.size() - 1);
+            PartitionedSpillFiles probe = probeSpill;
+            spilledJoinTraverser = traverseStream(range(0, probe.partitionCount()).boxed())
+                    .flatMap(partition -> {
+                        FlatHashTable<Object, Object> table = loadPartition(spilledTable(lastOrdinal), partition);
+                        return probe.read(partition).map(row -> {
+                            row[lastOrdinal] = table.get(keyFs.get(lastOrdinal).apply((E0) row[0]));
+                            return joinedItem(row);
+                        });
+                    })
+                    .onFirstNull(probe::delete);
+        }
+        return emitFromTraverser(spilledJoinTraverser);
+    }
+
+    /**
+     * Writes a row with the item and its matches from the in-memory lookup
+     * tables to the probe spill partitioned by the first spilled table's key.
+     */
+    @SuppressWarnings("unchecked")
+    private void spillProbeItem(E0 e0) {
+        int firstSpilled = spilledOrdinals.get(0);
+        if (probeSpill == null) {
+            probeSpill = newProbeSpill(firstSpilled);
+        }
+        Object[] row = new Object[keyFs.size()];
+        row[0] = e0;
+        for (int i = 1; i < row.length; i++) {
+            if (!(lookupTables.get(i) instanceof PartitionedSpillFiles)) {
+                row[i] = lookupJoined(i, e0);
+            }
+        }
+        probeSpill.write(partitionOf(firstSpilled, e0), row);
+    }
+
+    /**
+     * Looks up the rows of the probe spill in the table at {@code ordinal}
+     * and writes them to a new spill partitioned by the key of the table at
+     * {@code nextOrdinal}.
+     */
+    @SuppressWarnings("unchecked")
+    private void joinSpilledPass(int ordinal, int nextOrdinal) {
+        PartitionedSpillFiles nextSpill = newProbeSpill(nextOrdinal);
+        for (int partition = 0; partition < probeSpill.partitionCount(); partition++) {
+            FlatHashTable<Object, Object> table = loadPartition(spilledTable(ordinal), partition);
+            Traverser<Object[]> rows = probeSpill.read(partition);
+            for (Object[] row; (row = rows.next()) != null; ) {
+                row[ordinal] = table.get(keyFs.get(ordinal).apply((E0) row[0]));
+                nextSpill.write(partitionOf(nextOrdinal, (E0) row[0]), row);
+            }
+        }
+        probeSpill.delete();
+        nextSpill.finishWriting();
+        probeSpill = nextSpill;
+    }
+
+    private PartitionedSpillFiles newProbeSpill(int ordinal) {
+        PartitionedSpillFiles table = spilledTable(ordinal);
+        return new PartitionedSpillFiles(table.dir(), "probe-" + globalProcessorIndex + '-' + ordinal,
+                table.partitionCount(), keyFs.size(), table.nodeEngine());
+    }
+
+    private PartitionedSpillFiles spilledTable(int ordinal) {
+        return (PartitionedSpillFiles) lookupTables.get(ordinal);
+    }
+
+    private int partitionOf(int ordinal, E0 e0) {
+        return PartitionedSpillFiles.partitionOf(keyFs.get(ordinal).apply(e0), spilledTable(ordinal).partitionCount());
+    }
+
+    private Object joinedItem(Object[] row) {
+        if (tags.isEmpty()) {
+            return row.length == 2 ? tuple2(row[0], row[1]) : tuple3(row[0], row[1], row[2]);
+        }
+        ItemsByTag map = new ItemsByTag();
+        for (int i = 1; i < row.length; i++) {
+            map.put(tags.get(i), row[i]);
+        }
+        return tuple2(row[0], map);
+    }
+
     @Nullable
+    @SuppressWarnings("unchecked")
     private Object lookupJoined(int ordinal, E0 item) {
-        return lookupTables.get(ordinal).get(keyFs.get(ordinal).apply(item));
+        return ((FlatHashTable<Object, Object>) lookupTables.get(ordinal)).get(keyFs.get(ordinal).apply(item));
     }
 
     private static <E> List<E> prependNull(List<E> in) {
@@ -26,7 +26,9 @@ import com.hazelcast.jet.function.DistributedBiConsumer;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.function.DistributedSupplier;
 import com.hazelcast.jet.function.DistributedToLongFunction;
+import com.hazelcast.jet.impl.execution.IncrementalSnapshotSupport;
 import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.jet.impl.util.SnapshotChangeTracker;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
@@ -36,20 +38,19 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
-import java.util.SortedMap;
 import java.util.StringJoiner;
-import java.util.TreeMap;
 import java.util.function.BiConsumer;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
-import static com.hazelcast.jet.Traversers.traverseStream;
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.impl.execution.SnapshotTombstone.TOMBSTONE;
 import static com.hazelcast.jet.impl.util.Util.toLocalDateTime;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.System.arraycopy;
 
@@ -58,28 +59,41 @@ import static java.lang.System.arraycopy;
  *      com.hazelcast.jet.core.processor.Processors#aggregateToSessionWindowP(long,
  *      DistributedToLongFunction, DistributedFunction, AggregateOperation1)
  * WindowingProcessors.sessionWindow()} for documentation.
+ * <p>
+ * Each item covers an interval given by {@code getStartFn} and {@code
+ * getEndFn}: for an event it's the event interval, for a partial session
+ * from the first stage of a two-stage setup it's the session's extent.
  *
  * @param <T> type of the stream item
  * @param <K> type of the extracted grouping key
  * @param <A> type of the accumulator object
  * @param <R> type of the finished result
  */
-public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
+public class SessionWindowP<T, K, A, R> extends AbstractProcessor implements IncrementalSnapshotSupport {
     private static final Watermark COMPLETING_WM = new Watermark(Long.MAX_VALUE);
 
     // exposed for testing, to check for memory leaks
     final Map<K, Windows> keyToWindows = new HashMap<>();
-    final SortedMap<Long, Set<K>> deadlineToKeys = new TreeMap<>();
-
-    private final long sessionTimeout;
-    private final DistributedToLongFunction<? super T> getTimestampFn;
-    private final DistributedFunction<? super T, K> getKeyFn;
+    // Each key is registered here with a deadline not after the end of its
+    // earliest window. Extending a window doesn't touch the registration:
+    // when it expires, the key's windows are checked and the key is
+    // registered again if none of them ended yet.
+    final TimerWheel<K> deadlines = new TimerWheel<>();
+    // the keys whose windows changed since the last snapshot
+    final SnapshotChangeTracker<K> changes = new SnapshotChangeTracker<>();
+
+    private final Function<? super T, K> getKeyFn;
+    private final ToLongFunction<? super T> getStartFn;
+    private final ToLongFunction<? super T> getEndFn;
+    private final boolean isLastStage;
     private final DistributedSupplier<A> newAccumulatorFn;
     private final BiConsumer<? super A, ? super T> accumulateFn;
     private final DistributedFunction<? super A, R> finishAccumulationFn;
     private final DistributedBiConsumer<? super A, ? super A> combineAccFn;
     private final FlatMapper<Watermark, Session<K, R>> expiredSessionFlatmapper;
+    private final List<Session<K, R>> closedSessions = new ArrayList<>();
     private Traverser snapshotTraverser;
+    private Traverser<Session<K, R>> flushTraverser;
 
     public SessionWindowP(
             long sessionTimeout,
@@ -87,75 +101,139 @@ public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
             DistributedFunction<? super T, K> getKeyFn,
             AggregateOperation1<? super T, A, R> aggrOp
     ) {
-        this.getTimestampFn = getTimestampFn;
+        this(getKeyFn, getTimestampFn, t -> getTimestampFn.applyAsLong(t) + sessionTimeout, aggrOp, true);
+    }
+
+    public SessionWindowP(
+            Function<? super T, K> getKeyFn,
+            ToLongFunction<? super T> getStartFn,
+            ToLongFunction<? super T> getEndFn,
+            AggregateOperation1<? super T, A, R> aggrOp,
+            boolean isLastStage
+    ) {
         this.getKeyFn = getKeyFn;
+        this.getStartFn = getStartFn;
+        this.getEndFn = getEndFn;
         this.newAccumulatorFn = aggrOp.createFn();
         this.accumulateFn = aggrOp.accumulateFn();
         this.combineAccFn = aggrOp.combineFn();
         this.finishAccumulationFn = aggrOp.finishFn();
-        this.sessionTimeout = sessionTimeout;
+        this.isLastStage = isLastStage;
         this.expiredSessionFlatmapper = flatMapper(this::expiredSessionTraverser);
     }
 
     @Override
     protected boolean tryProcess(int ordinal, @Nonnull Object item) {
-        final T event = (T) item;
-        final long timestamp = getTimestampFn.applyAsLong(event);
-        K key = getKeyFn.apply(event);
-        addEvent(keyToWindows.computeIfAbsent(key, k -> new Windows()),
-                key, timestamp, event);
+        final T t = (T) item;
+        K key = getKeyFn.apply(t);
+        Windows<A> w = keyToWindows.get(key);
+        boolean isNew = w == null;
+        if (isNew) {
+            w = new Windows();
+            keyToWindows.put(key, w);
+        }
+        changes.changed(key, isNew);
+        accumulateFn.accept(resolveAcc(w, key, getStartFn.applyAsLong(t), getEndFn.applyAsLong(t)), t);
         return true;
     }
 
     @Override
     public boolean tryProcessWatermark(@Nonnull Watermark wm) {
-        return expiredSessionFlatmapper.tryProcess(wm);
+        return isLastStage ? expiredSessionFlatmapper.tryProcess(wm) : flushWindows();
     }
 
     @Override
     public boolean complete() {
-        return expiredSessionFlatmapper.tryProcess(COMPLETING_WM);
+        return isLastStage ? expiredSessionFlatmapper.tryProcess(COMPLETING_WM) : flushWindows();
     }
 
-    private Traverser<Session<K, R>> expiredSessionTraverser(Watermark wm) {
-        List<K> distinctKeys = deadlineToKeys
-                .headMap(wm.timestamp())
-                .values().stream()
-                .flatMap(Set::stream)
-                .distinct()
-                .collect(Collectors.toList());
+    /**
+     * Emits all the windows as partial sessions and forgets them. The first
+     * stage does this on every watermark: the second stage then holds, at the
+     * watermark, everything received before it and can close its sessions
+     * exactly as a single stage would.
+     */
+    private boolean flushWindows() {
+        if (flushTraverser == null) {
+            if (keyToWindows.isEmpty()) {
+                return true;
+            }
+            flushTraverser = traverseIterable(keyToWindows.entrySet())
+                    .flatMap(e -> traverseIterable(sessions(e.getValue(), e.getKey(), e.getValue().size)))
+                    .onFirstNull(() -> {
+                        keyToWindows.clear();
+                        flushTraverser = null;
+                    });
+        }
+        return emitFromTraverser(flushTraverser);
+    }
 
-        deadlineToKeys.headMap(wm.timestamp()).clear();
+    private Traverser<Session<K, R>> expiredSessionTraverser(Watermark wm) {
+        long wmTimestamp = wm.timestamp();
+        Traverser<K> expiredKeys = () -> pollExpiredKey(wmTimestamp);
+        return expiredKeys.flatMap(key -> traverseIterable(closeWindows(keyToWindows.get(key), key, wmTimestamp)));
+    }
 
-        Stream<List<Session<K, R>>> listStream = distinctKeys.stream()
-                                              .map(key -> closeWindows(keyToWindows.get(key), key, wm.timestamp()));
-        Stream<Session<K, R>> sessions = listStream
-                                                     .flatMap(List::stream);
+    private K pollExpiredKey(long wm) {
+        K key;
+        while ((key = deadlines.poll(wm)) != null) {
+            Windows<A> w = keyToWindows.get(key);
+            // skip the registrations superseded by an earlier one
+            if (w != null && w.registeredDeadline == deadlines.polledDeadline()) {
+                return key;
+            }
+        }
+        return null;
+    }
 
-        return traverseStream(sessions);
+    private void register(Windows<A> w, K key, long deadline) {
+        w.registeredDeadline = deadline;
+        deadlines.add(key, deadline);
     }
 
-    private void addToDeadlines(K key, long deadline) {
-        deadlineToKeys.computeIfAbsent(deadline, x -> new HashSet<>()).add(key);
+    @Override
+    public boolean saveToSnapshot() {
+        if (!isLastStage) {
+            return flushWindows();
+        }
+        if (snapshotTraverser == null) {
+            snapshotTraverser = Traversers.traverseIterable(keyToWindows.entrySet())
+                    .onFirstNull(this::snapshotSaved);
+        }
+        return emitFromTraverserToSnapshot(snapshotTraverser);
     }
 
-    private void removeFromDeadlines(K key, long deadline) {
-        Set<K> ks = deadlineToKeys.get(deadline);
-        ks.remove(key);
-        if (ks.isEmpty()) {
-            deadlineToKeys.remove(deadline);
+    @Override
+    public void enableChangeTracking() {
+        // the first stage flushes its windows instead of saving them
+        if (isLastStage) {
+            changes.enable();
         }
     }
 
     @Override
-    public boolean saveToSnapshot() {
+    @SuppressWarnings("unchecked")
+    public boolean saveChangesToSnapshot() {
+        if (!isLastStage) {
+            return flushWindows();
+        }
         if (snapshotTraverser == null) {
-            snapshotTraverser = Traversers.traverseIterable(keyToWindows.entrySet())
-                    .onFirstNull(() -> snapshotTraverser = null);
+            Traverser<Entry> changed = traverseIterable(changes.changedKeys())
+                    .<Entry>map(key -> entry(key, keyToWindows.get(key)));
+            Traverser<Entry> removed = traverseIterable(changes.removedKeys())
+                    .<Entry>map(key -> entry(key, TOMBSTONE));
+            snapshotTraverser = Traverser.over(changed, removed)
+                                         .flatMap(tr -> tr)
+                                         .onFirstNull(this::snapshotSaved);
         }
         return emitFromTraverserToSnapshot(snapshotTraverser);
     }
 
+    private void snapshotSaved() {
+        snapshotTraverser = null;
+        changes.reset();
+    }
+
     @Override
     protected void restoreFromSnapshot(@Nonnull Object key, @Nonnull Object value) {
         keyToWindows.put((K) key, (Windows) value);
@@ -163,69 +241,77 @@ public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
 
     @Override
     public boolean finishSnapshotRestore() {
-        assert deadlineToKeys.isEmpty();
-        // populate deadlineToKeys
+        assert deadlines.isEmpty();
+        // populate deadlines
         for (Entry<K, Windows> entry : keyToWindows.entrySet()) {
-            for (long end : entry.getValue().ends) {
-                addToDeadlines(entry.getKey(), end);
-            }
+            Windows<A> w = entry.getValue();
+            register(w, entry.getKey(), w.ends[0]);
         }
         return true;
     }
 
-    private void addEvent(Windows<A> w, K key, long timestamp, T event) {
-        accumulateFn.accept(resolveAcc(w, key, timestamp), event);
-    }
-
     private List<Session<K, R>> closeWindows(Windows<A> w, K key, long wm) {
-        List<Session<K, R>> sessions = new ArrayList<>();
         int i = 0;
-        for (; i < w.size && w.ends[i] < wm; i++) {
-            sessions.add(new Session<>(key, w.starts[i], w.ends[i], finishAccumulationFn.apply(w.accs[i])));
+        while (i < w.size && w.ends[i] < wm) {
+            i++;
         }
+        sessions(w, key, i);
         if (i != w.size) {
             w.removeHead(i);
+            register(w, key, w.ends[0]);
+            if (i > 0) {
+                changes.changed(key, false);
+            }
         } else {
             keyToWindows.remove(key);
+            changes.removed(key);
         }
-        return sessions;
+        return closedSessions;
     }
 
-    private A resolveAcc(Windows<A> w, K key, long timestamp) {
-        long eventEnd = timestamp + sessionTimeout;
+    /**
+     * Fills {@code closedSessions} with the first {@code count} windows.
+     */
+    private List<Session<K, R>> sessions(Windows<A> w, K key, int count) {
+        // the list is reused: the flat-mapping traverser is done with it
+        // before it asks for the next key
+        closedSessions.clear();
+        for (int i = 0; i < count; i++) {
+            closedSessions.add(new Session<>(key, w.starts[i], w.ends[i], finishAccumulationFn.apply(w.accs[i])));
+        }
+        return closedSessions;
+    }
+
+    private A resolveAcc(Windows<A> w, K key, long start, long end) {
         int i = 0;
-        for (; i < w.size && w.starts[i] <= eventEnd; i++) {
-            // the window `i` is not after the event interval
+        for (; i < w.size && w.starts[i] <= end; i++) {
+            // the window `i` is not after the item interval
 
-            if (w.ends[i] < timestamp) {
-                // the window `i` is before the event interval
+            if (w.ends[i] < start) {
+                // the window `i` is before the item interval
                 continue;
             }
-            if (w.starts[i] <= timestamp && w.ends[i] >= eventEnd) {
-                // the window `i` fully covers the event interval
+            if (w.starts[i] <= start && w.ends[i] >= end) {
+                // the window `i` fully covers the item interval
                 return w.accs[i];
             }
-            // the window `i` overlaps the event interval
-
-            if (i + 1 == w.size || w.starts[i + 1] > eventEnd) {
-                // the window `i + 1` doesn't overlap the event interval
-                w.starts[i] = min(w.starts[i], timestamp);
-                if (w.ends[i] < eventEnd) {
-                    removeFromDeadlines(key, w.ends[i]);
-                    w.ends[i] = eventEnd;
-                    addToDeadlines(key, w.ends[i]);
-                }
-                return w.accs[i];
+            // the window `i` overlaps the item interval. An event interval
+            // can bridge at most one gap, but a partial session can span
+            // several windows: combine all of them into the window `i`.
+            int last = i;
+            while (last + 1 < w.size && w.starts[last + 1] <= end) {
+                last++;
+                combineAccFn.accept(w.accs[i], w.accs[last]);
             }
-            // both `i` and `i + 1` windows overlap the event interval
-            removeFromDeadlines(key, w.ends[i]);
-            w.ends[i] = w.ends[i + 1];
-            combineAccFn.accept(w.accs[i], w.accs[i + 1]);
-            w.removeWindow(i + 1);
+            w.starts[i] = min(w.starts[i], start);
+            w.ends[i] = max(w.ends[last], end);
+            w.removeWindows(i + 1, last - i);
             return w.accs[i];
         }
-        addToDeadlines(key, eventEnd);
-        return insertWindow(w, i, timestamp, eventEnd);
+        if (isLastStage && (w.size == 0 || end < w.registeredDeadline)) {
+            register(w, key, end);
+        }
+        return insertWindow(w, i, start, end);
     }
 
     private A insertWindow(Windows<A> w, int idx, long windowStart, long windowEnd) {
@@ -240,13 +326,16 @@ public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
 
     public static class Windows<A> implements IdentifiedDataSerializable {
         private int size;
+        // the deadline under which the key is registered in the timer wheel,
+        // not serialized: the registrations are rebuilt after a restore
+        private long registeredDeadline;
         private long[] starts = new long[2];
         private long[] ends = new long[2];
         private A[] accs = (A[]) new Object[2];
 
-        private void removeWindow(int idx) {
-            size--;
-            copy(idx + 1, idx, size - idx);
+        private void removeWindows(int idx, int count) {
+            size -= count;
+            copy(idx + count, idx, size - idx);
         }
 
         private void removeHead(int count) {
@@ -27,9 +27,15 @@ import com.hazelcast.jet.core.Watermark;
 import com.hazelcast.jet.core.WindowDefinition;
 import com.hazelcast.jet.datamodel.TimestampedEntry;
 import com.hazelcast.jet.function.DistributedToLongFunction;
+import com.hazelcast.jet.impl.execution.IncrementalSnapshotSupport;
+import com.hazelcast.jet.impl.util.LongObjectHashMap;
+import com.hazelcast.jet.impl.util.ObjectObjectHashMap;
+import com.hazelcast.jet.impl.util.SnapshotChangeTracker;
 
 import javax.annotation.Nonnull;
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.function.BiConsumer;
@@ -40,7 +46,7 @@ import static com.hazelcast.jet.Traversers.traverseIterable;
 import static com.hazelcast.jet.Traversers.traverseStream;
 import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.core.BroadcastKey.broadcastKey;
-import static com.hazelcast.jet.function.DistributedComparator.naturalOrder;
+import static com.hazelcast.jet.impl.execution.SnapshotTombstone.TOMBSTONE;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
 import static com.hazelcast.util.Preconditions.checkNotNull;
 import static java.lang.Math.max;
@@ -55,10 +61,10 @@ import static java.util.Collections.emptyMap;
  * @param <A> type of the frame accumulator object
  * @param <R> type of the finished result
  */
-public class SlidingWindowP<T, A, R> extends AbstractProcessor {
+public class SlidingWindowP<T, A, R> extends AbstractProcessor implements IncrementalSnapshotSupport {
 
     // package-visible for testing
-    final Map<Long, Map<Object, A>> tsToKeyToAcc = new HashMap<>();
+    final LongObjectHashMap<Map<Object, A>> tsToKeyToAcc = new LongObjectHashMap<>();
     Map<Object, A> slidingWindow;
     long nextWinToEmit = Long.MIN_VALUE;
 
@@ -71,6 +77,11 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
     private final FlatMapper<Watermark, ?> wmFlatMapper;
 
     private final A emptyAcc;
+    // key-to-acc maps of evicted frames, cleared and kept for reuse by new
+    // frames. They are open-addressing maps, so clearing them keeps their
+    // tables and no entry object is allocated per key.
+    private final ArrayDeque<Map<Object, A>> recycledFrames = new ArrayDeque<>();
+    private final int maxRecycledFrames;
     private Traverser<Object> flushTraverser;
     private Traverser<Entry> snapshotTraverser;
 
@@ -79,6 +90,15 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
     // over the entire keyset.
     private long topTs = Long.MIN_VALUE;
 
+    // Changes since the last snapshot are tracked per frame: a changed frame
+    // is saved whole. Only the frames at the top change often, most of the
+    // state is in the older frames waiting for the window to slide past them.
+    private final SnapshotChangeTracker<Long> changedFrames = new SnapshotChangeTracker<>();
+    // the keys of the evicted frames that were saved to the last snapshot
+    private final List<SnapshotKey> evictedKeys = new ArrayList<>();
+    // the frame last reported to changedFrames, to avoid boxing for each item
+    private long lastChangedFrameTs = Long.MIN_VALUE;
+
     // value to be used temporarily during snapshot restore
     private long minRestoredNextWinToEmit = Long.MAX_VALUE;
     private ProcessingGuarantee processingGuarantee;
@@ -103,6 +123,7 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
                         .onFirstNull(() -> nextWinToEmit = wDef.higherFrameTs(wm.timestamp()))
         );
         this.emptyAcc = aggrOp.createFn().get();
+        this.maxRecycledFrames = (int) (winDef.windowLength() / winDef.frameLength());
     }
 
     @Override
@@ -129,8 +150,21 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
         }
 
         final Object key = getKeyFn.apply(t);
-        A acc = tsToKeyToAcc.computeIfAbsent(frameTs, x -> new HashMap<>())
-                            .computeIfAbsent(key, k -> aggrOp.createFn().get());
+        Map<Object, A> keyToAcc = tsToKeyToAcc.get(frameTs);
+        boolean isNewFrame = keyToAcc == null;
+        if (isNewFrame) {
+            keyToAcc = newFrame();
+            tsToKeyToAcc.put(frameTs, keyToAcc);
+        }
+        if (frameTs != lastChangedFrameTs && changedFrames.isEnabled()) {
+            changedFrames.changed(frameTs, isNewFrame);
+            lastChangedFrameTs = frameTs;
+        }
+        A acc = keyToAcc.get(key);
+        if (acc == null) {
+            acc = aggrOp.createFn().get();
+            keyToAcc.put(key, acc);
+        }
         aggrOp.accumulateFn().accept(acc, t);
         topTs = max(topTs, frameTs);
         return true;
@@ -152,16 +186,54 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
             return flushBuffers();
         }
         if (snapshotTraverser == null) {
-            snapshotTraverser = traverseIterable(tsToKeyToAcc.entrySet())
-                    .<Entry>flatMap(e -> traverseIterable(e.getValue().entrySet())
-                            .map(e2 -> entry(new SnapshotKey(e.getKey(), e2.getKey()), e2.getValue()))
+            snapshotTraverser = traverseStream(LongStream.of(tsToKeyToAcc.keys()).boxed())
+                    .<Entry>flatMap(ts -> traverseIterable(tsToKeyToAcc.get(ts).entrySet())
+                            .map(e -> entry(new SnapshotKey(ts, e.getKey()), e.getValue()))
                     )
                     .append(entry(broadcastKey(Keys.NEXT_WIN_TO_EMIT), nextWinToEmit))
-                    .onFirstNull(() -> snapshotTraverser = null);
+                    .onFirstNull(this::snapshotSaved);
+        }
+        return emitFromTraverserToSnapshot(snapshotTraverser);
+    }
+
+    @Override
+    public void enableChangeTracking() {
+        // the first stage flushes its frames instead of saving them
+        if (isLastStage) {
+            changedFrames.enable();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean saveChangesToSnapshot() {
+        if (!isLastStage || flushTraverser != null) {
+            return flushBuffers();
+        }
+        if (snapshotTraverser == null) {
+            snapshotTraverser = traverseIterable(changedFrames.changedKeys())
+                    .<Entry>flatMap(ts -> traverseIterable(tsToKeyToAcc.get(ts).entrySet())
+                            .map(e -> entry(new SnapshotKey(ts, e.getKey()), e.getValue()))
+                    )
+                    .append(entry(broadcastKey(Keys.NEXT_WIN_TO_EMIT), nextWinToEmit));
+            if (!evictedKeys.isEmpty()) {
+                snapshotTraverser = Traverser.over(
+                        traverseIterable(evictedKeys).<Entry>map(k -> entry(k, TOMBSTONE)),
+                        snapshotTraverser
+                ).flatMap(tr -> tr);
+            }
+            snapshotTraverser = snapshotTraverser.onFirstNull(this::snapshotSaved);
         }
         return emitFromTraverserToSnapshot(snapshotTraverser);
     }
 
+    private void snapshotSaved() {
+        snapshotTraverser = null;
+        changedFrames.reset();
+        evictedKeys.clear();
+        lastChangedFrameTs = Long.MIN_VALUE;
+    }
+
     @Override
     protected void restoreFromSnapshot(@Nonnull Object key, @Nonnull Object value) {
         if (key instanceof BroadcastKey) {
@@ -175,8 +247,12 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
             return;
         }
         SnapshotKey k = (SnapshotKey) key;
-        if (tsToKeyToAcc.computeIfAbsent(k.timestamp, x -> new HashMap<>())
-                        .put(k.key, (A) value) != null) {
+        Map<Object, A> keyToAcc = tsToKeyToAcc.get(k.timestamp);
+        if (keyToAcc == null) {
+            keyToAcc = newFrame();
+            tsToKeyToAcc.put(k.timestamp, keyToAcc);
+        }
+        if (keyToAcc.put(k.key, (A) value) != null) {
             throw new JetException("Duplicate key in snapshot: " + k);
         }
         topTs = max(topTs, k.timestamp);
@@ -210,10 +286,7 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
             // initialized using the "add leading/deduct trailing" approach because we
             // start from a window that covers at most one existing frame -- the lowest
             // one on record.
-            long bottomTs = tsToKeyToAcc
-                    .keySet().stream()
-                    .min(naturalOrder())
-                    .orElseThrow(() -> new AssertionError("Failed to find the min key in a non-empty map"));
+            long bottomTs = tsToKeyToAcc.minKey();
             rangeStart = min(bottomTs, wDef.floorFrameTs(wm));
         }
         return traverseStream(range(rangeStart, wm, wDef.frameLength()).boxed())
@@ -224,7 +297,7 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
 
     private Map<Object, A> computeWindow(long frameTs) {
         if (wDef.isTumbling()) {
-            return tsToKeyToAcc.getOrDefault(frameTs, emptyMap());
+            return frameOrEmpty(frameTs);
         }
         if (aggrOp.deductFn() == null) {
             return recomputeWindow(frameTs);
@@ -239,16 +312,25 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
     }
 
     private Map<Object, A> recomputeWindow(long frameTs) {
-        Map<Object, A> window = new HashMap<>();
+        Map<Object, A> window = new ObjectObjectHashMap<>();
         for (long ts = frameTs - wDef.windowLength() + wDef.frameLength(); ts <= frameTs; ts += wDef.frameLength()) {
-            tsToKeyToAcc.getOrDefault(ts, emptyMap())
-                        .forEach((key, currAcc) -> aggrOp.combineFn().accept(
-                                window.computeIfAbsent(key, k -> aggrOp.createFn().get()),
-                                currAcc));
+            frameOrEmpty(ts).forEach((key, currAcc) -> aggrOp.combineFn().accept(
+                    window.computeIfAbsent(key, k -> aggrOp.createFn().get()),
+                    currAcc));
         }
         return window;
     }
 
+    private Map<Object, A> frameOrEmpty(long frameTs) {
+        Map<Object, A> frame = tsToKeyToAcc.get(frameTs);
+        return frame != null ? frame : emptyMap();
+    }
+
+    private Map<Object, A> newFrame() {
+        Map<Object, A> frame = recycledFrames.poll();
+        return frame != null ? frame : new ObjectObjectHashMap<>();
+    }
+
     private void patchSlidingWindow(BiConsumer<? super A, ? super A> patchOp, Map<Object, A> patchingFrame) {
         if (patchingFrame == null) {
             return;
@@ -265,10 +347,21 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
     private void completeWindow(long frameTs) {
         long frameToEvict = frameTs - wDef.windowLength() + wDef.frameLength();
         Map<Object, A> evictedFrame = tsToKeyToAcc.remove(frameToEvict);
+        if (evictedFrame != null && changedFrames.removed(frameToEvict)) {
+            for (Object key : evictedFrame.keySet()) {
+                evictedKeys.add(new SnapshotKey(frameToEvict, key));
+            }
+        }
         if (!wDef.isTumbling() && aggrOp.deductFn() != null) {
             // deduct trailing-edge frame
             patchSlidingWindow(aggrOp.deductFn(), evictedFrame);
         }
+        // The evicted frame was already emitted or deducted, so we can clear
+        // it and reuse its hash table for a future frame
+        if (evictedFrame != null && recycledFrames.size() < maxRecycledFrames) {
+            evictedFrame.clear();
+            recycledFrames.add(evictedFrame);
+        }
     }
 
     private boolean flushBuffers() {
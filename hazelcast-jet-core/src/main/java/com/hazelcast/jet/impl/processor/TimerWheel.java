@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import static java.lang.Long.compareUnsigned;
+
+/**
+ * A hierarchical timer wheel holding {@code (key, deadline)} entries. The
+ * time is split into 6-bit digits and each digit has a level of 64 slots:
+ * an entry is kept at the level of the highest digit in which its deadline
+ * differs from the wheel's current time. Adding an entry is O(1) and each
+ * entry is moved to a lower level at most once per level before it expires.
+ * <p>
+ * {@link #poll(long)} returns the expired entries one at a time, in the
+ * order of their deadlines, so the caller can stop and resume at any point.
+ * The wheel doesn't support removal; the caller is expected to recognize
+ * and skip the entries that became stale.
+ *
+ * @param <K> type of the key
+ */
+final class TimerWheel<K> {
+
+    private static final int BITS_PER_LEVEL = 6;
+    private static final int SLOT_COUNT = 1 << BITS_PER_LEVEL;
+    private static final int SLOT_MASK = SLOT_COUNT - 1;
+    private static final int LEVEL_COUNT = (Long.SIZE + BITS_PER_LEVEL - 1) / BITS_PER_LEVEL;
+
+    // The times are kept with the sign bit flipped and compared as unsigned,
+    // so that the digits of a negative timestamp are ordered correctly.
+    private long now;
+    private final Bucket<K>[][] slots = new Bucket[LEVEL_COUNT][SLOT_COUNT];
+    // for each level a bit mask of the slots that have entries
+    private final long[] occupied = new long[LEVEL_COUNT];
+    // entries added with a deadline already behind the wheel's time
+    private Bucket<K> overdue = new Bucket<>();
+    private final ArrayDeque<Bucket<K>> spareBuckets = new ArrayDeque<>();
+
+    private Bucket<K> draining;
+    private int drainPosition;
+    private long polledDeadline;
+    private int size;
+
+    /**
+     * Adds an entry. The same key can be added several times.
+     */
+    void add(K key, long deadline) {
+        long time = deadline ^ Long.MIN_VALUE;
+        if (compareUnsigned(time, now) < 0) {
+            overdue.add(key, time);
+        } else {
+            place(key, time);
+        }
+        size++;
+    }
+
+    /**
+     * Removes and returns the key of the next entry whose deadline is less
+     * than the given time, or {@code null} if there is no such entry. The
+     * deadline of the returned entry is available from {@link
+     * #polledDeadline()}.
+     */
+    K poll(long time) {
+        long limit = time ^ Long.MIN_VALUE;
+        while (true) {
+            if (draining != null) {
+                if (drainPosition < draining.size) {
+                    polledDeadline = draining.deadlines[drainPosition] ^ Long.MIN_VALUE;
+                    size--;
+                    return draining.keys[drainPosition++];
+                }
+                recycle(draining);
+                draining = null;
+            }
+            if (overdue.size > 0) {
+                draining = overdue;
+                drainPosition = 0;
+                overdue = newBucket();
+                continue;
+            }
+            int level = 0;
+            while (level < LEVEL_COUNT && occupied[level] == 0) {
+                level++;
+            }
+            if (level == LEVEL_COUNT) {
+                return null;
+            }
+            int slot = Long.numberOfTrailingZeros(occupied[level]);
+            long slotStart = slotStart(level, slot);
+            if (compareUnsigned(slotStart, limit) >= 0) {
+                return null;
+            }
+            Bucket<K> bucket = slots[level][slot];
+            slots[level][slot] = null;
+            occupied[level] &= ~(1L << slot);
+            now = slotStart;
+            if (level == 0) {
+                // all entries in a level-0 slot have the same deadline
+                draining = bucket;
+                drainPosition = 0;
+            } else {
+                for (int i = 0; i < bucket.size; i++) {
+                    place(bucket.keys[i], bucket.deadlines[i]);
+                }
+                recycle(bucket);
+            }
+        }
+    }
+
+    /**
+     * Returns the deadline of the entry last returned from {@link #poll(long)}.
+     */
+    long polledDeadline() {
+        return polledDeadline;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void place(K key, long time) {
+        long diff = time ^ now;
+        int level = diff == 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(diff)) / BITS_PER_LEVEL;
+        int slot = (int) (time >>> (level * BITS_PER_LEVEL)) & SLOT_MASK;
+        Bucket<K> bucket = slots[level][slot];
+        if (bucket == null) {
+            bucket = newBucket();
+            slots[level][slot] = bucket;
+            occupied[level] |= 1L << slot;
+        }
+        bucket.add(key, time);
+    }
+
+    /**
+     * Returns the earliest time an entry in the given slot can have: the
+     * digits above the level are those of the current time, the digit of the
+     * level is the slot and the digits below it are zero.
+     */
+    private long slotStart(int level, int slot) {
+        int shift = level * BITS_PER_LEVEL;
+        int highShift = shift + BITS_PER_LEVEL;
+        long high = highShift >= Long.SIZE ? 0 : now & (-1L << highShift);
+        return high | ((long) slot << shift);
+    }
+
+    private Bucket<K> newBucket() {
+        Bucket<K> bucket = spareBuckets.poll();
+        return bucket != null ? bucket : new Bucket<>();
+    }
+
+    private void recycle(Bucket<K> bucket) {
+        bucket.clear();
+        if (spareBuckets.size() < SLOT_COUNT) {
+            spareBuckets.add(bucket);
+        }
+    }
+
+    private static final class Bucket<K> {
+        private static final int INITIAL_CAPACITY = 8;
+
+        K[] keys = (K[]) new Object[INITIAL_CAPACITY];
+        long[] deadlines = new long[INITIAL_CAPACITY];
+        int size;
+
+        void add(K key, long deadline) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, 2 * size);
+                deadlines = Arrays.copyOf(deadlines, 2 * size);
+            }
+            keys[size] = key;
+            deadlines[size] = deadline;
+            size++;
+        }
+
+        void clear() {
+            Arrays.fill(keys, 0, size, null);
+            size = 0;
+        }
+    }
+}
@@ -51,6 +51,11 @@ public final class SerializerHookConstants {
     public static final int SESSION = -321;
     public static final int HASH_MAP = -322;
     public static final int HASH_SET = -323;
+    public static final int IN_FLIGHT_ITEM_KEY = -324;
+    public static final int SORTED_CHUNK = -325;
+    public static final int HYPER_LOG_LOG_ACC = -326;
+    public static final int QUANTILE_ACC = -327;
+    public static final int FREQUENT_ITEMS_ACC = -328;
 
     // reserved for hadoop module: -380 to -390
 
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.core.Member;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.impl.JetService;
+import com.hazelcast.jet.impl.operation.DeleteSnapshotFilesOperation;
+import com.hazelcast.jet.impl.operation.WriteSnapshotReplicaOperation;
+import com.hazelcast.jet.impl.util.Util.RunnableExc;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.spi.NodeEngine;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.cluster.memberselector.MemberSelectors.DATA_MEMBER_SELECTOR;
+import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
+import static com.hazelcast.jet.impl.util.Util.callbackOf;
+import static com.hazelcast.jet.impl.util.Util.idToString;
+import static com.hazelcast.jet.impl.util.Util.uncheckCall;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Stores the snapshot data in append-only files on the local disk, see
+ * {@link com.hazelcast.jet.config.SnapshotStorage#LOCAL_DISK}.
+ * <p>
+ * Each member writes the data of a vertex to a file named after its UUID
+ * in {@code <tempDir>/jet-snapshots/<memberUuid>/<jobId>/<snapshotId>/<vertex>/}
+ * and sends a copy of each write to its buddy, the next data member in the
+ * member list. The buddy stores the copy in its own directory under the
+ * name of the writing member. On restore, each member reads its own files
+ * and the copies written by the members that are no longer in the cluster.
+ * <p>
+ * The writes are positional and the files are never synced to the disk
+ * with {@code force()}: a write is complete when the data is in the page
+ * cache of the writer and of the buddy. The copy on the buddy is the only
+ * protection against the loss of a member or a crash of its OS. As with IMap storage, the
+ * snapshots don't survive the shutdown of the whole cluster.
+ */
+public class DiskSnapshotStore implements SnapshotStore {
+
+    private static final String IO_EXECUTOR_NAME = "jet:snapshot-io";
+    private static final String FILE_SUFFIX = ".snap";
+
+    private final NodeEngine nodeEngine;
+    private final ILogger logger;
+    private final File baseDir;
+    private final String localUuid;
+
+    public DiskSnapshotStore(NodeEngine nodeEngine, String tempDir) {
+        this.nodeEngine = nodeEngine;
+        this.logger = nodeEngine.getLogger(getClass());
+        this.localUuid = nodeEngine.getLocalMember().getUuid();
+        this.baseDir = new File(new File(tempDir, "jet-snapshots"), localUuid);
+    }
+
+    @Nonnull @Override
+    public SnapshotWriter newWriter(long jobId, @Nonnull String vertexName) {
+        return new DiskSnapshotWriter(this, jobId, vertexName, buddyAddress());
+    }
+
+    @Nonnull @Override
+    public ProcessorMetaSupplier readSnapshotP(
+            long jobId, @Nonnull List<Long> snapshotChain, @Nonnull String vertexName,
+            @Nonnull DistributedFunction<Entry<Object, Object>, ?> projection
+    ) {
+        return ProcessorMetaSupplier.of(new ReadDiskSnapshotP.Supplier(jobId, snapshotChain, vertexName, projection));
+    }
+
+    @Override
+    public void deleteSnapshotData(long jobId, long snapshotId, @Nonnull Collection<String> vertexNames) {
+        List<Future<Object>> futures = new ArrayList<>();
+        for (Member member : nodeEngine.getClusterService().getMembers()) {
+            futures.add(nodeEngine.getOperationService()
+                                  .createInvocationBuilder(JetService.SERVICE_NAME,
+                                          new DeleteSnapshotFilesOperation(jobId, snapshotId), member.getAddress())
+                                  .invoke());
+        }
+        for (Future<Object> future : futures) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                logger.warning("Failed to delete the files of snapshot " + snapshotId + " for job "
+                        + idToString(jobId), e);
+            }
+        }
+        logFine(logger, "Deleted snapshot data for snapshot %d for job %s", snapshotId, idToString(jobId));
+    }
+
+    /**
+     * Deletes the files of this member, including the copies kept for other
+     * members. Called when the member shuts down.
+     */
+    public void shutdown() {
+        IOUtil.delete(baseDir);
+    }
+
+    /**
+     * Writes the data to the file of the local member and to its copy on the
+     * buddy member.
+     */
+    CompletableFuture<Void> writeAsync(
+            long jobId, long snapshotId, String vertexName, long offset, byte[] bytes, @Nullable Address buddy
+    ) {
+        CompletableFuture<Void> localFuture = writeLocalAsync(jobId, snapshotId, vertexName, localUuid, offset, bytes);
+        if (buddy == null) {
+            return localFuture;
+        }
+        CompletableFuture<Void> replicaFuture = new CompletableFuture<>();
+        nodeEngine.getOperationService()
+                  .createInvocationBuilder(JetService.SERVICE_NAME, new WriteSnapshotReplicaOperation(
+                          jobId, snapshotId, vertexName, localUuid, offset, bytes), buddy)
+                  .invoke()
+                  .andThen(callbackOf(r -> replicaFuture.complete(null), replicaFuture::completeExceptionally));
+        return CompletableFuture.allOf(localFuture, replicaFuture);
+    }
+
+    /**
+     * Writes the data at the given offset of the file of the given writer in
+     * the local directory.
+     */
+    public CompletableFuture<Void> writeLocalAsync(
+            long jobId, long snapshotId, String vertexName, String writerUuid, long offset, byte[] bytes
+    ) {
+        File file = snapshotFile(jobId, snapshotId, vertexName, writerUuid);
+        return runAsync(() -> write(file, offset, bytes));
+    }
+
+    /**
+     * Deletes the local files of the given snapshot.
+     */
+    public CompletableFuture<Void> deleteLocalAsync(long jobId, long snapshotId) {
+        File jobDir = new File(baseDir, idToString(jobId));
+        return runAsync(() -> {
+            IOUtil.delete(new File(jobDir, String.valueOf(snapshotId)));
+            // succeeds only if it was the last snapshot of the job
+            jobDir.delete();
+        });
+    }
+
+    /**
+     * Returns the UUIDs of the writers whose files of the given vertex this
+     * member has to restore: its own and those of the members that left the
+     * cluster.
+     */
+    List<String> restorableWriters(long jobId, List<Long> snapshotChain, String vertexName) {
+        Set<String> memberUuids = nodeEngine.getClusterService().getMembers().stream()
+                                            .map(Member::getUuid)
+                                            .collect(toSet());
+        Set<String> writers = new TreeSet<>();
+        for (long snapshotId : snapshotChain) {
+            String[] fileNames = vertexDir(jobId, snapshotId, vertexName).list();
+            if (fileNames == null) {
+                continue;
+            }
+            for (String fileName : fileNames) {
+                if (!fileName.endsWith(FILE_SUFFIX)) {
+                    continue;
+                }
+                String writerUuid = fileName.substring(0, fileName.length() - FILE_SUFFIX.length());
+                if (writerUuid.equals(localUuid) || !memberUuids.contains(writerUuid)) {
+                    writers.add(writerUuid);
+                }
+            }
+        }
+        return new ArrayList<>(writers);
+    }
+
+    File snapshotFile(long jobId, long snapshotId, String vertexName, String writerUuid) {
+        return new File(vertexDir(jobId, snapshotId, vertexName), writerUuid + FILE_SUFFIX);
+    }
+
+    private File vertexDir(long jobId, long snapshotId, String vertexName) {
+        String dirName = uncheckCall(() -> URLEncoder.encode(vertexName, "UTF-8"));
+        return new File(new File(new File(baseDir, idToString(jobId)), String.valueOf(snapshotId)), dirName);
+    }
+
+    @Nullable
+    private Address buddyAddress() {
+        List<Member> members = new ArrayList<>(nodeEngine.getClusterService().getMembers(DATA_MEMBER_SELECTOR));
+        if (members.size() < 2) {
+            return null;
+        }
+        int localIndex = members.indexOf(nodeEngine.getLocalMember());
+        return members.get((localIndex + 1) % members.size()).getAddress();
+    }
+
+    private CompletableFuture<Void> runAsync(RunnableExc action) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        nodeEngine.getExecutionService().execute(IO_EXECUTOR_NAME, () -> {
+            try {
+                action.run();
+                future.complete(null);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    // Deliberately not followed by channel.force(), see the class javadoc
+    private static void write(File file, long offset, byte[] bytes) throws IOException {
+        File dir = file.getParentFile();
+        if (!dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Failed to create directory " + dir);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), CREATE, WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            for (long position = offset; buffer.hasRemaining(); ) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.serialization.Data;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
+
+/**
+ * Buffers the entries in memory and appends them to the snapshot file of
+ * the local member on each flush. The records are {@code [int keyLength]
+ * [key bytes][int valueLength][value bytes]}, the bytes being those of the
+ * serialized {@link Data}.
+ */
+final class DiskSnapshotWriter implements SnapshotWriter {
+
+    private static final int MAX_PENDING_FLUSHES = 2;
+
+    private final DiskSnapshotStore store;
+    private final long jobId;
+    private final String vertexName;
+    private final Address buddy;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DataOutputStream bufferOutput = new DataOutputStream(buffer);
+    private final AtomicInteger numPendingFlushes = new AtomicInteger();
+
+    private long snapshotId;
+    private long fileOffset;
+
+    DiskSnapshotWriter(DiskSnapshotStore store, long jobId, String vertexName, @Nullable Address buddy) {
+        this.store = store;
+        this.jobId = jobId;
+        this.vertexName = vertexName;
+        this.buddy = buddy;
+    }
+
+    @Override
+    public void startSnapshot(long snapshotId) {
+        assert buffer.size() == 0 && numPendingFlushes.get() == 0 : "previous snapshot not flushed";
+        this.snapshotId = snapshotId;
+        this.fileOffset = 0;
+    }
+
+    @Override
+    public void put(Entry<Data, Data> entry) {
+        try {
+            writeData(entry.getKey());
+            writeData(entry.getValue());
+        } catch (IOException e) {
+            throw rethrow(e);
+        }
+    }
+
+    @Override
+    public boolean tryFlushAsync(CompletableFuture<Void> future) {
+        if (buffer.size() == 0) {
+            future.complete(null);
+            return true;
+        }
+        if (numPendingFlushes.get() >= MAX_PENDING_FLUSHES) {
+            return false;
+        }
+        byte[] bytes = buffer.toByteArray();
+        buffer.reset();
+        numPendingFlushes.incrementAndGet();
+        store.writeAsync(jobId, snapshotId, vertexName, fileOffset, bytes, buddy)
+             .whenComplete((r, t) -> {
+                 numPendingFlushes.decrementAndGet();
+                 if (t != null) {
+                     future.completeExceptionally(t);
+                 } else {
+                     future.complete(null);
+                 }
+             });
+        fileOffset += bytes.length;
+        return true;
+    }
+
+    private void writeData(Data data) throws IOException {
+        byte[] bytes = data.toByteArray();
+        bufferOutput.writeInt(bytes.length);
+        bufferOutput.write(bytes);
+    }
+}
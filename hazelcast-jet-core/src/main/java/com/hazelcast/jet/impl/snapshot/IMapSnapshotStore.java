@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.impl.util.AsyncMapWriter;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.NodeEngine;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+
+import static com.hazelcast.jet.core.processor.SourceProcessors.readMapP;
+import static com.hazelcast.jet.impl.SnapshotRepository.snapshotDataMapName;
+import static com.hazelcast.jet.impl.connector.ReadWithPartitionIteratorP.readSnapshotChainP;
+import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
+import static com.hazelcast.jet.impl.util.Util.idToString;
+import static com.hazelcast.query.TruePredicate.truePredicate;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Stores the data of each snapshot and vertex in a separate IMap, see
+ * {@link com.hazelcast.jet.config.SnapshotStorage#IMAP}.
+ */
+public class IMapSnapshotStore implements SnapshotStore {
+
+    private final NodeEngine nodeEngine;
+    private final JetInstance instance;
+    private final ILogger logger;
+
+    public IMapSnapshotStore(NodeEngine nodeEngine, JetInstance instance) {
+        this.nodeEngine = nodeEngine;
+        this.instance = instance;
+        this.logger = nodeEngine.getLogger(getClass());
+    }
+
+    @Nonnull @Override
+    public SnapshotWriter newWriter(long jobId, @Nonnull String vertexName) {
+        AsyncMapWriter mapWriter = new AsyncMapWriter(nodeEngine);
+        return new SnapshotWriter() {
+            @Override
+            public void startSnapshot(long snapshotId) {
+                mapWriter.setMapName(snapshotDataMapName(jobId, snapshotId, vertexName));
+            }
+
+            @Override
+            public void put(Entry<Data, Data> entry) {
+                mapWriter.put(entry);
+            }
+
+            @Override
+            public boolean tryFlushAsync(CompletableFuture<Void> future) {
+                return mapWriter.tryFlushAsync(future);
+            }
+        };
+    }
+
+    @Nonnull @Override
+    public ProcessorMetaSupplier readSnapshotP(
+            long jobId, @Nonnull List<Long> snapshotChain, @Nonnull String vertexName,
+            @Nonnull DistributedFunction<Entry<Object, Object>, ?> projection
+    ) {
+        if (snapshotChain.size() == 1) {
+            return readMapP(snapshotDataMapName(jobId, snapshotChain.get(0), vertexName), truePredicate(),
+                    projection);
+        }
+        List<String> mapNames = snapshotChain.stream()
+                                             .map(id -> snapshotDataMapName(jobId, id, vertexName))
+                                             .collect(toList());
+        return readSnapshotChainP(mapNames, projection);
+    }
+
+    @Override
+    public void deleteSnapshotData(long jobId, long snapshotId, @Nonnull Collection<String> vertexNames) {
+        for (String vertexName : vertexNames) {
+            instance.getMap(snapshotDataMapName(jobId, snapshotId, vertexName)).destroy();
+            logFine(logger, "Deleted snapshot data for snapshot %d for job %s and vertex '%s'",
+                    snapshotId, idToString(jobId), vertexName);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.instance.HazelcastInstanceImpl;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.ProcessorSupplier;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.impl.JetService;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.serialization.SerializationService;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.jet.Traversers.traverseIterator;
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+
+/**
+ * Reads the snapshot files of a vertex written by {@link DiskSnapshotStore}.
+ * Each writer's files are read as a chain, so the newest entry of each key
+ * wins and tombstones are dropped.
+ */
+final class ReadDiskSnapshotP<T> extends AbstractProcessor {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // for each writer, its files in the snapshot chain, newest first
+    private final List<List<File>> writerChains;
+    private final Function<Entry<Object, Object>, T> projection;
+    private final SerializationService serializationService;
+    private Traverser<T> traverser;
+
+    private ReadDiskSnapshotP(List<List<File>> writerChains, Function<Entry<Object, Object>, T> projection,
+                              SerializationService serializationService) {
+        this.writerChains = writerChains;
+        this.projection = projection;
+        this.serializationService = serializationService;
+    }
+
+    @Override
+    public boolean complete() {
+        if (traverser == null) {
+            traverser = traverseIterable(writerChains).flatMap(chain -> traverseIterator(
+                    new SnapshotChainIterator<>(chain.stream()
+                                                     .map(file -> (Iterator<Entry<Object, Object>>)
+                                                             new FileIterator(file))
+                                                     .iterator(), projection)));
+        }
+        return emitFromTraverser(traverser);
+    }
+
+    @Override
+    public boolean isCooperative() {
+        return false;
+    }
+
+    /**
+     * Reads the entries of a snapshot file sequentially. The file is opened
+     * on the first call to {@code hasNext()}, a missing file is empty.
+     */
+    private final class FileIterator implements Iterator<Entry<Object, Object>> {
+        private final File file;
+        private DataInputStream in;
+        private Entry<Object, Object> next;
+        private boolean done;
+
+        FileIterator(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null || done) {
+                return next != null;
+            }
+            try {
+                if (in == null) {
+                    if (!file.exists()) {
+                        done = true;
+                        return false;
+                    }
+                    in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+                }
+                int keyLength;
+                try {
+                    keyLength = in.readInt();
+                } catch (EOFException e) {
+                    in.close();
+                    done = true;
+                    return false;
+                }
+                Object key = readObject(keyLength);
+                Object value = readObject(in.readInt());
+                next = entry(key, value);
+                return true;
+            } catch (IOException e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        public Entry<Object, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<Object, Object> result = next;
+            next = null;
+            return result;
+        }
+
+        private Object readObject(int length) throws IOException {
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return serializationService.toObject(new HeapData(bytes));
+        }
+    }
+
+    static final class Supplier implements ProcessorSupplier {
+
+        static final long serialVersionUID = 1L;
+
+        private final long jobId;
+        private final List<Long> snapshotChain;
+        private final String vertexName;
+        private final DistributedFunction<Entry<Object, Object>, ?> projection;
+
+        private transient NodeEngine nodeEngine;
+        private transient DiskSnapshotStore store;
+        private transient List<String> writers;
+
+        Supplier(long jobId, List<Long> snapshotChain, String vertexName,
+                 DistributedFunction<Entry<Object, Object>, ?> projection) {
+            this.jobId = jobId;
+            this.snapshotChain = new ArrayList<>(snapshotChain);
+            this.vertexName = vertexName;
+            this.projection = projection;
+        }
+
+        @Override
+        public void init(@Nonnull Context context) {
+            nodeEngine = ((HazelcastInstanceImpl) context.jetInstance().getHazelcastInstance()).node.nodeEngine;
+            store = (DiskSnapshotStore) nodeEngine.<JetService>getService(JetService.SERVICE_NAME).getSnapshotStore();
+            writers = store.restorableWriters(jobId, snapshotChain, vertexName);
+        }
+
+        @Nonnull @Override
+        public Collection<? extends Processor> get(int count) {
+            return range(0, count)
+                    .mapToObj(i -> new ReadDiskSnapshotP<>(
+                            range(0, writers.size())
+                                    .filter(j -> j % count == i)
+                                    .mapToObj(j -> writerChain(writers.get(j)))
+                                    .collect(toList()),
+                            projection, nodeEngine.getSerializationService()))
+                    .collect(toList());
+        }
+
+        private List<File> writerChain(String writerUuid) {
+            return snapshotChain.stream()
+                                .map(snapshotId -> store.snapshotFile(jobId, snapshotId, vertexName, writerUuid))
+                                .collect(toList());
+        }
+    }
+}
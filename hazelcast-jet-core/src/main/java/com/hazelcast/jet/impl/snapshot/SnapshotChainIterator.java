@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.jet.impl.execution.SnapshotTombstone;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Iterates the entries of a chain of snapshots, given as one iterator per
+ * snapshot, newest first. Only the newest entry of each key is returned
+ * and keys whose newest entry is a {@link SnapshotTombstone} are skipped.
+ * Keys are compared using their {@code equals()} method.
+ */
+public final class SnapshotChainIterator<T> implements Iterator<T> {
+
+    private final Iterator<Iterator<Entry<Object, Object>>> snapshotIterators;
+    private final Function<Entry<Object, Object>, T> projection;
+    private final Set<Object> seenKeys = new HashSet<>();
+
+    private Iterator<Entry<Object, Object>> currIterator = Collections.emptyIterator();
+    private T next;
+
+    public SnapshotChainIterator(Iterator<Iterator<Entry<Object, Object>>> snapshotIterators,
+                                 Function<Entry<Object, Object>, T> projection) {
+        this.snapshotIterators = snapshotIterators;
+        this.projection = projection;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            if (currIterator.hasNext()) {
+                Entry<Object, Object> entry = currIterator.next();
+                // no newer snapshot contains the key, if it's not in seenKeys. We don't
+                // have to remember the keys of the oldest one, there's no snapshot after it.
+                boolean isNewest = snapshotIterators.hasNext()
+                        ? seenKeys.add(entry.getKey())
+                        : !seenKeys.contains(entry.getKey());
+                if (isNewest && entry.getValue() != SnapshotTombstone.TOMBSTONE) {
+                    next = projection.apply(entry);
+                }
+            } else if (snapshotIterators.hasNext()) {
+                currIterator = snapshotIterators.next();
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T result = next;
+        next = null;
+        return result;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.jet.config.SnapshotStorage;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.function.DistributedFunction;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+
+/**
+ * Stores the data of the snapshots and reads it back on restore. There is
+ * one implementation for each {@link SnapshotStorage}. The snapshot
+ * records are kept by {@link com.hazelcast.jet.impl.SnapshotRepository}
+ * regardless of the storage.
+ */
+public interface SnapshotStore {
+
+    /**
+     * Returns a writer that the {@link
+     * com.hazelcast.jet.impl.execution.StoreSnapshotTasklet} of the given
+     * vertex uses on this member.
+     */
+    @Nonnull
+    SnapshotWriter newWriter(long jobId, @Nonnull String vertexName);
+
+    /**
+     * Returns the source of the vertex that restores the state of the given
+     * vertex. It emits the newest entry of each key in the snapshot chain,
+     * except for tombstones, mapped with the projection.
+     *
+     * @param snapshotChain IDs of the snapshots to restore, newest first,
+     *                      the last one is a full snapshot
+     */
+    @Nonnull
+    ProcessorMetaSupplier readSnapshotP(
+            long jobId, @Nonnull List<Long> snapshotChain, @Nonnull String vertexName,
+            @Nonnull DistributedFunction<Entry<Object, Object>, ?> projection);
+
+    /**
+     * Deletes the data of the given snapshot. Called on the coordinator.
+     */
+    void deleteSnapshotData(long jobId, long snapshotId, @Nonnull Collection<String> vertexNames);
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes the snapshot data of one vertex on one member. It's used from a
+ * cooperative tasklet, so no method may block.
+ */
+public interface SnapshotWriter {
+
+    /**
+     * Directs the subsequent entries to the given snapshot. Called before
+     * the first entry and after the previous snapshot was fully flushed.
+     */
+    void startSnapshot(long snapshotId);
+
+    /**
+     * Buffers an entry to be written with the next flush.
+     */
+    void put(Entry<Data, Data> entry);
+
+    /**
+     * Tries to start writing the buffered entries. Returns {@code false} if
+     * the writer can't take more data now and the call must be retried. If
+     * it returns {@code true}, the given future is completed when the data is
+     * stored.
+     */
+    boolean tryFlushAsync(CompletableFuture<Void> future);
+}
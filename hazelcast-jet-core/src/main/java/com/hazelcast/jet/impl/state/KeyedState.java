@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.state;
+
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.config.StateBackend;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.impl.execution.init.Contexts.ProcCtx;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.util.Map.Entry;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Keyed accumulators of an aggregating processor, kept according to the
+ * job's {@link StateBackend}.
+ *
+ * @param <K> type of the grouping key
+ * @param <A> type of the accumulator
+ */
+public interface KeyedState<K, A> {
+
+    /**
+     * Applies the {@code accumulateFn} to the accumulator of the given key
+     * and the item. Creates the accumulator first, if it's absent.
+     */
+    <T> void accumulate(@Nonnull K key, @Nonnull T item,
+                        @Nonnull BiConsumer<? super A, ? super T> accumulateFn);
+
+    /**
+     * Returns the number of keys.
+     */
+    int size();
+
+    /**
+     * Returns a traverser over the keys and their accumulators. The state
+     * must not be modified while the traverser is in use.
+     */
+    @Nonnull
+    Traverser<Entry<K, A>> traverser();
+
+    /**
+     * Releases the resources held by the state. It must not be used
+     * afterwards. Calling it again has no effect.
+     */
+    void dispose();
+
+    /**
+     * Creates the keyed state for the processor with the given context
+     * according to the {@link StateBackend} of the job.
+     *
+     * @param createFn creates a new accumulator
+     */
+    @Nonnull
+    static <K, A> KeyedState<K, A> create(@Nonnull Processor.Context context, @Nonnull Supplier<A> createFn) {
+        // other contexts, such as the one used in tests, have no state backend
+        if (!(context instanceof ProcCtx)) {
+            return new OnHeapKeyedState<>(createFn);
+        }
+        ProcCtx ctx = (ProcCtx) context;
+        KeyedState<K, A> state;
+        switch (ctx.stateBackend()) {
+            case OFF_HEAP:
+                state = new OffHeapKeyedState<>(ctx.getSerializationService(), createFn, null);
+                break;
+            case OFF_HEAP_MAPPED:
+                File tempDir = new File(ctx.jetInstance().getConfig().getInstanceConfig().getTempDir());
+                state = new OffHeapKeyedState<>(ctx.getSerializationService(), createFn, tempDir);
+                break;
+            default:
+                state = new OnHeapKeyedState<>(createFn);
+        }
+        // the processor disposes the state when it completes, the context
+        // disposes it also if the execution fails or is cancelled
+        ctx.addDisposeAction(state::dispose);
+        return state;
+    }
+}
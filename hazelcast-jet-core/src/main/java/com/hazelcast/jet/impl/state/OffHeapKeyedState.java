@@ -0,0 +1,428 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.state;
+
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.accumulator.DoubleAccumulator;
+import com.hazelcast.jet.accumulator.LongAccumulator;
+import com.hazelcast.jet.accumulator.LongLongAccumulator;
+import com.hazelcast.nio.Bits;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.serialization.SerializationService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * {@link KeyedState} which keeps the serialized keys and accumulators in
+ * byte buffers outside the Java heap. The buffers are either direct or
+ * mapped to a temporary file, which lets the operating system page them
+ * out to disk.
+ * <p>
+ * The buffers are allocated in chunks of growing size and the records are
+ * appended to them. Each record has the layout {@code [keyLength
+ * accCapacity accLength key acc]}. On the heap there is only an
+ * open-addressing index of primitive arrays mapping the key hashes to the
+ * record addresses, so the state adds no objects for the GC to trace.
+ * <p>
+ * The accumulators of the {@code LongAccumulator}, {@code
+ * DoubleAccumulator} and {@code LongLongAccumulator} types are read and
+ * updated in place through a single reused instance. Other accumulators
+ * are deserialized, updated and serialized back. If an accumulator
+ * outgrows its record, the record is copied to a new location with twice
+ * the capacity and the old one is abandoned.
+ */
+public class OffHeapKeyedState<K, A> implements KeyedState<K, A> {
+
+    private static final int INITIAL_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CHUNK_SIZE = 1 << 26;
+    private static final int INITIAL_INDEX_CAPACITY = 1 << 10;
+    private static final int RECORD_HEADER_SIZE = 3 * Bits.INT_SIZE_IN_BYTES;
+    private static final long NO_RECORD = -1;
+    private static final int HASH_MIX = 0x9E3779B9;
+    private static final int CHUNK_INDEX_SHIFT = 32;
+    private static final long OFFSET_MASK = 0xFFFFFFFFL;
+
+    private static final FixedSizeCodec<LongAccumulator> LONG_ACC_CODEC = new FixedSizeCodec<LongAccumulator>() {
+        @Override
+        public int size() {
+            return Bits.LONG_SIZE_IN_BYTES;
+        }
+
+        @Override
+        public void read(ByteBuffer buf, int pos, LongAccumulator acc) {
+            acc.set(buf.getLong(pos));
+        }
+
+        @Override
+        public void write(ByteBuffer buf, int pos, LongAccumulator acc) {
+            buf.putLong(pos, acc.get());
+        }
+    };
+
+    private static final FixedSizeCodec<DoubleAccumulator> DOUBLE_ACC_CODEC = new FixedSizeCodec<DoubleAccumulator>() {
+        @Override
+        public int size() {
+            return Bits.DOUBLE_SIZE_IN_BYTES;
+        }
+
+        @Override
+        public void read(ByteBuffer buf, int pos, DoubleAccumulator acc) {
+            acc.set(buf.getDouble(pos));
+        }
+
+        @Override
+        public void write(ByteBuffer buf, int pos, DoubleAccumulator acc) {
+            buf.putDouble(pos, acc.get());
+        }
+    };
+
+    private static final FixedSizeCodec<LongLongAccumulator> LONG_LONG_ACC_CODEC =
+            new FixedSizeCodec<LongLongAccumulator>() {
+                @Override
+                public int size() {
+                    return 2 * Bits.LONG_SIZE_IN_BYTES;
+                }
+
+                @Override
+                public void read(ByteBuffer buf, int pos, LongLongAccumulator acc) {
+                    acc.setValue1(buf.getLong(pos));
+                    acc.setValue2(buf.getLong(pos + Bits.LONG_SIZE_IN_BYTES));
+                }
+
+                @Override
+                public void write(ByteBuffer buf, int pos, LongLongAccumulator acc) {
+                    buf.putLong(pos, acc.getValue1());
+                    buf.putLong(pos + Bits.LONG_SIZE_IN_BYTES, acc.getValue2());
+                }
+            };
+
+    private final SerializationService serializationService;
+    private final Supplier<A> createFn;
+    private final FixedSizeCodec<A> fixedSizeCodec;
+    private final A reusedAcc;
+    private final File file;
+    private final FileChannel channel;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer currChunk;
+    private long fileLength;
+
+    // the index, uses linear probing
+    private long[] addresses;
+    private int[] hashes;
+    private int size;
+
+    /**
+     * @param tempDir if not null, the buffers are mapped to a file created in
+     *                this directory, otherwise direct buffers are used
+     */
+    public OffHeapKeyedState(@Nonnull SerializationService serializationService,
+                             @Nonnull Supplier<A> createFn,
+                             @Nullable File tempDir) {
+        this.serializationService = serializationService;
+        this.createFn = createFn;
+        this.reusedAcc = createFn.get();
+        this.fixedSizeCodec = fixedSizeCodec(reusedAcc);
+        if (tempDir != null) {
+            try {
+                Files.createDirectories(tempDir.toPath());
+                file = File.createTempFile("jet-state-", ".bin", tempDir);
+                channel = FileChannel.open(file.toPath(), READ, WRITE);
+            } catch (IOException e) {
+                throw rethrow(e);
+            }
+        } else {
+            file = null;
+            channel = null;
+        }
+        addresses = new long[INITIAL_INDEX_CAPACITY];
+        hashes = new int[INITIAL_INDEX_CAPACITY];
+        Arrays.fill(addresses, NO_RECORD);
+    }
+
+    @Override
+    public <T> void accumulate(@Nonnull K key, @Nonnull T item,
+                               @Nonnull BiConsumer<? super A, ? super T> accumulateFn) {
+        Data keyData = serializationService.toData(key);
+        byte[] keyBytes = keyData.toByteArray();
+        int hash = keyData.hashCode();
+        int slot = findSlot(keyBytes, hash);
+        long address = addresses[slot];
+        if (address == NO_RECORD) {
+            A acc = createFn.get();
+            accumulateFn.accept(acc, item);
+            addresses[slot] = writeNewRecord(keyBytes, acc);
+            hashes[slot] = hash;
+            if (++size > addresses.length >> 1) {
+                growIndex();
+            }
+            return;
+        }
+        ByteBuffer chunk = chunk(address);
+        int offset = offset(address);
+        int accPos = offset + RECORD_HEADER_SIZE + keyBytes.length;
+        if (fixedSizeCodec != null) {
+            fixedSizeCodec.read(chunk, accPos, reusedAcc);
+            accumulateFn.accept(reusedAcc, item);
+            fixedSizeCodec.write(chunk, accPos, reusedAcc);
+            return;
+        }
+        A acc = readAcc(chunk, offset);
+        accumulateFn.accept(acc, item);
+        byte[] accBytes = serializationService.toData(acc).toByteArray();
+        int accCapacity = chunk.getInt(offset + Bits.INT_SIZE_IN_BYTES);
+        if (accBytes.length <= accCapacity) {
+            chunk.putInt(offset + 2 * Bits.INT_SIZE_IN_BYTES, accBytes.length);
+            put(chunk, accPos, accBytes);
+        } else {
+            addresses[slot] = writeRecord(keyBytes, accBytes, 2 * accBytes.length);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Nonnull @Override
+    public Traverser<Entry<K, A>> traverser() {
+        return new Traverser<Entry<K, A>>() {
+            private int slot;
+
+            @Override
+            public Entry<K, A> next() {
+                for (; slot < addresses.length; slot++) {
+                    long address = addresses[slot];
+                    if (address != NO_RECORD) {
+                        slot++;
+                        return readEntry(address);
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    @Override
+    public void dispose() {
+        chunks.clear();
+        currChunk = null;
+        addresses = new long[0];
+        hashes = new int[0];
+        size = 0;
+        if (channel != null) {
+            IOUtil.closeResource(channel);
+            IOUtil.deleteQuietly(file);
+        }
+    }
+
+    private int findSlot(byte[] keyBytes, int hash) {
+        int mask = addresses.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            long address = addresses[slot];
+            if (address == NO_RECORD || hashes[slot] == hash && keyEquals(address, keyBytes)) {
+                return slot;
+            }
+        }
+    }
+
+    private void growIndex() {
+        long[] oldAddresses = addresses;
+        int[] oldHashes = hashes;
+        addresses = new long[oldAddresses.length << 1];
+        hashes = new int[oldHashes.length << 1];
+        Arrays.fill(addresses, NO_RECORD);
+        int mask = addresses.length - 1;
+        for (int i = 0; i < oldAddresses.length; i++) {
+            if (oldAddresses[i] == NO_RECORD) {
+                continue;
+            }
+            int slot = mix(oldHashes[i]) & mask;
+            while (addresses[slot] != NO_RECORD) {
+                slot = (slot + 1) & mask;
+            }
+            addresses[slot] = oldAddresses[i];
+            hashes[slot] = oldHashes[i];
+        }
+    }
+
+    private boolean keyEquals(long address, byte[] keyBytes) {
+        ByteBuffer chunk = chunk(address);
+        int offset = offset(address);
+        if (chunk.getInt(offset) != keyBytes.length) {
+            return false;
+        }
+        int keyPos = offset + RECORD_HEADER_SIZE;
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (chunk.get(keyPos + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long writeNewRecord(byte[] keyBytes, A acc) {
+        if (fixedSizeCodec == null) {
+            byte[] accBytes = serializationService.toData(acc).toByteArray();
+            return writeRecord(keyBytes, accBytes, accBytes.length);
+        }
+        int accSize = fixedSizeCodec.size();
+        long address = allocate(RECORD_HEADER_SIZE + keyBytes.length + accSize);
+        ByteBuffer chunk = chunk(address);
+        int offset = offset(address);
+        writeHeader(chunk, offset, keyBytes, accSize, accSize);
+        fixedSizeCodec.write(chunk, offset + RECORD_HEADER_SIZE + keyBytes.length, acc);
+        return address;
+    }
+
+    private long writeRecord(byte[] keyBytes, byte[] accBytes, int accCapacity) {
+        long address = allocate(RECORD_HEADER_SIZE + keyBytes.length + accCapacity);
+        ByteBuffer chunk = chunk(address);
+        int offset = offset(address);
+        writeHeader(chunk, offset, keyBytes, accCapacity, accBytes.length);
+        put(chunk, offset + RECORD_HEADER_SIZE + keyBytes.length, accBytes);
+        return address;
+    }
+
+    private static void writeHeader(ByteBuffer chunk, int offset, byte[] keyBytes, int accCapacity, int accLength) {
+        chunk.putInt(offset, keyBytes.length);
+        chunk.putInt(offset + Bits.INT_SIZE_IN_BYTES, accCapacity);
+        chunk.putInt(offset + 2 * Bits.INT_SIZE_IN_BYTES, accLength);
+        put(chunk, offset + RECORD_HEADER_SIZE, keyBytes);
+    }
+
+    private Entry<K, A> readEntry(long address) {
+        ByteBuffer chunk = chunk(address);
+        int offset = offset(address);
+        int keyLength = chunk.getInt(offset);
+        K key = serializationService.toObject(new HeapData(get(chunk, offset + RECORD_HEADER_SIZE, keyLength)));
+        A acc;
+        if (fixedSizeCodec != null) {
+            acc = createFn.get();
+            fixedSizeCodec.read(chunk, offset + RECORD_HEADER_SIZE + keyLength, acc);
+        } else {
+            acc = readAcc(chunk, offset);
+        }
+        return entry(key, acc);
+    }
+
+    private A readAcc(ByteBuffer chunk, int offset) {
+        int keyLength = chunk.getInt(offset);
+        int accLength = chunk.getInt(offset + 2 * Bits.INT_SIZE_IN_BYTES);
+        byte[] accBytes = get(chunk, offset + RECORD_HEADER_SIZE + keyLength, accLength);
+        return serializationService.toObject(new HeapData(accBytes));
+    }
+
+    private long allocate(int recordSize) {
+        if (currChunk == null || currChunk.remaining() < recordSize) {
+            int chunkSize = currChunk == null
+                    ? INITIAL_CHUNK_SIZE
+                    : Math.min(currChunk.capacity() << 1, MAX_CHUNK_SIZE);
+            currChunk = newChunk(Math.max(chunkSize, recordSize));
+            chunks.add(currChunk);
+        }
+        int offset = currChunk.position();
+        currChunk.position(offset + recordSize);
+        return (long) (chunks.size() - 1) << CHUNK_INDEX_SHIFT | offset;
+    }
+
+    private ByteBuffer newChunk(int chunkSize) {
+        if (channel == null) {
+            return ByteBuffer.allocateDirect(chunkSize);
+        }
+        try {
+            ByteBuffer chunk = channel.map(READ_WRITE, fileLength, chunkSize);
+            fileLength += chunkSize;
+            return chunk;
+        } catch (IOException e) {
+            throw rethrow(e);
+        }
+    }
+
+    private ByteBuffer chunk(long address) {
+        return chunks.get((int) (address >>> CHUNK_INDEX_SHIFT));
+    }
+
+    private static int offset(long address) {
+        return (int) (address & OFFSET_MASK);
+    }
+
+    private static int mix(int hash) {
+        int h = hash * HASH_MIX;
+        return h ^ (h >>> 16);
+    }
+
+    private static void put(ByteBuffer chunk, int pos, byte[] bytes) {
+        ByteBuffer dup = chunk.duplicate();
+        dup.position(pos);
+        dup.put(bytes);
+    }
+
+    private static byte[] get(ByteBuffer chunk, int pos, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer dup = chunk.duplicate();
+        dup.position(pos);
+        dup.get(bytes);
+        return bytes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> FixedSizeCodec<A> fixedSizeCodec(A acc) {
+        Class<?> accClass = acc.getClass();
+        if (accClass == LongAccumulator.class) {
+            return (FixedSizeCodec<A>) LONG_ACC_CODEC;
+        }
+        if (accClass == DoubleAccumulator.class) {
+            return (FixedSizeCodec<A>) DOUBLE_ACC_CODEC;
+        }
+        if (accClass == LongLongAccumulator.class) {
+            return (FixedSizeCodec<A>) LONG_LONG_ACC_CODEC;
+        }
+        return null;
+    }
+
+    /**
+     * Reads and writes an accumulator of a fixed size in place.
+     */
+    private interface FixedSizeCodec<A> {
+        int size();
+
+        void read(ByteBuffer buf, int pos, A acc);
+
+        void write(ByteBuffer buf, int pos, A acc);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.state;
+
+import com.hazelcast.jet.Traverser;
+
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.jet.Util.entry;
+
+/**
+ * {@link KeyedState} backed by a {@link HashMap}.
+ */
+public class OnHeapKeyedState<K, A> implements KeyedState<K, A> {
+
+    private final Map<K, A> keyToAcc = new HashMap<>();
+    private final Supplier<A> createFn;
+
+    public OnHeapKeyedState(@Nonnull Supplier<A> createFn) {
+        this.createFn = createFn;
+    }
+
+    @Override
+    public <T> void accumulate(@Nonnull K key, @Nonnull T item,
+                               @Nonnull BiConsumer<? super A, ? super T> accumulateFn) {
+        A acc = keyToAcc.computeIfAbsent(key, k -> createFn.get());
+        accumulateFn.accept(acc, item);
+    }
+
+    @Override
+    public int size() {
+        return keyToAcc.size();
+    }
+
+    @Nonnull @Override
+    public Traverser<Entry<K, A>> traverser() {
+        return traverseIterable(keyToAcc.entrySet())
+                .map(e -> entry(e.getKey(), e.getValue()));
+    }
+
+    @Override
+    public void dispose() {
+        keyToAcc.clear();
+    }
+}
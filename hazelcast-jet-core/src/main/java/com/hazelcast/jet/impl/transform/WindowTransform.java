@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.transform;
+
+import com.hazelcast.jet.aggregate.AggregateOperation1;
+import com.hazelcast.jet.core.WindowDefinition;
+import com.hazelcast.jet.datamodel.TimestampedEntry;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.function.DistributedToLongFunction;
+
+public class WindowTransform<E, K, A, R> implements UnaryTransform<E, TimestampedEntry<K, R>> {
+    private final WindowDefinition wDef;
+    private final DistributedToLongFunction<? super E> timestampFn;
+    private final DistributedFunction<? super E, ? extends K> keyFn;
+    private final AggregateOperation1<? super E, A, R> aggrOp;
+
+    public WindowTransform(WindowDefinition wDef,
+                           DistributedToLongFunction<? super E> timestampFn,
+                           DistributedFunction<? super E, ? extends K> keyFn,
+                           AggregateOperation1<? super E, A, R> aggrOp
+    ) {
+        this.wDef = wDef;
+        this.timestampFn = timestampFn;
+        this.keyFn = keyFn;
+        this.aggrOp = aggrOp;
+    }
+
+    @Override
+    public String toString() {
+        return "Window";
+    }
+
+    @Override
+    public String name() {
+        return wDef.isTumbling() ? "tumblingWindow" : "slidingWindow";
+    }
+
+    public WindowDefinition windowDefinition() {
+        return wDef;
+    }
+
+    public DistributedToLongFunction<? super E> timestampFn() {
+        return timestampFn;
+    }
+
+    public DistributedFunction<? super E, ? extends K> keyFn() {
+        return keyFn;
+    }
+
+    public AggregateOperation1<? super E, A, R> aggregateOperation() {
+        return aggrOp;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import javax.annotation.Nonnull;
+import java.util.function.BiConsumer;
+
+import static com.hazelcast.util.Preconditions.checkNotNull;
+
+/**
+ * Insert-only open-addressing hash table which stores keys and values
+ * interleaved in a single array. Compared to a {@code HashMap} it doesn't
+ * allocate an entry object per mapping, which roughly halves the memory
+ * overhead of a large table, and a successful lookup usually touches a
+ * single cache line.
+ * <p>
+ * The table is meant to be built by one thread and then published to
+ * any number of reader threads through a happens-before edge (such as a
+ * concurrent queue). Once published it must not be modified. {@code null}
+ * keys are supported, {@code null} values are not.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class FlatHashTable<K, V> {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final Object NULL_KEY = new Object();
+
+    // keys at even indices, values at odd indices; a null key slot is empty
+    private Object[] slots;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public FlatHashTable() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Returns the value mapped to the given key or {@code null}, if there's
+     * no such mapping.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        Object k = maskNull(key);
+        for (int i = slot(k); slots[i] != null; i = (i + 2) & mask) {
+            if (slots[i].equals(k)) {
+                return (V) slots[i + 1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Maps the key to the given value and returns the previous value or
+     * {@code null}, if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(K key, @Nonnull V value) {
+        checkNotNull(value, "value");
+        Object k = maskNull(key);
+        int i = slot(k);
+        for (; slots[i] != null; i = (i + 2) & mask) {
+            if (slots[i].equals(k)) {
+                V prev = (V) slots[i + 1];
+                slots[i + 1] = value;
+                return prev;
+            }
+        }
+        slots[i] = k;
+        slots[i + 1] = value;
+        if (++size > resizeThreshold) {
+            resize(slots.length);
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calls the action for each mapping in the table, in no particular order.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(@Nonnull BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < slots.length; i += 2) {
+            if (slots[i] != null) {
+                action.accept(slots[i] == NULL_KEY ? null : (K) slots[i], (V) slots[i + 1]);
+            }
+        }
+    }
+
+    private static Object maskNull(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    private int slot(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) << 1 & mask;
+    }
+
+    private void resize(int newCapacity) {
+        Object[] oldSlots = slots;
+        allocate(newCapacity);
+        for (int i = 0; i < oldSlots.length; i += 2) {
+            if (oldSlots[i] != null) {
+                int j = slot(oldSlots[i]);
+                while (slots[j] != null) {
+                    j = (j + 2) & mask;
+                }
+                slots[j] = oldSlots[i];
+                slots[j + 1] = oldSlots[i + 1];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = new Object[capacity << 1];
+        // mask selects even indices only
+        mask = slots.length - 2;
+        resizeThreshold = capacity / 2;
+    }
+}
@@ -29,6 +29,13 @@ public final class JetGroupProperty {
     public static final HazelcastProperty JOB_SCAN_PERIOD
             = new HazelcastProperty("jet.job.scan.period", SECONDS.toMillis(5), MILLISECONDS);
 
+    /**
+     * The maximum number of items a processor of {@code DistributedStream.sorted()}
+     * keeps in memory before it spills them to disk.
+     */
+    public static final HazelcastProperty SORT_MAX_BUFFERED_ITEMS
+            = new HazelcastProperty("jet.sort.max.buffered.items", 1 << 20);
+
     private JetGroupProperty() {
     }
 
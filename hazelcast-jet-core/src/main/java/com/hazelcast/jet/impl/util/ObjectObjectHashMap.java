@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.util.Preconditions.checkNotNull;
+
+/**
+ * Open-addressing hash map with object keys, the counterpart of {@link
+ * LongObjectHashMap}. Unlike a {@code HashMap} it doesn't allocate an entry
+ * object per mapping, and {@link #clear()} keeps the grown table so the map
+ * can be reused without allocating. {@code null} keys are supported, {@code
+ * null} values are not.
+ * <p>
+ * The entries returned by {@link #entrySet()} are created on the fly and
+ * are immutable; its iterator doesn't support removal.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class ObjectObjectHashMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final Object NULL_KEY = new Object();
+
+    // a null value marks an empty slot
+    private Object[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+    private final EntrySet entrySet = new EntrySet();
+
+    public ObjectObjectHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        Object k = maskNull(key);
+        for (int i = slot(k); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(k)) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, @Nonnull V value) {
+        checkNotNull(value, "value");
+        Object k = maskNull(key);
+        int i = slot(k);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(k)) {
+                V prev = (V) values[i];
+                values[i] = value;
+                return prev;
+            }
+        }
+        keys[i] = k;
+        values[i] = value;
+        if (++size > resizeThreshold) {
+            resize(values.length << 1);
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        Object k = maskNull(key);
+        for (int i = slot(k); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(k)) {
+                V prev = (V) values[i];
+                keys[i] = null;
+                values[i] = null;
+                size--;
+                compactChainFrom(i);
+                return prev;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the mappings, keeping the capacity of the table.
+     */
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, null);
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Calls the action for each mapping, in no particular order, without
+     * creating the entry objects.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(@Nonnull BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                action.accept(unmaskNull(keys[i]), (V) values[i]);
+            }
+        }
+    }
+
+    @Nonnull @Override
+    public Set<Entry<K, V>> entrySet() {
+        return entrySet;
+    }
+
+    private static Object maskNull(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K unmaskNull(Object key) {
+        return key == NULL_KEY ? null : (K) key;
+    }
+
+    private int slot(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Re-inserts the entries following the freed slot so that no lookup
+     * chain is broken by the hole (backward-shift deletion).
+     */
+    private void compactChainFrom(int freedSlot) {
+        int hole = freedSlot;
+        for (int i = (freedSlot + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            int home = slot(keys[i]);
+            // move the entry into the hole if the hole lies cyclically
+            // between the entry's home slot and its current slot
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                keys[i] = null;
+                values[i] = null;
+                hole = i;
+            }
+        }
+    }
+
+    private void resize(int newCapacity) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int j = slot(oldKeys[i]);
+                while (values[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = capacity / 2;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Nonnull @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new Iterator<Entry<K, V>>() {
+                private int nextSlot = advance(0);
+
+                @Override
+                public boolean hasNext() {
+                    return nextSlot < values.length;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public Entry<K, V> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Entry<K, V> e = entry(unmaskNull(keys[nextSlot]), (V) values[nextSlot]);
+                    nextSlot = advance(nextSlot + 1);
+                    return e;
+                }
+
+                private int advance(int slot) {
+                    while (slot < values.length && values[slot] == null) {
+                        slot++;
+                    }
+                    return slot;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            ObjectObjectHashMap.this.clear();
+        }
+    }
+}
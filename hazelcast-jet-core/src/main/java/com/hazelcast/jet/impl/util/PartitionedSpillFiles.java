@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.nio.BufferObjectDataInput;
+import com.hazelcast.nio.BufferObjectDataOutput;
+import com.hazelcast.spi.NodeEngine;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
+import static com.hazelcast.jet.impl.util.Util.createObjectDataInput;
+import static com.hazelcast.jet.impl.util.Util.createObjectDataOutput;
+
+/**
+ * A set of append-only files on local disk, one per partition, holding
+ * records made of a fixed number of objects. Used to spill data that
+ * doesn't fit in memory. The objects are written using Hazelcast
+ * serialization.
+ * <p>
+ * Writing isn't thread-safe. After {@link #finishWriting()} is called,
+ * the partitions can be read concurrently by any number of readers.
+ */
+public class PartitionedSpillFiles {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final File dir;
+    private final String name;
+    private final int arity;
+    private final NodeEngine nodeEngine;
+    private final DataOutputStream[] outputs;
+    private final BufferObjectDataOutput recordOutput;
+    private boolean writingFinished;
+
+    /**
+     * @param dir the directory to create the files in, created if missing
+     * @param name prefix of the file names, must be unique in the directory
+     * @param partitionCount number of partitions
+     * @param arity number of objects in each record
+     */
+    public PartitionedSpillFiles(@Nonnull File dir, @Nonnull String name, int partitionCount, int arity,
+                                 @Nonnull NodeEngine nodeEngine) {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new JetException("Failed to create directory " + dir);
+        }
+        this.dir = dir;
+        this.name = name;
+        this.arity = arity;
+        this.nodeEngine = nodeEngine;
+        this.outputs = new DataOutputStream[partitionCount];
+        this.recordOutput = createObjectDataOutput(nodeEngine);
+    }
+
+    /**
+     * Returns the partition the given key belongs to.
+     */
+    public static int partitionOf(Object key, int partitionCount) {
+        if (key == null) {
+            return 0;
+        }
+        int h = key.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), partitionCount);
+    }
+
+    public File dir() {
+        return dir;
+    }
+
+    public NodeEngine nodeEngine() {
+        return nodeEngine;
+    }
+
+    public int partitionCount() {
+        return outputs.length;
+    }
+
+    /**
+     * Appends the record to the file of the given partition.
+     */
+    public void write(int partition, @Nonnull Object... record) {
+        assert !writingFinished : "writing already finished";
+        assert record.length == arity : "record.length=" + record.length + ", arity=" + arity;
+        try {
+            recordOutput.clear();
+            for (Object o : record) {
+                recordOutput.writeObject(o);
+            }
+            DataOutputStream out = outputs[partition];
+            if (out == null) {
+                out = outputs[partition] = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(file(partition)), BUFFER_SIZE));
+            }
+            byte[] bytes = recordOutput.toByteArray();
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } catch (IOException e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Flushes and closes the files. It's safe to call the method more than
+     * once.
+     */
+    public void finishWriting() {
+        if (writingFinished) {
+            return;
+        }
+        writingFinished = true;
+        for (DataOutputStream out : outputs) {
+            if (out != null) {
+                Util.uncheckRun(out::close);
+            }
+        }
+    }
+
+    /**
+     * Returns a traverser over the records of the given partition, in the
+     * order they were written.
+     */
+    @Nonnull
+    public Traverser<Object[]> read(int partition) {
+        assert writingFinished : "writing not finished";
+        File file = file(partition);
+        return file.exists() ? new RecordTraverser(file) : () -> null;
+    }
+
+    /**
+     * Deletes the files.
+     */
+    public void delete() {
+        finishWriting();
+        for (int i = 0; i < outputs.length; i++) {
+            File file = file(i);
+            if (file.exists() && !file.delete()) {
+                throw new JetException("Failed to delete " + file);
+            }
+        }
+    }
+
+    private File file(int partition) {
+        return new File(dir, name + '-' + partition);
+    }
+
+    private final class RecordTraverser implements Traverser<Object[]> {
+        private DataInputStream in;
+
+        RecordTraverser(File file) {
+            try {
+                in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+            } catch (IOException e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        public Object[] next() {
+            if (in == null) {
+                return null;
+            }
+            try {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    in.close();
+                    in = null;
+                    return null;
+                }
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                BufferObjectDataInput recordInput = createObjectDataInput(nodeEngine, bytes);
+                Object[] record = new Object[arity];
+                for (int i = 0; i < arity; i++) {
+                    record[i] = recordInput.readObject();
+                }
+                return record;
+            } catch (IOException e) {
+                throw rethrow(e);
+            }
+        }
+    }
+}
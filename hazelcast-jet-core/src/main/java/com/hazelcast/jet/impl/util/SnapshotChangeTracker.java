@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tracks the keys of a processor's state that changed since the previous
+ * snapshot, for the processors implementing {@link
+ * com.hazelcast.jet.impl.execution.IncrementalSnapshotSupport}. Until it's
+ * {@linkplain #enable() enabled}, all methods are no-ops, so the processor
+ * can call them unconditionally.
+ *
+ * @param <K> type of the state key
+ */
+public final class SnapshotChangeTracker<K> {
+
+    private boolean enabled;
+    // keys to save to the next incremental snapshot
+    private final Set<K> changed = new HashSet<>();
+    // subset of `changed`: the keys that didn't exist at the previous snapshot
+    private final Set<K> added = new HashSet<>();
+    // keys that existed at the previous snapshot and were removed since
+    private final Set<K> removed = new HashSet<>();
+
+    public void enable() {
+        enabled = true;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records that the entry for the key was updated, or created if {@code
+     * isNew} is true.
+     */
+    public void changed(K key, boolean isNew) {
+        if (enabled && changed.add(key) && isNew && !removed.remove(key)) {
+            added.add(key);
+        }
+    }
+
+    /**
+     * Records that the entry for the key was removed. Returns true, if the
+     * key existed at the previous snapshot, that is if the removal must be
+     * saved as a tombstone.
+     */
+    public boolean removed(K key) {
+        if (!enabled) {
+            return false;
+        }
+        changed.remove(key);
+        return !added.remove(key) && removed.add(key);
+    }
+
+    /**
+     * Returns the keys created or updated since the previous snapshot.
+     */
+    public Set<K> changedKeys() {
+        return changed;
+    }
+
+    /**
+     * Returns the keys removed since the previous snapshot, that existed at
+     * the previous snapshot.
+     */
+    public Set<K> removedKeys() {
+        return removed;
+    }
+
+    /**
+     * Starts a new tracking period, called after a snapshot was saved.
+     */
+    public void reset() {
+        changed.clear();
+        added.clear();
+        removed.clear();
+    }
+}
@@ -19,6 +19,8 @@ package com.hazelcast.jet.impl.util;
 import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.core.IMap;
 import com.hazelcast.core.Member;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.internal.metrics.renderers.ProbeRenderer;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.jet.JetException;
 import com.hazelcast.jet.JetInstance;
@@ -51,6 +53,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -362,4 +365,34 @@ public final class Util {
         return future;
     }
 
+    /**
+     * Returns the current values of all probes in the registry whose names
+     * start with the given prefix, keyed by the name with the prefix removed.
+     * Probes which fail or have no value are left out.
+     */
+    public static Map<String, Long> probeValues(@Nonnull MetricsRegistry registry, @Nonnull String prefix) {
+        Map<String, Long> result = new HashMap<>();
+        registry.render(new ProbeRenderer() {
+            @Override
+            public void renderLong(String name, long value) {
+                if (name.startsWith(prefix)) {
+                    result.put(name.substring(prefix.length()), value);
+                }
+            }
+
+            @Override
+            public void renderDouble(String name, double value) {
+                renderLong(name, Math.round(value));
+            }
+
+            @Override
+            public void renderException(String name, Exception e) {
+            }
+
+            @Override
+            public void renderNoValue(String name) {
+            }
+        });
+        return result;
+    }
 }
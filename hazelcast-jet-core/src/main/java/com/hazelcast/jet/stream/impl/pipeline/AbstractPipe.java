@@ -86,22 +86,19 @@ abstract class AbstractPipe<E_OUT> implements Pipe<E_OUT> {
     @Override
     public DistributedIntStream mapToInt(ToIntFunction<? super E_OUT> mapper) {
         checkSerializable(mapper, "mapper");
-        Pipe<Integer> map = (Pipe<Integer>) map(mapper::applyAsInt);
-        return new IntPipeline(context, map);
+        return new IntPipeline(context, this, down -> item -> down.accept(mapper.applyAsInt((E_OUT) item)));
     }
 
     @Override
     public DistributedLongStream mapToLong(ToLongFunction<? super E_OUT> mapper) {
         checkSerializable(mapper, "mapper");
-        Pipe<Long> map = (Pipe<Long>) map(mapper::applyAsLong);
-        return new LongPipe(context, map);
+        return new LongPipe(context, this, down -> item -> down.accept(mapper.applyAsLong((E_OUT) item)));
     }
 
     @Override
     public DistributedDoubleStream mapToDouble(ToDoubleFunction<? super E_OUT> mapper) {
         checkSerializable(mapper, "mapper");
-        Pipe<Double> map = (Pipe<Double>) map(mapper::applyAsDouble);
-        return new DoublePipeline(context, map);
+        return new DoublePipeline(context, this, down -> item -> down.accept(mapper.applyAsDouble((E_OUT) item)));
     }
 
     @Override
@@ -113,22 +110,19 @@ abstract class AbstractPipe<E_OUT> implements Pipe<E_OUT> {
     @Override
     public DistributedIntStream flatMapToInt(Function<? super E_OUT, ? extends IntStream> mapper) {
         checkSerializable(mapper, "mapper");
-        Pipe<Integer> pipeline = (Pipe<Integer>) flatMap(m -> mapper.apply(m).boxed());
-        return new IntPipeline(context, pipeline);
+        return new IntPipeline(context, this, down -> item -> mapper.apply((E_OUT) item).forEach(down));
     }
 
     @Override
     public DistributedLongStream flatMapToLong(Function<? super E_OUT, ? extends LongStream> mapper) {
         checkSerializable(mapper, "mapper");
-        Pipe<Long> pipeline = (Pipe<Long>) flatMap(m -> mapper.apply(m).boxed());
-        return new LongPipe(context, pipeline);
+        return new LongPipe(context, this, down -> item -> mapper.apply((E_OUT) item).forEach(down));
     }
 
     @Override
     public DistributedDoubleStream flatMapToDouble(Function<? super E_OUT, ? extends DoubleStream> mapper) {
         checkSerializable(mapper, "mapper");
-        Pipe<Double> pipeline = (Pipe<Double>) flatMap(m -> mapper.apply(m).boxed());
-        return new DoublePipeline(context, pipeline);
+        return new DoublePipeline(context, this, down -> item -> mapper.apply((E_OUT) item).forEach(down));
     }
 
     @Override
@@ -18,21 +18,23 @@ package com.hazelcast.jet.stream.impl.pipeline;
 
 import com.hazelcast.core.IList;
 import com.hazelcast.jet.config.JobConfig;
-import com.hazelcast.jet.function.DistributedComparator;
-import com.hazelcast.jet.function.DistributedBiConsumer;
+import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.stream.DistributedCollectors;
 import com.hazelcast.jet.stream.DistributedDoubleStream;
 import com.hazelcast.jet.stream.DistributedIntStream;
 import com.hazelcast.jet.stream.DistributedLongStream;
 import com.hazelcast.jet.stream.DistributedStream;
 import com.hazelcast.jet.stream.impl.distributed.DistributedDoubleSummaryStatistics;
+import com.hazelcast.jet.stream.impl.reducers.PushCollectReducer;
 
+import java.util.DoubleSummaryStatistics;
 import java.util.Iterator;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.PrimitiveIterator;
 import java.util.Spliterator;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.DoubleBinaryOperator;
 import java.util.function.DoubleConsumer;
 import java.util.function.DoubleFunction;
@@ -48,95 +50,120 @@ import java.util.stream.Stream;
 import static com.hazelcast.jet.impl.util.Util.checkSerializable;
 import static com.hazelcast.jet.stream.impl.StreamUtil.uniqueListName;
 
+/**
+ * A {@link DistributedDoubleStream} whose stateless stages are fused into a
+ * chain of {@code DoubleConsumer}s applied to the items of an object {@link
+ * Pipe}. The reductions run the chain directly into a primitive accumulator,
+ * the other operations go through {@link #boxed()}.
+ */
 @SuppressWarnings("checkstyle:methodcount")
 class DoublePipeline implements DistributedDoubleStream {
 
     private final StreamContext context;
-    private final Pipe<Double> inner;
+    private final Pipe<?> upstream;
+    // wraps the consumer of this stream's values into a consumer of the upstream items
+    private final DistributedFunction<DoubleConsumer, Consumer<Object>> adapter;
+    // the boxed stream this one was created from, if it has no stages of its own
+    private final Pipe<Double> boxed;
+
+    DoublePipeline(StreamContext context, Pipe<Double> boxed) {
+        this(context, boxed, down -> item -> down.accept((Double) item), boxed);
+    }
 
-    DoublePipeline(StreamContext context, Pipe<Double> inner) {
+    DoublePipeline(StreamContext context, Pipe<?> upstream,
+                   DistributedFunction<DoubleConsumer, Consumer<Object>> adapter) {
+        this(context, upstream, adapter, null);
+    }
+
+    private DoublePipeline(StreamContext context, Pipe<?> upstream,
+                           DistributedFunction<DoubleConsumer, Consumer<Object>> adapter, Pipe<Double> boxed) {
         this.context = context;
-        this.inner = inner;
+        this.upstream = upstream;
+        this.adapter = adapter;
+        this.boxed = boxed;
     }
 
     @Override
     public DistributedDoubleStream filter(DoublePredicate predicate) {
         checkSerializable(predicate, "predicate");
-        DistributedStream<Double> filter = inner.filter(predicate::test);
-        return wrap(filter);
+        return chain(down -> v -> {
+            if (predicate.test(v)) {
+                down.accept(v);
+            }
+        });
     }
 
     @Override
     public DistributedDoubleStream map(DoubleUnaryOperator mapper) {
         checkSerializable(mapper, "mapper");
-        DistributedStream<Double> map = inner.map(mapper::applyAsDouble);
-        return wrap(map);
+        return chain(down -> v -> down.accept(mapper.applyAsDouble(v)));
     }
 
     @Override
     public <U> DistributedStream<U> mapToObj(DoubleFunction<? extends U> mapper) {
         checkSerializable(mapper, "mapper");
-        return inner.map(mapper::apply);
+        DistributedFunction<DoubleConsumer, Consumer<Object>> adapter = this.adapter;
+        return new PushTransformPipe<>(context, upstream, down -> adapter.apply(v -> down.accept(mapper.apply(v))));
     }
 
     @Override
     public DistributedIntStream mapToInt(DoubleToIntFunction mapper) {
         checkSerializable(mapper, "mapper");
-        DistributedStream<Integer> stream = inner.map(mapper::applyAsInt);
-        return new IntPipeline(context, (Pipe<Integer>) stream);
+        DistributedFunction<DoubleConsumer, Consumer<Object>> adapter = this.adapter;
+        return new IntPipeline(context, upstream, down -> adapter.apply(v -> down.accept(mapper.applyAsInt(v))));
     }
 
     @Override
     public DistributedLongStream mapToLong(DoubleToLongFunction mapper) {
         checkSerializable(mapper, "mapper");
-        DistributedStream<Long> stream = inner.map(mapper::applyAsLong);
-        return new LongPipe(context, (Pipe<Long>) stream);
+        DistributedFunction<DoubleConsumer, Consumer<Object>> adapter = this.adapter;
+        return new LongPipe(context, upstream, down -> adapter.apply(v -> down.accept(mapper.applyAsLong(v))));
     }
 
     @Override
     public DistributedDoubleStream flatMap(DoubleFunction<? extends DoubleStream> mapper) {
         checkSerializable(mapper, "mapper");
-        return wrap(inner.flatMap(n -> mapper.apply(n).boxed()));
+        return chain(down -> v -> mapper.apply(v).forEach(down));
     }
 
     @Override
     public DistributedDoubleStream distinct() {
-        return wrap(inner.distinct());
+        return wrap(boxed().distinct());
     }
 
     @Override
     public DistributedDoubleStream sorted() {
-        return wrap(inner.sorted());
+        return wrap(boxed().sorted());
     }
 
     @Override
     public DistributedDoubleStream peek(DoubleConsumer action) {
-        return wrap(inner.peek(action::accept));
+        return wrap(boxed().peek(action::accept));
     }
 
     @Override
     public DistributedDoubleStream limit(long maxSize) {
-        return wrap(inner.limit(maxSize));
+        return wrap(boxed().limit(maxSize));
     }
 
     @Override
     public DistributedDoubleStream skip(long n) {
-        return wrap(inner.skip(n));
+        return wrap(boxed().skip(n));
     }
 
     @Override
     public void forEach(DoubleConsumer action) {
-        inner.forEach(action::accept);
+        boxed().forEach(action::accept);
     }
 
     @Override
     public void forEachOrdered(DoubleConsumer action) {
-        inner.forEachOrdered(action::accept);
+        boxed().forEachOrdered(action::accept);
     }
 
     @Override
     public double[] toArray() {
-        IList<Double> list = inner.collect(DistributedCollectors.toIList(uniqueListName()));
+        IList<Double> list = boxed().collect(DistributedCollectors.toIList(uniqueListName()));
         try {
             double[] array = new double[list.size()];
 
@@ -144,7 +171,6 @@ class DoublePipeline implements DistributedDoubleStream {
             for (Double d : list) {
                 array[index++] = d;
             }
-
             return array;
         } finally {
             list.destroy();
@@ -153,41 +179,65 @@ class DoublePipeline implements DistributedDoubleStream {
 
     @Override
     public double reduce(double identity, DoubleBinaryOperator op) {
-        return inner.reduce(identity, op::applyAsDouble);
+        checkSerializable(op, "op");
+        return collect(() -> new double[]{identity},
+                (acc, v) -> acc[0] = op.applyAsDouble(acc[0], v),
+                (left, right) -> left[0] = op.applyAsDouble(left[0], right[0]))[0];
     }
 
     @Override
     public OptionalDouble reduce(DoubleBinaryOperator op) {
-        Optional<Double> result = inner.reduce(op::applyAsDouble);
-        return result.isPresent() ? OptionalDouble.of(result.get()) : OptionalDouble.empty();
+        checkSerializable(op, "op");
+        // acc[0] is 1 if a value is present, acc[1] holds the value
+        double[] result = collect(() -> new double[2],
+                (acc, v) -> {
+                    acc[1] = acc[0] == 0 ? v : op.applyAsDouble(acc[1], v);
+                    acc[0] = 1;
+                },
+                (left, right) -> {
+                    if (right[0] != 0) {
+                        left[1] = left[0] == 0 ? right[1] : op.applyAsDouble(left[1], right[1]);
+                        left[0] = 1;
+                    }
+                });
+        return result[0] != 0 ? OptionalDouble.of(result[1]) : OptionalDouble.empty();
     }
 
     @Override
     public <R> R collect(Supplier<R> supplier,
                          ObjDoubleConsumer<R> accumulator,
                          BiConsumer<R, R> combiner) {
-        DistributedBiConsumer<R, Double> boxedAccumulator = accumulator::accept;
-        return inner.collect(supplier, boxedAccumulator, combiner);
+        checkSerializable(supplier, "supplier");
+        checkSerializable(accumulator, "accumulator");
+        checkSerializable(combiner, "combiner");
+        DistributedFunction<DoubleConsumer, Consumer<Object>> adapter = this.adapter;
+        DistributedFunction<R, Consumer<Object>> accumulateFn =
+                acc -> adapter.apply(v -> accumulator.accept(acc, v));
+        return new PushCollectReducer<>(supplier, accumulateFn, combiner).reduce(context, upstream);
     }
 
     @Override
     public double sum() {
-        return inner.reduce(0D, (a, b) -> a + b);
+        return summaryStatistics().getSum();
     }
 
     @Override
     public OptionalDouble min() {
-        return toOptionalDouble(inner.min(DistributedComparator.naturalOrder()));
+        DoubleSummaryStatistics stats = summaryStatistics();
+        return stats.getCount() > 0 ? OptionalDouble.of(stats.getMin()) : OptionalDouble.empty();
     }
 
     @Override
     public OptionalDouble max() {
-        return toOptionalDouble(inner.max(DistributedComparator.naturalOrder()));
+        DoubleSummaryStatistics stats = summaryStatistics();
+        return stats.getCount() > 0 ? OptionalDouble.of(stats.getMax()) : OptionalDouble.empty();
     }
 
     @Override
     public long count() {
-        return inner.count();
+        return collect(() -> new long[1],
+                (acc, v) -> acc[0]++,
+                (left, right) -> left[0] += right[0])[0];
     }
 
     @Override
@@ -207,39 +257,43 @@ class DoublePipeline implements DistributedDoubleStream {
     }
 
     @Override
-    public java.util.DoubleSummaryStatistics summaryStatistics() {
+    public DoubleSummaryStatistics summaryStatistics() {
         return collect(DistributedDoubleSummaryStatistics::new, DistributedDoubleSummaryStatistics::accept,
                 DistributedDoubleSummaryStatistics::combine);
     }
 
     @Override
     public boolean anyMatch(DoublePredicate predicate) {
-        return inner.anyMatch(predicate::test);
+        return boxed().anyMatch(predicate::test);
     }
 
     @Override
     public boolean allMatch(DoublePredicate predicate) {
-        return inner.allMatch(predicate::test);
+        return boxed().allMatch(predicate::test);
     }
 
     @Override
     public boolean noneMatch(DoublePredicate predicate) {
-        return inner.noneMatch(predicate::test);
+        return boxed().noneMatch(predicate::test);
     }
 
     @Override
     public OptionalDouble findFirst() {
-        return toOptionalDouble(inner.findFirst());
+        return toOptionalDouble(boxed().findFirst());
     }
 
     @Override
     public OptionalDouble findAny() {
-        return toOptionalDouble(inner.findAny());
+        return toOptionalDouble(boxed().findAny());
     }
 
     @Override
     public DistributedStream<Double> boxed() {
-        return inner;
+        if (boxed != null) {
+            return boxed;
+        }
+        DistributedFunction<DoubleConsumer, Consumer<Object>> adapter = this.adapter;
+        return new PushTransformPipe<>(context, upstream, down -> adapter.apply(down::accept));
     }
 
     @Override
@@ -254,22 +308,22 @@ class DoublePipeline implements DistributedDoubleStream {
 
     @Override
     public DistributedDoubleStream unordered() {
-        return wrap(inner.unordered());
+        return upstream.isOrdered() ? new DoublePipeline(context, (Pipe<?>) upstream.unordered(), adapter) : this;
     }
 
     @Override
     public DistributedDoubleStream onClose(Runnable closeHandler) {
-        return wrap(inner.onClose(closeHandler));
+        return wrap(boxed().onClose(closeHandler));
     }
 
     @Override
     public void close() {
-        inner.close();
+        upstream.close();
     }
 
     @Override
     public PrimitiveIterator.OfDouble iterator() {
-        final Iterator<Double> iterator = inner.iterator();
+        final Iterator<Double> iterator = boxed().iterator();
         return new PrimitiveIterator.OfDouble() {
             @Override
             public boolean hasNext() {
@@ -290,12 +344,19 @@ class DoublePipeline implements DistributedDoubleStream {
 
     @Override
     public boolean isParallel() {
-        return inner.isParallel();
+        return upstream.isParallel();
     }
 
     @Override
     public DistributedDoubleStream configure(JobConfig jobConfig) {
-        return wrap(inner.configure(jobConfig));
+        upstream.configure(jobConfig);
+        return this;
+    }
+
+    private DistributedDoubleStream chain(DistributedFunction<DoubleConsumer, DoubleConsumer> stage) {
+        // the lambda below must not capture `this`
+        DistributedFunction<DoubleConsumer, Consumer<Object>> adapter = this.adapter;
+        return new DoublePipeline(context, upstream, down -> adapter.apply(stage.apply(down)));
     }
 
     private DistributedDoubleStream wrap(Stream<Double> pipeline) {
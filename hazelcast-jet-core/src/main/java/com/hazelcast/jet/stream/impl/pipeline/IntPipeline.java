@@ -18,15 +18,16 @@ package com.hazelcast.jet.stream.impl.pipeline;
 
 import com.hazelcast.core.IList;
 import com.hazelcast.jet.config.JobConfig;
-import com.hazelcast.jet.function.DistributedComparator;
-import com.hazelcast.jet.function.DistributedBiConsumer;
+import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.stream.DistributedCollectors;
 import com.hazelcast.jet.stream.DistributedDoubleStream;
 import com.hazelcast.jet.stream.DistributedIntStream;
 import com.hazelcast.jet.stream.DistributedLongStream;
 import com.hazelcast.jet.stream.DistributedStream;
 import com.hazelcast.jet.stream.impl.distributed.DistributedIntSummaryStatistics;
+import com.hazelcast.jet.stream.impl.reducers.PushCollectReducer;
 
+import java.util.IntSummaryStatistics;
 import java.util.Iterator;
 import java.util.Optional;
 import java.util.OptionalDouble;
@@ -34,6 +35,7 @@ import java.util.OptionalInt;
 import java.util.PrimitiveIterator;
 import java.util.Spliterator;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.IntBinaryOperator;
 import java.util.function.IntConsumer;
 import java.util.function.IntFunction;
@@ -49,95 +51,121 @@ import java.util.stream.Stream;
 import static com.hazelcast.jet.impl.util.Util.checkSerializable;
 import static com.hazelcast.jet.stream.impl.StreamUtil.uniqueListName;
 
+/**
+ * A {@link DistributedIntStream} whose stateless stages are fused into a
+ * chain of {@code IntConsumer}s applied to the items of an object {@link
+ * Pipe}. The reductions run the chain directly into a primitive accumulator,
+ * the other operations go through {@link #boxed()}.
+ */
 @SuppressWarnings("checkstyle:methodcount")
 class IntPipeline implements DistributedIntStream {
 
     private final StreamContext context;
-    private final Pipe<Integer> inner;
+    private final Pipe<?> upstream;
+    // wraps the consumer of this stream's values into a consumer of the upstream items
+    private final DistributedFunction<IntConsumer, Consumer<Object>> adapter;
+    // the boxed stream this one was created from, if it has no stages of its own
+    private final Pipe<Integer> boxed;
+
+    IntPipeline(StreamContext context, Pipe<Integer> boxed) {
+        this(context, boxed, down -> item -> down.accept((Integer) item), boxed);
+    }
 
-    IntPipeline(StreamContext context, Pipe<Integer> inner) {
+    IntPipeline(StreamContext context, Pipe<?> upstream,
+                DistributedFunction<IntConsumer, Consumer<Object>> adapter) {
+        this(context, upstream, adapter, null);
+    }
+
+    private IntPipeline(StreamContext context, Pipe<?> upstream,
+                        DistributedFunction<IntConsumer, Consumer<Object>> adapter, Pipe<Integer> boxed) {
         this.context = context;
-        this.inner = inner;
+        this.upstream = upstream;
+        this.adapter = adapter;
+        this.boxed = boxed;
     }
 
     @Override
     public DistributedIntStream filter(IntPredicate predicate) {
         checkSerializable(predicate, "predicate");
-        DistributedStream<Integer> filter = inner.filter(predicate::test);
-        return wrap(filter);
+        return chain(down -> v -> {
+            if (predicate.test(v)) {
+                down.accept(v);
+            }
+        });
     }
 
     @Override
     public DistributedIntStream map(IntUnaryOperator mapper) {
         checkSerializable(mapper, "mapper");
-        DistributedStream<Integer> map = inner.map(mapper::applyAsInt);
-        return wrap(map);
+        return chain(down -> v -> down.accept(mapper.applyAsInt(v)));
     }
 
     @Override
     public <U> DistributedStream<U> mapToObj(IntFunction<? extends U> mapper) {
         checkSerializable(mapper, "mapper");
-        return inner.map(mapper::apply);
+        DistributedFunction<IntConsumer, Consumer<Object>> adapter = this.adapter;
+        return new PushTransformPipe<>(context, upstream, down -> adapter.apply(v -> down.accept(mapper.apply(v))));
     }
 
     @Override
     public DistributedLongStream mapToLong(IntToLongFunction mapper) {
         checkSerializable(mapper, "mapper");
-        DistributedStream<Long> stream = inner.map(mapper::applyAsLong);
-        return new LongPipe(context, (Pipe<Long>) stream);
+        DistributedFunction<IntConsumer, Consumer<Object>> adapter = this.adapter;
+        return new LongPipe(context, upstream, down -> adapter.apply(v -> down.accept(mapper.applyAsLong(v))));
     }
 
     @Override
     public DistributedDoubleStream mapToDouble(IntToDoubleFunction mapper) {
         checkSerializable(mapper, "mapper");
-        DistributedStream<Double> stream = inner.map(mapper::applyAsDouble);
-        return new DoublePipeline(context, (Pipe<Double>) stream);
+        DistributedFunction<IntConsumer, Consumer<Object>> adapter = this.adapter;
+        return new DoublePipeline(context, upstream,
+                down -> adapter.apply(v -> down.accept(mapper.applyAsDouble(v))));
     }
 
     @Override
     public DistributedIntStream flatMap(IntFunction<? extends IntStream> mapper) {
         checkSerializable(mapper, "mapper");
-        return wrap(inner.flatMap(n -> mapper.apply(n).boxed()));
+        return chain(down -> v -> mapper.apply(v).forEach(down));
     }
 
     @Override
     public DistributedIntStream distinct() {
-        return wrap(inner.distinct());
+        return wrap(boxed().distinct());
     }
 
     @Override
     public DistributedIntStream sorted() {
-        return wrap(inner.sorted());
+        return wrap(boxed().sorted());
     }
 
     @Override
     public DistributedIntStream peek(IntConsumer action) {
-        return wrap(inner.peek(action::accept));
+        return wrap(boxed().peek(action::accept));
     }
 
     @Override
     public DistributedIntStream limit(long maxSize) {
-        return wrap(inner.limit(maxSize));
+        return wrap(boxed().limit(maxSize));
     }
 
     @Override
     public DistributedIntStream skip(long n) {
-        return wrap(inner.skip(n));
+        return wrap(boxed().skip(n));
     }
 
     @Override
     public void forEach(IntConsumer action) {
-        inner.forEach(action::accept);
+        boxed().forEach(action::accept);
     }
 
     @Override
     public void forEachOrdered(IntConsumer action) {
-        inner.forEachOrdered(action::accept);
+        boxed().forEachOrdered(action::accept);
     }
 
     @Override
     public int[] toArray() {
-        IList<Integer> list = inner.collect(DistributedCollectors.toIList(uniqueListName()));
+        IList<Integer> list = boxed().collect(DistributedCollectors.toIList(uniqueListName()));
         try {
             int[] array = new int[list.size()];
 
@@ -153,41 +181,67 @@ class IntPipeline implements DistributedIntStream {
 
     @Override
     public int reduce(int identity, IntBinaryOperator op) {
-        return inner.reduce(identity, op::applyAsInt);
+        checkSerializable(op, "op");
+        return collect(() -> new int[]{identity},
+                (acc, v) -> acc[0] = op.applyAsInt(acc[0], v),
+                (left, right) -> left[0] = op.applyAsInt(left[0], right[0]))[0];
     }
 
     @Override
     public OptionalInt reduce(IntBinaryOperator op) {
-        Optional<Integer> result = inner.reduce(op::applyAsInt);
-        return result.isPresent() ? OptionalInt.of(result.get()) : OptionalInt.empty();
+        checkSerializable(op, "op");
+        // acc[0] is 1 if a value is present, acc[1] holds the value
+        int[] result = collect(() -> new int[2],
+                (acc, v) -> {
+                    acc[1] = acc[0] == 0 ? v : op.applyAsInt(acc[1], v);
+                    acc[0] = 1;
+                },
+                (left, right) -> {
+                    if (right[0] != 0) {
+                        left[1] = left[0] == 0 ? right[1] : op.applyAsInt(left[1], right[1]);
+                        left[0] = 1;
+                    }
+                });
+        return result[0] != 0 ? OptionalInt.of(result[1]) : OptionalInt.empty();
     }
 
     @Override
     public <R> R collect(Supplier<R> supplier,
                          ObjIntConsumer<R> accumulator,
                          BiConsumer<R, R> combiner) {
-        DistributedBiConsumer<R, Integer> boxedAccumulator = accumulator::accept;
-        return inner.collect(supplier, boxedAccumulator, combiner);
+        checkSerializable(supplier, "supplier");
+        checkSerializable(accumulator, "accumulator");
+        checkSerializable(combiner, "combiner");
+        DistributedFunction<IntConsumer, Consumer<Object>> adapter = this.adapter;
+        DistributedFunction<R, Consumer<Object>> accumulateFn =
+                acc -> adapter.apply(v -> accumulator.accept(acc, v));
+        return new PushCollectReducer<>(supplier, accumulateFn, combiner).reduce(context, upstream);
     }
 
     @Override
     public int sum() {
-        return inner.reduce(0, (a, b) -> a + b);
+        return (int) collect(() -> new long[1],
+                (acc, v) -> acc[0] += v,
+                (left, right) -> left[0] += right[0])[0];
     }
 
     @Override
     public OptionalInt min() {
-        return toOptionalInt(inner.min(DistributedComparator.naturalOrder()));
+        IntSummaryStatistics stats = summaryStatistics();
+        return stats.getCount() > 0 ? OptionalInt.of(stats.getMin()) : OptionalInt.empty();
     }
 
     @Override
     public OptionalInt max() {
-        return toOptionalInt(inner.max(DistributedComparator.naturalOrder()));
+        IntSummaryStatistics stats = summaryStatistics();
+        return stats.getCount() > 0 ? OptionalInt.of(stats.getMax()) : OptionalInt.empty();
     }
 
     @Override
     public long count() {
-        return inner.count();
+        return collect(() -> new long[1],
+                (acc, v) -> acc[0]++,
+                (left, right) -> left[0] += right[0])[0];
     }
 
     @Override
@@ -207,34 +261,34 @@ class IntPipeline implements DistributedIntStream {
     }
 
     @Override
-    public java.util.IntSummaryStatistics summaryStatistics() {
+    public IntSummaryStatistics summaryStatistics() {
         return collect(DistributedIntSummaryStatistics::new, DistributedIntSummaryStatistics::accept,
                 DistributedIntSummaryStatistics::combine);
     }
 
     @Override
     public boolean anyMatch(IntPredicate predicate) {
-        return inner.anyMatch(predicate::test);
+        return boxed().anyMatch(predicate::test);
     }
 
     @Override
     public boolean allMatch(IntPredicate predicate) {
-        return inner.allMatch(predicate::test);
+        return boxed().allMatch(predicate::test);
     }
 
     @Override
     public boolean noneMatch(IntPredicate predicate) {
-        return inner.noneMatch(predicate::test);
+        return boxed().noneMatch(predicate::test);
     }
 
     @Override
     public OptionalInt findFirst() {
-        return toOptionalInt(inner.findFirst());
+        return toOptionalInt(boxed().findFirst());
     }
 
     @Override
     public OptionalInt findAny() {
-        return toOptionalInt(inner.findAny());
+        return toOptionalInt(boxed().findAny());
     }
 
     @Override
@@ -249,7 +303,11 @@ class IntPipeline implements DistributedIntStream {
 
     @Override
     public DistributedStream<Integer> boxed() {
-        return inner;
+        if (boxed != null) {
+            return boxed;
+        }
+        DistributedFunction<IntConsumer, Consumer<Object>> adapter = this.adapter;
+        return new PushTransformPipe<>(context, upstream, down -> adapter.apply(down::accept));
     }
 
     @Override
@@ -264,22 +322,22 @@ class IntPipeline implements DistributedIntStream {
 
     @Override
     public DistributedIntStream unordered() {
-        return wrap(inner.unordered());
+        return upstream.isOrdered() ? new IntPipeline(context, (Pipe<?>) upstream.unordered(), adapter) : this;
     }
 
     @Override
     public DistributedIntStream onClose(Runnable closeHandler) {
-        return wrap(inner.onClose(closeHandler));
+        return wrap(boxed().onClose(closeHandler));
     }
 
     @Override
     public void close() {
-        inner.close();
+        upstream.close();
     }
 
     @Override
     public PrimitiveIterator.OfInt iterator() {
-        final Iterator<Integer> iterator = inner.iterator();
+        final Iterator<Integer> iterator = boxed().iterator();
         return new PrimitiveIterator.OfInt() {
             @Override
             public boolean hasNext() {
@@ -300,12 +358,19 @@ class IntPipeline implements DistributedIntStream {
 
     @Override
     public boolean isParallel() {
-        return inner.isParallel();
+        return upstream.isParallel();
     }
 
     @Override
     public DistributedIntStream configure(JobConfig jobConfig) {
-        return wrap(inner.configure(jobConfig));
+        upstream.configure(jobConfig);
+        return this;
+    }
+
+    private DistributedIntStream chain(DistributedFunction<IntConsumer, IntConsumer> stage) {
+        // the lambda below must not capture `this`
+        DistributedFunction<IntConsumer, Consumer<Object>> adapter = this.adapter;
+        return new IntPipeline(context, upstream, down -> adapter.apply(stage.apply(down)));
     }
 
     private DistributedIntStream wrap(Stream<Integer> pipeline) {
@@ -18,23 +18,25 @@ package com.hazelcast.jet.stream.impl.pipeline;
 
 import com.hazelcast.core.IList;
 import com.hazelcast.jet.config.JobConfig;
-import com.hazelcast.jet.function.DistributedComparator;
-import com.hazelcast.jet.function.DistributedBiConsumer;
+import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.stream.DistributedCollectors;
 import com.hazelcast.jet.stream.DistributedDoubleStream;
 import com.hazelcast.jet.stream.DistributedIntStream;
 import com.hazelcast.jet.stream.DistributedLongStream;
 import com.hazelcast.jet.stream.DistributedStream;
 import com.hazelcast.jet.stream.impl.distributed.DistributedLongSummaryStatistics;
+import com.hazelcast.jet.stream.impl.reducers.PushCollectReducer;
 
 import javax.annotation.Nonnull;
 import java.util.Iterator;
+import java.util.LongSummaryStatistics;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.OptionalLong;
 import java.util.PrimitiveIterator;
 import java.util.Spliterator;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.LongBinaryOperator;
 import java.util.function.LongConsumer;
 import java.util.function.LongFunction;
@@ -50,95 +52,121 @@ import java.util.stream.Stream;
 import static com.hazelcast.jet.impl.util.Util.checkSerializable;
 import static com.hazelcast.jet.stream.impl.StreamUtil.uniqueListName;
 
+/**
+ * A {@link DistributedLongStream} whose stateless stages are fused into a
+ * chain of {@code LongConsumer}s applied to the items of an object {@link
+ * Pipe}. The reductions run the chain directly into a primitive accumulator,
+ * the other operations go through {@link #boxed()}.
+ */
 @SuppressWarnings("checkstyle:methodcount")
 class LongPipe implements DistributedLongStream {
 
     private final StreamContext context;
-    private final Pipe<Long> inner;
+    private final Pipe<?> upstream;
+    // wraps the consumer of this stream's values into a consumer of the upstream items
+    private final DistributedFunction<LongConsumer, Consumer<Object>> adapter;
+    // the boxed stream this one was created from, if it has no stages of its own
+    private final Pipe<Long> boxed;
+
+    LongPipe(StreamContext context, Pipe<Long> boxed) {
+        this(context, boxed, down -> item -> down.accept((Long) item), boxed);
+    }
 
-    LongPipe(StreamContext context, Pipe<Long> inner) {
+    LongPipe(StreamContext context, Pipe<?> upstream,
+             DistributedFunction<LongConsumer, Consumer<Object>> adapter) {
+        this(context, upstream, adapter, null);
+    }
+
+    private LongPipe(StreamContext context, Pipe<?> upstream,
+                     DistributedFunction<LongConsumer, Consumer<Object>> adapter, Pipe<Long> boxed) {
         this.context = context;
-        this.inner = inner;
+        this.upstream = upstream;
+        this.adapter = adapter;
+        this.boxed = boxed;
     }
 
     @Override
     public DistributedLongStream filter(LongPredicate predicate) {
         checkSerializable(predicate, "predicate");
-        DistributedStream<Long> filter = inner.filter(predicate::test);
-        return wrap(filter);
+        return chain(down -> v -> {
+            if (predicate.test(v)) {
+                down.accept(v);
+            }
+        });
     }
 
     @Override
     public DistributedLongStream map(LongUnaryOperator mapper) {
         checkSerializable(mapper, "mapper");
-        DistributedStream<Long> map = inner.map(mapper::applyAsLong);
-        return wrap(map);
+        return chain(down -> v -> down.accept(mapper.applyAsLong(v)));
     }
 
     @Override
     public <U> DistributedStream<U> mapToObj(LongFunction<? extends U> mapper) {
         checkSerializable(mapper, "mapper");
-        return inner.map(mapper::apply);
+        DistributedFunction<LongConsumer, Consumer<Object>> adapter = this.adapter;
+        return new PushTransformPipe<>(context, upstream, down -> adapter.apply(v -> down.accept(mapper.apply(v))));
     }
 
     @Override
     public DistributedIntStream mapToInt(LongToIntFunction mapper) {
         checkSerializable(mapper, "mapper");
-        DistributedStream<Integer> stream = inner.map(mapper::applyAsInt);
-        return new IntPipeline(context, (Pipe<Integer>) stream);
+        DistributedFunction<LongConsumer, Consumer<Object>> adapter = this.adapter;
+        return new IntPipeline(context, upstream, down -> adapter.apply(v -> down.accept(mapper.applyAsInt(v))));
     }
 
     @Override
     public DistributedDoubleStream mapToDouble(LongToDoubleFunction mapper) {
         checkSerializable(mapper, "mapper");
-        DistributedStream<Double> stream = inner.map(mapper::applyAsDouble);
-        return new DoublePipeline(context, (Pipe<Double>) stream);
+        DistributedFunction<LongConsumer, Consumer<Object>> adapter = this.adapter;
+        return new DoublePipeline(context, upstream,
+                down -> adapter.apply(v -> down.accept(mapper.applyAsDouble(v))));
     }
 
     @Override
     public DistributedLongStream flatMap(LongFunction<? extends LongStream> mapper) {
         checkSerializable(mapper, "mapper");
-        return wrap(inner.flatMap(n -> mapper.apply(n).boxed()));
+        return chain(down -> v -> mapper.apply(v).forEach(down));
     }
 
     @Override
     public DistributedLongStream distinct() {
-        return wrap(inner.distinct());
+        return wrap(boxed().distinct());
     }
 
     @Override
     public DistributedLongStream sorted() {
-        return wrap(inner.sorted());
+        return wrap(boxed().sorted());
     }
 
     @Override
     public DistributedLongStream peek(LongConsumer action) {
-        return wrap(inner.peek(action::accept));
+        return wrap(boxed().peek(action::accept));
     }
 
     @Override
     public DistributedLongStream limit(long maxSize) {
-        return wrap(inner.limit(maxSize));
+        return wrap(boxed().limit(maxSize));
     }
 
     @Override
     public DistributedLongStream skip(long n) {
-        return wrap(inner.skip(n));
+        return wrap(boxed().skip(n));
     }
 
     @Override
     public void forEach(LongConsumer action) {
-        inner.forEach(action::accept);
+        boxed().forEach(action::accept);
     }
 
     @Override
     public void forEachOrdered(LongConsumer action) {
-        inner.forEachOrdered(action::accept);
+        boxed().forEachOrdered(action::accept);
     }
 
     @Override
     public long[] toArray() {
-        IList<Long> list = inner.collect(DistributedCollectors.toIList(uniqueListName()));
+        IList<Long> list = boxed().collect(DistributedCollectors.toIList(uniqueListName()));
         try {
             long[] array = new long[list.size()];
 
@@ -154,41 +182,67 @@ class LongPipe implements DistributedLongStream {
 
     @Override
     public long reduce(long identity, LongBinaryOperator op) {
-        return inner.<Long>reduce(identity, op::applyAsLong);
+        checkSerializable(op, "op");
+        return collect(() -> new long[]{identity},
+                (acc, v) -> acc[0] = op.applyAsLong(acc[0], v),
+                (left, right) -> left[0] = op.applyAsLong(left[0], right[0]))[0];
     }
 
     @Override
     public OptionalLong reduce(LongBinaryOperator op) {
-        Optional<Long> result = inner.reduce(op::applyAsLong);
-        return result.isPresent() ? OptionalLong.of(result.get()) : OptionalLong.empty();
+        checkSerializable(op, "op");
+        // acc[0] is 1 if a value is present, acc[1] holds the value
+        long[] result = collect(() -> new long[2],
+                (acc, v) -> {
+                    acc[1] = acc[0] == 0 ? v : op.applyAsLong(acc[1], v);
+                    acc[0] = 1;
+                },
+                (left, right) -> {
+                    if (right[0] != 0) {
+                        left[1] = left[0] == 0 ? right[1] : op.applyAsLong(left[1], right[1]);
+                        left[0] = 1;
+                    }
+                });
+        return result[0] != 0 ? OptionalLong.of(result[1]) : OptionalLong.empty();
     }
 
     @Override
     public <R> R collect(Supplier<R> supplier,
                          ObjLongConsumer<R> accumulator,
                          BiConsumer<R, R> combiner) {
-        DistributedBiConsumer<R, Long> boxedAccumulator = accumulator::accept;
-        return inner.collect(supplier, boxedAccumulator, combiner);
+        checkSerializable(supplier, "supplier");
+        checkSerializable(accumulator, "accumulator");
+        checkSerializable(combiner, "combiner");
+        DistributedFunction<LongConsumer, Consumer<Object>> adapter = this.adapter;
+        DistributedFunction<R, Consumer<Object>> accumulateFn =
+                acc -> adapter.apply(v -> accumulator.accept(acc, v));
+        return new PushCollectReducer<>(supplier, accumulateFn, combiner).reduce(context, upstream);
     }
 
     @Override
     public long sum() {
-        return inner.reduce(0L, (a, b) -> a + b);
+        return collect(() -> new long[1],
+                (acc, v) -> acc[0] += v,
+                (left, right) -> left[0] += right[0])[0];
     }
 
     @Override
     public OptionalLong min() {
-        return toOptionalLong(inner.min(DistributedComparator.naturalOrder()));
+        LongSummaryStatistics stats = summaryStatistics();
+        return stats.getCount() > 0 ? OptionalLong.of(stats.getMin()) : OptionalLong.empty();
     }
 
     @Override
     public OptionalLong max() {
-        return toOptionalLong(inner.max(DistributedComparator.naturalOrder()));
+        LongSummaryStatistics stats = summaryStatistics();
+        return stats.getCount() > 0 ? OptionalLong.of(stats.getMax()) : OptionalLong.empty();
     }
 
     @Override
     public long count() {
-        return inner.count();
+        return collect(() -> new long[1],
+                (acc, v) -> acc[0]++,
+                (left, right) -> left[0] += right[0])[0];
     }
 
     @Override
@@ -208,37 +262,36 @@ class LongPipe implements DistributedLongStream {
     }
 
     @Override
-    public java.util.LongSummaryStatistics summaryStatistics() {
+    public LongSummaryStatistics summaryStatistics() {
         return collect(DistributedLongSummaryStatistics::new, DistributedLongSummaryStatistics::accept,
                 DistributedLongSummaryStatistics::combine);
     }
 
     @Override
     public boolean anyMatch(LongPredicate predicate) {
-        return inner.anyMatch(predicate::test);
+        return boxed().anyMatch(predicate::test);
     }
 
     @Override
     public boolean allMatch(LongPredicate predicate) {
-        return inner.allMatch(predicate::test);
+        return boxed().allMatch(predicate::test);
     }
 
     @Override
     public boolean noneMatch(LongPredicate predicate) {
-        return inner.noneMatch(predicate::test);
+        return boxed().noneMatch(predicate::test);
     }
 
     @Override
     public OptionalLong findFirst() {
-        return toOptionalLong(inner.findFirst());
+        return toOptionalLong(boxed().findFirst());
     }
 
     @Override
     public OptionalLong findAny() {
-        return toOptionalLong(inner.findAny());
+        return toOptionalLong(boxed().findAny());
     }
 
-
     @Override
     public DistributedDoubleStream asDoubleStream() {
         return mapToDouble(m -> (double) m);
@@ -246,7 +299,11 @@ class LongPipe implements DistributedLongStream {
 
     @Override
     public DistributedStream<Long> boxed() {
-        return inner;
+        if (boxed != null) {
+            return boxed;
+        }
+        DistributedFunction<LongConsumer, Consumer<Object>> adapter = this.adapter;
+        return new PushTransformPipe<>(context, upstream, down -> adapter.apply(down::accept));
     }
 
     @Override
@@ -261,22 +318,22 @@ class LongPipe implements DistributedLongStream {
 
     @Override
     public DistributedLongStream unordered() {
-        return wrap(inner.unordered());
+        return upstream.isOrdered() ? new LongPipe(context, (Pipe<?>) upstream.unordered(), adapter) : this;
     }
 
     @Override
     public DistributedLongStream onClose(Runnable closeHandler) {
-        return wrap(inner.onClose(closeHandler));
+        return wrap(boxed().onClose(closeHandler));
     }
 
     @Override
     public void close() {
-        inner.close();
+        upstream.close();
     }
 
     @Override
     public PrimitiveIterator.OfLong iterator() {
-        final Iterator<Long> iterator = inner.iterator();
+        final Iterator<Long> iterator = boxed().iterator();
         return new PrimitiveIterator.OfLong() {
             @Override
             public boolean hasNext() {
@@ -297,12 +354,19 @@ class LongPipe implements DistributedLongStream {
 
     @Override
     public boolean isParallel() {
-        return inner.isParallel();
+        return upstream.isParallel();
     }
 
     @Override
     public DistributedLongStream configure(JobConfig jobConfig) {
-        return wrap(inner.configure(jobConfig));
+        upstream.configure(jobConfig);
+        return this;
+    }
+
+    private DistributedLongStream chain(DistributedFunction<LongConsumer, LongConsumer> stage) {
+        // the lambda below must not capture `this`
+        DistributedFunction<LongConsumer, Consumer<Object>> adapter = this.adapter;
+        return new LongPipe(context, upstream, down -> adapter.apply(stage.apply(down)));
     }
 
     private DistributedLongStream wrap(Stream<Long> pipeline) {
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.stream.impl.pipeline;
+
+import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.stream.impl.processor.PushTransformP;
+
+import java.util.function.Consumer;
+
+import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.stream.impl.StreamUtil.uniqueVertexName;
+
+/**
+ * Turns a primitive stream back into a stream of objects by running its
+ * fused chain of stages in a {@link PushTransformP}.
+ */
+class PushTransformPipe<E_OUT> extends AbstractPipe<E_OUT> {
+
+    private final Pipe<?> upstream;
+    private final DistributedFunction<Consumer<Object>, Consumer<Object>> chain;
+
+    PushTransformPipe(StreamContext context, Pipe<?> upstream,
+                      DistributedFunction<Consumer<Object>, Consumer<Object>> chain) {
+        super(context, upstream.isOrdered());
+        this.upstream = upstream;
+        this.chain = chain;
+    }
+
+    @Override
+    public Vertex buildDAG(DAG dag) {
+        Vertex previous = upstream.buildDAG(dag);
+        // the lambda below must not capture `this`, therefore the instance variable
+        // must first be loaded into a local variable
+        DistributedFunction<Consumer<Object>, Consumer<Object>> chain = this.chain;
+        Vertex transform = dag.newVertex(uniqueVertexName("transform"), () -> new PushTransformP(chain));
+        if (upstream.isOrdered()) {
+            transform.localParallelism(1);
+        }
+        dag.edge(between(previous, transform));
+        return transform;
+    }
+}
@@ -18,6 +18,7 @@ package com.hazelcast.jet.stream.impl.pipeline;
 
 import com.hazelcast.jet.core.DAG;
 import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.jet.stream.impl.processor.MergeSortedP;
 import com.hazelcast.jet.stream.impl.processor.SortP;
 
 import java.util.Comparator;
@@ -25,6 +26,14 @@ import java.util.Comparator;
 import static com.hazelcast.jet.core.Edge.between;
 import static com.hazelcast.jet.stream.impl.StreamUtil.uniqueVertexName;
 
+/**
+ * Sorts in two stages: the parallel {@link SortP} processors sort their
+ * share of the items, spilling sorted runs to disk when over their
+ * buffer limit, then a single {@link MergeSortedP} processor merges the
+ * sorted outputs. The buffer limit is set by the {@link
+ * com.hazelcast.jet.impl.util.JetGroupProperty#SORT_MAX_BUFFERED_ITEMS}
+ * property of the members.
+ */
 class SortPipe<T> extends AbstractIntermediatePipe<T, T> {
 
     private final Comparator<? super T> comparator;
@@ -39,12 +48,15 @@ class SortPipe<T> extends AbstractIntermediatePipe<T, T> {
         Vertex previous = upstream.buildDAG(dag);
         // required final for lambda variable capture
         final Comparator<? super T> comparator = this.comparator;
-        Vertex sorter = dag.newVertex(uniqueVertexName("sort"), () -> new SortP<>(comparator)).localParallelism(1);
-        dag.edge(between(previous, sorter)
-                .distributed()
-                .allToOne()
-        );
-
-        return sorter;
+        Vertex sorter = dag.newVertex(uniqueVertexName("sort"), () -> new SortP<>(comparator));
+        Vertex merger = dag.newVertex(uniqueVertexName("merge-sorted"), () -> new MergeSortedP<>(comparator))
+                           .localParallelism(1);
+        dag.edge(between(previous, sorter))
+           .edge(between(sorter, merger)
+                   .distributed()
+                   .allToOne()
+           );
+
+        return merger;
     }
 }
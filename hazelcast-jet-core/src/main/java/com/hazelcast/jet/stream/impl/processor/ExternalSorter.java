@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.stream.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.impl.execution.init.Contexts.ProcCtx;
+import com.hazelcast.jet.impl.util.JetGroupProperty;
+import com.hazelcast.spi.properties.HazelcastProperties;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.jet.impl.util.JetGroupProperty.SORT_MAX_BUFFERED_ITEMS;
+
+/**
+ * Sorts items which may not fit into the memory. The items are buffered
+ * until the buffer reaches its size limit, then the buffer is sorted and
+ * spilled to a {@link SpillFile} as a sorted run. The final sequence is the
+ * k-way merge of the spilled runs and the sorted remainder of the buffer.
+ */
+class ExternalSorter<T> {
+
+    private static final Comparator<Object> NATURAL_ORDER = ExternalSorter::compareNaturally;
+
+    private final Comparator<? super T> comparator;
+    private final int maxBufferedItems;
+    private final Supplier<SpillFile<T>> newSpillFile;
+    private final List<T> buffer = new ArrayList<>();
+    private final List<SpillFile<T>> spilledRuns = new ArrayList<>();
+
+    /**
+     * @param comparator the comparator, {@code null} for the natural order
+     * @param maxBufferedItems the number of buffered items that triggers a spill
+     * @param newSpillFile supplier of spill files, if {@code null}, all the items
+     *                     are buffered
+     */
+    ExternalSorter(@Nullable Comparator<? super T> comparator, int maxBufferedItems,
+                   @Nullable Supplier<SpillFile<T>> newSpillFile) {
+        this.comparator = orNaturalOrder(comparator);
+        this.maxBufferedItems = maxBufferedItems;
+        this.newSpillFile = newSpillFile;
+    }
+
+    void add(@Nonnull T item) {
+        buffer.add(item);
+        if (newSpillFile != null && buffer.size() >= maxBufferedItems) {
+            buffer.sort(comparator);
+            SpillFile<T> run = newSpillFile.get();
+            for (T t : buffer) {
+                run.append(t);
+            }
+            spilledRuns.add(run);
+            buffer.clear();
+        }
+    }
+
+    int spilledRunCount() {
+        return spilledRuns.size();
+    }
+
+    /**
+     * Returns a traverser over all the added items in sorted order. No more
+     * items can be added afterwards.
+     */
+    @Nonnull
+    Traverser<T> sortedTraverser() {
+        buffer.sort(comparator);
+        if (spilledRuns.isEmpty()) {
+            return traverseIterable(buffer);
+        }
+        List<Traverser<T>> runs = new ArrayList<>(spilledRuns.size() + 1);
+        for (SpillFile<T> run : spilledRuns) {
+            runs.add(run.traverser());
+        }
+        runs.add(traverseIterable(buffer));
+        return mergeSorted(runs, comparator);
+    }
+
+    /**
+     * Deletes the spill files.
+     */
+    void dispose() {
+        spilledRuns.forEach(SpillFile::delete);
+        spilledRuns.clear();
+        buffer.clear();
+    }
+
+    /**
+     * Returns a traverser merging the given sorted traversers into a single
+     * sorted sequence.
+     */
+    @Nonnull
+    static <T> Traverser<T> mergeSorted(@Nonnull List<Traverser<T>> runs, @Nonnull Comparator<? super T> comparator) {
+        PriorityQueue<RunHead<T>> heads = new PriorityQueue<>(Math.max(1, runs.size()),
+                (h1, h2) -> comparator.compare(h1.item, h2.item));
+        for (Traverser<T> run : runs) {
+            T first = run.next();
+            if (first != null) {
+                heads.add(new RunHead<>(first, run));
+            }
+        }
+        return () -> {
+            RunHead<T> head = heads.poll();
+            if (head == null) {
+                return null;
+            }
+            T result = head.item;
+            head.item = head.run.next();
+            if (head.item != null) {
+                heads.add(head);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Returns the number of buffered items which triggers a spill, as
+     * configured by the {@link JetGroupProperty#SORT_MAX_BUFFERED_ITEMS}
+     * property of the member. Returns {@code Integer.MAX_VALUE} if the
+     * context doesn't support spilling, see {@link
+     * SpillFile#spillFileSupplier}.
+     */
+    static int maxBufferedItems(@Nonnull Processor.Context context) {
+        if (!(context instanceof ProcCtx)) {
+            return Integer.MAX_VALUE;
+        }
+        Properties properties = context.jetInstance().getConfig().getProperties();
+        return new HazelcastProperties(properties).getInteger(SORT_MAX_BUFFERED_ITEMS);
+    }
+
+    static <T> Comparator<? super T> orNaturalOrder(@Nullable Comparator<? super T> comparator) {
+        return comparator != null ? comparator : NATURAL_ORDER;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareNaturally(Object o1, Object o2) {
+        return ((Comparable<Object>) o1).compareTo(o2);
+    }
+
+    private static final class RunHead<T> {
+        T item;
+        final Traverser<T> run;
+
+        RunHead(T item, Traverser<T> run) {
+            this.item = item;
+            this.run = run;
+        }
+    }
+}
@@ -18,39 +18,36 @@ package com.hazelcast.jet.stream.impl.processor;
 
 import com.hazelcast.jet.core.AbstractProcessor;
 import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.impl.state.KeyedState;
 
 import javax.annotation.Nonnull;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.function.Function;
 import java.util.stream.Collector;
 
 import static com.hazelcast.jet.Traversers.lazy;
-import static com.hazelcast.jet.Traversers.traverseStream;
-import static com.hazelcast.jet.Util.entry;
 
 public class GroupAndAccumulateP<T, K, V, A, R> extends AbstractProcessor {
 
-    private final Map<K, A> groups = new HashMap<>();
     private final Function<? super T, ? extends K> classifier;
     private final Collector<V, A, R> collector;
     private final Traverser<Entry<K, A>> resultTraverser;
+    private KeyedState<K, A> groups;
 
     public GroupAndAccumulateP(Function<? super T, ? extends K> classifier, Collector<V, A, R> collector) {
         this.classifier = classifier;
         this.collector = collector;
-        this.resultTraverser = lazy(() -> traverseStream(groups
-                .entrySet().stream()
-                .map(entry -> entry(entry.getKey(), entry.getValue()))
-        ));
+        this.resultTraverser = lazy(() -> groups.traverser().onFirstNull(groups::dispose));
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) {
+        groups = KeyedState.create(context, collector.supplier());
     }
 
     @Override
     protected boolean tryProcess(int ordinal, @Nonnull Object item) throws Exception {
-        Map.Entry<K, V> entry = entry(classifier.apply((T) item), (V) item);
-        A value = groups.computeIfAbsent(entry.getKey(), k -> collector.supplier().get());
-        collector.accumulator().accept(value, entry.getValue());
+        groups.accumulate(classifier.apply((T) item), (V) item, collector.accumulator());
         return true;
     }
 
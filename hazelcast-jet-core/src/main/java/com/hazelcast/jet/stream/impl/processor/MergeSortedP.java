@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.stream.impl.processor;
+
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.Traverser;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.hazelcast.jet.Traversers.traverseIterable;
+
+/**
+ * Final stage of the distributed sort. Receives the {@link SortedChunk}s
+ * of all {@link SortP} processors and keeps the items of each source as
+ * one sorted run. When more than {@link
+ * com.hazelcast.jet.impl.util.JetGroupProperty#SORT_MAX_BUFFERED_ITEMS}
+ * items are buffered, the buffer of the largest run is appended to the
+ * run's {@link SpillFile}. When the input is done, it emits the k-way merge
+ * of the runs.
+ */
+public class MergeSortedP<T> extends AbstractProcessor {
+
+    private final Comparator<? super T> comparator;
+    private final Map<Integer, SourceRun<T>> runs = new HashMap<>();
+    private int maxBufferedItems;
+    private Supplier<SpillFile<T>> newSpillFile;
+    private int bufferedItems;
+    private Traverser<T> resultTraverser;
+
+    public MergeSortedP(Comparator<? super T> comparator) {
+        this(comparator, 0, null);
+    }
+
+    /**
+     * Creates the processor with the given spilling configuration instead
+     * of the one of the member, used in tests.
+     */
+    MergeSortedP(Comparator<? super T> comparator, int maxBufferedItems,
+                 @Nullable Supplier<SpillFile<T>> newSpillFile) {
+        this.comparator = ExternalSorter.orNaturalOrder(comparator);
+        this.maxBufferedItems = maxBufferedItems;
+        this.newSpillFile = newSpillFile;
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) {
+        if (newSpillFile == null) {
+            maxBufferedItems = ExternalSorter.maxBufferedItems(context);
+            newSpillFile = SpillFile.spillFileSupplier(context);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected boolean tryProcess(int ordinal, @Nonnull Object item) throws Exception {
+        SortedChunk<T> chunk = (SortedChunk<T>) item;
+        runs.computeIfAbsent(chunk.sourceId(), x -> new SourceRun<>()).buffer.addAll(chunk.items());
+        bufferedItems += chunk.items().size();
+        if (newSpillFile != null && bufferedItems > maxBufferedItems) {
+            spillLargestRun();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean complete() {
+        if (resultTraverser == null) {
+            List<Traverser<T>> traversers = new ArrayList<>(runs.size());
+            for (SourceRun<T> run : runs.values()) {
+                traversers.add(run.traverser());
+            }
+            resultTraverser = ExternalSorter.mergeSorted(traversers, comparator).onFirstNull(this::dispose);
+        }
+        return emitFromTraverser(resultTraverser);
+    }
+
+    private void spillLargestRun() {
+        SourceRun<T> largest = null;
+        for (SourceRun<T> run : runs.values()) {
+            if (largest == null || run.buffer.size() > largest.buffer.size()) {
+                largest = run;
+            }
+        }
+        assert largest != null;
+        if (largest.file == null) {
+            largest.file = newSpillFile.get();
+        }
+        for (T t : largest.buffer) {
+            largest.file.append(t);
+        }
+        bufferedItems -= largest.buffer.size();
+        largest.buffer.clear();
+    }
+
+    private void dispose() {
+        for (SourceRun<T> run : runs.values()) {
+            if (run.file != null) {
+                run.file.delete();
+            }
+        }
+        runs.clear();
+    }
+
+    /**
+     * The items received from one source: those spilled to the file,
+     * followed by those in the buffer.
+     */
+    private static final class SourceRun<T> {
+        final List<T> buffer = new ArrayList<>();
+        SpillFile<T> file;
+
+        Traverser<T> traverser() {
+            Traverser<T> fromBuffer = traverseIterable(buffer);
+            if (file == null) {
+                return fromBuffer;
+            }
+            Traverser<T> fromFile = file.traverser();
+            return () -> {
+                T item = fromFile.next();
+                return item != null ? item : fromBuffer.next();
+            };
+        }
+    }
+}
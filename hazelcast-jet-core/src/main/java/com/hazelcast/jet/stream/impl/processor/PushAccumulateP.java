@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.stream.impl.processor;
+
+import com.hazelcast.jet.core.AbstractProcessor;
+
+import javax.annotation.Nonnull;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A variation of {@link CollectorAccumulateP} where the accumulator is a
+ * chain of consumers ending in the accumulation of a primitive value into
+ * the result container, see {@link PushTransformP}.
+ */
+public class PushAccumulateP<A> extends AbstractProcessor {
+
+    private final Supplier<A> supplier;
+    private final Function<A, Consumer<Object>> accumulateFn;
+    private A result;
+    private Consumer<Object> input;
+
+    public PushAccumulateP(Supplier<A> supplier, Function<A, Consumer<Object>> accumulateFn) {
+        this.supplier = supplier;
+        this.accumulateFn = accumulateFn;
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) throws Exception {
+        result = supplier.get();
+        input = accumulateFn.apply(result);
+    }
+
+    @Override
+    protected boolean tryProcess(int ordinal, @Nonnull Object item) throws Exception {
+        input.accept(item);
+        return true;
+    }
+
+    @Override
+    public boolean complete() {
+        return tryEmit(result);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.stream.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.core.AbstractProcessor;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A variation of {@link TransformP} where the transformation is a chain of
+ * consumers: each item is pushed into the head of the chain and whatever
+ * reaches its end is emitted. The primitive streams fuse their stages into
+ * such chains, so the values are only boxed where they leave the chain.
+ */
+public class PushTransformP extends AbstractProcessor {
+
+    private final ArrayDeque<Object> output = new ArrayDeque<>();
+    private final Traverser<Object> outputTraverser = output::poll;
+    private final Consumer<Object> input;
+    private boolean itemDone = true;
+
+    public PushTransformP(Function<Consumer<Object>, Consumer<Object>> chain) {
+        this.input = chain.apply(output::add);
+    }
+
+    @Override
+    protected boolean tryProcess(int ordinal, @Nonnull Object item) {
+        if (itemDone) {
+            input.accept(item);
+        }
+        return itemDone = emitFromTraverser(outputTraverser);
+    }
+}
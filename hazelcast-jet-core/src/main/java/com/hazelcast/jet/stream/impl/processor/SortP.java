@@ -24,30 +24,52 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 
-import static com.hazelcast.jet.Traversers.lazy;
-import static com.hazelcast.jet.Traversers.traverseIterable;
-
+/**
+ * First stage of the distributed sort. Sorts the items it receives, using
+ * an {@link ExternalSorter} which spills sorted runs to disk when more than
+ * {@link com.hazelcast.jet.impl.util.JetGroupProperty#SORT_MAX_BUFFERED_ITEMS}
+ * items are buffered. When the input is done, it emits the sorted items in
+ * {@link SortedChunk}s to the {@link MergeSortedP}.
+ */
 public class SortP<T> extends AbstractProcessor {
 
-    private final List<T> sorted;
-    private final Traverser<T> resultTraverser;
+    static final int CHUNK_SIZE = 1024;
+
+    private final Comparator<? super T> comparator;
+    private ExternalSorter<T> sorter;
+    private int sourceId;
+    private Traverser<SortedChunk<T>> resultTraverser;
 
-    public SortP(Comparator<T> comparator) {
-        this.sorted = new ArrayList<>();
-        this.resultTraverser = lazy(() -> {
-            sorted.sort(comparator);
-            return traverseIterable(sorted);
-        });
+    public SortP(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) {
+        sourceId = context.globalProcessorIndex();
+        sorter = new ExternalSorter<>(comparator, ExternalSorter.maxBufferedItems(context),
+                SpillFile.spillFileSupplier(context));
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     protected boolean tryProcess(int ordinal, @Nonnull Object item) throws Exception {
-        sorted.add((T) item);
+        sorter.add((T) item);
         return true;
     }
 
     @Override
     public boolean complete() {
+        if (resultTraverser == null) {
+            Traverser<T> sorted = sorter.sortedTraverser();
+            resultTraverser = ((Traverser<SortedChunk<T>>) () -> {
+                List<T> items = new ArrayList<>(CHUNK_SIZE);
+                for (T item; items.size() < CHUNK_SIZE && (item = sorted.next()) != null; ) {
+                    items.add(item);
+                }
+                return items.isEmpty() ? null : new SortedChunk<>(sourceId, items);
+            }).onFirstNull(sorter::dispose);
+        }
         return emitFromTraverser(resultTraverser);
     }
 }
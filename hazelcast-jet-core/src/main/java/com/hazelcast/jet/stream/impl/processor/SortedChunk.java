@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.stream.impl.processor;
+
+import java.util.List;
+
+/**
+ * A chunk of the sorted output of one {@link SortP} processor, sent to the
+ * {@link MergeSortedP} processor. The chunks of one source arrive in order
+ * and together form one sorted run.
+ */
+public final class SortedChunk<T> {
+
+    private final int sourceId;
+    private final List<T> items;
+
+    public SortedChunk(int sourceId, List<T> items) {
+        this.sourceId = sourceId;
+        this.items = items;
+    }
+
+    /**
+     * Returns the global index of the {@code SortP} processor which emitted
+     * the chunk.
+     */
+    public int sourceId() {
+        return sourceId;
+    }
+
+    public List<T> items() {
+        return items;
+    }
+
+    @Override
+    public String toString() {
+        return "SortedChunk{sourceId=" + sourceId + ", size=" + items.size() + '}';
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.stream.impl.processor;
+
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.impl.execution.init.Contexts.ProcCtx;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.spi.serialization.SerializationService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.function.Supplier;
+
+import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
+
+/**
+ * A file in the temp directory to which the sorting processors append the
+ * items of a sorted run and from which they read them back in the same
+ * order. Each item is written as {@code [int length][serialized bytes]}.
+ */
+class SpillFile<T> {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final SerializationService serializationService;
+    private final File file;
+    private DataOutputStream out;
+    private DataInputStream in;
+
+    SpillFile(@Nonnull SerializationService serializationService, @Nonnull File dir) {
+        this.serializationService = serializationService;
+        try {
+            Files.createDirectories(dir.toPath());
+            file = File.createTempFile("jet-sort-", ".run", dir);
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+        } catch (IOException e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Returns a supplier of new spill files for the processor with the given
+     * context or {@code null}, if the context doesn't support spilling, such
+     * as the context used in processor tests. The processor deletes the files
+     * when it's done with them, the context deletes them if the execution
+     * fails before that.
+     */
+    @Nullable
+    static <T> Supplier<SpillFile<T>> spillFileSupplier(@Nonnull Processor.Context context) {
+        if (!(context instanceof ProcCtx)) {
+            return null;
+        }
+        ProcCtx ctx = (ProcCtx) context;
+        SerializationService serializationService = ctx.getSerializationService();
+        File dir = new File(context.jetInstance().getConfig().getInstanceConfig().getTempDir(), "jet-sort");
+        return () -> {
+            SpillFile<T> file = new SpillFile<>(serializationService, dir);
+            ctx.addDisposeAction(file::delete);
+            return file;
+        };
+    }
+
+    void append(@Nonnull T item) {
+        assert out != null : "already finished writing";
+        byte[] bytes = serializationService.toData(item).toByteArray();
+        try {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } catch (IOException e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Finishes writing and returns a traverser over the written items. Can
+     * be called only once.
+     */
+    @Nonnull
+    Traverser<T> traverser() {
+        try {
+            out.close();
+            out = null;
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+        } catch (IOException e) {
+            throw rethrow(e);
+        }
+        return () -> {
+            if (in == null) {
+                return null;
+            }
+            try {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    in.close();
+                    in = null;
+                    return null;
+                }
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                return serializationService.toObject(new HeapData(bytes));
+            } catch (IOException e) {
+                throw rethrow(e);
+            }
+        };
+    }
+
+    /**
+     * Closes the file and deletes it. Has no effect if already deleted.
+     */
+    void delete() {
+        IOUtil.closeResource(out);
+        IOUtil.closeResource(in);
+        IOUtil.deleteQuietly(file);
+    }
+}
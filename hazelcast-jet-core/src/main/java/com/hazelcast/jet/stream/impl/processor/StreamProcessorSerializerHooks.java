@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.stream.impl.processor;
+
+import com.hazelcast.jet.impl.serialization.SerializerHookConstants;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Serializer;
+import com.hazelcast.nio.serialization.SerializerHook;
+import com.hazelcast.nio.serialization.StreamSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hazelcast serializer hooks for the classes in the {@code
+ * com.hazelcast.jet.stream.impl.processor} package. This is not a
+ * public-facing API.
+ */
+class StreamProcessorSerializerHooks {
+    public static final class SortedChunkHook implements SerializerHook<SortedChunk> {
+
+        @Override
+        public Class<SortedChunk> getSerializationType() {
+            return SortedChunk.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<SortedChunk>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.SORTED_CHUNK;
+                }
+
+                @Override
+                public void destroy() {
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, SortedChunk object) throws IOException {
+                    List<?> items = object.items();
+                    out.writeInt(object.sourceId());
+                    out.writeInt(items.size());
+                    for (Object item : items) {
+                        out.writeObject(item);
+                    }
+                }
+
+                @Override
+                public SortedChunk read(ObjectDataInput in) throws IOException {
+                    int sourceId = in.readInt();
+                    int size = in.readInt();
+                    List<Object> items = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        items.add(in.readObject());
+                    }
+                    return new SortedChunk<>(sourceId, items);
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
+}
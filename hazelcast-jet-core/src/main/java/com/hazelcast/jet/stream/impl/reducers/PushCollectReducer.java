@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.stream.impl.reducers;
+
+import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.stream.DistributedCollector.Reducer;
+import com.hazelcast.jet.stream.impl.pipeline.Pipe;
+import com.hazelcast.jet.stream.impl.pipeline.StreamContext;
+import com.hazelcast.jet.stream.impl.processor.PushAccumulateP;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.stream.impl.reducers.CollectorReducer.buildCombiner;
+import static com.hazelcast.jet.stream.impl.reducers.CollectorReducer.execute;
+
+/**
+ * A variation of {@link BiConsumerCombinerReducer} used by the primitive
+ * streams: the items are accumulated by a {@link PushAccumulateP}, so the
+ * primitive values are never boxed.
+ */
+public class PushCollectReducer<R> implements Reducer<Object, R> {
+
+    private final Supplier<R> supplier;
+    private final Function<R, Consumer<Object>> accumulateFn;
+    private final BiConsumer<R, R> combiner;
+
+    public PushCollectReducer(Supplier<R> supplier, Function<R, Consumer<Object>> accumulateFn,
+                              BiConsumer<R, R> combiner) {
+        this.supplier = supplier;
+        this.accumulateFn = accumulateFn;
+        this.combiner = combiner;
+    }
+
+    @Override
+    public R reduce(StreamContext context, Pipe<?> upstream) {
+        DAG dag = new DAG();
+        Supplier<R> supplier = this.supplier;
+        Function<R, Consumer<Object>> accumulateFn = this.accumulateFn;
+        Vertex accumulatorVertex = dag.newVertex("accumulator",
+                () -> new PushAccumulateP<>(supplier, accumulateFn));
+        if (upstream.isOrdered()) {
+            accumulatorVertex.localParallelism(1);
+        }
+        Vertex previous = upstream.buildDAG(dag);
+        dag.edge(between(previous, accumulatorVertex));
+        Vertex combinerVertex = buildCombiner(dag, accumulatorVertex, combiner);
+
+        return execute(context, dag, combinerVertex, DistributedFunction.identity());
+    }
+}
@@ -19,14 +19,21 @@ package com.hazelcast.jet;
 import com.hazelcast.core.IMap;
 import com.hazelcast.jet.accumulator.LongAccumulator;
 import com.hazelcast.jet.aggregate.AggregateOperation;
+import com.hazelcast.jet.aggregate.AggregateOperation1;
+import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.jet.core.WindowDefinition;
 import com.hazelcast.jet.core.processor.Processors;
 import com.hazelcast.jet.datamodel.ItemsByTag;
+import com.hazelcast.jet.datamodel.Session;
 import com.hazelcast.jet.datamodel.Tag;
+import com.hazelcast.jet.datamodel.TimestampedEntry;
 import com.hazelcast.jet.datamodel.Tuple2;
 import com.hazelcast.jet.datamodel.Tuple3;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map.Entry;
@@ -37,6 +44,7 @@ import static com.hazelcast.jet.JoinClause.joinMapEntries;
 import static com.hazelcast.jet.Traversers.traverseIterable;
 import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
+import static com.hazelcast.jet.core.WindowDefinition.slidingWindowDef;
 import static com.hazelcast.jet.datamodel.ItemsByTag.itemsByTag;
 import static com.hazelcast.jet.datamodel.Tuple2.tuple2;
 import static com.hazelcast.jet.datamodel.Tuple3.tuple3;
@@ -123,6 +131,41 @@ public class ComputeStageTest extends PipelineTestSupport {
         assertEquals(toBag(expected), sinkToBag());
     }
 
+    @Test
+    public void when_statelessStagesChained_then_fusedIntoOneVertex() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+
+        // When
+        srcStage.map(i -> i * 2)
+                .filter(i -> i % 3 != 0)
+                .flatMap(i -> traverseIterable(asList(i + "A", i + "B")))
+                .drainTo(sink);
+        DAG dag = pipeline.toDag();
+        execute();
+
+        // Then
+        assertEquals(3, countVertices(dag));
+        List<String> expected = input.stream()
+                                     .map(i -> i * 2)
+                                     .filter(i -> i % 3 != 0)
+                                     .flatMap(i -> Stream.of(i + "A", i + "B"))
+                                     .collect(toList());
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
+    @Test
+    public void when_statelessStageHasTwoConsumers_then_notFused() {
+        // When
+        ComputeStage<Integer> mapped = srcStage.map(i -> i * 2);
+        mapped.map(i -> i + 1).drainTo(sink);
+        mapped.drainTo(Sinks.list(randomName()));
+
+        // Then
+        assertEquals(5, countVertices(pipeline.toDag()));
+    }
+
     @Test
     public void groupBy() {
         //Given
@@ -143,6 +186,84 @@ public class ComputeStageTest extends PipelineTestSupport {
         assertEquals(toBag(expected), sinkToBag());
     }
 
+    @Test
+    public void slidingWindow() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+        WindowDefinition wDef = slidingWindowDef(4, 2);
+
+        // When
+        ComputeStage<TimestampedEntry<Integer, Long>> windowed =
+                srcStage.window(wDef, i -> (long) i, i -> i % 2, counting());
+        windowed.drainTo(sink);
+        execute();
+
+        // Then
+        List<TimestampedEntry<Integer, Long>> expected = new ArrayList<>();
+        for (long end = wDef.frameLength(); end - wDef.windowLength() < ITEM_COUNT; end += wDef.frameLength()) {
+            long winStart = end - wDef.windowLength();
+            long winEnd = end;
+            for (int key = 0; key < 2; key++) {
+                int k = key;
+                long count = input.stream().filter(i -> i >= winStart && i < winEnd && i % 2 == k).count();
+                if (count > 0) {
+                    expected.add(new TimestampedEntry<>(winEnd, k, count));
+                }
+            }
+        }
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
+    @Test
+    public void sessionWindow() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+        int sessionTimeout = 3;
+
+        // When
+        // items with the same key are 2 apart, so they all fall into one session,
+        // except for the key 3 which is only assigned to the first and last item
+        ComputeStage<Session<Integer, Long>> sessions = srcStage.sessionWindow(sessionTimeout,
+                i -> (long) i, i -> i == 0 || i == ITEM_COUNT - 1 ? 3 : i % 2, counting());
+        sessions.drainTo(sink);
+        execute();
+
+        // Then
+        List<Session<Integer, Long>> expected = asList(
+                new Session<>(0, 2, ITEM_COUNT - 2 + sessionTimeout, (long) (ITEM_COUNT / 2 - 1)),
+                new Session<>(1, 1, ITEM_COUNT - 3 + sessionTimeout, (long) (ITEM_COUNT / 2 - 1)),
+                new Session<>(3, 0, sessionTimeout, 1L),
+                new Session<>(3, ITEM_COUNT - 1, ITEM_COUNT - 1 + sessionTimeout, 1L));
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
+    @Test
+    public void sessionWindow_whenNoCombineFn_thenSingleStage() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+        int sessionTimeout = 3;
+        AggregateOperation1<Integer, LongAccumulator, Long> countingNoCombine = AggregateOperation
+                .withCreate(LongAccumulator::new)
+                .andAccumulate((LongAccumulator count, Integer item) -> count.add(1))
+                .andFinish(LongAccumulator::get);
+
+        // When
+        srcStage.sessionWindow(sessionTimeout, i -> (long) i, i -> i % 2, countingNoCombine)
+                .drainTo(sink);
+        DAG dag = pipeline.toDag();
+        execute();
+
+        // Then
+        assertEquals(3, countVertices(dag));
+        List<Session<Integer, Long>> expected = asList(
+                new Session<>(0, 0, ITEM_COUNT - 2 + sessionTimeout, (long) (ITEM_COUNT / 2)),
+                new Session<>(1, 1, ITEM_COUNT - 1 + sessionTimeout, (long) (ITEM_COUNT / 2)));
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
     @Test
     public void hashJoinTwo() {
         // Given
@@ -194,6 +315,58 @@ public class ComputeStageTest extends PipelineTestSupport {
         assertEquals(toBag(expected), sinkToBag());
     }
 
+    @Test
+    public void hashJoinTwo_whenEnrichingStreamSpilled() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+        String enrichingName = randomName();
+        IMap<Integer, String> enriching = jet().getMap(enrichingName);
+        input.forEach(i -> enriching.put(i, i + "A"));
+        ComputeStage<Entry<Integer, String>> enrichingStage = pipeline.drawFrom(Sources.map(enrichingName));
+
+        // When
+        ComputeStage<Tuple2<Integer, String>> joined = srcStage.hashJoin(enrichingStage,
+                joinMapEntries(wholeItem()).spillingAbove(2));
+        joined.drainTo(sink);
+        execute();
+
+        // Then
+        List<Tuple2<Integer, String>> expected = input.stream()
+                                                      .map(i -> tuple2(i, i + "A"))
+                                                      .collect(toList());
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
+    @Test
+    public void hashJoinThree_whenEnrichingStreamsSpilled() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+        String enriching1Name = randomName();
+        String enriching2Name = randomName();
+        ComputeStage<Entry<Integer, String>> enrichingStage1 = pipeline.drawFrom(Sources.map(enriching1Name));
+        ComputeStage<Entry<Integer, String>> enrichingStage2 = pipeline.drawFrom(Sources.map(enriching2Name));
+        IMap<Integer, String> enriching1 = jet().getMap(enriching1Name);
+        IMap<Integer, String> enriching2 = jet().getMap(enriching2Name);
+        input.forEach(i -> enriching1.put(i, i + "A"));
+        input.forEach(i -> enriching2.put(i, i + "B"));
+
+        // When
+        ComputeStage<Tuple3<Integer, String, String>> joined = srcStage.hashJoin(
+                enrichingStage1, joinMapEntries(wholeItem()).spillingAbove(2),
+                enrichingStage2, joinMapEntries(wholeItem()).spillingAbove(2)
+        );
+        joined.drainTo(sink);
+        execute();
+
+        // Then
+        List<Tuple3<Integer, String, String>> expected = input.stream()
+                                                              .map(i -> tuple3(i, i + "A", i + "B"))
+                                                              .collect(toList());
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
     @Test
     public void hashJoinBuilder() {
         // Given
@@ -355,4 +528,12 @@ public class ComputeStageTest extends PipelineTestSupport {
                                      .collect(toList());
         assertEquals(toBag(expected), sinkToBag());
     }
+
+    private static int countVertices(DAG dag) {
+        int count = 0;
+        for (Vertex ignored : dag) {
+            count++;
+        }
+        return count;
+    }
 }
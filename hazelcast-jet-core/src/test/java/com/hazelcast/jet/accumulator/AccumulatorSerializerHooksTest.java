@@ -54,7 +54,10 @@ public class AccumulatorSerializerHooksTest {
                 new LinTrendAccumulator(7,
                         BigInteger.valueOf(9), BigInteger.valueOf(11), BigInteger.valueOf(13), BigInteger.valueOf(15)),
                 new LongLongAccumulator(2, 3),
-                new LongDoubleAccumulator(3, 4.5)
+                new LongDoubleAccumulator(3, 4.5),
+                new HyperLogLogAccumulator(4).addObject("foo").addObject("bar"),
+                new QuantileAccumulator(0.01).add(1.5).add(-2).add(0).add(1e6),
+                new FrequentItemsAccumulator<>(4).add("foo").add("foo").add("bar")
         );
     }
 
@@ -17,11 +17,14 @@
 package com.hazelcast.jet.aggregate;
 
 import com.hazelcast.jet.accumulator.DoubleAccumulator;
+import com.hazelcast.jet.accumulator.FrequentItemsAccumulator;
+import com.hazelcast.jet.accumulator.HyperLogLogAccumulator;
 import com.hazelcast.jet.accumulator.LinTrendAccumulator;
 import com.hazelcast.jet.accumulator.LongAccumulator;
 import com.hazelcast.jet.accumulator.LongDoubleAccumulator;
 import com.hazelcast.jet.accumulator.LongLongAccumulator;
 import com.hazelcast.jet.accumulator.MutableReference;
+import com.hazelcast.jet.accumulator.QuantileAccumulator;
 import com.hazelcast.jet.datamodel.ItemsByTag;
 import com.hazelcast.jet.datamodel.Tag;
 import com.hazelcast.jet.datamodel.Tuple2;
@@ -35,6 +38,7 @@ import org.junit.runner.RunWith;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
@@ -49,17 +53,20 @@ import static com.hazelcast.jet.aggregate.AggregateOperations.averagingDouble;
 import static com.hazelcast.jet.aggregate.AggregateOperations.averagingLong;
 import static com.hazelcast.jet.aggregate.AggregateOperations.concatenating;
 import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
+import static com.hazelcast.jet.aggregate.AggregateOperations.countingDistinctApprox;
 import static com.hazelcast.jet.aggregate.AggregateOperations.groupingBy;
 import static com.hazelcast.jet.aggregate.AggregateOperations.linearTrend;
 import static com.hazelcast.jet.aggregate.AggregateOperations.mapping;
 import static com.hazelcast.jet.aggregate.AggregateOperations.maxBy;
 import static com.hazelcast.jet.aggregate.AggregateOperations.minBy;
+import static com.hazelcast.jet.aggregate.AggregateOperations.quantilesApprox;
 import static com.hazelcast.jet.aggregate.AggregateOperations.reducing;
 import static com.hazelcast.jet.aggregate.AggregateOperations.summingDouble;
 import static com.hazelcast.jet.aggregate.AggregateOperations.summingLong;
 import static com.hazelcast.jet.aggregate.AggregateOperations.toList;
 import static com.hazelcast.jet.aggregate.AggregateOperations.toMap;
 import static com.hazelcast.jet.aggregate.AggregateOperations.toSet;
+import static com.hazelcast.jet.aggregate.AggregateOperations.topFrequentApprox;
 import static com.hazelcast.jet.datamodel.Tuple2.tuple2;
 import static com.hazelcast.jet.datamodel.Tuple3.tuple3;
 import static com.hazelcast.jet.function.DistributedComparator.naturalOrder;
@@ -259,6 +266,83 @@ public class AggregateOperationsTest {
         assertTrue("NaN expected if all data points have same x value", Double.isNaN(finishFn.apply(acc)));
     }
 
+    @Test
+    public void when_countingDistinctApprox() {
+        // Given
+        AggregateOperation1<Integer, HyperLogLogAccumulator, Long> op = countingDistinctApprox(14);
+        assertNull(op.deductFn());
+        HyperLogLogAccumulator a1 = op.createFn().get();
+        HyperLogLogAccumulator a2 = op.createFn().get();
+
+        // When
+        for (int i = 0; i < 6_000; i++) {
+            op.accumulateFn().accept(a1, i);
+            op.accumulateFn().accept(a2, i + 4_000);
+        }
+        op.combineFn().accept(a1, a2);
+
+        // Then
+        assertEquals(10_000, op.finishFn().apply(a1), 300);
+    }
+
+    @Test
+    public void when_quantilesApprox() {
+        // Given
+        AggregateOperation1<Integer, QuantileAccumulator, List<Double>> op =
+                quantilesApprox(Integer::doubleValue, 0.01, 0.5, 0.99);
+        assertNotNull(op.deductFn());
+        QuantileAccumulator a1 = op.createFn().get();
+        QuantileAccumulator a2 = op.createFn().get();
+
+        // When
+        for (int i = 1; i <= 1_000; i++) {
+            op.accumulateFn().accept(a1, i);
+            op.accumulateFn().accept(a2, i + 1_000);
+        }
+        op.combineFn().accept(a1, a2);
+
+        // Then
+        List<Double> result = op.finishFn().apply(a1);
+        assertEquals(1_000, result.get(0), 1_000 * 0.011);
+        assertEquals(1_980, result.get(1), 1_980 * 0.011);
+
+        // When
+        op.deductFn().accept(a1, a2);
+
+        // Then
+        result = op.finishFn().apply(a1);
+        assertEquals(500, result.get(0), 500 * 0.011);
+        assertEquals(990, result.get(1), 990 * 0.011);
+    }
+
+    @Test
+    public void when_topFrequentApprox() {
+        // Given
+        AggregateOperation1<String, FrequentItemsAccumulator<String>, List<Entry<String, Long>>> op =
+                topFrequentApprox(2);
+        assertNull(op.deductFn());
+        FrequentItemsAccumulator<String> a1 = op.createFn().get();
+        FrequentItemsAccumulator<String> a2 = op.createFn().get();
+
+        // When
+        for (int i = 0; i < 1_000; i++) {
+            op.accumulateFn().accept(a1, "cold" + i);
+            op.accumulateFn().accept(i % 2 == 0 ? a1 : a2, "hot");
+            if (i % 4 == 0) {
+                op.accumulateFn().accept(a2, "warm");
+            }
+        }
+        op.combineFn().accept(a1, a2);
+
+        // Then
+        List<Entry<String, Long>> top = op.finishFn().apply(a1);
+        assertEquals(2, top.size());
+        assertEquals("hot", top.get(0).getKey());
+        assertEquals("warm", top.get(1).getKey());
+        assertTrue(top.get(0).getValue() <= 1_000);
+        assertTrue(top.get(0).getValue() >= 1_000 - a1.maxError());
+    }
+
     @Test
     public void when_reducing() {
         validateOp(reducing(0, Integer::intValue, Integer::sum, (x, y) -> x - y),
@@ -32,6 +32,7 @@ import static com.hazelcast.jet.aggregate.AggregateOperations.averagingDouble;
 import static com.hazelcast.jet.aggregate.AggregateOperations.averagingLong;
 import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
 import static com.hazelcast.jet.aggregate.AggregateOperations.linearTrend;
+import static com.hazelcast.jet.aggregate.AggregateOperations.quantilesApprox;
 import static com.hazelcast.jet.aggregate.AggregateOperations.reducing;
 import static com.hazelcast.jet.aggregate.AggregateOperations.summingDouble;
 import static com.hazelcast.jet.aggregate.AggregateOperations.summingLong;
@@ -55,6 +56,7 @@ public class AggregateOperations_accEqualityTest {
                 averagingLong(Long::longValue),
                 averagingDouble(Double::doubleValue),
                 linearTrend(x -> 1L, x -> 1L),
+                quantilesApprox(x -> 1.0, 0.01, 0.5),
                 allOf(counting(), summingLong(Long::longValue)),
                 reducing(1, identity(), (a, b) -> a, (a, b) -> a)
         );
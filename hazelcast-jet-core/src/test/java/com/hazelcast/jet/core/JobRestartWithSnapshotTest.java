@@ -24,6 +24,7 @@ import com.hazelcast.jet.aggregate.AggregateOperation1;
 import com.hazelcast.jet.config.JetConfig;
 import com.hazelcast.jet.config.JobConfig;
 import com.hazelcast.jet.config.ProcessingGuarantee;
+import com.hazelcast.jet.config.SnapshotStorage;
 import com.hazelcast.jet.core.processor.SinkProcessors;
 import com.hazelcast.jet.core.test.TestProcessorMetaSupplierContext;
 import com.hazelcast.jet.core.test.TestSupport;
@@ -113,7 +114,30 @@ public class JobRestartWithSnapshotTest extends JetTestSupport {
         when_nodeDown_then_jobRestartsFromSnapshot(true);
     }
 
+    @Test
+    public void when_nodeDownWithDiskSnapshotStorage_then_jobRestartsFromSnapshot() throws Exception {
+        instance1.shutdown();
+        instance2.shutdown();
+        JetConfig config = new JetConfig();
+        config.getInstanceConfig().setCooperativeThreadCount(LOCAL_PARALLELISM)
+              .setSnapshotStorage(SnapshotStorage.LOCAL_DISK);
+        instance1 = createJetMember(config);
+        instance2 = createJetMember(config);
+
+        when_nodeDown_then_jobRestartsFromSnapshot(true);
+    }
+
+    @Test
+    public void when_nodeDownWithUnalignedSnapshots_then_jobRestartsFromSnapshot() throws Exception {
+        when_nodeDown_then_jobRestartsFromSnapshot(true, true);
+    }
+
     public void when_nodeDown_then_jobRestartsFromSnapshot(boolean twoStage) throws Exception {
+        when_nodeDown_then_jobRestartsFromSnapshot(twoStage, false);
+    }
+
+    public void when_nodeDown_then_jobRestartsFromSnapshot(boolean twoStage, boolean unalignedSnapshots)
+            throws Exception {
         /* Design of this test:
 
         It uses random partitioned generator of source events. The events are Map.Entry(partitionId, timestamp).
@@ -135,6 +159,10 @@ public class JobRestartWithSnapshotTest extends JetTestSupport {
 
         The sink writes to an IMap which is an idempotent sink.
 
+        With unaligned snapshots, the items received by aggregateStage1 and aggregateStage2 from the upstream
+        processors that didn't send the barrier yet are saved to the snapshot, restored to the processor
+        owning their partition on the remaining member and replayed.
+
         The resulting contents of the sink map are compared to expected value.
          */
 
@@ -187,9 +215,11 @@ public class JobRestartWithSnapshotTest extends JetTestSupport {
         JobConfig config = new JobConfig();
         config.setProcessingGuarantee(ProcessingGuarantee.EXACTLY_ONCE);
         config.setSnapshotIntervalMillis(1200);
+        config.setUnalignedSnapshots(unalignedSnapshots);
         Job job = instance1.newJob(dag, config);
 
-        SnapshotRepository snapshotRepository = new SnapshotRepository(instance1);
+        SnapshotRepository snapshotRepository =
+                new SnapshotRepository(instance1, getJetService(instance1).getSnapshotStore());
         int timeout = (int) (MILLISECONDS.toSeconds(config.getSnapshotIntervalMillis()) + 2);
 
         // wait until we have at least one snapshot
@@ -320,7 +350,8 @@ public class JobRestartWithSnapshotTest extends JetTestSupport {
     }
 
     private IStreamMap<Long, SnapshotRecord> getSnapshotsMap(Job job) {
-        SnapshotRepository snapshotRepository = new SnapshotRepository(instance1);
+        SnapshotRepository snapshotRepository =
+                new SnapshotRepository(instance1, getJetService(instance1).getSnapshotStore());
         return snapshotRepository.getSnapshotMap(job.getId());
     }
 
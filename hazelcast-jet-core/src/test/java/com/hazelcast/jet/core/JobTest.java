@@ -36,6 +36,7 @@ import org.junit.runner.RunWith;
 import javax.annotation.Nonnull;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
@@ -626,6 +627,43 @@ public class JobTest extends JetTestSupport {
         assertNotEquals(0, trackedJob.getSubmissionTime());
     }
 
+    @Test
+    public void when_jobIsRunning_then_metricsCollectedFromAllMembers() throws InterruptedException {
+        testJobMetricsWhenJobIsRunning(instance2);
+    }
+
+    @Test
+    public void when_jobIsRunning_then_metricsQueriedFromClient() throws InterruptedException {
+        testJobMetricsWhenJobIsRunning(createJetClient());
+    }
+
+    private void testJobMetricsWhenJobIsRunning(JetInstance instance) throws InterruptedException {
+        // Given
+        DAG dag = new DAG().vertex(new Vertex("test", new MockPS(StuckProcessor::new, NODE_COUNT)));
+
+        // When
+        Job job = instance1.newJob(dag);
+        StuckProcessor.executionStarted.await();
+        Job trackedJob = instance.getJob(job.getId());
+
+        // Then
+        assertNotNull(trackedJob);
+        assertTrueEventually(() -> {
+            Map<String, Long> metrics = trackedJob.getMetrics();
+            for (int i = 0; i < NODE_COUNT * LOCAL_PARALLELISM; i++) {
+                Long callCount = metrics.get("test#" + i + ".callCount");
+                assertNotNull(callCount);
+                assertTrue(callCount > 0);
+                assertEquals(Long.valueOf(0), metrics.get("test#" + i + ".emittedCount"));
+                assertEquals(Long.valueOf(0), metrics.get("test#" + i + ".receivedCount"));
+            }
+        });
+
+        StuckProcessor.proceedLatch.countDown();
+        job.join();
+        assertTrue(trackedJob.getMetrics().isEmpty());
+    }
+
     private void joinAndExpectCancellation(Job job) {
         try {
             job.join();
@@ -17,6 +17,8 @@
 package com.hazelcast.jet.core;
 
 import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.config.CompressionCodec;
+import com.hazelcast.jet.config.EdgeConfig;
 import com.hazelcast.jet.config.JetConfig;
 import com.hazelcast.jet.core.TestProcessors.ListSource;
 import com.hazelcast.jet.core.processor.SinkProcessors;
@@ -59,6 +61,20 @@ public class PartitionAlignmentTest extends JetTestSupport {
 
     @Test
     public void when_localAndDistributedEdges_thenPartitionsAligned() throws Throwable {
+        testPartitionsAligned(new EdgeConfig());
+    }
+
+    @Test
+    public void when_distributedEdgeWithManyLanes_thenPartitionsAligned() throws Throwable {
+        testPartitionsAligned(new EdgeConfig().setLaneCount(3));
+    }
+
+    @Test
+    public void when_compressedDistributedEdge_thenPartitionsAligned() throws Throwable {
+        testPartitionsAligned(new EdgeConfig().setCompressionCodec(CompressionCodec.DEFLATE));
+    }
+
+    private void testPartitionsAligned(EdgeConfig distributedEdgeConfig) throws Throwable {
         final int localProcessorCount = PARTITION_COUNT / 4;
         final List<Integer> items = range(0, ITEM_COUNT).boxed().collect(toList());
         final DistributedSupplier<Processor> supplierOfListProducer = () -> new ListSource(items);
@@ -74,7 +90,8 @@ public class PartitionAlignmentTest extends JetTestSupport {
         final Vertex consumer = dag.newVertex("consumer", SinkProcessors.writeListP("numbers"))
                                    .localParallelism(1);
 
-        dag.edge(between(distributedProducer, processor).partitioned(wholeItem(), partitioner).distributed())
+        dag.edge(between(distributedProducer, processor).partitioned(wholeItem(), partitioner).distributed()
+                                                        .setConfig(distributedEdgeConfig))
            .edge(from(localProducer).to(processor, 1).partitioned(wholeItem(), partitioner))
            .edge(between(processor, consumer));
 
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.hazelcast.jet.core.Partitioner.HASH_CODE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Category(ParallelTest.class)
+@RunWith(HazelcastParallelClassRunner.class)
+public class HotKeyPartitionerTest {
+
+    private static final int PARTITION_COUNT = 271;
+
+    private HotKeyPartitioner partitioner;
+
+    @Before
+    public void before() {
+        partitioner = new HotKeyPartitioner(HASH_CODE);
+        partitioner.init(object -> 0);
+    }
+
+    @Test
+    public void when_oneKeyDominates_then_spreadOverPartitions_andOtherKeysNot() {
+        Set<Integer> hotKeyPartitions = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            int hotKeyPartition = partitioner.getPartition("hot", PARTITION_COUNT);
+            if (i > 10_000) {
+                hotKeyPartitions.add(hotKeyPartition);
+            }
+            int coldKey = 1000 + i;
+            assertEquals(HASH_CODE.getPartition(coldKey, PARTITION_COUNT),
+                    partitioner.getPartition(coldKey, PARTITION_COUNT));
+        }
+        assertTrue("hot key was routed to " + hotKeyPartitions.size() + " partitions",
+                hotKeyPartitions.size() > PARTITION_COUNT / 2);
+    }
+
+    @Test
+    public void when_uniformKeys_then_partitionedByKey() {
+        for (int i = 0; i < 100_000; i++) {
+            int key = i % 1000;
+            assertEquals(HASH_CODE.getPartition(key, PARTITION_COUNT), partitioner.getPartition(key, PARTITION_COUNT));
+        }
+    }
+}
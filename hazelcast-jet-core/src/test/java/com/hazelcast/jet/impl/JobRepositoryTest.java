@@ -29,9 +29,12 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.List;
 import java.util.Properties;
 
 import static com.hazelcast.jet.impl.JobRepository.RANDOM_IDS_MAP_NAME;
+import static com.hazelcast.jet.impl.JobRepository.RESOURCE_BLOBS_MAP_NAME;
+import static com.hazelcast.jet.impl.JobRepository.RESOURCE_BLOB_TIMES_MAP_NAME;
 import static com.hazelcast.jet.impl.util.JetGroupProperty.JOB_SCAN_PERIOD;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
@@ -104,6 +107,7 @@ public class JobRepositoryTest extends JetTestSupport {
 
         assertNotNull(jobRepository.getJobRecord(jobId));
         assertFalse(jobRepository.getJobResources(jobId).isEmpty());
+        assertFalse(instance.getMap(RESOURCE_BLOBS_MAP_NAME).isEmpty());
         assertTrue(jobIds.containsKey(executionId1));
         assertTrue(jobIds.containsKey(executionId2));
     }
@@ -138,6 +142,56 @@ public class JobRepositoryTest extends JetTestSupport {
         assertTrue(jobRepository.getJobResources(jobId).isEmpty());
     }
 
+    @Test
+    public void when_sameResourcesUploadedTwice_then_blobShared() {
+        long jobId1 = uploadResourcesForNewJob();
+        long jobId2 = jobRepository.uploadJobResources(jobConfig);
+
+        assertEquals(1, jobRepository.getResourceManifest(jobId1).size());
+        assertEquals(jobRepository.getResourceManifest(jobId1), jobRepository.getResourceManifest(jobId2));
+        // the list of the blob's resource names and its single resource
+        assertEquals(2, instance.getMap(RESOURCE_BLOBS_MAP_NAME).size());
+    }
+
+    @Test
+    public void when_resourcesUploaded_then_eachResourceStoredSeparately() {
+        long jobId = uploadResourcesForNewJob();
+        String hash = jobRepository.getResourceManifest(jobId).get(0);
+
+        List<String> names = jobRepository.getResourceBlobEntryNames(hash);
+        assertEquals(1, names.size());
+        assertTrue(names.get(0).endsWith("DummyClass.class"));
+        assertNotNull(jobRepository.getResourceBlobEntry(hash, names.get(0)));
+        assertTrue(instance.getMap(RESOURCE_BLOBS_MAP_NAME).containsKey(hash + '/' + names.get(0)));
+    }
+
+    @Test
+    public void when_resourceBlobUnusedAndExpired_then_blobCleanedUp() {
+        uploadResourcesForNewJob();
+
+        sleepUntilJobExpires();
+
+        jobRepository.cleanup(emptySet());
+
+        assertTrue(instance.getMap(RESOURCE_BLOBS_MAP_NAME).isEmpty());
+    }
+
+    @Test
+    public void when_expiredResourceBlobLockedByUpload_then_blobNotCleanedUp() throws Exception {
+        long jobId = uploadResourcesForNewJob();
+        String hash = jobRepository.getResourceManifest(jobId).get(0);
+        IMap<String, Long> blobTimes = instance.getMap(RESOURCE_BLOB_TIMES_MAP_NAME);
+
+        sleepUntilJobExpires();
+        // another submission is checking for the blob in another thread
+        spawn(() -> blobTimes.lock(hash)).get();
+
+        jobRepository.cleanup(emptySet());
+
+        assertTrue(instance.getMap(RESOURCE_BLOBS_MAP_NAME).containsKey(hash));
+        blobTimes.forceUnlock(hash);
+    }
+
     @Test
     public void when_jobResourceUploadFails_then_jobResourcesCleanedUp() {
         jobConfig.addResource("invalid path");
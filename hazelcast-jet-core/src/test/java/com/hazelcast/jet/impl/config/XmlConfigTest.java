@@ -17,8 +17,10 @@
 package com.hazelcast.jet.impl.config;
 
 import com.hazelcast.config.Config;
+import com.hazelcast.jet.config.CompressionCodec;
 import com.hazelcast.jet.config.EdgeConfig;
 import com.hazelcast.jet.config.JetConfig;
+import com.hazelcast.jet.config.SnapshotStorage;
 import com.hazelcast.jet.impl.util.Util;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import org.junit.Ignore;
@@ -172,12 +174,15 @@ public class XmlConfigTest {
         assertEquals("queueSize", 999, edgeConfig.getQueueSize());
         assertEquals("packetSizeLimit", 997, edgeConfig.getPacketSizeLimit());
         assertEquals("receiveWindowMultiplier", 996, edgeConfig.getReceiveWindowMultiplier());
+        assertEquals("laneCount", 995, edgeConfig.getLaneCount());
+        assertEquals("compressionCodec", CompressionCodec.DEFLATE, edgeConfig.getCompressionCodec());
     }
 
     private static void assertConfig(JetConfig jetConfig) {
         assertEquals("cooperativeThreadCount", 55, jetConfig.getInstanceConfig().getCooperativeThreadCount());
         assertEquals("tempDir", "/var/tmp", jetConfig.getInstanceConfig().getTempDir());
         assertEquals("backupCount", 2, jetConfig.getInstanceConfig().getBackupCount());
+        assertEquals("snapshotStorage", SnapshotStorage.LOCAL_DISK, jetConfig.getInstanceConfig().getSnapshotStorage());
         assertEquals("flowControlMs", 50, jetConfig.getInstanceConfig().getFlowControlPeriodMs());
 
         assertEquals("value1", jetConfig.getProperties().getProperty("property1"));
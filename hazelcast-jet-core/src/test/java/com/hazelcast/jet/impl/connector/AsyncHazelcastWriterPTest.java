@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.jet.core.test.TestInbox;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.jet.impl.connector.HazelcastWriters.AsyncHazelcastWriterP;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.jet.impl.connector.HazelcastWriters.AsyncHazelcastWriterP.MAX_PARALLEL_ASYNC_OPS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(ParallelTest.class)
+public class AsyncHazelcastWriterPTest {
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    private final List<MockCompletableFuture<Object>> futures = new ArrayList<>();
+    private final TestInbox inbox = new TestInbox();
+    private AsyncHazelcastWriterP<Integer> p;
+
+    @Before
+    public void before() {
+        p = new AsyncHazelcastWriterP<>(mock(HazelcastInstance.class), item -> {
+            MockCompletableFuture<Object> future = new MockCompletableFuture<>();
+            futures.add(future);
+            return future;
+        }, true);
+        p.init(new TestOutbox(1), new TestProcessorContext());
+    }
+
+    @Test
+    public void when_maxParallelOpsInFlight_then_backPressure() {
+        for (int i = 0; i <= MAX_PARALLEL_ASYNC_OPS; i++) {
+            inbox.add(i);
+        }
+
+        p.process(0, inbox);
+        assertEquals(MAX_PARALLEL_ASYNC_OPS, futures.size());
+        assertEquals(1, inbox.size());
+
+        p.process(0, inbox);
+        assertEquals("no new op expected while the limit is reached", MAX_PARALLEL_ASYNC_OPS, futures.size());
+
+        futures.get(0).complete(null);
+        p.process(0, inbox);
+        assertEquals(MAX_PARALLEL_ASYNC_OPS + 1, futures.size());
+        assertTrue(inbox.isEmpty());
+    }
+
+    @Test
+    public void when_opsInFlight_then_completeAndSnapshotWaitForThem() {
+        inbox.add(1);
+        inbox.add(2);
+        p.process(0, inbox);
+
+        assertFalse(p.complete());
+        assertFalse(p.saveToSnapshot());
+        futures.get(0).complete(null);
+        assertFalse(p.complete());
+        futures.get(1).complete(null);
+        assertTrue(p.saveToSnapshot());
+        assertTrue(p.complete());
+    }
+
+    @Test
+    public void when_opFails_then_completeThrows() {
+        inbox.add(1);
+        inbox.add(2);
+        p.process(0, inbox);
+        futures.get(0).completeExceptionally(new RuntimeException("mock failure"));
+        futures.get(1).complete(null);
+
+        exception.expectMessage("mock failure");
+        p.complete();
+    }
+
+    @Test
+    public void when_opFails_then_nextItemThrows() {
+        inbox.add(1);
+        p.process(0, inbox);
+        futures.get(0).completeExceptionally(new RuntimeException("mock failure"));
+
+        inbox.add(2);
+        exception.expectMessage("mock failure");
+        p.process(0, inbox);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.ICompletableFuture;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * An {@link ICompletableFuture} the test completes by hand.
+ */
+class MockCompletableFuture<V> extends CompletableFuture<V> implements ICompletableFuture<V> {
+
+    @Override
+    public void andThen(ExecutionCallback<V> callback) {
+        whenComplete((r, t) -> notify(callback, r, t));
+    }
+
+    @Override
+    public void andThen(ExecutionCallback<V> callback, Executor executor) {
+        whenCompleteAsync((r, t) -> notify(callback, r, t), executor);
+    }
+
+    private static <V> void notify(ExecutionCallback<V> callback, V response, Throwable error) {
+        if (error != null) {
+            callback.onFailure(error);
+        } else {
+            callback.onResponse(response);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.impl.connector.ReadMapOrCacheP.Reader;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class ReadMapOrCachePTest {
+
+    @Test
+    public void when_readFromTwoPartitions_then_emitBatchesRoundRobin() {
+        // Given
+        Map<Integer, List<List<Integer>>> content = new HashMap<>();
+        content.put(0, asList(asList(1, 2), asList(3)));
+        content.put(1, asList(asList(11), asList(12, 13)));
+        MockReader reader = new MockReader(content);
+        ReadMapOrCacheP<MockBatch, Integer> p = new ReadMapOrCacheP<>(reader, asList(0, 1));
+        TestOutbox outbox = new TestOutbox(10);
+        p.init(outbox, mock(Processor.Context.class));
+
+        // When
+        assertTrue(p.complete());
+
+        // Then
+        assertEquals(asList(1, 2, 11, 3, 12, 13), new ArrayList<>(outbox.queue(0)));
+    }
+
+    @Test
+    public void when_readNotDone_then_waitForIt() {
+        // Given
+        Map<Integer, List<List<Integer>>> content = new HashMap<>();
+        content.put(0, asList(asList(1, 2)));
+        MockReader reader = new MockReader(content);
+        reader.pendingRead = new CompletableFuture<>();
+        ReadMapOrCacheP<MockBatch, Integer> p = new ReadMapOrCacheP<>(reader, asList(0));
+        TestOutbox outbox = new TestOutbox(10);
+        p.init(outbox, mock(Processor.Context.class));
+
+        // When
+        assertFalse(p.complete());
+
+        // Then
+        assertEquals(0, outbox.queue(0).size());
+
+        // When
+        reader.pendingRead.complete(new MockBatch(asList(1, 2), -1));
+
+        // Then
+        assertTrue(p.complete());
+        assertEquals(asList(1, 2), new ArrayList<>(outbox.queue(0)));
+    }
+
+    @Test
+    public void when_outboxFull_then_resumeEmitting() {
+        // Given
+        Map<Integer, List<List<Integer>>> content = new HashMap<>();
+        content.put(0, asList(asList(1, 2, 3), asList(4)));
+        ReadMapOrCacheP<MockBatch, Integer> p = new ReadMapOrCacheP<>(new MockReader(content), asList(0));
+        TestOutbox outbox = new TestOutbox(2);
+        p.init(outbox, mock(Processor.Context.class));
+        List<Object> actual = new ArrayList<>();
+
+        // When
+        assertFalse(p.complete());
+        outbox.drainQueueAndReset(0, actual, false);
+        assertTrue(p.complete());
+        outbox.drainQueueAndReset(0, actual, false);
+
+        // Then
+        assertEquals(asList(1, 2, 3, 4), actual);
+    }
+
+    @Test
+    public void when_manyPartitions_then_readsInFlightLimited() {
+        // Given
+        Map<Integer, List<List<Integer>>> content = new HashMap<>();
+        List<Integer> partitions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            content.put(i, asList(asList(i)));
+            partitions.add(i);
+        }
+        MockReader reader = new MockReader(content);
+        reader.deferredReads = new ArrayList<>();
+        ReadMapOrCacheP<MockBatch, Integer> p = new ReadMapOrCacheP<>(reader, partitions);
+        TestOutbox outbox = new TestOutbox(10);
+        p.init(outbox, mock(Processor.Context.class));
+        assertEquals(asList(0, 1, 2, 3), reader.readPartitions);
+
+        // When
+        reader.deferredReads.get(0).complete(new MockBatch(asList(100), 0));
+        assertFalse(p.complete());
+
+        // Then
+        assertEquals(asList(100), new ArrayList<>(outbox.queue(0)));
+        // the partition isn't exhausted, its next read takes the free slot
+        assertEquals(asList(0, 1, 2, 3, 0), reader.readPartitions);
+
+        // When
+        reader.deferredReads.get(1).complete(new MockBatch(asList(101), -1));
+        assertFalse(p.complete());
+
+        // Then
+        // the partition is exhausted, a new partition takes the free slot
+        assertEquals(asList(0, 1, 2, 3, 0, 4), reader.readPartitions);
+    }
+
+    /**
+     * Serves the batches of each partition in order. The table index is the
+     * number of batches left to read, as Hazelcast reads from the end.
+     */
+    private static final class MockReader extends Reader<MockBatch, Integer> {
+
+        private final Map<Integer, List<List<Integer>>> content;
+        final List<Integer> readPartitions = new ArrayList<>();
+        CompletableFuture<MockBatch> pendingRead;
+        // if not null, each read returns a new future the test completes
+        List<CompletableFuture<MockBatch>> deferredReads;
+
+        MockReader(Map<Integer, List<List<Integer>>> content) {
+            this.content = content;
+        }
+
+        @Nonnull @Override
+        Future<MockBatch> readBatch(int partitionId, int tableIndex) {
+            readPartitions.add(partitionId);
+            if (pendingRead != null) {
+                return pendingRead;
+            }
+            if (deferredReads != null) {
+                CompletableFuture<MockBatch> future = new CompletableFuture<>();
+                deferredReads.add(future);
+                return future;
+            }
+            List<List<Integer>> batches = content.get(partitionId);
+            int batchIndex = tableIndex == Integer.MAX_VALUE ? 0 : batches.size() - tableIndex;
+            return CompletableFuture.completedFuture(batchIndex < batches.size()
+                    ? new MockBatch(batches.get(batchIndex), batches.size() - batchIndex - 1)
+                    : new MockBatch(emptyList(), -1));
+        }
+
+        @Override
+        int toNextIndex(@Nonnull MockBatch batch) {
+            return batch.nextIndex;
+        }
+
+        @Nonnull @Override
+        List<Integer> toRecords(@Nonnull MockBatch batch) {
+            return batch.items;
+        }
+
+        @Override
+        Object toObject(@Nonnull Integer record) {
+            return record;
+        }
+    }
+
+    private static final class MockBatch {
+        final List<Integer> items;
+        final int nextIndex;
+
+        MockBatch(List<Integer> items, int nextIndex) {
+            this.items = items;
+            this.nextIndex = nextIndex;
+        }
+    }
+}
@@ -26,8 +26,11 @@ import com.hazelcast.jet.core.test.TestInbox;
 import com.hazelcast.jet.core.test.TestOutbox;
 import com.hazelcast.jet.core.test.TestProcessorContext;
 import com.hazelcast.jet.core.test.TestSupport;
+import com.hazelcast.journal.EventJournalInitialSubscriberState;
+import com.hazelcast.journal.EventJournalReader;
 import com.hazelcast.map.impl.proxy.MapProxyImpl;
 import com.hazelcast.map.journal.EventJournalMapEvent;
+import com.hazelcast.ringbuffer.ReadResultSet;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import org.junit.Before;
 import org.junit.Test;
@@ -41,17 +44,30 @@ import java.util.Map.Entry;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static com.hazelcast.jet.JournalInitialPosition.START_FROM_OLDEST;
 import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.core.BroadcastKey.broadcastKey;
 import static com.hazelcast.jet.core.WatermarkGenerationParams.wmGenParams;
 import static com.hazelcast.jet.core.WatermarkPolicies.withFixedLag;
 import static com.hazelcast.jet.core.test.TestSupport.SAME_ITEMS_ANY_ORDER;
 import static com.hazelcast.spi.properties.GroupProperty.PARTITION_COUNT;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith(HazelcastParallelClassRunner.class)
 public class StreamEventJournalPTest extends JetTestSupport {
@@ -59,6 +75,8 @@ public class StreamEventJournalPTest extends JetTestSupport {
     private static final int NUM_PARTITIONS = 2;
     private static final int JOURNAL_CAPACITY = 10;
 
+    private final List<MockRead> reads = new ArrayList<>();
+    private final TestOutbox outbox = new TestOutbox(new int[]{1024}, 1024);
     private MapProxyImpl<Integer, Integer> map;
     private Supplier<Processor> supplier;
 
@@ -192,6 +210,87 @@ public class StreamEventJournalPTest extends JetTestSupport {
         assertRestore(snapshotItems);
     }
 
+    @Test
+    public void when_restoredBeforeSubscriptionDone_then_readFromRestoredOffset() {
+        MockCompletableFuture<EventJournalInitialSubscriberState> subscribeFuture = new MockCompletableFuture<>();
+        EventJournalReader<Integer> reader = mockReader(subscribeFuture);
+        StreamEventJournalP<Integer, Integer> p = createProcessor(reader);
+        assertTrue(p.isCooperative());
+        p.init(new TestOutbox(new int[]{16}, 16), new TestProcessorContext());
+
+        TestInbox inbox = new TestInbox();
+        inbox.add(entry(broadcastKey(0), new long[] {5, Long.MIN_VALUE}));
+        p.restoreFromSnapshot(inbox);
+        p.finishSnapshotRestore();
+
+        // the subscription isn't done yet, the processor must not block
+        assertFalse(p.complete());
+        verify(reader, never()).readFromEventJournal(anyLong(), anyInt(), anyInt(), anyInt(), any(), any());
+
+        EventJournalInitialSubscriberState state = mock(EventJournalInitialSubscriberState.class);
+        when(state.getOldestSequence()).thenReturn(0L);
+        subscribeFuture.complete(state);
+        assertFalse(p.complete());
+        verify(reader).readFromEventJournal(eq(5L), anyInt(), anyInt(), eq(0), any(), any());
+    }
+
+    @Test
+    public void when_fullBatches_then_fetchSizeGrowsAndReadsPipelined() {
+        StreamEventJournalP<Integer, Integer> p = subscribedProcessor();
+
+        completeRead(0, 128, sequences(0, 128));
+        assertFalse(p.complete());
+
+        assertEquals(range(0, 128), drainOutbox());
+        assertReads(read(0, 128), read(128, 256), read(384, 256), read(640, 256), read(896, 256));
+    }
+
+    @Test
+    public void when_readEndsEarly_then_staleReadsDiscardedAndFetchSizeShrinks() {
+        StreamEventJournalP<Integer, Integer> p = subscribedProcessor();
+        completeRead(0, 128, sequences(0, 128));
+        assertFalse(p.complete());
+        drainOutbox();
+
+        // the backlog is consumed: the read returns less than a quarter of maxSize
+        completeRead(1, 10, sequences(128, 138));
+        assertFalse(p.complete());
+
+        assertEquals(range(128, 138), drainOutbox());
+        // the reads at 384, 640 and 896 would skip events 138..383 and are dropped
+        assertReads(read(0, 128), read(128, 256), read(384, 256), read(640, 256), read(896, 256), read(138, 128));
+
+        // a dropped read completing later is ignored
+        completeRead(2, 256, sequences(384, 640));
+        assertFalse(p.complete());
+        assertEquals(emptyList(), drainOutbox());
+
+        completeRead(5, 2, sequences(138, 140));
+        assertFalse(p.complete());
+        assertEquals(range(138, 140), drainOutbox());
+        assertReads(read(0, 128), read(128, 256), read(384, 256), read(640, 256), read(896, 256), read(138, 128),
+                read(140, 128));
+    }
+
+    @Test
+    public void when_predicateRejectsEvents_then_overlapSkippedAndPipeliningStops() {
+        StreamEventJournalP<Integer, Integer> p = subscribedProcessor();
+        completeRead(0, 128, sequences(0, 128));
+        assertFalse(p.complete());
+        drainOutbox();
+
+        // events 128..171 were rejected, so the read scanned up to 427. The
+        // pipelined read at 384 overlaps it.
+        completeRead(1, 300, sequences(172, 428));
+        assertFalse(p.complete());
+        assertEquals(range(172, 428), drainOutbox());
+        assertEquals("no read expected while filtering", 5, reads.size());
+
+        completeRead(2, 256, sequences(384, 640));
+        assertFalse(p.complete());
+        assertEquals(range(428, 640), drainOutbox());
+    }
+
     private void assertRestore(List<Entry> snapshotItems) {
         Processor p = supplier.get();
         TestOutbox newOutbox = new TestOutbox(new int[]{16}, 16);
@@ -209,4 +308,93 @@ public class StreamEventJournalPTest extends JetTestSupport {
             assertEquals("consumed different number of items than expected", JOURNAL_CAPACITY, output.size());
         }, 3);
     }
+
+    /**
+     * Returns a reader of a single partition, 0. Each read is recorded in
+     * {@link #reads} and returns a future the test completes.
+     */
+    @SuppressWarnings("unchecked")
+    private EventJournalReader<Integer> mockReader(
+            MockCompletableFuture<EventJournalInitialSubscriberState> subscribeFuture
+    ) {
+        EventJournalReader<Integer> reader = mock(EventJournalReader.class);
+        when(reader.subscribeToEventJournal(0)).thenReturn(subscribeFuture);
+        when(reader.readFromEventJournal(anyLong(), anyInt(), anyInt(), anyInt(), any(), any()))
+                .thenAnswer(invocation -> {
+                    Object[] args = invocation.getArguments();
+                    MockRead read = new MockRead((long) args[0], (int) args[2]);
+                    reads.add(read);
+                    return read.future;
+                });
+        return reader;
+    }
+
+    /**
+     * Creates a processor reading partition 0 from offset 0 and waits until
+     * it issues the first read.
+     */
+    private StreamEventJournalP<Integer, Integer> subscribedProcessor() {
+        MockCompletableFuture<EventJournalInitialSubscriberState> subscribeFuture = new MockCompletableFuture<>();
+        EventJournalInitialSubscriberState state = mock(EventJournalInitialSubscriberState.class);
+        when(state.getOldestSequence()).thenReturn(0L);
+        subscribeFuture.complete(state);
+        StreamEventJournalP<Integer, Integer> p = createProcessor(mockReader(subscribeFuture));
+        p.init(outbox, new TestProcessorContext());
+        assertFalse(p.complete());
+        assertReads(read(0, 128));
+        return p;
+    }
+
+    /**
+     * Completes the read with the events at the given sequences, the
+     * event being the sequence itself.
+     */
+    @SuppressWarnings("unchecked")
+    private void completeRead(int readIndex, int readCount, long... sequences) {
+        ReadResultSet<Integer> resultSet = mock(ReadResultSet.class);
+        when(resultSet.readCount()).thenReturn(readCount);
+        when(resultSet.size()).thenReturn(sequences.length);
+        when(resultSet.get(anyInt())).thenAnswer(inv -> (int) sequences[(int) inv.getArguments()[0]]);
+        when(resultSet.getSequence(anyInt())).thenAnswer(inv -> sequences[(int) inv.getArguments()[0]]);
+        reads.get(readIndex).future.complete(resultSet);
+    }
+
+    private void assertReads(String... expected) {
+        assertEquals(asList(expected), reads.stream().map(r -> read(r.offset, r.maxSize)).collect(toList()));
+    }
+
+    private static String read(long offset, int maxSize) {
+        return offset + "+" + maxSize;
+    }
+
+    private List<Object> drainOutbox() {
+        List<Object> output = new ArrayList<>();
+        outbox.drainQueueAndReset(0, output, false);
+        output.removeIf(item -> !(item instanceof Integer));
+        return output;
+    }
+
+    private static List<Integer> range(int from, int to) {
+        return IntStream.range(from, to).boxed().collect(toList());
+    }
+
+    private static long[] sequences(int from, int to) {
+        return LongStream.range(from, to).toArray();
+    }
+
+    private static final class MockRead {
+        final long offset;
+        final int maxSize;
+        final MockCompletableFuture<ReadResultSet<Integer>> future = new MockCompletableFuture<>();
+
+        MockRead(long offset, int maxSize) {
+            this.offset = offset;
+            this.maxSize = maxSize;
+        }
+    }
+
+    private StreamEventJournalP<Integer, Integer> createProcessor(EventJournalReader<Integer> reader) {
+        return new StreamEventJournalP<>(reader, singletonList(0), e -> true, e -> e, START_FROM_OLDEST, false,
+                wmGenParams(Integer::intValue, withFixedLag(0), suppressAll(), -1));
+    }
 }
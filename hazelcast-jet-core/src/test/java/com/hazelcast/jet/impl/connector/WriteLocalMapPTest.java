@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.config.JetConfig;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.jet.core.test.TestInbox;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.jet.impl.connector.HazelcastWriters.WriteLocalMapP;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+import static com.hazelcast.jet.Util.entry;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class WriteLocalMapPTest extends JetTestSupport {
+
+    private static final int ITEM_COUNT = 10_000;
+
+    private JetInstance instance;
+    private TestInbox inbox;
+
+    @Before
+    public void before() {
+        JetConfig config = new JetConfig();
+        // values are deserialized when stored, so a failing deserialization fails the put
+        config.getHazelcastConfig().addMapConfig(new MapConfig("objectMap").setInMemoryFormat(InMemoryFormat.OBJECT));
+        instance = createJetMember(config);
+        inbox = new TestInbox();
+    }
+
+    @Test
+    public void when_complete_then_allItemsFlushed() {
+        WriteLocalMapP p = createProcessor("map");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            inbox.add(entry(i, i));
+        }
+
+        p.process(0, inbox);
+        assertTrue("items left in the inbox", inbox.isEmpty());
+        assertTrueEventually(() -> assertTrue("complete() didn't finish", p.complete()), 10);
+
+        assertEquals(ITEM_COUNT, instance.getMap("map").size());
+    }
+
+    @Test
+    public void when_snapshot_then_allItemsFlushed() {
+        WriteLocalMapP p = createProcessor("map");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            inbox.add(entry(i, i));
+        }
+
+        p.process(0, inbox);
+        assertTrueEventually(() -> assertTrue("saveToSnapshot() didn't finish", p.saveToSnapshot()), 10);
+
+        assertEquals(ITEM_COUNT, instance.getMap("map").size());
+    }
+
+    @Test
+    public void when_putFails_then_completeThrows() {
+        WriteLocalMapP p = createProcessor("objectMap");
+        inbox.add(entry(1, new FailingValue()));
+
+        p.process(0, inbox);
+        try {
+            assertTrueEventually(() -> assertTrue(p.complete()), 10);
+            fail("complete() didn't throw");
+        } catch (AssertionError e) {
+            throw e;
+        } catch (Throwable e) {
+            assertTrue("unexpected exception: " + e, causeMessages(e).contains(FailingValue.MESSAGE));
+        }
+    }
+
+    private WriteLocalMapP createProcessor(String mapName) {
+        WriteLocalMapP p = new WriteLocalMapP(mapName);
+        p.init(new TestOutbox(1), new TestProcessorContext().setJetInstance(instance));
+        return p;
+    }
+
+    private static String causeMessages(Throwable e) {
+        StringBuilder sb = new StringBuilder();
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            sb.append(t.getMessage()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public static class FailingValue implements DataSerializable {
+
+        static final String MESSAGE = "mock deserialization failure";
+
+        @Override
+        public void writeData(ObjectDataOutput out) {
+        }
+
+        @Override
+        public void readData(ObjectDataInput in) throws IOException {
+            throw new IOException(MESSAGE);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.deployment;
+
+import com.hazelcast.core.Member;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DeflaterOutputStream;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class ResourceCacheTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final Map<String, Map<String, byte[]>> blobs = new HashMap<>();
+    private final AtomicInteger fetchCount = new AtomicInteger();
+    private ResourceCache cache;
+
+    @Before
+    public void before() throws IOException {
+        NodeEngine nodeEngine = mock(NodeEngine.class);
+        Member member = mock(Member.class);
+        when(nodeEngine.getLogger(ResourceCache.class)).thenReturn(Logger.getLogger(ResourceCache.class));
+        when(nodeEngine.getLocalMember()).thenReturn(member);
+        when(member.getUuid()).thenReturn("member");
+        cache = new ResourceCache(nodeEngine, tempFolder.getRoot().getAbsolutePath());
+
+        blobs.put("a", blob("a.txt", "a"));
+        blobs.put("b", blob("pkg/b.txt", "b"));
+    }
+
+    @Test
+    public void when_blobDirs_then_blobsInflatedInOrder() throws IOException {
+        List<File> dirs = cache.blobDirs(asList("b", "a"), this::fetchNames, this::fetchResource);
+
+        assertEquals(2, dirs.size());
+        assertEquals("b", read(new File(dirs.get(0), "pkg/b.txt")));
+        assertEquals("a", read(new File(dirs.get(1), "a.txt")));
+    }
+
+    @Test
+    public void when_blobDirsAgain_then_blobFetchedOnce() {
+        File dir = cache.blobDirs(singletonList("a"), this::fetchNames, this::fetchResource).get(0);
+        File dir2 = cache.blobDirs(singletonList("a"), this::fetchNames, this::fetchResource).get(0);
+
+        assertEquals(dir, dir2);
+        assertEquals(1, fetchCount.get());
+    }
+
+    @Test(expected = JetException.class)
+    public void when_blobMissing_then_exception() {
+        cache.blobDirs(singletonList("missing"), this::fetchNames, this::fetchResource);
+    }
+
+    @Test
+    public void when_blobDeletedWhileFetched_then_exceptionAndNothingCached() throws IOException {
+        try {
+            cache.blobDirs(singletonList("a"), this::fetchNames, (hash, name) -> null);
+            fail();
+        } catch (JetException expected) {
+        }
+
+        File baseDir = new File(new File(tempFolder.getRoot(), "jet-resources"), "member");
+        String[] leftovers = baseDir.list();
+        assertTrue(leftovers == null || leftovers.length == 0);
+        File dir = cache.blobDirs(singletonList("a"), this::fetchNames, this::fetchResource).get(0);
+        assertEquals("a", read(new File(dir, "a.txt")));
+    }
+
+    @Test
+    public void when_resourceOutsideOfDir_then_ignored() {
+        blobs.put("c", blob("../c.txt", "c"));
+
+        File dir = cache.blobDirs(singletonList("c"), this::fetchNames, this::fetchResource).get(0);
+
+        assertFalse(new File(dir.getParentFile(), "c.txt").exists());
+    }
+
+    @Test
+    public void when_blobDeletedFromCluster_then_evicted() {
+        List<File> dirs = cache.blobDirs(asList("a", "b"), this::fetchNames, this::fetchResource);
+        blobs.remove("a");
+
+        cache.evictDeleted(blobs::containsKey);
+
+        assertFalse(dirs.get(0).exists());
+        assertTrue(dirs.get(1).exists());
+        // the blob is cached again if it's uploaded again
+        blobs.put("a", blob("a.txt", "a"));
+        File dir = cache.blobDirs(singletonList("a"), this::fetchNames, this::fetchResource).get(0);
+        assertTrue(dir.exists());
+        assertEquals(3, fetchCount.get());
+    }
+
+    @Test
+    public void when_shutdown_then_cacheDeleted() {
+        List<File> dirs = cache.blobDirs(asList("a", "b"), this::fetchNames, this::fetchResource);
+        Set<File> parents = new HashSet<>();
+        dirs.forEach(dir -> parents.add(dir.getParentFile()));
+        assertEquals(1, parents.size());
+        assertNotEquals(tempFolder.getRoot(), parents.iterator().next());
+
+        cache.shutdown();
+
+        assertFalse(parents.iterator().next().exists());
+    }
+
+    private List<String> fetchNames(String hash) {
+        fetchCount.incrementAndGet();
+        Map<String, byte[]> blob = blobs.get(hash);
+        return blob == null ? null : new ArrayList<>(blob.keySet());
+    }
+
+    private byte[] fetchResource(String hash, String name) {
+        Map<String, byte[]> blob = blobs.get(hash);
+        return blob == null ? null : blob.get(name);
+    }
+
+    private static Map<String, byte[]> blob(String name, String content) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(baos)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        Map<String, byte[]> blob = new HashMap<>();
+        blob.put(name, baos.toByteArray());
+        return blob;
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.internal.util.concurrent.ConcurrentConveyor;
+import com.hazelcast.internal.util.concurrent.OneToOneConcurrentArrayQueue;
+import com.hazelcast.jet.core.Partitioner;
+import com.hazelcast.jet.impl.util.ProgressState;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
+import static com.hazelcast.jet.impl.util.ProgressState.DONE;
+import static com.hazelcast.jet.impl.util.ProgressState.MADE_PROGRESS;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class ConcurrentInboundEdgeStreamTest_UnalignedSnapshots {
+
+    private static final Object senderGone = new Object();
+    private static final int PARTITION_COUNT = 7;
+
+    private OneToOneConcurrentArrayQueue<Object> q1;
+    private OneToOneConcurrentArrayQueue<Object> q2;
+    private ConcurrentInboundEdgeStream stream;
+    private ConcurrentConveyor<Object> conveyor;
+
+    @Before
+    public void setUp() {
+        q1 = new OneToOneConcurrentArrayQueue<>(128);
+        q2 = new OneToOneConcurrentArrayQueue<>(128);
+        //noinspection unchecked
+        conveyor = ConcurrentConveyor.concurrentConveyor(senderGone, q1, q2);
+
+        stream = createCies(null);
+    }
+
+    private ConcurrentInboundEdgeStream createCies(Partitioner partitioner) {
+        return new ConcurrentInboundEdgeStream(conveyor, 0, 0, -1, true, -1, true, partitioner, PARTITION_COUNT);
+    }
+
+    @Test
+    public void when_barrierFromFirstQueue_then_forwardedImmediately() {
+        add(q1, barrier(0), 1);
+        add(q2, 2);
+        drainAndAssert(MADE_PROGRESS, barrier(0));
+
+        // the queue that delivered the barrier is not blocked
+        drainAndAssert(MADE_PROGRESS, 1, 2);
+
+        // the barrier from the other queue is not forwarded again
+        add(q2, barrier(0), 3);
+        drainAndAssert(MADE_PROGRESS);
+        drainAndAssert(MADE_PROGRESS, 3);
+    }
+
+    @Test
+    public void when_recording_then_itemsBeforeBarrierRecorded() {
+        add(q1, barrier(0));
+        drainAndAssert(MADE_PROGRESS, barrier(0));
+        stream.startInFlightRecording(0);
+        assertFalse(stream.isInFlightRecordingDone());
+
+        add(q1, 1);
+        add(q2, 2, barrier(0), 3);
+        drainAndAssert(MADE_PROGRESS, 1, 2);
+        assertTrue(stream.isInFlightRecordingDone());
+
+        // items after the barrier are not recorded
+        drainAndAssert(MADE_PROGRESS, 3);
+
+        // only the item received on q2 before its barrier is in-flight
+        Entry<InFlightItemKey, Object> inFlight = stream.pollInFlightItem();
+        assertNotNull(inFlight);
+        assertEquals(2, inFlight.getValue());
+        assertEquals(0, inFlight.getKey().ordinal());
+        assertEquals(-1, inFlight.getKey().partitionId());
+        assertNull(stream.pollInFlightItem());
+    }
+
+    @Test
+    public void when_partitionedEdge_then_inFlightItemsHavePartition() {
+        stream = createCies(Partitioner.HASH_CODE);
+
+        add(q1, barrier(0));
+        drainAndAssert(MADE_PROGRESS, barrier(0));
+        stream.startInFlightRecording(0);
+        add(q2, 10, 11, barrier(0));
+        drainAndAssert(MADE_PROGRESS, 10, 11);
+
+        Entry<InFlightItemKey, Object> first = stream.pollInFlightItem();
+        Entry<InFlightItemKey, Object> second = stream.pollInFlightItem();
+        assertEquals(10 % PARTITION_COUNT, first.getKey().partitionId());
+        assertEquals(11 % PARTITION_COUNT, second.getKey().partitionId());
+        // the keys keep the order the items were received in
+        assertTrue(first.getKey().compareTo(second.getKey()) < 0);
+    }
+
+    @Test
+    public void when_otherQueueDone_then_recordingDone() {
+        add(q1, barrier(0));
+        drainAndAssert(MADE_PROGRESS, barrier(0));
+        stream.startInFlightRecording(0);
+
+        add(q2, 1, DONE_ITEM);
+        drainAndAssert(MADE_PROGRESS, 1);
+        assertTrue(stream.isInFlightRecordingDone());
+        assertEquals(1, stream.pollInFlightItem().getValue());
+
+        // next barrier is expected
+        add(q1, barrier(1));
+        drainAndAssert(MADE_PROGRESS, barrier(1));
+    }
+
+    @Test
+    public void when_replayedItems_then_emittedFirst() {
+        stream.replayInFlightItem(1);
+        stream.replayInFlightItem(2);
+        add(q1, 3, DONE_ITEM);
+        add(q2, DONE_ITEM);
+
+        drainAndAssert(MADE_PROGRESS, 1, 2);
+        drainAndAssert(DONE, 3);
+    }
+
+    private void drainAndAssert(ProgressState expectedState, Object... expectedItems) {
+        List<Object> list = new ArrayList<>();
+        assertEquals("progressState", expectedState, stream.drainTo(list::add));
+        assertEquals(asList(expectedItems), list);
+    }
+
+    private void add(OneToOneConcurrentArrayQueue<Object> q, Object... items) {
+        q.addAll(asList(items));
+    }
+
+    private SnapshotBarrier barrier(long snapshotId) {
+        return new SnapshotBarrier(snapshotId);
+    }
+}
@@ -34,6 +34,7 @@ public class MockInboundStream implements InboundEdgeStream {
     private int ordinal;
     private int priority;
     private final List<Object> mockData;
+    private final List<Object> replayedItems = new ArrayList<>();
     private final int chunkSize;
 
     private int dataIndex;
@@ -58,6 +59,11 @@ public class MockInboundStream implements InboundEdgeStream {
         if (done) {
             return WAS_ALREADY_DONE;
         }
+        if (!replayedItems.isEmpty()) {
+            replayedItems.forEach(dest);
+            replayedItems.clear();
+            return MADE_PROGRESS;
+        }
         if (dataIndex == mockData.size()) {
             return NO_PROGRESS;
         }
@@ -83,6 +89,16 @@ public class MockInboundStream implements InboundEdgeStream {
         return done;
     }
 
+    @Override
+    public int queuedItemCount() {
+        return replayedItems.size() + mockData.size() - dataIndex;
+    }
+
+    @Override
+    public void replayInFlightItem(Object item) {
+        replayedItems.add(item);
+    }
+
     @Override
     public int ordinal() {
         return ordinal;
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.impl.execution.OutboundCollector.LocalityPreferring;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.function.IntSupplier;
+
+import static com.hazelcast.jet.impl.util.ProgressState.DONE;
+import static com.hazelcast.jet.impl.util.ProgressState.NO_PROGRESS;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+
+public class OutboundCollectorTest_LocalityPreferring {
+
+    private MockCollector local;
+    private MockCollector remote1;
+    private MockCollector remote2;
+    private int[] windows;
+    private LocalityPreferring collector;
+
+    @Before
+    public void before() {
+        local = new MockCollector(2);
+        remote1 = new MockCollector(10);
+        remote2 = new MockCollector(10);
+        windows = new int[] {1, 1};
+        collector = new LocalityPreferring(new OutboundCollector[] {local, remote1, remote2},
+                new IntSupplier[] {() -> windows[0], () -> windows[1]});
+    }
+
+    @Test
+    public void when_localAccepts_then_remotesNotUsed() {
+        assertEquals(DONE, collector.offer(1));
+        assertEquals(DONE, collector.offer(2));
+
+        assertEquals(asList(1, 2), local.getBuffer());
+        assertEquals(emptyList(), remote1.getBuffer());
+        assertEquals(emptyList(), remote2.getBuffer());
+    }
+
+    @Test
+    public void when_localFull_then_spillToRemoteWithLargestWindow() {
+        windows[1] = 5;
+        for (int i = 0; i < 4; i++) {
+            assertEquals(DONE, collector.offer(i));
+        }
+
+        assertEquals(asList(0, 1), local.getBuffer());
+        assertEquals(emptyList(), remote1.getBuffer());
+        assertEquals(asList(2, 3), remote2.getBuffer());
+    }
+
+    @Test
+    public void when_localFullAndWindowsEqual_then_remotesRoundRobin() {
+        for (int i = 0; i < 6; i++) {
+            assertEquals(DONE, collector.offer(i));
+        }
+
+        assertEquals(asList(0, 1), local.getBuffer());
+        assertEquals(asList(2, 4), remote1.getBuffer());
+        assertEquals(asList(3, 5), remote2.getBuffer());
+    }
+
+    @Test
+    public void when_localFullAndNoWindow_then_noProgress() {
+        windows[0] = 0;
+        windows[1] = -1;
+        collector.offer(0);
+        collector.offer(1);
+
+        assertEquals(NO_PROGRESS, collector.offer(2));
+        assertEquals(emptyList(), remote1.getBuffer());
+        assertEquals(emptyList(), remote2.getBuffer());
+    }
+
+    private static class MockCollector extends MockOutboundCollector {
+        MockCollector(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        public int[] getPartitions() {
+            return new int[0];
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.nio.BufferObjectDataInput;
+import com.hazelcast.nio.BufferObjectDataOutput;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class PacketCompressorTest {
+
+    private static final int HEADER_VALUE = 42;
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    private InternalSerializationService serializationService;
+    private PacketCompressor compressor;
+    private PacketCompressor decompressor;
+    private int bodyOffset;
+
+    @Before
+    public void before() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        NodeEngine nodeEngine = mock(NodeEngine.class);
+        when(nodeEngine.getSerializationService()).thenReturn(serializationService);
+        compressor = new PacketCompressor(nodeEngine);
+        decompressor = new PacketCompressor(nodeEngine);
+    }
+
+    @Test
+    public void when_compressAndDecompress_then_sameItems() throws IOException {
+        byte[] packet = compress(100);
+
+        assertItems(100, decompress(packet));
+        assertTrue("compressionRatioPercent=" + compressor.compressionRatioPercent(),
+                compressor.compressionRatioPercent() < 100);
+        assertEquals(compressor.compressionRatioPercent(), decompressor.compressionRatioPercent());
+    }
+
+    @Test
+    public void when_packetsOfGrowingSize_then_buffersGrowAndAreReused() throws IOException {
+        // the last packets exceed the initial buffer sizes even when compressed
+        for (int itemCount : new int[] {1, 10_000, 10, 100_000, 100}) {
+            assertItems(itemCount, decompress(compress(itemCount)));
+        }
+    }
+
+    @Test
+    public void when_released_then_usableAgain() throws IOException {
+        assertItems(10, decompress(compress(10)));
+        compressor.release();
+        decompressor.release();
+
+        assertItems(20, decompress(compress(20)));
+    }
+
+    @Test
+    public void when_corruptData_then_exception() throws IOException {
+        byte[] packet = compress(100);
+        // overwrite the zlib header of the compressed bytes
+        packet[bodyOffset + 2 * Integer.BYTES] ^= 0xFF;
+
+        exception.expect(JetException.class);
+        exception.expectMessage("Corrupt");
+        decompress(packet);
+    }
+
+    @Test
+    public void when_compressedDataShorterThanDeclared_then_exception() throws IOException {
+        byte[] packet = compress(100);
+        ByteBuffer buf = ByteBuffer.wrap(packet);
+        buf.putInt(bodyOffset, buf.getInt(bodyOffset) + 100);
+
+        exception.expect(JetException.class);
+        exception.expectMessage("truncated");
+        decompress(packet);
+    }
+
+    @Test
+    public void when_negativeLength_then_exception() throws IOException {
+        byte[] packet = compress(100);
+        ByteBuffer.wrap(packet).putInt(bodyOffset, -1);
+
+        exception.expect(JetException.class);
+        exception.expectMessage("Corrupt");
+        decompress(packet);
+    }
+
+    private byte[] compress(int itemCount) throws IOException {
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput(1024);
+        out.writeInt(HEADER_VALUE);
+        bodyOffset = out.position();
+        out.writeInt(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            out.writeObject("item-" + i);
+        }
+        return compressor.compress(out, bodyOffset);
+    }
+
+    private BufferObjectDataInput decompress(byte[] packet) throws IOException {
+        BufferObjectDataInput in = serializationService.createObjectDataInput(packet);
+        assertEquals(HEADER_VALUE, in.readInt());
+        return decompressor.decompress(in);
+    }
+
+    private static void assertItems(int itemCount, BufferObjectDataInput body) throws IOException {
+        assertEquals(itemCount, body.readInt());
+        for (int i = 0; i < itemCount; i++) {
+            assertEquals("item-" + i, body.readObject());
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.internal.util.concurrent.ConcurrentConveyor;
+import com.hazelcast.internal.util.concurrent.OneToOneConcurrentArrayQueue;
 import com.hazelcast.jet.config.ProcessingGuarantee;
 import com.hazelcast.jet.core.Inbox;
 import com.hazelcast.jet.core.Outbox;
@@ -49,8 +51,10 @@ import static com.hazelcast.jet.impl.util.ProgressState.MADE_PROGRESS;
 import static com.hazelcast.jet.impl.util.ProgressState.NO_PROGRESS;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
@@ -189,11 +193,116 @@ public class ProcessorTaskletTest_Snapshots {
         assertEquals(asList(ssEntry1.getValue(), ssEntry2.getValue(), barrier(0), DONE_ITEM), getSnapshotBufferValues());
     }
 
+    @Test
+    public void when_incrementalSnapshotsEnabled_then_changesSavedBetweenFullSnapshots() {
+        // Given
+        IncrementalProcessor incrementalProcessor = new IncrementalProcessor();
+        processor = incrementalProcessor;
+        List<Object> input = asList(0, barrier(0), 1, barrier(1), 2, barrier(2));
+        instreams.add(new MockInboundStream(0, input, input.size()));
+        MockOutboundStream outstream1 = new MockOutboundStream(0);
+        outstreams.add(outstream1);
+
+        Tasklet tasklet = createTasklet(ProcessingGuarantee.EXACTLY_ONCE, 2);
+
+        // When
+        callUntil(tasklet, NO_PROGRESS);
+
+        // Then
+        assertTrue(incrementalProcessor.changeTrackingEnabled);
+        assertEquals(asList("full", "incremental", "full"), incrementalProcessor.savedSnapshots);
+        assertEquals(input, outstream1.getBuffer());
+        assertEquals(input, getSnapshotBufferValues());
+    }
+
+    @Test
+    public void when_incrementalSnapshotsDisabled_then_onlyFullSnapshotsSaved() {
+        // Given
+        IncrementalProcessor incrementalProcessor = new IncrementalProcessor();
+        processor = incrementalProcessor;
+        List<Object> input = asList(0, barrier(0), 1, barrier(1));
+        instreams.add(new MockInboundStream(0, input, input.size()));
+        outstreams.add(new MockOutboundStream(0));
+
+        Tasklet tasklet = createTasklet(ProcessingGuarantee.EXACTLY_ONCE);
+
+        // When
+        callUntil(tasklet, NO_PROGRESS);
+
+        // Then
+        assertFalse(incrementalProcessor.changeTrackingEnabled);
+        assertEquals(asList("full", "full"), incrementalProcessor.savedSnapshots);
+    }
+
+    @Test
+    public void when_unalignedAndBarrierOnOneQueue_then_snapshotSavedWithInFlightItems() {
+        // Given
+        OneToOneConcurrentArrayQueue<Object> q1 = new OneToOneConcurrentArrayQueue<>(128);
+        OneToOneConcurrentArrayQueue<Object> q2 = new OneToOneConcurrentArrayQueue<>(128);
+        q1.addAll(asList(0, 1, barrier(0), 2));
+        q2.add(3);
+        MockOutboundStream outstream1 = new MockOutboundStream(0);
+        outstreams.add(outstream1);
+
+        Tasklet tasklet = createUnalignedTasklet(singletonList(unalignedInstream(0, q1, q2)));
+
+        // When
+        callUntil(tasklet, NO_PROGRESS);
+
+        // Then
+        // the snapshot is saved without waiting for the barrier from q2, its items are in-flight
+        assertEquals(asList(0, 1, barrier(0), 2, 3), outstream1.getBuffer());
+        assertEquals(asList(0, 1, 3), getSnapshotBufferValues());
+        Entry inFlightEntry = (Entry) snapshotCollector.getBuffer().get(2);
+        assertTrue(((MockData) inFlightEntry.getKey()).getObject() instanceof InFlightItemKey);
+
+        // When
+        q2.add(barrier(0));
+        callUntil(tasklet, NO_PROGRESS);
+
+        // Then
+        assertEquals(asList(0, 1, 3, barrier(0)), getSnapshotBufferValues());
+    }
+
+    @Test
+    public void when_unalignedRestore_then_inFlightItemsReplayedAfterRestore() {
+        // Given
+        OneToOneConcurrentArrayQueue<Object> q1 = new OneToOneConcurrentArrayQueue<>(128);
+        OneToOneConcurrentArrayQueue<Object> q2 = new OneToOneConcurrentArrayQueue<>(128);
+        q1.addAll(asList("c", DONE_ITEM));
+        q2.add(DONE_ITEM);
+        // the in-flight items are restored out of order
+        List<Object> restoredSnapshot = asList(
+                entry("k1", "v1"),
+                entry(new InFlightItemKey(1, 1, 0, -1), "b"),
+                entry(new InFlightItemKey(1, 0, 0, -1), "a"),
+                DONE_ITEM);
+        MockInboundStream snapshotStream = new MockInboundStream(Integer.MIN_VALUE, restoredSnapshot, 1024);
+        snapshotStream.setOrdinal(1);
+        MockOutboundStream outstream1 = new MockOutboundStream(0);
+        outstreams.add(outstream1);
+
+        Tasklet tasklet = createUnalignedTasklet(asList(unalignedInstream(0, q1, q2), snapshotStream));
+
+        // When
+        callUntil(tasklet, DONE);
+
+        // Then
+        assertEquals(asList("finishRestore", "a", "b", "c", DONE_ITEM), outstream1.getBuffer());
+        // the in-flight items weren't restored to the processor, it received them as items
+        assertEquals(asList("v1", "a", "b", "c"),
+                processor.snapshotQueue.stream().map(Entry::getValue).collect(toList()));
+    }
+
     private ProcessorTasklet createTasklet(ProcessingGuarantee guarantee) {
+        return createTasklet(guarantee, 1);
+    }
+
+    private ProcessorTasklet createTasklet(ProcessingGuarantee guarantee, int fullSnapshotInterval) {
         for (int i = 0; i < instreams.size(); i++) {
             instreams.get(i).setOrdinal(i);
         }
-        snapshotContext = new SnapshotContext(mock(ILogger.class), 0, 0, -1, guarantee);
+        snapshotContext = new SnapshotContext(mock(ILogger.class), 0, 0, -1, guarantee, fullSnapshotInterval);
         snapshotContext.initTaskletCount(1, 0);
         final ProcessorTasklet t = new ProcessorTasklet(context, processor, instreams, outstreams,
                 snapshotContext, snapshotCollector, -1);
@@ -201,6 +310,22 @@ public class ProcessorTaskletTest_Snapshots {
         return t;
     }
 
+    private ProcessorTasklet createUnalignedTasklet(List<InboundEdgeStream> unalignedInstreams) {
+        snapshotContext = new SnapshotContext(mock(ILogger.class), 0, 0, -1, EXACTLY_ONCE, 1);
+        snapshotContext.initTaskletCount(1, 0);
+        final ProcessorTasklet t = new ProcessorTasklet(context, processor, unalignedInstreams, outstreams,
+                snapshotContext, snapshotCollector, -1, true);
+        t.init();
+        return t;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentInboundEdgeStream unalignedInstream(int ordinal, OneToOneConcurrentArrayQueue<Object> q1,
+                                                                 OneToOneConcurrentArrayQueue<Object> q2) {
+        ConcurrentConveyor<Object> conveyor = ConcurrentConveyor.concurrentConveyor(new Object(), q1, q2);
+        return new ConcurrentInboundEdgeStream(conveyor, ordinal, 0, -1, true, -1, true, null, 1);
+    }
+
     private List<Object> getSnapshotBufferValues() {
         return snapshotCollector.getBuffer().stream()
                                 .map(e -> (e instanceof Map.Entry) ? deserializeEntryValue((Map.Entry) e) : e)
@@ -294,4 +419,33 @@ public class ProcessorTaskletTest_Snapshots {
             return outbox.offer("finishRestore");
         }
     }
+
+    private static class IncrementalProcessor extends SnapshottableProcessor implements IncrementalSnapshotSupport {
+
+        boolean changeTrackingEnabled;
+        List<String> savedSnapshots = new ArrayList<>();
+
+        @Override
+        public void enableChangeTracking() {
+            changeTrackingEnabled = true;
+        }
+
+        @Override
+        public boolean saveToSnapshot() {
+            return saved("full", super.saveToSnapshot());
+        }
+
+        @Override
+        public boolean saveChangesToSnapshot() {
+            // the state is cleared after each snapshot, so all of it is a change
+            return saved("incremental", super.saveToSnapshot());
+        }
+
+        private boolean saved(String kind, boolean done) {
+            if (done) {
+                savedSnapshots.add(kind);
+            }
+            return done;
+        }
+    }
 }
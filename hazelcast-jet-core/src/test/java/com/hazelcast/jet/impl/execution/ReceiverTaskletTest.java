@@ -28,6 +28,7 @@ import java.io.IOException;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
 public class ReceiverTaskletTest {
@@ -50,6 +51,24 @@ public class ReceiverTaskletTest {
         assertEquals(asList(1, 2), collector.getBuffer());
     }
 
+    @Test
+    public void when_collectorFull_then_remainingItemsEmittedInOrderLater() throws IOException {
+        pushObjects(1, 2, 3);
+        pushObjects(4);
+        t.call();
+        assertEquals(asList(1, 2), collector.getBuffer());
+        collector.getBuffer().clear();
+        t.call();
+        assertEquals(asList(3, 4), collector.getBuffer());
+    }
+
+    @Test
+    public void when_itemsEmitted_then_ackedSeqGrowsByFootprint() throws IOException {
+        pushObjects(1);
+        t.call();
+        assertTrue(t.ackItem(0) > 0);
+    }
+
     private void pushObjects(Object... objs) throws IOException {
         final BufferObjectDataOutput out = serService.createObjectDataOutput();
         out.writeInt(objs.length);
@@ -31,6 +31,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
@@ -47,6 +48,7 @@ import static com.hazelcast.jet.impl.util.ProgressState.MADE_PROGRESS;
 import static com.hazelcast.jet.impl.util.ProgressState.NO_PROGRESS;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -285,6 +287,29 @@ public class TaskletExecutionServiceTest extends JetTestSupport {
         // -- assertions are inside TaskletAssertingThreadLocal and will fail, if t1 and t2 are running on the same thread
     }
 
+    @Test
+    public void when_hotTaskletSharesWorker_then_otherTaskletsMovedAway() {
+        // Given
+        ThreadRecordingTasklet hot = new ThreadRecordingTasklet(MILLISECONDS.toNanos(1));
+        List<ThreadRecordingTasklet> light =
+                Stream.generate(() -> new ThreadRecordingTasklet(0)).limit(7).collect(toList());
+        List<ThreadRecordingTasklet> tasklets = new ArrayList<>(light);
+        tasklets.add(0, hot);
+
+        // When
+        CompletableFuture<Void> f = es.beginExecute(tasklets, cancellationFuture, classLoaderMock);
+
+        // Then
+        assertTrueEventually(() -> {
+            for (ThreadRecordingTasklet t : light) {
+                assertNotEquals("a tasklet still shares the worker with the hot tasklet",
+                        hot.lastThread, t.lastThread);
+            }
+        });
+        tasklets.forEach(t -> t.done = true);
+        f.join();
+    }
+
     @Test
     public void when_tryCompleteOnReturnedFuture_then_fails() {
         // Given
@@ -429,6 +454,29 @@ public class TaskletExecutionServiceTest extends JetTestSupport {
         }
     }
 
+    private static class ThreadRecordingTasklet implements Tasklet {
+
+        private final long callDurationNanos;
+
+        volatile Thread lastThread;
+        volatile boolean done;
+
+        ThreadRecordingTasklet(long callDurationNanos) {
+            this.callDurationNanos = callDurationNanos;
+        }
+
+        @Nonnull
+        @Override
+        public ProgressState call() {
+            lastThread = Thread.currentThread();
+            if (callDurationNanos == 0) {
+                return done ? DONE : NO_PROGRESS;
+            }
+            LockSupport.parkNanos(callDurationNanos);
+            return done ? DONE : MADE_PROGRESS;
+        }
+    }
+
     private static class TaskletAssertingThreadLocal implements Tasklet {
 
         private static ThreadLocal<Integer> threadLocal = ThreadLocal.withInitial(() -> 0);
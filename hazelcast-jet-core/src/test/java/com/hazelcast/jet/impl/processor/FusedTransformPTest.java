@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.impl.processor.FusedTransformP.Step;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static com.hazelcast.jet.core.test.TestSupport.verifyProcessor;
+import static java.util.Arrays.asList;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class FusedTransformPTest {
+
+    @Test
+    public void when_mapAndFilter_then_appliedInOrder() {
+        List<Step> steps = asList(
+                Step.map(i -> (int) i * 2),
+                Step.map(i -> (int) i % 3 == 0 ? null : i),
+                Step.map(i -> "x" + i));
+        verifyProcessor(() -> new FusedTransformP<>(steps))
+                .input(asList(1, 2, 3, 4))
+                .expectOutput(asList("x2", "x4", "x8"));
+    }
+
+    @Test
+    public void when_flatMapInTheMiddle_then_laterStepsAppliedToEachItem() {
+        List<Step> steps = asList(
+                Step.map(i -> (int) i + 1),
+                Step.flatMap(i -> Traverser.over(i, (int) i * 10)),
+                Step.map(i -> (int) i == 20 ? null : i),
+                Step.map(i -> "x" + i));
+        verifyProcessor(() -> new FusedTransformP<>(steps))
+                .input(asList(1, 2))
+                .expectOutput(asList("x2", "x3", "x30"));
+    }
+
+    @Test
+    public void when_twoFlatMaps_then_allCombinationsEmitted() {
+        List<Step> steps = asList(
+                Step.flatMap(i -> Traverser.over(i + "a", i + "b")),
+                Step.flatMap(s -> Traverser.over(s + "1", s + "2")));
+        verifyProcessor(() -> new FusedTransformP<>(steps))
+                .input(asList(1, 2))
+                .expectOutput(asList("1a1", "1a2", "1b1", "1b2", "2a1", "2a2", "2b1", "2b2"));
+    }
+
+    @Test
+    public void when_filteredBeforeFlatMap_then_flatMapNotApplied() {
+        List<Step> steps = asList(
+                Step.map(i -> null),
+                Step.flatMap(i -> {
+                    throw new AssertionError("should not be called");
+                }));
+        verifyProcessor(() -> new FusedTransformP<>(steps))
+                .input(asList(1, 2))
+                .expectOutput(asList());
+    }
+}
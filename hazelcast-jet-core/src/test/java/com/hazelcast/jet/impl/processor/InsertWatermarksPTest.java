@@ -16,7 +16,11 @@
 
 package com.hazelcast.jet.impl.processor;
 
+import com.hazelcast.jet.Pipeline;
+import com.hazelcast.jet.Sinks;
+import com.hazelcast.jet.Sources;
 import com.hazelcast.jet.core.Processor.Context;
+import com.hazelcast.jet.core.Vertex;
 import com.hazelcast.jet.core.Watermark;
 import com.hazelcast.jet.core.WatermarkEmissionPolicy;
 import com.hazelcast.jet.core.WatermarkPolicy;
@@ -46,6 +50,7 @@ import static com.hazelcast.jet.core.WatermarkEmissionPolicy.suppressDuplicates;
 import static com.hazelcast.jet.core.WatermarkGenerationParams.wmGenParams;
 import static com.hazelcast.jet.core.WatermarkPolicies.withFixedLag;
 import static com.hazelcast.jet.core.WindowDefinition.tumblingWindowDef;
+import static com.hazelcast.jet.core.test.TestSupport.supplierFrom;
 import static com.hazelcast.jet.impl.execution.WatermarkCoalescer.IDLE_MESSAGE;
 import static com.hazelcast.jet.impl.util.WatermarkPolicyUtil.limitingTimestampAndWallClockLag;
 import static java.util.Arrays.asList;
@@ -53,6 +58,7 @@ import static java.util.Collections.singletonList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(Parameterized.class)
@@ -321,6 +327,37 @@ public class InsertWatermarksPTest {
         } while (elapsedMs < 1000);
     }
 
+    @Test
+    public void when_insertWatermarksStage_then_processorEmitsByParams() {
+        wmEmissionPolicy = emitByFrame(tumblingWindowDef(2));
+        Pipeline pipeline = Pipeline.create();
+        pipeline.<Item>drawFrom(Sources.list("source"))
+                .insertWatermarks(wmGenParams(Item::getTimestamp, wmPolicy, wmEmissionPolicy, -1))
+                .drainTo(Sinks.list("sink"));
+        Vertex vertex = null;
+        for (Vertex v : pipeline.toDag()) {
+            if (v.getName().startsWith("insertWatermarks")) {
+                vertex = v;
+            }
+        }
+        assertNotNull("no insertWatermarks vertex in the DAG", vertex);
+        p = (InsertWatermarksP<Item>) supplierFrom(vertex.getMetaSupplier()).get();
+        p.init(outbox, context);
+
+        doTest(
+                asList(
+                        item(10),
+                        item(11),
+                        item(12)),
+                asList(
+                        wm(7),
+                        item(10),
+                        wm(8),
+                        item(11),
+                        item(12))
+        );
+    }
+
     private void createProcessor(long idleTimeoutMillis) {
         p = new InsertWatermarksP<>(wmGenParams(Item::getTimestamp, wmPolicy, wmEmissionPolicy, idleTimeoutMillis));
         p.init(outbox, context);
@@ -20,6 +20,7 @@ import com.hazelcast.jet.aggregate.AggregateOperations;
 import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.core.Watermark;
 import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestOutbox.MockData;
 import com.hazelcast.jet.core.test.TestProcessorContext;
 import com.hazelcast.jet.datamodel.Session;
 import com.hazelcast.test.HazelcastParallelClassRunner;
@@ -30,7 +31,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
@@ -41,10 +44,12 @@ import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.core.test.TestSupport.SAME_ITEMS_ANY_ORDER;
 import static com.hazelcast.jet.core.test.TestSupport.verifyProcessor;
 import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
+import static com.hazelcast.jet.impl.execution.SnapshotTombstone.TOMBSTONE;
 import static java.util.Arrays.asList;
 import static java.util.Collections.shuffle;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
@@ -67,7 +72,7 @@ public class SessionWindowPTest {
     public void after() {
         // Check against memory leaks
         assertTrue("keyToWindows not empty", lastSuppliedProcessor.keyToWindows.isEmpty());
-        assertTrue("deadlineToKeys not empty", lastSuppliedProcessor.deadlineToKeys.isEmpty());
+        assertTrue("deadlines not empty", lastSuppliedProcessor.deadlines.isEmpty());
     }
 
     @Test
@@ -122,6 +127,43 @@ public class SessionWindowPTest {
                         new Session("a", 30, 50, 3)));
     }
 
+    @Test
+    public void when_incrementalSnapshot_then_onlyChangedKeysAndTombstonesSaved() {
+        TestOutbox outbox = new TestOutbox(new int[] {1024}, 1024);
+        supplier.get();
+        SessionWindowP<Entry<String, Long>, String, ?, Long> p = lastSuppliedProcessor;
+        p.init(outbox, new TestProcessorContext());
+        p.enableChangeTracking();
+        assertTrue(p.tryProcess(0, entry("a", 1L)));
+        assertTrue(p.tryProcess(0, entry("b", 1L)));
+        assertTrue(p.tryProcess(0, entry("c", 100L)));
+        assertTrue(p.saveToSnapshot());
+        assertEquals(3, outbox.snapshotQueue().size());
+        outbox.snapshotQueue().clear();
+
+        // "a" is updated, "b" is closed, "d" is both created and closed before the next snapshot
+        assertTrue(p.tryProcess(0, entry("a", 5L)));
+        assertTrue(p.tryProcess(0, entry("d", 2L)));
+        assertTrue(p.tryProcessWatermark(new Watermark(14)));
+        outbox.queue(0).clear();
+        assertTrue(p.saveChangesToSnapshot());
+
+        Map<Object, Object> saved = new HashMap<>();
+        for (Entry<MockData, MockData> e : outbox.snapshotQueue()) {
+            saved.put(e.getKey().getObject(), e.getValue().getObject());
+        }
+        outbox.snapshotQueue().clear();
+        assertEquals(2, saved.size());
+        assertTrue(saved.get("a") instanceof SessionWindowP.Windows);
+        assertEquals(TOMBSTONE, saved.get("b"));
+
+        // nothing changed since the last snapshot
+        assertTrue(p.saveChangesToSnapshot());
+        assertTrue(outbox.snapshotQueue().isEmpty());
+
+        assertTrue(p.complete());
+    }
+
     private void assertCorrectness(List<Object> events) {
         List<Object> expectedOutput = events.stream()
                                                .map(e -> ((Entry<String, Long>) e).getKey())
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.accumulator.LongAccumulator;
+import com.hazelcast.jet.core.Watermark;
+import com.hazelcast.jet.datamodel.Session;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Map.Entry;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
+import static com.hazelcast.jet.core.processor.Processors.accumulateToSessionWindowP;
+import static com.hazelcast.jet.core.processor.Processors.combineToSessionWindowP;
+import static com.hazelcast.jet.core.test.TestSupport.verifyProcessor;
+import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertTrue;
+
+@Category(ParallelTest.class)
+@RunWith(HazelcastParallelClassRunner.class)
+public class SessionWindowP_twoStageTest {
+
+    private static final int SESSION_TIMEOUT = 10;
+
+    private SessionWindowP<?, ?, ?, ?> processor;
+
+    @After
+    public void after() {
+        assertTrue("keyToWindows not empty", processor.keyToWindows.isEmpty());
+        assertTrue("deadlines not empty", processor.deadlines.isEmpty());
+    }
+
+    @Test
+    public void when_stage1ReceivesWm_then_flushesAllWindows() {
+        processor = (SessionWindowP<?, ?, ?, ?>) accumulateToSessionWindowP(
+                SESSION_TIMEOUT, Entry<String, Long>::getValue, entryKey(), counting()
+        ).get();
+
+        verifyProcessor(processor)
+                .disableSnapshots()
+                .input(asList(
+                        entry("a", 1L),
+                        entry("a", 6L),
+                        entry("a", 30L),
+                        wm(5), // flushes both windows, although they didn't end yet
+                        entry("a", 12L),
+                        entry("a", 40L)
+                ))
+                .expectOutput(asList(
+                        partial(1, 16, 2),
+                        partial(30, 40, 1),
+                        wm(5),
+                        partial(12, 22, 1),
+                        partial(40, 50, 1)
+                ));
+    }
+
+    @Test
+    public void when_stage2ReceivesOverlappingPartials_then_combinesThem() {
+        processor = (SessionWindowP<?, ?, ?, ?>) combineToSessionWindowP(counting()).get();
+
+        verifyProcessor(processor)
+                .input(asList(
+                        partial(1, 16, 2),
+                        partial(30, 40, 1),
+                        partial(50, 60, 1),
+                        partial(80, 90, 1),
+                        wm(5),
+                        partial(12, 22, 1),
+                        // bridges the three windows before it
+                        partial(14, 55, 2),
+                        wm(70)
+                ))
+                .expectOutput(asList(
+                        wm(5),
+                        new Session<>("a", 1, 60, 7L),
+                        wm(70),
+                        new Session<>("a", 80, 90, 1L)
+                ));
+    }
+
+    private static Session<String, LongAccumulator> partial(long start, long end, long count) {
+        return new Session<>("a", start, end, new LongAccumulator(count));
+    }
+
+    private static Watermark wm(long timestamp) {
+        return new Watermark(timestamp);
+    }
+}
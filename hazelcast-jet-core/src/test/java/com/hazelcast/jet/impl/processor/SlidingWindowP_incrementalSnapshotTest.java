@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.core.BroadcastKey;
+import com.hazelcast.jet.core.Watermark;
+import com.hazelcast.jet.core.WindowDefinition;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestOutbox.MockData;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.jet.impl.processor.SlidingWindowP.Keys;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
+import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
+import static com.hazelcast.jet.impl.execution.SnapshotTombstone.TOMBSTONE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(ParallelTest.class)
+public class SlidingWindowP_incrementalSnapshotTest {
+
+    private SlidingWindowP<Entry<String, Long>, ?, Long> p;
+    private TestOutbox outbox;
+
+    @Before
+    public void before() {
+        p = new SlidingWindowP<>(entryKey(), Entry::getValue, WindowDefinition.tumblingWindowDef(1), counting(), true);
+        outbox = new TestOutbox(new int[] {128}, 128);
+        p.init(outbox, new TestProcessorContext());
+        p.enableChangeTracking();
+    }
+
+    @Test
+    public void when_fullSnapshot_then_allFramesSaved() {
+        assertTrue(p.tryProcess(0, entry("a", 1L)));
+        assertTrue(p.tryProcess(0, entry("b", 2L)));
+
+        assertTrue(p.saveToSnapshot());
+
+        Map<Object, Object> saved = drainSnapshot();
+        assertEquals(3, saved.size());
+        assertEquals(1L, saved.get(new SnapshotKey(1, "a")));
+        assertEquals(1L, saved.get(new SnapshotKey(2, "b")));
+    }
+
+    @Test
+    public void when_incrementalSnapshot_then_onlyChangedFramesAndTombstonesSaved() {
+        assertTrue(p.tryProcess(0, entry("a", 1L)));
+        assertTrue(p.tryProcess(0, entry("b", 2L)));
+        assertTrue(p.saveToSnapshot());
+        drainSnapshot();
+
+        // frame 2 is updated, frames 3 and 4 are new, frame 1 is emitted and evicted
+        assertTrue(p.tryProcess(0, entry("a", 2L)));
+        assertTrue(p.tryProcess(0, entry("c", 3L)));
+        assertTrue(p.tryProcess(0, entry("d", 4L)));
+        assertTrue(p.tryProcessWatermark(new Watermark(2)));
+        assertTrue(p.saveChangesToSnapshot());
+
+        Map<Object, Object> saved = drainSnapshot();
+        assertEquals(TOMBSTONE, saved.remove(new SnapshotKey(1, "a")));
+        assertEquals(1L, saved.remove(new SnapshotKey(2, "a")));
+        assertEquals(1L, saved.remove(new SnapshotKey(2, "b")));
+        assertEquals(1L, saved.remove(new SnapshotKey(3, "c")));
+        assertEquals(1L, saved.remove(new SnapshotKey(4, "d")));
+        assertEquals(p.nextWinToEmit, saved.remove(Keys.NEXT_WIN_TO_EMIT));
+        assertTrue("unexpected entries: " + saved, saved.isEmpty());
+    }
+
+    @Test
+    public void when_frameCreatedAndEvictedBetweenSnapshots_then_notSaved() {
+        assertTrue(p.saveToSnapshot());
+        drainSnapshot();
+
+        assertTrue(p.tryProcess(0, entry("a", 1L)));
+        assertTrue(p.tryProcessWatermark(new Watermark(2)));
+        assertTrue(p.saveChangesToSnapshot());
+
+        Map<Object, Object> saved = drainSnapshot();
+        assertEquals(1, saved.size());
+        assertTrue(saved.containsKey(Keys.NEXT_WIN_TO_EMIT));
+    }
+
+    @Test
+    public void when_noChanges_then_onlyBroadcastKeySaved() {
+        assertTrue(p.tryProcess(0, entry("a", 1L)));
+        assertTrue(p.saveChangesToSnapshot());
+        drainSnapshot();
+
+        assertTrue(p.saveChangesToSnapshot());
+
+        Map<Object, Object> saved = drainSnapshot();
+        assertEquals(1, saved.size());
+        assertTrue(saved.containsKey(Keys.NEXT_WIN_TO_EMIT));
+    }
+
+    private Map<Object, Object> drainSnapshot() {
+        Map<Object, Object> saved = new HashMap<>();
+        for (Entry<MockData, MockData> e; (e = outbox.snapshotQueue().poll()) != null; ) {
+            Object key = e.getKey().getObject();
+            // broadcast keys are unique instances, compare their inner key
+            saved.put(key instanceof BroadcastKey ? ((BroadcastKey) key).key() : key, e.getValue().getObject());
+        }
+        outbox.queue(0).clear();
+        return saved;
+    }
+}
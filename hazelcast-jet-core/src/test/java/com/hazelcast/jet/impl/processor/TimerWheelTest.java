@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class TimerWheelTest {
+
+    private final TimerWheel<Long> wheel = new TimerWheel<>();
+
+    @Test
+    public void when_polled_then_onlyEntriesBeforeTimeReturned() {
+        wheel.add(5L, 5);
+        wheel.add(3L, 3);
+        wheel.add(7L, 7);
+
+        assertEquals(Long.valueOf(3), wheel.poll(6));
+        assertEquals(3, wheel.polledDeadline());
+        assertEquals(Long.valueOf(5), wheel.poll(6));
+        assertNull(wheel.poll(6));
+        assertNull(wheel.poll(7));
+        assertEquals(Long.valueOf(7), wheel.poll(8));
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void when_addedBehindWheelTime_then_returnedOnNextPoll() {
+        wheel.add(100L, 100);
+        wheel.add(200L, 200);
+        assertEquals(Long.valueOf(100), wheel.poll(150));
+        assertNull(wheel.poll(150));
+
+        wheel.add(50L, 50);
+
+        assertEquals(Long.valueOf(50), wheel.poll(150));
+        assertNull(wheel.poll(150));
+    }
+
+    @Test
+    public void when_randomDeadlines_then_returnedInOrder() {
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            long deadline = random.nextInt(4) == 0 ? random.nextLong() : random.nextInt(1 << 20) - (1 << 19);
+            deadlines.add(deadline);
+            wheel.add(deadline, deadline);
+        }
+        deadlines.sort(Long::compare);
+
+        List<Long> polled = new ArrayList<>();
+        for (long time = -(1 << 20); time <= 1 << 20; time += 1 << 12) {
+            for (Long key; (key = wheel.poll(time)) != null; ) {
+                assertTrue(key < time);
+                assertEquals((long) key, wheel.polledDeadline());
+                polled.add(key);
+            }
+        }
+        for (Long key; (key = wheel.poll(Long.MAX_VALUE)) != null; ) {
+            polled.add(key);
+        }
+
+        // an entry at Long.MAX_VALUE is never before the poll time
+        deadlines.removeIf(d -> d == Long.MAX_VALUE);
+        assertEquals(deadlines, polled);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.config.JetConfig;
+import com.hazelcast.jet.config.SnapshotStorage;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.jet.core.test.TestProcessorSupplierContext;
+import com.hazelcast.jet.impl.execution.SnapshotTombstone;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+
+import static com.hazelcast.jet.Util.entry;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+public class DiskSnapshotStoreTest extends JetTestSupport {
+
+    private static final long JOB_ID = 42;
+    private static final String VERTEX = "vertex";
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private JetInstance instance1;
+    private JetInstance instance2;
+    private DiskSnapshotStore store1;
+    private DiskSnapshotStore store2;
+    private String uuid1;
+
+    @Before
+    public void before() throws Exception {
+        JetConfig config = new JetConfig();
+        config.getInstanceConfig()
+              .setSnapshotStorage(SnapshotStorage.LOCAL_DISK)
+              .setTempDir(tempFolder.getRoot().getAbsolutePath());
+        JetInstance[] instances = createJetMembers(config, 2);
+        instance1 = instances[0];
+        instance2 = instances[1];
+        store1 = store(instance1);
+        store2 = store(instance2);
+        uuid1 = hz(instance1).getCluster().getLocalMember().getUuid();
+    }
+
+    @Test
+    public void when_written_then_replicaOnBuddy() throws Exception {
+        write(instance1, 1, "k1", "v1", "k2", "v2");
+
+        File file = store1.snapshotFile(JOB_ID, 1, VERTEX, uuid1);
+        File replica = store2.snapshotFile(JOB_ID, 1, VERTEX, uuid1);
+        assertTrue(file.exists());
+        assertTrue(replica.exists());
+        assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(replica.toPath()));
+    }
+
+    @Test
+    public void when_readChain_then_newestValuesWithoutTombstones() throws Exception {
+        writeChain();
+
+        assertEquals(expectedChainResult(), read(instance1, 2L, 1L));
+    }
+
+    @Test
+    public void when_writerLeft_then_buddyRestoresItsReplica() throws Exception {
+        writeChain();
+
+        instance1.shutdown();
+
+        assertTrue(store2.restorableWriters(JOB_ID, asList(2L, 1L), VERTEX).contains(uuid1));
+        assertEquals(expectedChainResult(), read(instance2, 2L, 1L));
+    }
+
+    @Test
+    public void when_deleteSnapshotData_then_filesDeletedOnAllMembers() throws Exception {
+        writeChain();
+
+        store1.deleteSnapshotData(JOB_ID, 1, singletonList(VERTEX));
+
+        assertFalse(store1.snapshotFile(JOB_ID, 1, VERTEX, uuid1).exists());
+        assertFalse(store2.snapshotFile(JOB_ID, 1, VERTEX, uuid1).exists());
+        assertTrue(store1.snapshotFile(JOB_ID, 2, VERTEX, uuid1).exists());
+        assertTrue(store2.snapshotFile(JOB_ID, 2, VERTEX, uuid1).exists());
+    }
+
+    private void writeChain() throws Exception {
+        write(instance1, 1, "k1", "v1", "k2", "v2");
+        write(instance1, 2, "k1", "v1b", "k2", SnapshotTombstone.TOMBSTONE, "k3", "v3");
+    }
+
+    private static Map<Object, Object> expectedChainResult() {
+        Map<Object, Object> expected = new HashMap<>();
+        expected.put("k1", "v1b");
+        expected.put("k3", "v3");
+        return expected;
+    }
+
+    private static void write(JetInstance instance, long snapshotId, Object... keysAndValues) throws Exception {
+        SerializationService serializationService = getNodeEngineImpl(instance).getSerializationService();
+        SnapshotWriter writer = store(instance).newWriter(JOB_ID, VERTEX);
+        writer.startSnapshot(snapshotId);
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            writer.put(entry(serializationService.toData(keysAndValues[i]),
+                    serializationService.toData(keysAndValues[i + 1])));
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        assertTrue(writer.tryFlushAsync(future));
+        future.get();
+    }
+
+    private static Map<Object, Object> read(JetInstance instance, Long... snapshotChain) {
+        ReadDiskSnapshotP.Supplier supplier =
+                new ReadDiskSnapshotP.Supplier(JOB_ID, asList(snapshotChain), VERTEX, e -> e);
+        supplier.init(new TestProcessorSupplierContext().setJetInstance(instance));
+        Map<Object, Object> result = new HashMap<>();
+        for (Processor p : supplier.get(2)) {
+            TestOutbox outbox = new TestOutbox(128);
+            p.init(outbox, new TestProcessorContext());
+            List<Entry<Object, Object>> items = new ArrayList<>();
+            boolean done;
+            do {
+                done = p.complete();
+                outbox.drainQueueAndReset(0, items, false);
+            } while (!done);
+            for (Entry<Object, Object> item : items) {
+                assertNull("duplicate key " + item.getKey(), result.put(item.getKey(), item.getValue()));
+            }
+        }
+        return result;
+    }
+
+    private static DiskSnapshotStore store(JetInstance instance) {
+        return (DiskSnapshotStore) getJetService(instance).getSnapshotStore();
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.instance.MemberImpl;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.hazelcast.jet.Util.entry;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class DiskSnapshotWriterTest {
+
+    private final SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private MockStore store;
+    private DiskSnapshotWriter writer;
+
+    @Before
+    public void before() {
+        store = new MockStore();
+        writer = new DiskSnapshotWriter(store, 1, "vertex", null);
+        writer.startSnapshot(1);
+    }
+
+    @Test
+    public void when_entriesFlushed_then_recordsWritten() throws IOException {
+        writer.put(entry(data("k1"), data("v1")));
+        writer.put(entry(data("k2"), data("v2")));
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        assertTrue(writer.tryFlushAsync(future));
+
+        assertEquals(1, store.writes.size());
+        Write write = store.writes.get(0);
+        assertEquals(1, write.snapshotId);
+        assertEquals(0, write.offset);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(write.bytes));
+        for (String s : new String[] {"k1", "v1", "k2", "v2"}) {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            assertArrayEquals(data(s).toByteArray(), bytes);
+        }
+        assertEquals(0, in.available());
+
+        assertFalse(future.isDone());
+        write.future.complete(null);
+        assertTrue(future.isDone());
+    }
+
+    @Test
+    public void when_nothingBuffered_then_flushDoneImmediately() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        assertTrue(writer.tryFlushAsync(future));
+
+        assertTrue(future.isDone());
+        assertEquals(0, store.writes.size());
+    }
+
+    @Test
+    public void when_maxPendingFlushes_then_flushRejectedUntilOneCompletes() {
+        writer.put(entry(data("k1"), data("v1")));
+        assertTrue(writer.tryFlushAsync(new CompletableFuture<>()));
+        writer.put(entry(data("k2"), data("v2")));
+        assertTrue(writer.tryFlushAsync(new CompletableFuture<>()));
+        writer.put(entry(data("k3"), data("v3")));
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        assertFalse(writer.tryFlushAsync(future));
+        assertEquals(2, store.writes.size());
+
+        store.writes.get(0).future.complete(null);
+        assertTrue(writer.tryFlushAsync(future));
+        assertEquals(3, store.writes.size());
+
+        // the flushes are appended one after another
+        Write w0 = store.writes.get(0);
+        Write w1 = store.writes.get(1);
+        Write w2 = store.writes.get(2);
+        assertEquals(w0.bytes.length, w1.offset);
+        assertEquals(w1.offset + w1.bytes.length, w2.offset);
+    }
+
+    @Test
+    public void when_nextSnapshot_then_writtenFromOffsetZero() {
+        writer.put(entry(data("k1"), data("v1")));
+        assertTrue(writer.tryFlushAsync(new CompletableFuture<>()));
+        store.writes.get(0).future.complete(null);
+
+        writer.startSnapshot(2);
+        writer.put(entry(data("k1"), data("v1")));
+        assertTrue(writer.tryFlushAsync(new CompletableFuture<>()));
+
+        assertEquals(2, store.writes.get(1).snapshotId);
+        assertEquals(0, store.writes.get(1).offset);
+    }
+
+    @Test
+    public void when_writeFails_then_flushFails() {
+        writer.put(entry(data("k1"), data("v1")));
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        assertTrue(writer.tryFlushAsync(future));
+
+        store.writes.get(0).future.completeExceptionally(new IOException("mock failure"));
+
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    private Data data(Object o) {
+        return serializationService.toData(o);
+    }
+
+    private static final class Write {
+        final long snapshotId;
+        final long offset;
+        final byte[] bytes;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Write(long snapshotId, long offset, byte[] bytes) {
+            this.snapshotId = snapshotId;
+            this.offset = offset;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Records the writes instead of writing to disk, the test completes them.
+     */
+    private static final class MockStore extends DiskSnapshotStore {
+        final List<Write> writes = new ArrayList<>();
+
+        MockStore() {
+            super(mockNodeEngine(), "unused");
+        }
+
+        @Override
+        CompletableFuture<Void> writeAsync(
+                long jobId, long snapshotId, String vertexName, long offset, byte[] bytes, Address buddy
+        ) {
+            Write write = new Write(snapshotId, offset, bytes);
+            writes.add(write);
+            return write.future;
+        }
+
+        private static NodeEngine mockNodeEngine() {
+            NodeEngine nodeEngine = mock(NodeEngine.class);
+            MemberImpl localMember = mock(MemberImpl.class);
+            when(localMember.getUuid()).thenReturn("local");
+            when(nodeEngine.getLocalMember()).thenReturn(localMember);
+            when(nodeEngine.getLogger(any(Class.class))).thenReturn(mock(ILogger.class));
+            return nodeEngine;
+        }
+    }
+}
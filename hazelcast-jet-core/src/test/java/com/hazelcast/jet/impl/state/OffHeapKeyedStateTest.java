@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.state;
+
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.accumulator.LongAccumulator;
+import com.hazelcast.jet.accumulator.LongLongAccumulator;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Function;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class OffHeapKeyedStateTest {
+
+    private static final int KEY_COUNT = 10_000;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private OffHeapKeyedState<?, ?> state;
+
+    @After
+    public void after() {
+        if (state != null) {
+            state.dispose();
+        }
+    }
+
+    @Test
+    public void when_longAccumulator_then_updatedInPlace() {
+        OffHeapKeyedState<String, LongAccumulator> s = new OffHeapKeyedState<>(
+                serializationService, LongAccumulator::new, null);
+        state = s;
+        for (int i = 0; i < 3 * KEY_COUNT; i++) {
+            s.accumulate("key" + (i % KEY_COUNT), i, (acc, item) -> acc.add(item));
+        }
+
+        assertEquals(KEY_COUNT, s.size());
+        Map<String, Long> result = toMap(s, LongAccumulator::get);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            assertEquals(Long.valueOf(3L * i + 3 * KEY_COUNT), result.get("key" + i));
+        }
+    }
+
+    @Test
+    public void when_longLongAccumulator_then_bothValuesKept() {
+        OffHeapKeyedState<Integer, LongLongAccumulator> s = new OffHeapKeyedState<>(
+                serializationService, LongLongAccumulator::new, null);
+        state = s;
+        s.accumulate(1, 5L, (acc, item) -> {
+            acc.setValue1(acc.getValue1() + 1);
+            acc.setValue2(acc.getValue2() + item);
+        });
+        s.accumulate(1, 7L, (acc, item) -> {
+            acc.setValue1(acc.getValue1() + 1);
+            acc.setValue2(acc.getValue2() + item);
+        });
+
+        assertEquals(new LongLongAccumulator(2, 12), s.traverser().next().getValue());
+    }
+
+    @Test
+    public void when_growingAccumulator_then_recordRelocated() {
+        OffHeapKeyedState<Integer, List<Integer>> s = new OffHeapKeyedState<>(
+                serializationService, ArrayList::new, null);
+        state = s;
+        for (int i = 0; i < 100; i++) {
+            s.accumulate(i % 2, i, List::add);
+        }
+
+        Map<Integer, List<Integer>> result = toMap(s, acc -> acc);
+        assertEquals(2, result.size());
+        assertEquals(50, result.get(0).size());
+        assertEquals(asList(1, 3, 5), result.get(1).subList(0, 3));
+    }
+
+    @Test
+    public void when_mappedToFile_then_sameResult() throws IOException {
+        OffHeapKeyedState<String, LongAccumulator> s = new OffHeapKeyedState<>(
+                serializationService, LongAccumulator::new, tempFolder.newFolder());
+        state = s;
+        for (int i = 0; i < 2 * KEY_COUNT; i++) {
+            s.accumulate("key" + (i % KEY_COUNT), 1, (acc, item) -> acc.add(item));
+        }
+
+        Map<String, Long> result = toMap(s, LongAccumulator::get);
+        assertEquals(KEY_COUNT, result.size());
+        result.values().forEach(v -> assertEquals(Long.valueOf(2), v));
+    }
+
+    private static <K, A, V> Map<K, V> toMap(KeyedState<K, A> state, Function<A, V> valueFn) {
+        Map<K, V> map = new HashMap<>();
+        Traverser<Entry<K, A>> traverser = state.traverser();
+        for (Entry<K, A> e; (e = traverser.next()) != null; ) {
+            map.put(e.getKey(), valueFn.apply(e.getValue()));
+        }
+        return map;
+    }
+}
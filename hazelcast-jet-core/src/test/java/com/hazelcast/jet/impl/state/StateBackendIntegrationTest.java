@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.state;
+
+import com.hazelcast.jet.Job;
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.config.JetConfig;
+import com.hazelcast.jet.config.JobConfig;
+import com.hazelcast.jet.config.StateBackend;
+import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.jet.core.TestProcessors.StuckForeverSourceP;
+import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.jet.stream.DistributedCollectors;
+import com.hazelcast.jet.stream.IStreamList;
+import com.hazelcast.jet.stream.IStreamMap;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
+import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.core.processor.Processors.aggregateByKeyP;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeMapP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.readListP;
+import static com.hazelcast.jet.function.DistributedFunctions.wholeItem;
+import static com.hazelcast.jet.stream.DistributedCollectors.groupingByToIMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastSerialClassRunner.class)
+public class StateBackendIntegrationTest extends JetTestSupport {
+
+    private static final int ITEM_COUNT = 10_000;
+    private static final int KEY_COUNT = 100;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private JetInstance instance;
+    private File tempDir;
+
+    @Before
+    public void before() {
+        tempDir = tempFolder.getRoot();
+        JetConfig config = new JetConfig();
+        config.getInstanceConfig().setTempDir(tempDir.getAbsolutePath());
+        instance = createJetMembers(config, 2)[0];
+
+        IStreamList<Integer> source = instance.getList("source");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            source.add(i % KEY_COUNT);
+        }
+    }
+
+    @Test
+    public void when_aggregateByKeyOffHeap_then_correctResult() {
+        assertEquals(expectedCounts(), aggregateByKey(StateBackend.OFF_HEAP));
+    }
+
+    @Test
+    public void when_aggregateByKeyOffHeapMapped_then_correctResultAndFilesDeleted() {
+        assertEquals(expectedCounts(), aggregateByKey(StateBackend.OFF_HEAP_MAPPED));
+        assertEquals(0, stateFileCount());
+    }
+
+    @Test
+    public void when_groupingByOffHeap_then_correctResult() {
+        IStreamList<Integer> source = instance.getList("source");
+
+        IStreamMap<Integer, Long> result = source
+                .stream()
+                .configure(new JobConfig().setStateBackend(StateBackend.OFF_HEAP))
+                .collect(groupingByToIMap("result", i -> i, DistributedCollectors.counting()));
+
+        assertEquals(expectedCounts(), new HashMap<>(result));
+    }
+
+    @Test
+    public void when_jobCancelled_then_mappedStateDeleted() {
+        DAG dag = new DAG();
+        Vertex source = dag.newVertex("source", StuckForeverSourceP::new);
+        Vertex aggregate = dag.newVertex("aggregate", aggregateByKeyP(wholeItem(), counting()));
+        dag.edge(between(source, aggregate).distributed().partitioned(wholeItem()));
+
+        Job job = instance.newJob(dag, new JobConfig().setStateBackend(StateBackend.OFF_HEAP_MAPPED));
+        // each processor of the aggregate vertex creates its file in init()
+        assertTrueEventually(() -> assertTrue(stateFileCount() > 0));
+
+        job.cancel();
+        try {
+            job.join();
+            fail("job didn't fail");
+        } catch (CancellationException expected) {
+        }
+
+        assertTrueEventually(() -> assertEquals(0, stateFileCount()));
+    }
+
+    private Map<Integer, Long> aggregateByKey(StateBackend stateBackend) {
+        DAG dag = new DAG();
+        Vertex source = dag.newVertex("source", readListP("source"));
+        Vertex aggregate = dag.newVertex("aggregate", aggregateByKeyP(wholeItem(), counting()));
+        Vertex sink = dag.newVertex("sink", writeMapP("result"));
+        dag.edge(between(source, aggregate).distributed().partitioned(wholeItem()))
+           .edge(between(aggregate, sink));
+
+        instance.newJob(dag, new JobConfig().setStateBackend(stateBackend)).join();
+        return new HashMap<>(instance.<Integer, Long>getMap("result"));
+    }
+
+    private static Map<Integer, Long> expectedCounts() {
+        Map<Integer, Long> expected = new HashMap<>();
+        for (int i = 0; i < KEY_COUNT; i++) {
+            expected.put(i, (long) (ITEM_COUNT / KEY_COUNT));
+        }
+        return expected;
+    }
+
+    private int stateFileCount() {
+        String[] names = tempDir.list((dir, name) -> name.startsWith("jet-state-"));
+        return names == null ? 0 : names.length;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class FlatHashTableTest {
+
+    private final FlatHashTable<Integer, String> table = new FlatHashTable<>();
+
+    @Test
+    public void when_putAndGet_then_valueReturned() {
+        assertNull(table.put(-5, "a"));
+        assertEquals("a", table.put(-5, "b"));
+        assertEquals("b", table.get(-5));
+        assertNull(table.get(5));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void when_nullKey_then_supported() {
+        assertNull(table.put(null, "a"));
+        assertEquals("a", table.get(null));
+        Map<Integer, String> entries = new HashMap<>();
+        table.forEach(entries::put);
+        assertEquals("a", entries.get(null));
+    }
+
+    @Test
+    public void when_manyEntries_then_sameAsHashMap() {
+        Random random = new Random(42);
+        Map<Integer, String> reference = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(20_000);
+            String value = String.valueOf(i);
+            assertEquals(reference.put(key, value), table.put(key, value));
+        }
+        for (int key = -10; key < 20_010; key++) {
+            assertEquals(reference.get(key), table.get(key));
+        }
+        Map<Integer, String> entries = new HashMap<>();
+        table.forEach(entries::put);
+        assertEquals(reference, entries);
+        assertEquals(reference.size(), table.size());
+    }
+}
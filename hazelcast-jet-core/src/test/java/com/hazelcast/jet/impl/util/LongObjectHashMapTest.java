@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class LongObjectHashMapTest {
+
+    private final LongObjectHashMap<String> map = new LongObjectHashMap<>();
+
+    @Test
+    public void when_putAndGet_then_valueReturned() {
+        assertNull(map.put(-5, "a"));
+        assertEquals("a", map.put(-5, "b"));
+        assertEquals("b", map.get(-5));
+        assertNull(map.get(5));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void when_removed_then_otherKeysStillFound() {
+        for (long i = 0; i < 100; i++) {
+            map.put(i * 1000, String.valueOf(i));
+        }
+        for (long i = 0; i < 100; i += 2) {
+            assertEquals(String.valueOf(i), map.remove(i * 1000));
+        }
+        for (long i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 0 ? null : String.valueOf(i), map.get(i * 1000));
+        }
+        assertEquals(50, map.size());
+    }
+
+    @Test
+    public void when_keysAndMinKey_then_allKeysReported() {
+        map.put(30, "a");
+        map.put(-10, "b");
+        map.put(20, "c");
+        long[] keys = map.keys();
+        Arrays.sort(keys);
+        assertArrayEquals(new long[] {-10, 20, 30}, keys);
+        assertEquals(-10, map.minKey());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void when_minKeyOfEmptyMap_then_exception() {
+        map.minKey();
+    }
+
+    @Test
+    public void when_randomOperations_then_sameAsHashMap() {
+        Random random = new Random(42);
+        Map<Long, String> reference = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(500);
+            String value = String.valueOf(i);
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(reference.put(key, value), map.put(key, value));
+                    break;
+                case 1:
+                    assertEquals(reference.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(reference.get(key), map.get(key));
+            }
+            assertEquals(reference.size(), map.size());
+        }
+        assertTrue(map.keys().length == reference.size());
+    }
+}
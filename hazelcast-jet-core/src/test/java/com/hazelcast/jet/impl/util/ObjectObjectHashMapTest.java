@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class ObjectObjectHashMapTest {
+
+    private final ObjectObjectHashMap<Object, String> map = new ObjectObjectHashMap<>();
+
+    @Test
+    public void when_putAndGet_then_valueReturned() {
+        assertNull(map.put("k", "a"));
+        assertEquals("a", map.put("k", "b"));
+        assertEquals("b", map.get("k"));
+        assertNull(map.get("x"));
+        assertTrue(map.containsKey("k"));
+        assertFalse(map.containsKey("x"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void when_nullKey_then_mapped() {
+        assertNull(map.put(null, "a"));
+        assertEquals("a", map.get(null));
+        assertTrue(map.containsKey(null));
+        assertEquals("a", map.remove(null));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void when_putNullValue_then_exception() {
+        map.put("k", null);
+    }
+
+    @Test
+    public void when_removed_then_otherKeysStillFound() {
+        for (int i = 0; i < 100; i++) {
+            map.put(i * 1000, String.valueOf(i));
+        }
+        for (int i = 0; i < 100; i += 2) {
+            assertEquals(String.valueOf(i), map.remove(i * 1000));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 0 ? null : String.valueOf(i), map.get(i * 1000));
+        }
+        assertEquals(50, map.size());
+    }
+
+    @Test
+    public void when_computeReturnsNull_then_removed() {
+        map.put("k", "a");
+        map.compute("k", (k, v) -> null);
+        assertTrue(map.isEmpty());
+        map.computeIfAbsent("k", k -> "b");
+        assertEquals("b", map.get("k"));
+    }
+
+    @Test
+    public void when_clearedAndReused_then_empty() {
+        for (int i = 0; i < 100; i++) {
+            map.put(i, String.valueOf(i));
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+        assertFalse(map.entrySet().iterator().hasNext());
+        map.put(1, "a");
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void when_randomOperations_then_sameAsHashMap() {
+        Random random = new Random(42);
+        Map<Object, String> reference = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            Integer key = random.nextInt(500);
+            String value = String.valueOf(i);
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(reference.put(key, value), map.put(key, value));
+                    break;
+                case 1:
+                    assertEquals(reference.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(reference.get(key), map.get(key));
+            }
+            assertEquals(reference.size(), map.size());
+        }
+        // AbstractMap.equals() compares the mappings through the entry set
+        assertEquals(reference, map);
+        Map<Object, String> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(reference, iterated);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class PartitionedSpillFilesTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private NodeEngine nodeEngine;
+    private File dir;
+
+    @Before
+    public void before() {
+        InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+        nodeEngine = mock(NodeEngine.class);
+        when(nodeEngine.getSerializationService()).thenReturn(serializationService);
+        // a directory that doesn't exist yet
+        dir = new File(tempFolder.getRoot(), "spill");
+    }
+
+    @Test
+    public void when_writtenToPartitions_then_readBackPerPartitionInOrder() {
+        PartitionedSpillFiles files = new PartitionedSpillFiles(dir, "test", 3, 2, nodeEngine);
+        assertTrue(dir.isDirectory());
+
+        files.write(0, "a", 1);
+        files.write(2, "b", 2);
+        files.write(0, "c", null);
+        files.write(2, "d", 4);
+        files.finishWriting();
+
+        assertEquals(asList(asList("a", 1), asList("c", null)), readAll(files, 0));
+        assertEquals(asList(), readAll(files, 1));
+        assertEquals(asList(asList("b", 2), asList("d", 4)), readAll(files, 2));
+        // files of partitions with no records aren't created
+        assertEquals(2, dir.list().length);
+    }
+
+    @Test
+    public void when_readTwice_then_sameRecords() {
+        PartitionedSpillFiles files = new PartitionedSpillFiles(dir, "test", 1, 1, nodeEngine);
+        for (int i = 0; i < 10_000; i++) {
+            files.write(0, i);
+        }
+        files.finishWriting();
+        files.finishWriting();
+
+        List<List<Object>> first = readAll(files, 0);
+        assertEquals(10_000, first.size());
+        assertEquals(asList(9_999), first.get(9_999));
+        assertEquals(first, readAll(files, 0));
+    }
+
+    @Test
+    public void when_deleted_then_filesRemovedAndOtherNamesKept() {
+        PartitionedSpillFiles files = new PartitionedSpillFiles(dir, "test", 2, 1, nodeEngine);
+        PartitionedSpillFiles others = new PartitionedSpillFiles(dir, "other", 2, 1, nodeEngine);
+        files.write(0, "x");
+        files.write(1, "y");
+        others.write(0, "z");
+        others.finishWriting();
+
+        // delete() also finishes writing
+        files.delete();
+
+        assertEquals(asList("other-0"), asList(dir.list()));
+        assertEquals(asList(asList("z")), readAll(others, 0));
+    }
+
+    @Test
+    public void when_partitionOf_then_inRange() {
+        assertEquals(0, PartitionedSpillFiles.partitionOf(null, 7));
+        for (int i = -1000; i < 1000; i++) {
+            int partition = PartitionedSpillFiles.partitionOf(i, 7);
+            assertTrue("partition=" + partition, partition >= 0 && partition < 7);
+            assertEquals(partition, PartitionedSpillFiles.partitionOf(i, 7));
+        }
+    }
+
+    private static List<List<Object>> readAll(PartitionedSpillFiles files, int partition) {
+        List<List<Object>> result = new ArrayList<>();
+        Traverser<Object[]> traverser = files.read(partition);
+        for (Object[] record; (record = traverser.next()) != null; ) {
+            result.add(asList(record));
+        }
+        // the traverser stays exhausted
+        assertNull(traverser.next());
+        return result;
+    }
+}
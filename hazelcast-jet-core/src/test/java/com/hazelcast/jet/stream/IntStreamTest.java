@@ -408,4 +408,16 @@ public class IntStreamTest extends AbstractStreamTest {
         assertEquals((COUNT - 1) / 2d, intSummaryStatistics.getAverage(), 0d);
     }
 
+    @Test
+    public void sum_afterFusedStages() {
+        long result = stream.map(i -> i * 2)
+                            .filter(i -> i % 4 == 0)
+                            .flatMap(i -> IntStream.of(i, i))
+                            .asLongStream()
+                            .sum();
+
+        long expected = IntStream.range(0, COUNT).map(i -> i * 2).filter(i -> i % 4 == 0).asLongStream().sum() * 2;
+        assertEquals(expected, result);
+    }
+
 }
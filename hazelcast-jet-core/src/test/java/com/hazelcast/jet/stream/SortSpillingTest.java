@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.stream;
+
+import com.hazelcast.core.IList;
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.config.JetConfig;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.jet.impl.util.JetGroupProperty.SORT_MAX_BUFFERED_ITEMS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastSerialClassRunner.class)
+public class SortSpillingTest extends JetTestSupport {
+
+    private static final int COUNT = 10_000;
+    private static final int MAX_BUFFERED_ITEMS = 100;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private JetInstance instance;
+    private File spillDir;
+    private IStreamList<Integer> list;
+
+    @Before
+    public void before() {
+        File tempDir = tempFolder.getRoot();
+        spillDir = new File(tempDir, "jet-sort");
+        JetConfig config = new JetConfig();
+        config.getInstanceConfig().setTempDir(tempDir.getAbsolutePath());
+        config.getProperties().setProperty(SORT_MAX_BUFFERED_ITEMS.getName(), Integer.toString(MAX_BUFFERED_ITEMS));
+        instance = createJetMembers(config, 2)[0];
+
+        list = instance.getList(randomName());
+        for (int i = COUNT - 1; i >= 0; i--) {
+            list.add(i);
+        }
+    }
+
+    @Test
+    public void when_overBufferLimit_then_sortedAndSpillFilesDeleted() {
+        IList<Integer> result = list
+                .stream()
+                .sorted()
+                .collect(DistributedCollectors.toIList(randomString()));
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, new ArrayList<>(result));
+        assertEquals(0, spillFileCount());
+    }
+
+    @Test
+    public void when_jobFailsAfterSpill_then_spillFilesDeleted() {
+        try {
+            list.stream()
+                .sorted()
+                .map(i -> {
+                    throw new RuntimeException("mock failure");
+                })
+                .collect(DistributedCollectors.toIList(randomString()));
+            fail("job didn't fail");
+        } catch (Exception expected) {
+        }
+
+        assertTrueEventually(() -> assertEquals(0, spillFileCount()));
+    }
+
+    private int spillFileCount() {
+        String[] names = spillDir.list();
+        return names == null ? 0 : names.length;
+    }
+}
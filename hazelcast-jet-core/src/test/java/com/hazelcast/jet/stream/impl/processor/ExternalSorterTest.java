@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.stream.impl.processor;
+
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class ExternalSorterTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+
+    @Test
+    public void when_overBufferLimit_then_spilledAndMerged() throws IOException {
+        File dir = tempFolder.newFolder();
+        ExternalSorter<Integer> sorter = new ExternalSorter<>(null, 100,
+                () -> new SpillFile<>(serializationService, dir));
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 1050; i++) {
+            int item = random.nextInt(500);
+            expected.add(item);
+            sorter.add(item);
+        }
+        Collections.sort(expected);
+
+        assertEquals(10, sorter.spilledRunCount());
+        assertEquals(expected, toList(sorter.sortedTraverser()));
+
+        sorter.dispose();
+        assertEquals(0, dir.listFiles().length);
+    }
+
+    @Test
+    public void when_noSpillFiles_then_allBuffered() {
+        ExternalSorter<String> sorter = new ExternalSorter<>(Comparator.reverseOrder(), 1, null);
+        sorter.add("a");
+        sorter.add("c");
+        sorter.add("b");
+
+        assertEquals(0, sorter.spilledRunCount());
+        assertEquals(asList("c", "b", "a"), toList(sorter.sortedTraverser()));
+    }
+
+    @Test
+    public void when_mergeSorted_then_singleSortedSequence() {
+        List<Traverser<Integer>> runs = asList(
+                traverseIterable(asList(1, 4, 7)),
+                traverseIterable(Collections.<Integer>emptyList()),
+                traverseIterable(asList(2, 2, 8)),
+                traverseIterable(asList(0, 9)));
+
+        assertEquals(asList(0, 1, 2, 2, 4, 7, 8, 9), toList(ExternalSorter.mergeSorted(runs, Integer::compare)));
+    }
+
+    private static <T> List<T> toList(Traverser<T> traverser) {
+        List<T> list = new ArrayList<>();
+        for (T t; (t = traverser.next()) != null; ) {
+            list.add(t);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.stream.impl.processor;
+
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.jet.core.test.TestInbox;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class MergeSortedPTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+
+    private File dir;
+    private TestInbox inbox;
+    private TestOutbox outbox;
+
+    @Before
+    public void before() throws IOException {
+        dir = tempFolder.newFolder();
+        inbox = new TestInbox();
+        outbox = new TestOutbox(128);
+    }
+
+    @Test
+    public void when_chunksFromManySources_then_runsMerged() {
+        MergeSortedP<Integer> p = new MergeSortedP<>(null);
+        p.init(outbox, new TestProcessorContext());
+
+        process(p, new SortedChunk<>(0, asList(1, 4)));
+        process(p, new SortedChunk<>(1, asList(2, 3)));
+        process(p, new SortedChunk<>(0, asList(5, 9)));
+        process(p, new SortedChunk<>(1, asList(6)));
+
+        assertEquals(asList(1, 2, 3, 4, 5, 6, 9), complete(p));
+    }
+
+    @Test
+    public void when_overBufferLimit_then_largestRunSpilledAndMergedBeforeBuffer() {
+        MergeSortedP<Integer> p = new MergeSortedP<>(null, 4, () -> new SpillFile<>(serializationService, dir));
+        p.init(outbox, new TestProcessorContext());
+
+        process(p, new SortedChunk<>(0, asList(1, 2, 3)));
+        assertEquals(0, fileCount());
+        // 5 items buffered, the 3 items of the source 0 are spilled
+        process(p, new SortedChunk<>(1, asList(0, 5)));
+        assertEquals(1, fileCount());
+        // the source 0 is again the largest, appended to its existing file
+        process(p, new SortedChunk<>(0, asList(6, 7, 8)));
+        assertEquals(1, fileCount());
+        // the source 0 now has 6 items in the file and 1 in the buffer
+        process(p, new SortedChunk<>(0, asList(9)));
+
+        assertEquals(asList(0, 1, 2, 3, 5, 6, 7, 8, 9), complete(p));
+        assertEquals(0, fileCount());
+    }
+
+    private void process(MergeSortedP<Integer> p, SortedChunk<Integer> chunk) {
+        inbox.add(chunk);
+        p.process(0, inbox);
+        assertEquals(0, inbox.size());
+    }
+
+    private List<Integer> complete(MergeSortedP<Integer> p) {
+        List<Integer> result = new ArrayList<>();
+        boolean done;
+        do {
+            done = p.complete();
+            outbox.drainQueueAndReset(0, result, false);
+        } while (!done);
+        return result;
+    }
+
+    private int fileCount() {
+        return dir.listFiles().length;
+    }
+}